@@ -1,7 +1,9 @@
 package com.rbac.controller;
 
+import com.rbac.security.core.BatchService;
 import com.rbac.security.model.ApiRequest;
-import com.rbac.security.proxy.SecurityChain;
+import com.rbac.security.model.BatchRequest;
+import com.rbac.security.proxy.SecurityPipelines;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
@@ -9,7 +11,6 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -23,12 +24,12 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "RBAC权限系统接口", description = "用户/角色/权限管理接口（支持精细化错误码、链路追踪ID）")
 public class RbacApiController {
 
+    // 按操作编译的安全责任链（不可变单例，按权限编码选取）
     @Autowired
-    private ApplicationContext applicationContext;
-
-    private SecurityChain getNewSecurityChain() {
-        return applicationContext.getBean(SecurityChain.class);
-    }
+    private SecurityPipelines securityPipelines;
+    // 批量请求执行器（整批认证一次，各条目分别授权、校验后执行）
+    @Autowired
+    private BatchService batchService;
 
     // ===================== 用户管理接口（对应system:user:*权限） =====================
     @PostMapping("/user/list")
@@ -69,8 +70,7 @@ public class RbacApiController {
         request.setPermCode("system:user:list");
         request.setBizParams("{}"); // 无业务参数，默认空JSON
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/create")
@@ -110,8 +110,7 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse createUser(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:create");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/password/reset")
@@ -151,14 +150,13 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse resetUserPassword(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:password");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/role/update")
     @Operation(
             summary = "修改用户角色",
-            description = "为指定用户分配新角色，需system:user:role权限，bizParams需传入userid和roleid",
+            description = "为指定用户分配新角色，需system:user:role权限，bizParams需传入userid和roleid；传入roleids数组时为用户分配多个角色（权限取各角色并集）",
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     required = true,
                     content = @Content(
@@ -192,8 +190,47 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse updateUserRole(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:role");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
+    }
+
+    @PostMapping("/user/role/temporary")
+    @Operation(
+            summary = "授予限时角色",
+            description = "为指定用户授予在时间窗口内有效的角色（到期自动失效），需system:user:role:temporary权限，bizParams需传入userid、roleid、validUntil（毫秒时间戳），可选validFrom（毫秒时间戳，缺省为立即生效）",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = ApiRequest.class),
+                            examples = @ExampleObject(
+                                    name = "授予限时角色示例",
+                                    value = "{\"token\":\"eyJhbGciOiJIUzI1NiJ9.admin.123456789\",\"permCode\":\"system:user:role:temporary\",\"bizParams\":\"{\\\"userid\\\":1,\\\"roleid\\\":2,\\\"validUntil\\\":1735776000000}\",\"timestamp\":1735689600000}"
+                            )
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "授予结果，返回成功/失败提示",
+                            content = @Content(
+                                    schema = @Schema(implementation = com.rbac.security.model.ApiResponse.class),
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "成功示例",
+                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"业务执行成功\",\"data\":\"用户[1]授予角色[2]成功，有效期至2025-01-02 08:00:00.0\",\"costTime\":30,\"traceId\":\"REQ_1735689600006_7c6d5e4f\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            ),
+                                            @ExampleObject(
+                                                    name = "失败示例（有效期已过）",
+                                                    value = "{\"success\":false,\"errorCode\":\"USER_ROLE_TEMP_FAILED\",\"msg\":\"用户[1]授予限时角色[2]失败\",\"data\":null,\"costTime\":20,\"traceId\":\"REQ_1735689600007_8d7e6f5g\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            )
+                                    }
+                            )
+                    )
+            }
+    )
+    public com.rbac.security.model.ApiResponse grantTemporaryRole(@RequestBody ApiRequest request) {
+        request.setPermCode("system:user:role:temporary");
+        fillDefaultParams(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/role/get")
@@ -233,8 +270,7 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse getUserRole(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:getrole");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/permission/get")
@@ -274,8 +310,47 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse getUserPermissions(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:own:permission");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
+    }
+
+    @PostMapping("/user/permission/check")
+    @Operation(
+            summary = "批量校验自身权限",
+            description = "一次性校验当前登录用户对一批权限编码（如页面全部菜单/按钮）是否拥有，按父权限包含子权限的语义判断；仅需登录，bizParams可传codes字符串数组（最多1000个），不传则返回全部有效权限",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = ApiRequest.class),
+                            examples = @ExampleObject(
+                                    name = "批量校验自身权限示例",
+                                    value = "{\"token\":\"eyJhbGciOiJIUzI1NiJ9.admin.123456789\",\"permCode\":\"system:user:own:permission:check\",\"bizParams\":\"{\\\"codes\\\":[\\\"system:user:list\\\",\\\"system:role:create\\\",\\\"system:permission:edit\\\"]}\",\"timestamp\":1735689600000}"
+                            )
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "校验结果，返回拥有的权限编码（保持请求中的顺序）",
+                            content = @Content(
+                                    schema = @Schema(implementation = com.rbac.security.model.ApiResponse.class),
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "成功示例",
+                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"业务执行成功\",\"data\":[\"system:user:list\",\"system:role:create\"],\"costTime\":3,\"traceId\":\"REQ_1735689600012_3i2h1g0f\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            ),
+                                            @ExampleObject(
+                                                    name = "失败示例（参数格式错误）",
+                                                    value = "{\"success\":false,\"errorCode\":null,\"msg\":\"参数校验失败：codes必须是数组格式\",\"data\":null,\"costTime\":2,\"traceId\":null,\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            )
+                                    }
+                            )
+                    )
+            }
+    )
+    public com.rbac.security.model.ApiResponse checkOwnPermissions(@RequestBody ApiRequest request) {
+        request.setPermCode("system:user:own:permission:check");
+        fillDefaultParams(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/password/update")
@@ -315,8 +390,7 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse updateOwnPassword(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:own:password");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/login")
@@ -336,13 +410,13 @@ public class RbacApiController {
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "登录结果，返回成功/失败提示",
+                            description = "登录结果，成功时data为签名令牌（后续请求放入token字段）",
                             content = @Content(
                                     schema = @Schema(implementation = com.rbac.security.model.ApiResponse.class),
                                     examples = {
                                             @ExampleObject(
                                                     name = "成功示例",
-                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"业务执行成功\",\"data\":\"登录成功\",\"costTime\":20,\"traceId\":\"REQ_1735689600014_5k4j3i2h\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"业务执行成功\",\"data\":\"MXwxfDF8MTczNTY4OTYwMDAwMDowfDE3MzU2OTY4MDAwMDB8YWRtaW4.3q2-7wH9kF1c0sX8pG4vTzYlQmN5bR6aJdUeK2oLhWs\",\"costTime\":20,\"traceId\":\"REQ_1735689600014_5k4j3i2h\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
                                             ),
                                             @ExampleObject(
                                                     name = "失败示例（用户名或密码错误）",
@@ -356,8 +430,7 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse login(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:own:login");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/user/delete")
@@ -397,8 +470,7 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse deleteUser(@RequestBody ApiRequest request) {
         request.setPermCode("system:user:delete");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     // ===================== 角色管理接口（对应system:role:*权限） =====================
@@ -440,8 +512,7 @@ public class RbacApiController {
         request.setPermCode("system:role:list");
         request.setBizParams("{}"); // 无业务参数，默认空JSON
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/role/create")
@@ -481,8 +552,7 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse createRole(@RequestBody ApiRequest request) {
         request.setPermCode("system:role:create");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/role/permission/assign")
@@ -522,8 +592,87 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse assignRolePermissions(@RequestBody ApiRequest request) {
         request.setPermCode("system:role:permission");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
+    }
+
+    @PostMapping("/role/inherit/update")
+    @Operation(
+            summary = "设置角色继承",
+            description = "替换角色的父角色列表，角色继承父角色（及其祖先）的全部权限，需system:role:inherit权限，bizParams需传入roleId、parentRoleIds（空数组表示取消继承），构成循环继承时拒绝",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = ApiRequest.class),
+                            examples = @ExampleObject(
+                                    name = "设置角色继承示例",
+                                    value = "{\"token\":\"eyJhbGciOiJIUzI1NiJ9.admin.123456789\",\"permCode\":\"system:role:inherit\",\"bizParams\":\"{\\\"roleId\\\":3,\\\"parentRoleIds\\\":[2]}\",\"timestamp\":1735689600000}"
+                            )
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "设置结果，返回成功/失败提示",
+                            content = @Content(
+                                    schema = @Schema(implementation = com.rbac.security.model.ApiResponse.class),
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "成功示例",
+                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"业务执行成功\",\"data\":\"角色[3]继承关系更新成功，父角色：[2]\",\"costTime\":30,\"traceId\":\"REQ_1735689600030_5k4j3i2h\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            ),
+                                            @ExampleObject(
+                                                    name = "失败示例（循环继承）",
+                                                    value = "{\"success\":false,\"errorCode\":\"ROLE_INHERIT_CYCLE\",\"msg\":\"角色[2]继承[3]会构成循环继承\",\"data\":null,\"costTime\":15,\"traceId\":\"REQ_1735689600031_6l5k4j3i\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            )
+                                    }
+                            )
+                    )
+            }
+    )
+    public com.rbac.security.model.ApiResponse updateRoleInheritance(@RequestBody ApiRequest request) {
+        request.setPermCode("system:role:inherit");
+        fillDefaultParams(request);
+        return securityPipelines.proceed(request);
+    }
+
+    @PostMapping("/role/permission/deny")
+    @Operation(
+            summary = "设置角色拒绝权限",
+            description = "替换角色的拒绝权限列表，拒绝优先于允许（含继承和多角色），拒绝父权限即拒绝其整棵子树，需system:role:deny权限，bizParams需传入roleId、permIdList（空数组表示清空拒绝）",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = ApiRequest.class),
+                            examples = @ExampleObject(
+                                    name = "设置角色拒绝权限示例",
+                                    value = "{\"token\":\"eyJhbGciOiJIUzI1NiJ9.admin.123456789\",\"permCode\":\"system:role:deny\",\"bizParams\":\"{\\\"roleId\\\":2,\\\"permIdList\\\":[5]}\",\"timestamp\":1735689600000}"
+                            )
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "设置结果，返回成功/失败提示",
+                            content = @Content(
+                                    schema = @Schema(implementation = com.rbac.security.model.ApiResponse.class),
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "成功示例",
+                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"业务执行成功\",\"data\":\"角色[2]拒绝权限更新成功，拒绝权限：[5]\",\"costTime\":30,\"traceId\":\"REQ_1735689600032_7m6l5k4j\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            ),
+                                            @ExampleObject(
+                                                    name = "失败示例（与允许权限冲突）",
+                                                    value = "{\"success\":false,\"errorCode\":\"ROLE_PERM_CONFLICT\",\"msg\":\"权限ID【[5]】已分配给角色[2]，请先取消分配\",\"data\":null,\"costTime\":15,\"traceId\":\"REQ_1735689600033_8n7m6l5k\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            )
+                                    }
+                            )
+                    )
+            }
+    )
+    public com.rbac.security.model.ApiResponse denyRolePermissions(@RequestBody ApiRequest request) {
+        request.setPermCode("system:role:deny");
+        fillDefaultParams(request);
+        return securityPipelines.proceed(request);
     }
 
     // ===================== 权限管理接口（对应system:permission:*权限） =====================
@@ -565,8 +714,47 @@ public class RbacApiController {
         request.setPermCode("system:permission:list");
         request.setBizParams("{}"); // 无业务参数，默认空JSON
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
+    }
+
+    @PostMapping("/permission/holders")
+    @Operation(
+            summary = "查询权限持有者",
+            description = "查询持有指定权限的角色和用户（含通过父权限间接持有），需system:permission:holders权限，bizParams需传入code，可选page（从1开始）、size（1~500，默认50）",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = ApiRequest.class),
+                            examples = @ExampleObject(
+                                    name = "查询权限持有者示例",
+                                    value = "{\"token\":\"eyJhbGciOiJIUzI1NiJ9.admin.123456789\",\"permCode\":\"system:permission:holders\",\"bizParams\":\"{\\\"code\\\":\\\"system:user:delete\\\",\\\"page\\\":1,\\\"size\\\":50}\",\"timestamp\":1735689600000}"
+                            )
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "查询结果，返回持有该权限的角色列表、用户总数和当前页用户",
+                            content = @Content(
+                                    schema = @Schema(implementation = com.rbac.security.model.ApiResponse.class),
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "成功示例",
+                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"业务执行成功\",\"data\":{\"permissionCode\":\"system:user:delete\",\"page\":1,\"size\":50,\"total\":1,\"roles\":[{\"roleId\":1,\"roleName\":\"超级管理员\",\"userCount\":1}],\"users\":[{\"userId\":1,\"username\":\"admin\",\"roleId\":1}]},\"costTime\":5,\"traceId\":\"REQ_1735689600020_4j3i2h1g\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            ),
+                                            @ExampleObject(
+                                                    name = "失败示例（无权限）",
+                                                    value = "{\"success\":false,\"errorCode\":null,\"msg\":\"授权失败：无权访问\",\"data\":null,\"costTime\":10,\"traceId\":null,\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{}}"
+                                            )
+                                    }
+                            )
+                    )
+            }
+    )
+    public com.rbac.security.model.ApiResponse getPermissionHolders(@RequestBody ApiRequest request) {
+        request.setPermCode("system:permission:holders");
+        fillDefaultParams(request);
+        return securityPipelines.proceed(request);
     }
 
     @PostMapping("/permission/create")
@@ -606,8 +794,48 @@ public class RbacApiController {
     public com.rbac.security.model.ApiResponse createPermission(@RequestBody ApiRequest request) {
         request.setPermCode("system:permission:create");
         fillDefaultParams(request);
-        SecurityChain securityChain = getNewSecurityChain();
-        return securityChain.proceed(request);
+        return securityPipelines.proceed(request);
+    }
+
+    // ===================== 批量接口（整批认证一次，条目按各自权限编码授权） =====================
+    @PostMapping("/batch")
+    @Operation(
+            summary = "批量执行",
+            description = "一次调用执行多个请求（最多1000项）：整批只认证一次，每个条目仍按自身permCode授权、校验参数并计入该操作的限流（超出的条目返回RATE_LIMITED）；"
+                    + "transactional=true时在一个事务中顺序执行，任一条目失败则全部回滚；parallel=true时并行执行互不依赖的条目。"
+                    + "data为按条目顺序的各条目响应，ext中返回total/succeeded/failed",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = BatchRequest.class),
+                            examples = @ExampleObject(
+                                    name = "批量新增用户并分配角色示例",
+                                    value = "{\"token\":\"eyJhbGciOiJIUzI1NiJ9.admin.123456789\",\"transactional\":true,\"parallel\":false,\"items\":[{\"permCode\":\"system:user:create\",\"bizParams\":\"{\\\"username\\\":\\\"zhangsan\\\",\\\"password\\\":\\\"123456\\\"}\"},{\"permCode\":\"system:user:role\",\"bizParams\":\"{\\\"userid\\\":2,\\\"roleids\\\":[2]}\"}]}"
+                            )
+                    )
+            ),
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "批量执行结果，data为各条目的响应（顺序与请求一致）",
+                            content = @Content(
+                                    schema = @Schema(implementation = com.rbac.security.model.ApiResponse.class),
+                                    examples = {
+                                            @ExampleObject(
+                                                    name = "成功示例",
+                                                    value = "{\"success\":true,\"errorCode\":null,\"msg\":\"批量执行成功（已提交2项）\",\"data\":[{\"success\":true,\"msg\":\"业务执行成功\",\"data\":\"新增用户[zhangsan]成功\"},{\"success\":true,\"msg\":\"业务执行成功\",\"data\":\"用户[2]角色更新为[2]成功\"}],\"traceId\":\"REQ_1735689600030_5u4t3s2r\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{\"total\":2,\"succeeded\":2,\"failed\":0}}"
+                                            ),
+                                            @ExampleObject(
+                                                    name = "失败示例（事务回滚）",
+                                                    value = "{\"success\":false,\"errorCode\":\"BATCH_ROLLED_BACK\",\"msg\":\"第1项执行失败，已全部回滚\",\"data\":[{\"success\":false,\"errorCode\":\"USER_NAME_DUPLICATE\",\"msg\":\"用户名【zhangsan】已存在\"},{\"success\":false,\"errorCode\":\"NOT_EXECUTED\",\"msg\":\"第1项执行失败，本项未执行\"}],\"traceId\":\"REQ_1735689600031_6v5u4t3s\",\"timestamp\":\"2025-12-01T10:00:00\",\"ext\":{\"total\":2,\"succeeded\":0,\"failed\":2}}"
+                                            )
+                                    }
+                            )
+                    )
+            }
+    )
+    public com.rbac.security.model.ApiResponse executeBatch(@RequestBody BatchRequest request) {
+        return batchService.execute(request);
     }
 
     /**
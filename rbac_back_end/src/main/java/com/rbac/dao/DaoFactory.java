@@ -23,4 +23,7 @@ public interface DaoFactory {
 
     // 创建RolePermissionDAO对象
     RolePermissionDAO createRolePermissionDAO();
+
+    // 创建RoleInheritanceDAO对象
+    RoleInheritanceDAO createRoleInheritanceDAO();
 }
\ No newline at end of file
@@ -27,4 +27,9 @@ public class MySqlDaoFactory implements DaoFactory {
     public RolePermissionDAO createRolePermissionDAO() {
         return new MySqlRolePermissionDaoImpl();
     }
+
+    @Override
+    public RoleInheritanceDAO createRoleInheritanceDAO() {
+        return new MySqlRoleInheritanceDaoImpl();
+    }
 }
@@ -19,12 +19,18 @@ public interface PermissionDAO {
     // 4. 根据ID查询权限
     Permission selectPermissionById(Integer id);
 
-    // 5. 查询所有权限
+    // 5. 查询所有权限（全部租户）
     List<Permission> selectAllPermissions();
 
+    // 5.1 查询指定租户的全部权限（构建该租户的权限树）
+    List<Permission> selectPermissionsByTenantId(Integer tenantId);
+
     // 6. （可选）根据父权限ID查询子权限（适配权限树结构）
     List<Permission> selectPermissionsByParentId(Integer parentId);
 
-    // 7. （可选）根据权限编码查询（code是UNIQUE）
-    Permission selectPermissionByCode(String code);
+    // 7. （可选）根据权限编码查询（(tenant_id, code)是UNIQUE）
+    Permission selectPermissionByCode(Integer tenantId, String code);
+
+    // 8. 查询租户的权限树版本号（该租户permissions每次增删改后递增，用于校验本地权限树快照；不可用时返回-1）
+    long selectTreeVersion(Integer tenantId);
 }
\ No newline at end of file
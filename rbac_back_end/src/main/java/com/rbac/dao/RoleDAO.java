@@ -19,8 +19,11 @@ public interface RoleDAO {
     // 4. 根据ID查询角色
     Role selectRoleById(Integer id);
 
-    // 5. 查询所有角色
+    // 5. 查询所有角色（全部租户）
     List<Role> selectAllRoles();
+
+    // 5.1 查询指定租户的角色
+    List<Role> selectRolesByTenantId(Integer tenantId);
     // 6. 根据角色名查询角色
     Role selectRoleByRoleName(String roleName);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.rbac.dao;
+
+import com.rbac.model.entity.RoleInheritance;
+import java.util.List;
+
+/**
+ * 角色继承关系DAO接口
+ */
+public interface RoleInheritanceDAO {
+    // 新增继承关系：roleId继承parentRoleId
+    int insertRoleInheritance(RoleInheritance roleInheritance);
+    // 删除角色的全部父角色关系
+    int deleteParentsByRoleId(Integer roleId);
+    // 删除与角色相关的全部继承关系（角色删除时使用，包含作为父角色的关系）
+    int deleteAllByRoleId(Integer roleId);
+    // 查询全部继承关系
+    List<RoleInheritance> selectAllRoleInheritances();
+}
@@ -11,10 +11,14 @@ public interface RolePermissionDAO {
     int insertRolePermission(RolePermission rolePermission);
     // 取消权限：删除角色-权限关联
     int deleteRolePermission(Integer roleId, Integer permissionId);
-    // 查询角色的所有权限ID
+    // 查询角色的所有允许权限ID
     List<Integer> selectPermissionIdsByRoleId(Integer roleId);
+    // 查询角色的所有拒绝权限ID
+    List<Integer> selectDeniedPermissionIdsByRoleId(Integer roleId);
     // 校验角色是否已分配该权限
     boolean existsRolePermission(Integer roleId, Integer permissionId);
-    // 清空角色所有权限
+    // 清空角色所有权限（允许+拒绝）
     int deletePermissionsByRoleId(Integer roleId);
+    // 清空角色的允许权限或拒绝权限
+    int deletePermissionsByRoleId(Integer roleId, boolean deny);
 }
\ No newline at end of file
@@ -19,9 +19,12 @@ public interface UserDAO {
     // 4. 根据ID查询用户
     User selectUserById(Integer id);
 
-    // 5. 查询所有用户
+    // 5. 查询所有用户（全部租户）
     List<User> selectAllUsers();
 
+    // 5.1 查询指定租户的用户
+    List<User> selectUsersByTenantId(Integer tenantId);
+
     // 6. （可选）根据用户名查询用户（因为username是UNIQUE）
     User selectUserByUsername(String username);
 }
\ No newline at end of file
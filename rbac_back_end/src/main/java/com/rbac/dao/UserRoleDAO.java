@@ -1,6 +1,8 @@
 package com.rbac.dao;
 
 import com.rbac.model.entity.UserRole;
+
+import java.sql.Timestamp;
 import java.util.List;
 
 /**
@@ -9,10 +11,20 @@ import java.util.List;
 public interface UserRoleDAO {
     // 分配角色：新增用户-角色关联
     int insertUserRole(UserRole userRole);
-    // 取消角色：删除用户的角色关联
+    // 取消角色：删除用户的全部角色关联
     int deleteUserRole(Integer userId);
-    // 查询用户的角色ID
-    Integer selectRoleIdsByUserId(Integer userId);
+    // 取消用户的指定角色
+    int deleteUserRole(Integer userId, Integer roleId);
+    // 查询用户当前有效的全部角色ID（升序，未分配角色返回空数组；不含未生效/已过期的限时角色）
+    int[] selectRoleIdsByUserId(Integer userId);
     // 校验用户是否已分配角色
     boolean existsUserRole(Integer userId);
+    // 查询全部当前有效的用户-角色关联（构建权限持有者反向索引时一次性加载）
+    List<UserRole> selectAllUserRoles();
+    // 查询指定租户当前有效的用户-角色关联（按租户构建权限持有者反向索引）
+    List<UserRole> selectUserRolesByTenantId(Integer tenantId);
+    // 查询生效时间或失效时间晚于now的限时关联（启动时登记到时间轮，走valid_from/valid_until索引）
+    List<UserRole> selectPendingUserRoles(Timestamp now);
+    // 查询指定用户生效时间或失效时间晚于now的限时关联
+    List<UserRole> selectPendingUserRolesByUserId(Integer userId, Timestamp now);
 }
\ No newline at end of file
@@ -2,26 +2,30 @@ package com.rbac.dao.impl;
 
 import com.rbac.dao.PermissionDAO;
 import com.rbac.model.entity.Permission;
+import com.rbac.model.entity.Tenant;
 import com.rbac.util.DBHelper;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class MySqlPermissionDaoImpl implements PermissionDAO {
+    private static final String COLUMNS = "id, name, code, parent_id, tenant_id";
     private final DBHelper dbHelper = DBHelper.getInstance();
 
     @Override
     public int insertPermission(Permission permission) {
-        String sql = "insert into permissions (name, code, parent_id) values(?, ?, ?)";
+        String sql = "insert into permissions (name, code, parent_id, tenant_id) values(?, ?, ?, ?)";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, permission.getName());
             pstmt.setString(2, permission.getCode());
             // 修复：parent_id为null时设为0
             pstmt.setInt(3, permission.getParentId() == null ? 0 : permission.getParentId());
+            pstmt.setInt(4, Tenant.idOrDefault(permission.getTenantId()));
             int affected = pstmt.executeUpdate();
 
             // 回填自增ID
@@ -29,6 +33,9 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
             if (rs.next()) {
                 permission.setId(rs.getInt(1));
             }
+            if (affected > 0) {
+                increaseTreeVersion(conn, Tenant.idOrDefault(permission.getTenantId()));
+            }
             return affected;
         } catch (Exception e) {
             e.printStackTrace();
@@ -41,8 +48,14 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
         String sql = "delete from permissions where id = ?";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            // 删除前取所属租户（只递增该租户的权限树版本号）
+            Integer tenantId = selectTenantId(conn, id);
             pstmt.setInt(1, id);
-            return pstmt.executeUpdate();
+            int affected = pstmt.executeUpdate();
+            if (affected > 0) {
+                increaseTreeVersion(conn, tenantId);
+            }
+            return affected;
         } catch (Exception e) {
             e.printStackTrace();
             return 0;
@@ -58,7 +71,11 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
             pstmt.setString(2, permission.getCode());
             pstmt.setInt(3, permission.getParentId() == null ? 0 : permission.getParentId());
             pstmt.setInt(4, permission.getId());
-            return pstmt.executeUpdate();
+            int affected = pstmt.executeUpdate();
+            if (affected > 0) {
+                increaseTreeVersion(conn, selectTenantId(conn, permission.getId()));
+            }
+            return affected;
         } catch (Exception e) {
             e.printStackTrace();
             return 0;
@@ -67,18 +84,13 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
 
     @Override
     public Permission selectPermissionById(Integer id) {
-        String sql = "select id, name, code, parent_id from permissions where id = ?";
+        String sql = "select " + COLUMNS + " from permissions where id = ?";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Permission(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("code"),
-                            rs.getInt("parent_id")
-                    );
+                    return mapPermission(rs);
                 }
             }
         } catch (Exception e) {
@@ -89,18 +101,13 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
 
     @Override
     public List<Permission> selectAllPermissions() {
-        String sql = "select id, name, code, parent_id from permissions";
+        String sql = "select " + COLUMNS + " from permissions";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             List<Permission> permissions = new ArrayList<>();
             while (rs.next()) {
-                permissions.add(new Permission(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("code"),
-                        rs.getInt("parent_id")
-                ));
+                permissions.add(mapPermission(rs));
             }
             return permissions;
         } catch (Exception e) {
@@ -109,21 +116,35 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
         }
     }
 
+    @Override
+    public List<Permission> selectPermissionsByTenantId(Integer tenantId) {
+        String sql = "select " + COLUMNS + " from permissions where tenant_id = ?";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, Tenant.idOrDefault(tenantId));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                List<Permission> permissions = new ArrayList<>();
+                while (rs.next()) {
+                    permissions.add(mapPermission(rs));
+                }
+                return permissions;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
     @Override
     public List<Permission> selectPermissionsByParentId(Integer parentId) {
-        String sql = "select id, name, code, parent_id from permissions where parent_id = ?";
+        String sql = "select " + COLUMNS + " from permissions where parent_id = ?";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, parentId == null ? 0 : parentId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 List<Permission> permissions = new ArrayList<>();
                 while (rs.next()) {
-                    permissions.add(new Permission(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("code"),
-                            rs.getInt("parent_id")
-                    ));
+                    permissions.add(mapPermission(rs));
                 }
                 return permissions;
             }
@@ -134,19 +155,15 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
     }
 
     @Override
-    public Permission selectPermissionByCode(String code) {
-        String sql = "select id, name, code, parent_id from permissions where code = ?";
+    public Permission selectPermissionByCode(Integer tenantId, String code) {
+        String sql = "select " + COLUMNS + " from permissions where tenant_id = ? and code = ?";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, code);
+            pstmt.setInt(1, Tenant.idOrDefault(tenantId));
+            pstmt.setString(2, code);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Permission(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("code"),
-                            rs.getInt("parent_id")
-                    );
+                    return mapPermission(rs);
                 }
             }
         } catch (Exception e) {
@@ -154,4 +171,56 @@ public class MySqlPermissionDaoImpl implements PermissionDAO {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    @Override
+    public long selectTreeVersion(Integer tenantId) {
+        String sql = "select version from permission_tree_version where id = ?";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, Tenant.idOrDefault(tenantId));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong("version");
+                }
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * 权限表变更后递增权限树版本号（失败不影响主操作，仅导致下次启动不使用快照）
+     */
+    private void increaseTreeVersion(Connection conn, Integer tenantId) {
+        // 租户首次修改权限时插入版本记录
+        String sql = "insert into permission_tree_version (id, version) values (?, 1) "
+                + "on duplicate key update version = version + 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, Tenant.idOrDefault(tenantId));
+            pstmt.executeUpdate();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Integer selectTenantId(Connection conn, Integer permissionId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("select tenant_id from permissions where id = ?")) {
+            pstmt.setInt(1, permissionId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt("tenant_id") : null;
+            }
+        }
+    }
+
+    private Permission mapPermission(ResultSet rs) throws SQLException {
+        Permission permission = new Permission(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("code"),
+                rs.getInt("parent_id")
+        );
+        permission.setTenantId(rs.getInt("tenant_id"));
+        return permission;
+    }
+}
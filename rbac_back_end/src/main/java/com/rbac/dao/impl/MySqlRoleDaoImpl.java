@@ -2,22 +2,26 @@ package com.rbac.dao.impl;
 
 import com.rbac.dao.RoleDAO;
 import com.rbac.model.entity.Role;
+import com.rbac.model.entity.Tenant;
 import com.rbac.util.DBHelper;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.List;
 
 public class MySqlRoleDaoImpl implements RoleDAO {
+    private static final String COLUMNS = "id, name, description, tenant_id";
     //复用单例DBHelper
     private final DBHelper dbHelper = DBHelper.getInstance();
 
     @Override
     public int insertRole(Role role) {
-        String sql = "insert into roles (name, description) values(?, ?)";
+        String sql = "insert into roles (name, description, tenant_id) values(?, ?, ?)";
         try (Connection conn = dbHelper.getConnection();
              java.sql.PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, role.getName());
             pstmt.setString(2, role.getDescription());
+            pstmt.setInt(3, Tenant.idOrDefault(role.getTenantId()));
             return pstmt.executeUpdate();
         } catch (Exception e) {
             e.printStackTrace();
@@ -55,17 +59,13 @@ public class MySqlRoleDaoImpl implements RoleDAO {
 
     @Override
     public Role selectRoleById(Integer id) {
-        String sql = "select id, name, description from roles where id = ?";
+        String sql = "select " + COLUMNS + " from roles where id = ?";
         try (Connection conn = dbHelper.getConnection();
              java.sql.PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             try (java.sql.ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Role(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("description")
-                    );
+                    return mapRole(rs);
                 }
             }
         } catch (Exception e) {
@@ -76,17 +76,13 @@ public class MySqlRoleDaoImpl implements RoleDAO {
 
     @Override
     public List<Role> selectAllRoles() {
-        String sql = "select id, name, description from roles";
+        String sql = "select " + COLUMNS + " from roles";
         try (Connection conn = dbHelper.getConnection();
              java.sql.PreparedStatement pstmt = conn.prepareStatement(sql);
              java.sql.ResultSet rs = pstmt.executeQuery()) {
             List<Role> roles =  new java.util.ArrayList<Role>();
             while (rs.next()) {
-                roles.add(new Role(
-                        rs.getInt("id"),
-                        rs.getString("name"),
-                        rs.getString("description")
-                ));
+                roles.add(mapRole(rs));
             }
             return roles;
         } catch (Exception e) {
@@ -95,19 +91,34 @@ public class MySqlRoleDaoImpl implements RoleDAO {
         }
     }
 
+    @Override
+    public List<Role> selectRolesByTenantId(Integer tenantId) {
+        String sql = "select " + COLUMNS + " from roles where tenant_id = ?";
+        try (Connection conn = dbHelper.getConnection();
+             java.sql.PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, Tenant.idOrDefault(tenantId));
+            try (java.sql.ResultSet rs = pstmt.executeQuery()) {
+                List<Role> roles = new java.util.ArrayList<Role>();
+                while (rs.next()) {
+                    roles.add(mapRole(rs));
+                }
+                return roles;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return List.of();
+        }
+    }
+
     @Override
     public Role selectRoleByRoleName(String roleName) {
-        String sql = "select id, name, description from roles where name = ?";
+        String sql = "select " + COLUMNS + " from roles where name = ?";
         try (Connection conn = dbHelper.getConnection();
              java.sql.PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, roleName);
             try (java.sql.ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new Role(
-                            rs.getInt("id"),
-                            rs.getString("name"),
-                            rs.getString("description")
-                    );
+                    return mapRole(rs);
                 }
             }
         } catch (Exception e) {
@@ -115,4 +126,14 @@ public class MySqlRoleDaoImpl implements RoleDAO {
         }
         return null;
     }
+
+    private Role mapRole(java.sql.ResultSet rs) throws SQLException {
+        Role role = new Role(
+                rs.getInt("id"),
+                rs.getString("name"),
+                rs.getString("description")
+        );
+        role.setTenantId(rs.getInt("tenant_id"));
+        return role;
+    }
 }
@@ -0,0 +1,73 @@
+package com.rbac.dao.impl;
+
+import com.rbac.dao.RoleInheritanceDAO;
+import com.rbac.model.entity.RoleInheritance;
+import com.rbac.util.DBHelper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL角色继承关系DAO实现类
+ */
+public class MySqlRoleInheritanceDaoImpl implements RoleInheritanceDAO {
+    private DBHelper dbHelper = DBHelper.getInstance();
+
+    @Override
+    public int insertRoleInheritance(RoleInheritance roleInheritance) {
+        String sql = "INSERT INTO role_inheritance (role_id, parent_role_id) VALUES (?, ?)";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, roleInheritance.getRoleId());
+            pstmt.setInt(2, roleInheritance.getParentRoleId());
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL新增角色继承关系失败", e);
+        }
+    }
+
+    @Override
+    public int deleteParentsByRoleId(Integer roleId) {
+        String sql = "DELETE FROM role_inheritance WHERE role_id=?";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, roleId);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL删除角色父角色关系失败", e);
+        }
+    }
+
+    @Override
+    public int deleteAllByRoleId(Integer roleId) {
+        String sql = "DELETE FROM role_inheritance WHERE role_id=? OR parent_role_id=?";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, roleId);
+            pstmt.setInt(2, roleId);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL删除角色继承关系失败", e);
+        }
+    }
+
+    @Override
+    public List<RoleInheritance> selectAllRoleInheritances() {
+        String sql = "SELECT role_id, parent_role_id FROM role_inheritance";
+        List<RoleInheritance> inheritances = new ArrayList<>();
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                inheritances.add(new RoleInheritance(rs.getInt("role_id"), rs.getInt("parent_role_id")));
+            }
+            return inheritances;
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL查询角色继承关系失败", e);
+        }
+    }
+}
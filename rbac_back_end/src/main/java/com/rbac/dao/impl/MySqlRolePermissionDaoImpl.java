@@ -12,15 +12,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MySqlRolePermissionDaoImpl implements RolePermissionDAO {
+    // role_permissions.effect：0=允许，1=拒绝
+    private static final int EFFECT_ALLOW = 0;
+    private static final int EFFECT_DENY = 1;
     private DBHelper dbHelper = DBHelper.getInstance();
 
     @Override
     public int insertRolePermission(RolePermission rolePermission) {
-        String sql = "INSERT INTO role_permissions (role_id, permission_id) VALUES (?, ?)";
+        String sql = "INSERT INTO role_permissions (role_id, permission_id, effect) VALUES (?, ?, ?)";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, rolePermission.getRoleId());
             pstmt.setInt(2, rolePermission.getPermissionId());
+            pstmt.setInt(3, rolePermission.isDeny() ? EFFECT_DENY : EFFECT_ALLOW);
             return pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("MySQL新增角色-权限关联失败", e);
@@ -42,11 +46,21 @@ public class MySqlRolePermissionDaoImpl implements RolePermissionDAO {
 
     @Override
     public List<Integer> selectPermissionIdsByRoleId(Integer roleId) {
-        String sql = "SELECT permission_id FROM role_permissions WHERE role_id=?";
+        return selectPermissionIdsByEffect(roleId, EFFECT_ALLOW);
+    }
+
+    @Override
+    public List<Integer> selectDeniedPermissionIdsByRoleId(Integer roleId) {
+        return selectPermissionIdsByEffect(roleId, EFFECT_DENY);
+    }
+
+    private List<Integer> selectPermissionIdsByEffect(Integer roleId, int effect) {
+        String sql = "SELECT permission_id FROM role_permissions WHERE role_id=? AND effect=?";
         List<Integer> permissionIds = new ArrayList<>();
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, roleId);
+            pstmt.setInt(2, effect);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 permissionIds.add(rs.getInt("permission_id"));
@@ -82,4 +96,17 @@ public class MySqlRolePermissionDaoImpl implements RolePermissionDAO {
             throw new RuntimeException("MySQL清空角色所有权限失败", e);
         }
     }
+
+    @Override
+    public int deletePermissionsByRoleId(Integer roleId, boolean deny) {
+        String sql = "DELETE FROM role_permissions WHERE role_id=? AND effect=?";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, roleId);
+            pstmt.setInt(2, deny ? EFFECT_DENY : EFFECT_ALLOW);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL清空角色" + (deny ? "拒绝" : "允许") + "权限失败", e);
+        }
+    }
 }
\ No newline at end of file
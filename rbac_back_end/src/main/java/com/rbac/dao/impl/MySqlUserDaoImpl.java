@@ -1,9 +1,12 @@
 package com.rbac.dao.impl;
 import com.rbac.dao.UserDAO;
+import com.rbac.model.entity.Tenant;
 import com.rbac.model.entity.User;
 import com.rbac.util.DBHelper;
 import lombok.extern.slf4j.Slf4j;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 @Slf4j
 public class MySqlUserDaoImpl implements UserDAO {
@@ -13,12 +16,13 @@ public class MySqlUserDaoImpl implements UserDAO {
     @Override
     public int insertUser(User user) {
         //采用预编译定义SQL语句，防止SQL注入
-        String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
+        String sql = "INSERT INTO users (username, password, tenant_id) VALUES (?, ?, ?)";
         //使用try-with-resources自动关闭连接和语句
         try (var conn = dbHelper.getConnection();
              var pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, user.getUsername());
             pstmt.setString(2, user.getPassword());
+            pstmt.setInt(3, Tenant.idOrDefault(user.getTenantId()));
             int result = pstmt.executeUpdate();
             log.info("插入执行后数据库返回{}", result);
             return result;
@@ -67,12 +71,7 @@ public class MySqlUserDaoImpl implements UserDAO {
             // 执行查询并处理结果集
             try (var rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new User(
-                            rs.getInt("id"),
-                            rs.getString("username"),
-                            rs.getString("password"),
-                            rs.getTimestamp("created_at")
-                    );
+                    return mapUser(rs);
                 }
             }
         } catch (Exception e) {
@@ -90,12 +89,7 @@ public class MySqlUserDaoImpl implements UserDAO {
              var rs = pstmt.executeQuery()) {
             var users = new java.util.ArrayList<User>();
             while (rs.next()) {
-                users.add(new User(
-                        rs.getInt("id"),
-                        rs.getString("username"),
-                        rs.getString("password"),
-                        rs.getTimestamp("created_at")
-                ));
+                users.add(mapUser(rs));
             }
             return users;
         } catch (Exception e) {
@@ -104,6 +98,25 @@ public class MySqlUserDaoImpl implements UserDAO {
         return List.of();
     }
 
+    @Override
+    public List<User> selectUsersByTenantId(Integer tenantId) {
+        String sql = "SELECT * FROM users WHERE tenant_id = ?";
+        try (var conn = dbHelper.getConnection();
+             var pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, Tenant.idOrDefault(tenantId));
+            try (var rs = pstmt.executeQuery()) {
+                var users = new java.util.ArrayList<User>();
+                while (rs.next()) {
+                    users.add(mapUser(rs));
+                }
+                return users;
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return List.of();
+    }
+
     @Override
     public User selectUserByUsername(String username) {
         String sql = "SELECT * FROM users WHERE username = ?";
@@ -113,12 +126,7 @@ public class MySqlUserDaoImpl implements UserDAO {
             // 执行查询并处理结果集
             try (var rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return new User(
-                            rs.getInt("id"),
-                            rs.getString("username"),
-                            rs.getString("password"),
-                            rs.getTimestamp("created_at")
-                    );
+                    return mapUser(rs);
                 }
             }
         } catch (Exception e) {
@@ -126,4 +134,15 @@ public class MySqlUserDaoImpl implements UserDAO {
         }
         return null;
     }
+
+    private User mapUser(ResultSet rs) throws SQLException {
+        User user = new User(
+                rs.getInt("id"),
+                rs.getString("username"),
+                rs.getString("password"),
+                rs.getTimestamp("created_at")
+        );
+        user.setTenantId(rs.getInt("tenant_id"));
+        return user;
+    }
 }
@@ -1,6 +1,7 @@
 package com.rbac.dao.impl;
 
 import com.rbac.dao.UserRoleDAO;
+import com.rbac.model.entity.Tenant;
 import com.rbac.model.entity.UserRole;
 import com.rbac.util.DBHelper;
 
@@ -8,7 +9,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 /**
  * MySQL用户-角色关联DAO实现类
@@ -21,14 +24,20 @@ public class MySqlUserRoleDaoImpl implements UserRoleDAO {
      * 数据库帮助类实例（单例模式）
      */
     private DBHelper dbHelper = DBHelper.getInstance();
+    // 当前有效：已到生效时间且未到失效时间（时间取应用时钟，与时间轮到期时间一致）
+    private static final String ACTIVE_CONDITION =
+            "(valid_from IS NULL OR valid_from <= ?) AND (valid_until IS NULL OR valid_until > ?)";
+    private static final String PENDING_COLUMNS = "SELECT user_id, role_id, valid_from, valid_until FROM user_roles ";
 
     @Override
     public int insertUserRole(UserRole userRole) {
-        String sql = "INSERT INTO user_roles (user_id, role_id) VALUES (?, ?)";
+        String sql = "INSERT INTO user_roles (user_id, role_id, valid_from, valid_until) VALUES (?, ?, ?, ?)";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userRole.getUserId());
             pstmt.setInt(2, userRole.getRoleId());
+            pstmt.setTimestamp(3, userRole.getValidFrom());
+            pstmt.setTimestamp(4, userRole.getValidUntil());
             return pstmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("MySQL新增用户-角色关联失败", e);
@@ -49,20 +58,39 @@ public class MySqlUserRoleDaoImpl implements UserRoleDAO {
     }
 
     @Override
-    public Integer selectRoleIdsByUserId(Integer userId) {
-        String sql = "SELECT role_id FROM user_roles WHERE user_id=?";
-        Integer roleId;
+    public int deleteUserRole(Integer userId, Integer roleId) {
+        String sql = "DELETE FROM user_roles WHERE user_id=? AND role_id=?";
         try (Connection conn = dbHelper.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, userId);
+            pstmt.setInt(2, roleId);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL删除用户指定角色关联失败", e);
+        }
+    }
+
+    @Override
+    public int[] selectRoleIdsByUserId(Integer userId) {
+        String sql = "SELECT DISTINCT role_id FROM user_roles WHERE user_id=? AND " + ACTIVE_CONDITION + " ORDER BY role_id";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            pstmt.setInt(1, userId);
+            pstmt.setTimestamp(2, now);
+            pstmt.setTimestamp(3, now);
             ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                roleId = rs.getInt("role_id");
-                log.info("查询用户角色DAO层：userId={}, roleId={}", userId, roleId);
-            } else {
-                roleId = null;
+            int[] roleIds = new int[4];
+            int count = 0;
+            while (rs.next()) {
+                if (count == roleIds.length) {
+                    roleIds = Arrays.copyOf(roleIds, count * 2);
+                }
+                roleIds[count++] = rs.getInt("role_id");
             }
-            return roleId;
+            roleIds = Arrays.copyOf(roleIds, count);
+            log.info("查询用户角色DAO层：userId={}, roleIds={}", userId, Arrays.toString(roleIds));
+            return roleIds;
         } catch (SQLException e) {
             throw new RuntimeException("MySQL查询用户角色失败", e);
         }
@@ -80,4 +108,85 @@ public class MySqlUserRoleDaoImpl implements UserRoleDAO {
             throw new RuntimeException("MySQL校验用户角色关联失败", e);
         }
     }
+
+    @Override
+    public List<UserRole> selectAllUserRoles() {
+        String sql = "SELECT user_id, role_id FROM user_roles WHERE " + ACTIVE_CONDITION;
+        List<UserRole> userRoles = new ArrayList<>();
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            pstmt.setTimestamp(1, now);
+            pstmt.setTimestamp(2, now);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    userRoles.add(new UserRole(rs.getInt("user_id"), rs.getInt("role_id")));
+                }
+            }
+            return userRoles;
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL查询全部用户-角色关联失败", e);
+        }
+    }
+
+    @Override
+    public List<UserRole> selectUserRolesByTenantId(Integer tenantId) {
+        String sql = "SELECT ur.user_id, ur.role_id FROM user_roles ur JOIN users u ON u.id = ur.user_id "
+                + "WHERE u.tenant_id = ? AND " + ACTIVE_CONDITION;
+        List<UserRole> userRoles = new ArrayList<>();
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            pstmt.setInt(1, Tenant.idOrDefault(tenantId));
+            pstmt.setTimestamp(2, now);
+            pstmt.setTimestamp(3, now);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    userRoles.add(new UserRole(rs.getInt("user_id"), rs.getInt("role_id")));
+                }
+            }
+            return userRoles;
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL查询租户用户-角色关联失败", e);
+        }
+    }
+
+    @Override
+    public List<UserRole> selectPendingUserRoles(Timestamp now) {
+        // 拆成两段范围查询再UNION，分别命中valid_from/valid_until索引
+        String sql = PENDING_COLUMNS + "WHERE valid_from > ? UNION " + PENDING_COLUMNS + "WHERE valid_until > ?";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, now);
+            pstmt.setTimestamp(2, now);
+            return readUserRoles(pstmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL查询待生效/待到期用户-角色关联失败", e);
+        }
+    }
+
+    @Override
+    public List<UserRole> selectPendingUserRolesByUserId(Integer userId, Timestamp now) {
+        String sql = PENDING_COLUMNS + "WHERE user_id=? AND (valid_from > ? OR valid_until > ?)";
+        try (Connection conn = dbHelper.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            pstmt.setTimestamp(2, now);
+            pstmt.setTimestamp(3, now);
+            return readUserRoles(pstmt);
+        } catch (SQLException e) {
+            throw new RuntimeException("MySQL查询用户待生效/待到期角色失败", e);
+        }
+    }
+
+    private List<UserRole> readUserRoles(PreparedStatement pstmt) throws SQLException {
+        List<UserRole> userRoles = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                userRoles.add(new UserRole(rs.getInt("user_id"), rs.getInt("role_id"),
+                        rs.getTimestamp("valid_from"), rs.getTimestamp("valid_until")));
+            }
+        }
+        return userRoles;
+    }
 }
\ No newline at end of file
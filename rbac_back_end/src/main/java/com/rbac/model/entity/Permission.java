@@ -10,6 +10,7 @@ public class Permission {
     private String name;         // 权限名称（VARCHAR(100) → String）
     private String code;         // 权限编码（VARCHAR(100) → String）
     private Integer parentId;    // 父权限ID（INT → Integer，下划线转驼峰）
+    private Integer tenantId = Tenant.DEFAULT_ID; // 所属租户ID（权限编码在租户内唯一）
 
     private boolean inheritParent; // 是否继承父节点权限（默认true）
     private boolean enabled; // 权限是否启用（默认true）
@@ -63,6 +64,14 @@ public class Permission {
         this.parentId = parentId;
     }
 
+    public Integer getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Integer tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public boolean isInheritParent() { return inheritParent; }
     public void setInheritParent(boolean inheritParent) { this.inheritParent = inheritParent; }
     public boolean isEnabled() { return enabled; }
@@ -77,6 +86,7 @@ public class Permission {
                 ", name='" + name + '\'' +
                 ", code='" + code + '\'' +
                 ", parentId=" + parentId +
+                ", tenantId=" + tenantId +
                 '}';
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ public class Role {
     private Integer id;          // 主键ID（INT → INTEGER）
     private String name;         // 角色名称（VARCHAR(50) → String）
     private String description;  // 角色描述（VARCHAR(255) → String）
+    private Integer tenantId = Tenant.DEFAULT_ID; // 所属租户ID（INT → Integer）
 
     // 无参构造函数
     public Role() {
@@ -46,6 +47,14 @@ public class Role {
         this.description = description;
     }
 
+    public Integer getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Integer tenantId) {
+        this.tenantId = tenantId;
+    }
+
     // 可选：重写toString，方便调试
     @Override
     public String toString() {
@@ -53,6 +62,7 @@ public class Role {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", description='" + description + '\'' +
+                ", tenantId=" + tenantId +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.rbac.model.entity;
+
+/**
+ * 角色继承关系实体（对应role_inheritance表）：子角色拥有父角色的全部权限
+ */
+public class RoleInheritance {
+    private Integer roleId;       // 子角色ID
+    private Integer parentRoleId; // 父角色ID
+
+    // 构造+getter/setter
+    public RoleInheritance() {}
+    public RoleInheritance(Integer roleId, Integer parentRoleId) {
+        this.roleId = roleId;
+        this.parentRoleId = parentRoleId;
+    }
+
+    public Integer getRoleId() { return roleId; }
+    public void setRoleId(Integer roleId) { this.roleId = roleId; }
+    public Integer getParentRoleId() { return parentRoleId; }
+    public void setParentRoleId(Integer parentRoleId) { this.parentRoleId = parentRoleId; }
+}
@@ -6,6 +6,7 @@ package com.rbac.model.entity;
 public class RolePermission {
     private Integer roleId;     // 角色ID
     private Integer permissionId; // 权限ID
+    private boolean deny;       // 是否为拒绝授权（拒绝优先于允许）
 
     // 构造+getter/setter
     public RolePermission() {}
@@ -13,9 +14,16 @@ public class RolePermission {
         this.roleId = roleId;
         this.permissionId = permissionId;
     }
+    public RolePermission(Integer roleId, Integer permissionId, boolean deny) {
+        this.roleId = roleId;
+        this.permissionId = permissionId;
+        this.deny = deny;
+    }
 
     public Integer getRoleId() { return roleId; }
     public void setRoleId(Integer roleId) { this.roleId = roleId; }
     public Integer getPermissionId() { return permissionId; }
     public void setPermissionId(Integer permissionId) { this.permissionId = permissionId; }
+    public boolean isDeny() { return deny; }
+    public void setDeny(boolean deny) { this.deny = deny; }
 }
\ No newline at end of file
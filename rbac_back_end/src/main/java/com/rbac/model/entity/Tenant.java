@@ -0,0 +1,55 @@
+package com.rbac.model.entity;
+
+/**
+ * 租户实体类
+ * 对应数据库表：tenants（users/roles/permissions通过tenant_id归属租户）
+ */
+public class Tenant {
+    // 默认租户ID（多租户改造前的存量数据均归属默认租户）
+    public static final int DEFAULT_ID = 1;
+
+    private Integer id;     // 主键ID
+    private String name;    // 租户名称
+
+    // 无参构造函数
+    public Tenant() {
+    }
+
+    // 全参构造函数
+    public Tenant(Integer id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    // Getter & Setter 方法
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 租户ID为空时视为默认租户
+     */
+    public static int idOrDefault(Integer tenantId) {
+        return tenantId == null ? DEFAULT_ID : tenantId;
+    }
+
+    @Override
+    public String toString() {
+        return "Tenant{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
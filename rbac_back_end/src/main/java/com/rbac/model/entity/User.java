@@ -12,6 +12,7 @@ public class User {
     private String username;    // 用户名（VARCHAR(50) → String）
     private String password;    // 密码（VARCHAR(255) → String）
     private Timestamp createdAt; // 创建时间（TIMESTAMP → Timestamp）
+    private Integer tenantId = Tenant.DEFAULT_ID; // 所属租户ID（INT → Integer）
 
     // 无参构造函数
     public User() {
@@ -50,6 +51,14 @@ public class User {
         this.password = password;
     }
 
+    public Integer getTenantId() {
+        return tenantId;
+    }
+
+    public void setTenantId(Integer tenantId) {
+        this.tenantId = tenantId;
+    }
+
     public Timestamp getCreatedAt() {
         return createdAt;
     }
@@ -66,6 +75,7 @@ public class User {
                 ", username='" + username + '\'' +
                 ", password='" + password + '\'' +
                 ", createdAt=" + createdAt +
+                ", tenantId=" + tenantId +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,11 +1,15 @@
 package com.rbac.model.entity;
 
+import java.sql.Timestamp;
+
 /**
  * 用户-角色关联实体（对应user_role表）
  */
 public class UserRole {
     private Integer userId;  // 用户ID
     private Integer roleId;  // 角色ID
+    private Timestamp validFrom;  // 生效时间（null=立即生效）
+    private Timestamp validUntil; // 失效时间（null=永久有效）
 
     // 构造+getter/setter
     public UserRole() {}
@@ -13,9 +17,19 @@ public class UserRole {
         this.userId = userId;
         this.roleId = roleId;
     }
+    public UserRole(Integer userId, Integer roleId, Timestamp validFrom, Timestamp validUntil) {
+        this.userId = userId;
+        this.roleId = roleId;
+        this.validFrom = validFrom;
+        this.validUntil = validUntil;
+    }
 
     public Integer getUserId() { return userId; }
     public void setUserId(Integer userId) { this.userId = userId; }
     public Integer getRoleId() { return roleId; }
     public void setRoleId(Integer roleId) { this.roleId = roleId; }
-}
\ No newline at end of file
+    public Timestamp getValidFrom() { return validFrom; }
+    public void setValidFrom(Timestamp validFrom) { this.validFrom = validFrom; }
+    public Timestamp getValidUntil() { return validUntil; }
+    public void setValidUntil(Timestamp validUntil) { this.validUntil = validUntil; }
+}
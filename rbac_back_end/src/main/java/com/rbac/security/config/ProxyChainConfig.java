@@ -1,31 +1,38 @@
 package com.rbac.security.config;
 
 import com.rbac.security.core.RealBusinessService;
-import com.rbac.security.proxy.SecurityChain;
+import com.rbac.security.core.TokenService;
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.proxy.SecurityPipelines;
 import com.rbac.security.proxy.SecurityProxy;
+import com.rbac.security.proxy.impl.AdmissionProxy;
 import com.rbac.security.proxy.impl.AuthProxy;
 import com.rbac.security.proxy.impl.AuthzProxy;
 import com.rbac.security.proxy.impl.LogProxy;
 import com.rbac.security.proxy.impl.ParamCheckProxy;
+import com.rbac.security.proxy.impl.RateLimitProxy;
+import com.rbac.security.proxy.impl.ResponseCacheProxy;
 import com.rbac.service.PermissionService;
+import com.rbac.service.PermissionTreeValidator;
 import com.rbac.service.RoleService;
 import com.rbac.service.UserService;
+import com.rbac.util.PermissionHolderIndex;
+import com.rbac.util.RbacDataVersion;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Scope;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import lombok.extern.slf4j.Slf4j;
 
 import jakarta.annotation.Resource;
-import org.springframework.context.annotation.ScopedProxyMode;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.Map;
 
 // 必须加这个注解才能打日志
 @Slf4j
 @Configuration
 public class ProxyChainConfig {
+    @Resource
+    private AdmissionProxy admissionProxy;
     @Resource
     private LogProxy logProxy;
     @Resource
@@ -34,6 +41,10 @@ public class ProxyChainConfig {
     private AuthzProxy authzProxy;
     @Resource
     private ParamCheckProxy paramCheckProxy;
+    @Resource
+    private ResponseCacheProxy responseCacheProxy;
+    @Resource
+    private RateLimitProxy rateLimitProxy;
 
     @Resource
     private UserService userService;
@@ -41,31 +52,46 @@ public class ProxyChainConfig {
     private RoleService roleService;
     @Resource
     private PermissionService permissionService;
+    @Resource
+    private PermissionTreeValidator permissionTreeValidator;
+    @Resource
+    private PermissionHolderIndex permissionHolderIndex;
+    @Resource
+    private TokenService tokenService;
+    @Resource
+    private RbacDataVersion rbacDataVersion;
 
-    // 核心修改后的完整方法（适配新的 SecurityChain，移除 index 相关）
+    /**
+     * 真实业务执行器：无状态，全局单例
+     */
     @Bean
-    // 强制原型模式 + 代理模式（解决prototype不生效的坑）
-    @Scope(value = ConfigurableBeanFactory.SCOPE_PROTOTYPE, proxyMode = ScopedProxyMode.TARGET_CLASS)
-    public SecurityChain securityChain() {
-        List<SecurityProxy> proxies = Arrays.asList(
-                logProxy,       // 1. 日志
-                authProxy,      // 2. 认证（核心拦截）
-                authzProxy,     // 3. 授权
-                paramCheckProxy // 4. 参数校验
-        );
-
-        RealBusinessService realBusinessService = new RealBusinessService(
+    public RealBusinessService realBusinessService() {
+        return new RealBusinessService(
                 userService,
                 roleService,
-                permissionService
+                permissionService,
+                permissionTreeValidator,
+                permissionHolderIndex,
+                tokenService,
+                rbacDataVersion
         );
+    }
 
-        // 关键修改：调用新的 build 方法（无 index 参数，适配改造后的 SecurityChain）
-        SecurityChain newChain = SecurityChain.build(proxies, realBusinessService::execute);
-
-        // 加日志：验证每次创建新实例（关键排查点）
-        log.error("【SecurityChain创建】新实例hashCode：{}", newChain.hashCode());
-
-        return newChain;
+    /**
+     * 按操作编译的安全责任链：每个权限编码一条只含所需环节的不可变链，全局单例
+     */
+    @Bean
+    public SecurityPipelines securityPipelines(RealBusinessService realBusinessService) {
+        Map<ApiOperation.Stage, SecurityProxy> stageProxies = new EnumMap<>(ApiOperation.Stage.class);
+        stageProxies.put(ApiOperation.Stage.ADMISSION, admissionProxy);    // 0. 准入控制
+        stageProxies.put(ApiOperation.Stage.LOG, logProxy);                 // 1. 日志
+        stageProxies.put(ApiOperation.Stage.AUTH, authProxy);               // 2. 认证（核心拦截）
+        stageProxies.put(ApiOperation.Stage.AUTHZ, authzProxy);             // 3. 授权
+        stageProxies.put(ApiOperation.Stage.PARAM_CHECK, paramCheckProxy);  // 4. 参数校验
+        stageProxies.put(ApiOperation.Stage.RESPONSE_CACHE, responseCacheProxy); // 5. 响应缓存
+        stageProxies.put(ApiOperation.Stage.RATE_LIMIT, rateLimitProxy);    // 6. 限流
+        SecurityPipelines pipelines = SecurityPipelines.compile(stageProxies, realBusinessService::execute);
+        log.info("【SecurityPipelines创建】已按操作编译{}条责任链", ApiOperation.values().length);
+        return pipelines;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,247 @@
+package com.rbac.security.core;
+
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import com.rbac.security.model.BatchRequest;
+import com.rbac.security.proxy.SecurityChain;
+import com.rbac.security.proxy.SecurityPipelines;
+import com.rbac.util.DBHelper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量请求执行器：一次调用执行多个ApiRequest，省去逐个请求的HTTP、JSON和整条责任链开销
+ * 1. 整批经过ApiOperation.BATCH声明的环节（准入、日志、认证、限流）各一次，认证得到的用户用于全部条目
+ * 2. 每个条目只经过自身操作声明的授权、参数校验、响应缓存、限流环节，再执行业务（与单个接口的校验和限流完全一致）
+ * 3. 执行方式：默认顺序执行并复用同一数据库连接；parallel并行执行（条目互不依赖时）；
+ *    transactional在一个事务中顺序执行，任一条目失败即停止并全部回滚
+ */
+@Slf4j
+@Component
+public class BatchService {
+    // 批量条目只经过的环节（其余环节已在整批上执行）；每个条目按自身操作的令牌桶限流，整批不能绕过单个接口的限流
+    static final EnumSet<ApiOperation.Stage> ITEM_STAGES = EnumSet.of(ApiOperation.Stage.AUTHZ,
+            ApiOperation.Stage.PARAM_CHECK, ApiOperation.Stage.RESPONSE_CACHE, ApiOperation.Stage.RATE_LIMIT);
+
+    // 单批最多条目数
+    @Value("${rbac.batch.max-items:1000}")
+    private int maxItems = 1000;
+    // 并行执行的线程数（所有批量请求共用）
+    @Value("${rbac.batch.parallelism:8}")
+    private int parallelism = 8;
+
+    @Resource
+    private SecurityPipelines securityPipelines;
+
+    private final DBHelper dbHelper = DBHelper.getInstance();
+    // 整批的责任链（末端执行全部条目）
+    private SecurityChain batchChain;
+    // 条目的责任链
+    private SecurityPipelines itemPipelines;
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void init() {
+        if (maxItems < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("批量配置不合法：rbac.batch.max-items和rbac.batch.parallelism须大于0");
+        }
+        batchChain = SecurityChain.build(securityPipelines.chainFor(ApiOperation.BATCH).getProxies(), this::executeItems);
+        itemPipelines = securityPipelines.withStages(ITEM_STAGES);
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "batch-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("批量请求：单批最多{}项，并行线程{}个", maxItems, parallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * 执行批量请求
+     * @return 整批结果：data为按条目顺序的各条目响应，ext中有成功/失败数
+     */
+    public ApiResponse execute(BatchRequest batch) {
+        ApiRequest request = new ApiRequest();
+        request.setToken(batch.getToken());
+        request.setPermCode(ApiOperation.BATCH.getPermCode());
+        request.setBizParams("{}");
+        request.setTimestamp(System.currentTimeMillis());
+        request.setParams(batch);
+        return batchChain.proceed(request);
+    }
+
+    /**
+     * 整批责任链的末端：校验批量参数，按执行方式执行全部条目
+     */
+    private ApiResponse executeItems(ApiRequest request) {
+        BatchRequest batch = request.paramsAs(BatchRequest.class);
+        List<ApiRequest> items = batch.getItems();
+        if (items == null || items.isEmpty()) {
+            return new ApiResponse(false, "BATCH_INVALID", "批量请求条目不能为空", null);
+        }
+        if (items.size() > maxItems) {
+            return new ApiResponse(false, "BATCH_INVALID", "批量请求条目过多（最多" + maxItems + "项）", null);
+        }
+        if (batch.isTransactional() && batch.isParallel()) {
+            return new ApiResponse(false, "BATCH_INVALID", "事务批量请求只能顺序执行，不能同时指定parallel", null);
+        }
+        for (ApiRequest item : items) {
+            prepare(item, request);
+        }
+
+        ApiResponse[] results = new ApiResponse[items.size()];
+        try {
+            if (batch.isTransactional()) {
+                return executeInTransaction(items, results);
+            }
+            if (batch.isParallel()) {
+                executeInParallel(items, results);
+            } else {
+                // 顺序执行：全部条目复用同一个数据库连接
+                dbHelper.withConnection(() -> {
+                    for (int i = 0; i < items.size(); i++) {
+                        results[i] = executeItem(items.get(i));
+                    }
+                    return null;
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ApiResponse.fail("BATCH_FAILED", "批量执行被中断", ApiResponse.newTraceId());
+        } catch (Exception e) {
+            log.error("批量执行失败：{}", e.getMessage(), e);
+            return ApiResponse.fail("BATCH_FAILED", "批量执行失败：" + e.getMessage(), ApiResponse.newTraceId());
+        }
+        long failed = Arrays.stream(results).filter(result -> !result.isSuccess()).count();
+        return summarize(true, null, "批量执行完成：成功" + (results.length - failed) + "项，失败" + failed + "项", results);
+    }
+
+    /**
+     * 事务执行：顺序执行，任一条目失败即标记回滚并停止；回滚后已执行的条目标记为已回滚，之后的条目标记为未执行
+     */
+    private ApiResponse executeInTransaction(List<ApiRequest> items, ApiResponse[] results) {
+        int[] failedAt = {-1};
+        boolean rolledBack;
+        try {
+            dbHelper.inTransaction(() -> {
+                for (int i = 0; i < items.size(); i++) {
+                    results[i] = executeItem(items.get(i));
+                    if (!results[i].isSuccess()) {
+                        failedAt[0] = i;
+                        dbHelper.setRollbackOnly();
+                        break;
+                    }
+                }
+                return null;
+            });
+            rolledBack = failedAt[0] >= 0;
+        } catch (Exception e) {
+            // 提交失败等：事务已回滚，失败原因记在整批结果上
+            log.error("批量事务执行失败，已回滚：{}", e.getMessage(), e);
+            rolledBack = true;
+        }
+        if (!rolledBack) {
+            return summarize(true, null, "批量执行成功（已提交" + results.length + "项）", results);
+        }
+
+        // 内存中的权限树、继承关系等由各服务登记事务结束后的重新加载，回滚后已按数据库现状恢复
+        String reason = failedAt[0] >= 0 ? "第" + (failedAt[0] + 1) + "项执行失败" : "事务提交失败";
+        for (int i = 0; i < results.length; i++) {
+            if (i == failedAt[0]) {
+                continue;
+            }
+            results[i] = results[i] != null
+                    ? ApiResponse.fail("ROLLED_BACK", reason + "，本项已回滚", results[i].getTraceId())
+                    : ApiResponse.fail("NOT_EXECUTED", reason + "，本项未执行", null);
+        }
+        return summarize(false, "BATCH_ROLLED_BACK", reason + "，已全部回滚", results);
+    }
+
+    /**
+     * 并行执行：每个条目在工作线程上执行，期间复用该线程绑定的数据库连接；结果按条目顺序返回
+     */
+    private void executeInParallel(List<ApiRequest> items, ApiResponse[] results) throws InterruptedException {
+        List<Callable<ApiResponse>> tasks = new ArrayList<>(items.size());
+        for (ApiRequest item : items) {
+            tasks.add(() -> dbHelper.withConnection(() -> executeItem(item)));
+        }
+        List<Future<ApiResponse>> futures = workers.invokeAll(tasks);
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results[i] = futures.get(i).get();
+            } catch (ExecutionException e) {
+                // 条目异常已在executeItem中转为失败结果，这里只剩获取数据库连接失败等
+                Throwable cause = e.getCause();
+                log.error("批量条目{}执行异常：{}", i + 1, cause.getMessage(), cause);
+                results[i] = ApiResponse.fail("BATCH_ITEM_ERROR", "执行异常：" + cause.getMessage(), ApiResponse.newTraceId());
+            }
+        }
+    }
+
+    /**
+     * 执行单个条目（不支持的操作直接返回失败，不进入责任链；异常转为失败结果）
+     */
+    private ApiResponse executeItem(ApiRequest item) {
+        ApiOperation operation = ApiOperation.fromPermCode(item.getPermCode());
+        if (operation == ApiOperation.BATCH || operation == ApiOperation.USER_LOGIN) {
+            return ApiResponse.fail("BATCH_ITEM_UNSUPPORTED", "批量请求不支持该操作：" + item.getPermCode(), ApiResponse.newTraceId());
+        }
+        try {
+            ApiResponse response = itemPipelines.proceed(item);
+            return response != null ? response
+                    : ApiResponse.fail("BATCH_ITEM_ERROR", "条目执行无结果", ApiResponse.newTraceId());
+        } catch (RuntimeException e) {
+            // 单个条目的异常不中断整批（事务批量由调用方按失败处理）
+            log.error("批量条目{}执行异常：{}", item.getPermCode(), e.getMessage(), e);
+            return ApiResponse.fail("BATCH_ITEM_ERROR", "执行异常：" + e.getMessage(), ApiResponse.newTraceId());
+        }
+    }
+
+    /**
+     * 条目继承整批的认证结果（条目自带的token和user一律忽略）
+     */
+    private static void prepare(ApiRequest item, ApiRequest batchRequest) {
+        item.setToken(batchRequest.getToken());
+        item.setUser(batchRequest.getUser());
+        item.setParams(null);
+        if (item.getTimestamp() == null) {
+            item.setTimestamp(batchRequest.getTimestamp());
+        }
+        if (item.getBizParams() == null) {
+            item.setBizParams("{}");
+        }
+    }
+
+    private static ApiResponse summarize(boolean success, String errorCode, String msg, ApiResponse[] results) {
+        long succeeded = Arrays.stream(results).filter(ApiResponse::isSuccess).count();
+        ApiResponse response = new ApiResponse(success, errorCode, msg, Arrays.asList(results));
+        response.setTraceId(ApiResponse.newTraceId());
+        response.getExt().put("total", results.length);
+        response.getExt().put("succeeded", succeeded);
+        response.getExt().put("failed", results.length - succeeded);
+        return response;
+    }
+}
@@ -2,20 +2,27 @@ package com.rbac.security.core;
 
 import com.rbac.model.entity.Permission;
 import com.rbac.model.entity.Role;
+import com.rbac.model.entity.Tenant;
 import com.rbac.service.*;
 import com.rbac.model.entity.User;
+import com.rbac.security.model.ApiOperation;
 import com.rbac.security.model.ApiRequest;
 import com.rbac.security.model.ApiResponse;
-import com.rbac.util.JsonUtil;
+import com.rbac.security.model.param.*;
+import com.rbac.util.DBHelper;
+import com.rbac.util.PermissionHolderIndex;
+import com.rbac.util.RbacDataVersion;
+import com.rbac.util.SingleFlight;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
-import com.fasterxml.jackson.core.type.TypeReference;
 
 /**
  * 真实业务逻辑类（完全兼容原有Service调用 + 适配前端精细化错误返回）
@@ -25,17 +32,30 @@ public class RealBusinessService implements ApiService {
     private final UserService userService;
     private final RoleService roleService;
     private final PermissionService permissionService;
+    private final PermissionTreeValidator permissionTreeValidator;
+    private final PermissionHolderIndex permissionHolderIndex;
+    private final TokenService tokenService;
+    // RBAC数据版本号：写操作结束后递增，按版本缓存的查询结果随之失效
+    private final RbacDataVersion rbacDataVersion;
+    // 相同的并发只读请求合并为一次执行（键：操作 + 租户 + 解析后的参数）
+    private final SingleFlight<FlightKey> readFlights = new SingleFlight<>();
 
     // 构造方法注入（原有逻辑保留）
-    public RealBusinessService(UserService userService, RoleService roleService, PermissionService permissionService) {
+    public RealBusinessService(UserService userService, RoleService roleService, PermissionService permissionService,
+                               PermissionTreeValidator permissionTreeValidator, PermissionHolderIndex permissionHolderIndex,
+                               TokenService tokenService, RbacDataVersion rbacDataVersion) {
         this.userService = userService;
         this.roleService = roleService;
         this.permissionService = permissionService;
+        this.permissionTreeValidator = permissionTreeValidator;
+        this.permissionHolderIndex = permissionHolderIndex;
+        this.tokenService = tokenService;
+        this.rbacDataVersion = rbacDataVersion;
     }
 
     // 生成全局唯一追踪ID（便于排查问题）
     private String generateTraceId() {
-        return "REQ_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
+        return ApiResponse.newTraceId();
     }
 
     // 解析异常信息（分离错误码和提示语）
@@ -67,7 +87,7 @@ public class RealBusinessService implements ApiService {
 
         // 3. 调度Service层（仅修改返回值格式，业务逻辑不变）
         try {
-            Object businessResult = dispatchToService(permCode, bizParams, loginUser);
+            Object businessResult = dispatchShared(permCode, request, loginUser);
             // 成功响应：保留原有返回数据，新增追踪ID
             return ApiResponse.success("业务执行成功", businessResult, traceId);
         } catch (IllegalArgumentException e) {
@@ -83,19 +103,53 @@ public class RealBusinessService implements ApiService {
         }
     }
 
+    /**
+     * 写操作：执行结束后递增RBAC数据版本号
+     * 结果与调用方无关的只读操作：相同租户、相同参数的并发请求只执行一次，其余请求等待并共享结果（成功或异常）
+     * 能走到这里的请求都已分别通过认证和鉴权，合并只发生在业务执行这一步；执行结束即释放，不缓存结果
+     */
+    private Object dispatchShared(String permCode, ApiRequest request, User loginUser) throws Exception {
+        ApiOperation operation = ApiOperation.fromPermCode(permCode);
+        if (operation != null && operation.getKind() == ApiOperation.Kind.WRITE) {
+            try {
+                return dispatchToService(permCode, request, loginUser);
+            } finally {
+                // 写入已提交（或已失败，失败也可能部分写入）之后再递增，查询不会按新版本缓存到旧数据
+                rbacDataVersion.bump();
+            }
+        }
+        // 事务中的查询可能读到本事务未提交的数据，不与其它请求共享
+        if (operation == null || !operation.isSharedRead() || DBHelper.getInstance().inTransaction()) {
+            return dispatchToService(permCode, request, loginUser);
+        }
+        Integer tenantId = loginUser == null ? Tenant.DEFAULT_ID : loginUser.getTenantId();
+        // 键中带上数据版本号：写入完成后到达的请求不会加入写入之前开始的执行，读到旧数据
+        FlightKey key = new FlightKey(operation, tenantId, request.getParams(), rbacDataVersion.current());
+        return readFlights.execute(key, () -> dispatchToService(permCode, request, loginUser));
+    }
+
+    /**
+     * 请求合并的键：参数记录按值比较，参数和数据版本相同即视为同一请求
+     */
+    private record FlightKey(ApiOperation operation, Integer tenantId, Object params, long dataVersion) {
+    }
+
     /**
      * 按权限编码调度Service方法（核心：仅修改失败返回的错误码，业务逻辑完全保留）
+     * 业务参数取参数校验环节已解析好的参数记录，不再重复解析bizParams
      */
-    private Object dispatchToService(String permCode, String bizParams, User loginUser) throws Exception {
+    private Object dispatchToService(String permCode, ApiRequest request, User loginUser) throws Exception {
+        // 当前登录用户所属租户：列表只返回本租户数据，新建数据归属本租户，其它租户的ID一律视为不存在
+        Integer tenantId = loginUser == null ? Tenant.DEFAULT_ID : loginUser.getTenantId();
         switch (permCode) {
             // ========== 1. 用户管理（原有逻辑保留，新增错误码） ==========
             case "system:user:list":
-                return userService.queryAllUsers();
+                return userService.queryUsersByTenantId(tenantId);
 
             case "system:user:create": {
-                Map<String, String> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, String>>() {});
-                String newUsername = paramMap.get("username");
-                String newPassword = paramMap.get("password");
+                CredentialsParam param = request.paramsAs(CredentialsParam.class);
+                String newUsername = param.username();
+                String newPassword = param.password();
 
                 // 前置校验：用户已存在 → 返回错误码 USER_NAME_DUPLICATE
                 if (userService.checkUserExistsByUsername(newUsername)) {
@@ -105,6 +159,7 @@ public class RealBusinessService implements ApiService {
                 User user = new User();
                 user.setUsername(newUsername);
                 user.setPassword(newPassword);
+                user.setTenantId(tenantId);
                 Boolean isSuccess = userService.registerUser(user);
                 log.info("【{}】用户{}新增用户{},结果:{}", generateTraceId(), loginUser.getUsername(), newUsername, isSuccess);
 
@@ -116,12 +171,11 @@ public class RealBusinessService implements ApiService {
             }
 
             case "system:user:password":{
-                Map<String, Object> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Object>>() {});
-                Integer userid = (Integer) paramMap.get("userid");
+                Integer userid = request.paramsAs(UserIdParam.class).userid();
                 String newPassword = "123456";
 
                 // 前置校验：用户不存在 → 返回错误码 USER_NOT_EXIST
-                if (!userService.checkUserExistsByUserId(userid)) {
+                if (!userInTenant(userid, tenantId)) {
                     throw new RuntimeException("USER_NOT_EXIST|用户ID【" + userid + "】不存在");
                 }
 
@@ -134,31 +188,55 @@ public class RealBusinessService implements ApiService {
             }
 
             case "system:user:role": {
-                Map<String, Integer> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Integer>>() {});
-                Integer userid = (Integer) paramMap.get("userid");
-                Integer roleid = (Integer) paramMap.get("roleid");
+                UserRoleParam param = request.paramsAs(UserRoleParam.class);
+                Integer userid = param.userid();
+                // 兼容单角色roleid；传roleids时为用户分配多个角色
+                List<Integer> roleids = param.roleIds();
 
                 // 前置校验：用户不存在
-                if (!userService.checkUserExistsByUserId(userid)) {
+                if (!userInTenant(userid, tenantId)) {
                     throw new RuntimeException("USER_NOT_EXIST|用户ID【" + userid + "】不存在");
                 }
                 // 前置校验：角色不存在
-                if (!roleService.checkRoleExistsByRoleId(roleid)) {
-                    throw new RuntimeException("ROLE_NOT_EXIST|角色ID【" + roleid + "】不存在");
+                List<Integer> invalidRoleIds = roleids.stream()
+                        .filter(roleid -> !roleInTenant(roleid, tenantId))
+                        .collect(Collectors.toList());
+                if (!invalidRoleIds.isEmpty()) {
+                    throw new RuntimeException("ROLE_NOT_EXIST|角色ID【" + (roleids.size() == 1 ? roleids.get(0) : invalidRoleIds) + "】不存在");
                 }
 
-                Boolean isSuccess = userService.updateUserRole(userid, roleid);
+                Boolean isSuccess = userService.updateUserRoles(userid, roleids);
                 if (isSuccess) {
-                    return "用户[" + userid + "]角色更新为[" + roleid + "]成功";
+                    return "用户[" + userid + "]角色更新为" + (roleids.size() == 1 ? "[" + roleids.get(0) + "]" : roleids) + "成功";
                 } else {
                     throw new RuntimeException("USER_ROLE_UPDATE_FAILED|用户[" + userid + "]角色更新失败");
                 }
             }
+            case "system:user:role:temporary": {
+                TemporaryRoleParam param = request.paramsAs(TemporaryRoleParam.class);
+                Integer userid = param.userid();
+                Integer roleid = param.roleid();
+                Timestamp validUntil = new Timestamp(param.validUntil());
+                Timestamp validFrom = param.validFrom() == null ? null : new Timestamp(param.validFrom());
+
+                if (!userInTenant(userid, tenantId)) {
+                    throw new RuntimeException("USER_NOT_EXIST|用户ID【" + userid + "】不存在");
+                }
+                if (!roleInTenant(roleid, tenantId)) {
+                    throw new RuntimeException("ROLE_NOT_EXIST|角色ID【" + roleid + "】不存在");
+                }
+
+                Boolean isSuccess = userService.grantTemporaryRole(userid, roleid, validFrom, validUntil);
+                if (isSuccess) {
+                    return "用户[" + userid + "]授予角色[" + roleid + "]成功，有效期至" + validUntil;
+                } else {
+                    throw new RuntimeException("USER_ROLE_TEMP_FAILED|用户[" + userid + "]授予限时角色[" + roleid + "]失败");
+                }
+            }
             case "system:user:getrole":{
-                Map<String, Integer> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Integer>>() {});
-                Integer userid = (Integer) paramMap.get("userid");
+                Integer userid = request.paramsAs(UserIdParam.class).userid();
                 // 前置校验：用户不存在
-                if (!userService.checkUserExistsByUserId(userid)) {
+                if (!userInTenant(userid, tenantId)) {
                     throw new RuntimeException("USER_NOT_EXIST|用户ID【" + userid + "】不存在");
                 }
                 Role role = userService.getRoleByUserId(userid);
@@ -170,11 +248,10 @@ public class RealBusinessService implements ApiService {
             }
 
             case "system:user:own:permission":{
-                Map<String, Integer> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Integer>>() {});
-                Integer userid = (Integer) paramMap.get("userid");
+                Integer userid = request.paramsAs(UserIdParam.class).userid();
 
                 // 前置校验：用户不存在
-                if (!userService.checkUserExistsByUserId(userid)) {
+                if (!userInTenant(userid, tenantId)) {
                     throw new RuntimeException("USER_NOT_EXIST|用户ID【" + userid + "】不存在");
                 }
 
@@ -187,9 +264,14 @@ public class RealBusinessService implements ApiService {
                 }
             }
 
+            case "system:user:own:permission:check":{
+                // 批量校验当前登录用户的权限：一次返回codes中拥有的编码（codes为空则返回全部有效权限）
+                List<String> codes = request.paramsAs(PermissionCheckParam.class).codes();
+                return permissionTreeValidator.filterGrantedCodes(loginUser.getUsername(), codes);
+            }
+
             case "system:user:own:password":{
-                Map<String, Object> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Object>>() {});
-                String newPassword = (String) paramMap.get("newPassword");
+                String newPassword = request.paramsAs(PasswordParam.class).newPassword();
 
                 Boolean isSuccess = userService.updateUserPassword(loginUser.getId(), newPassword);
                 if (isSuccess) {
@@ -200,29 +282,26 @@ public class RealBusinessService implements ApiService {
             }
 
             case "system:user:own:login":{
-                Map<String, String> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, String>>() {});
-                String username = paramMap.get("username");
-                String password = paramMap.get("password");
-
-                // 前置校验：用户名或密码为空
-                if (username == null || username.trim().isEmpty() || password == null || password.trim().isEmpty()) {
-                    throw new RuntimeException("LOGIN_PARAM_ERROR|用户名或密码不能为空");
-                }
+                // 用户名、密码非空已由参数校验环节保证
+                CredentialsParam param = request.paramsAs(CredentialsParam.class);
+                String username = param.username();
+                String password = param.password();
 
                 Boolean isSuccess = userService.login(username, password);
                 if (isSuccess) {
-                    return "登录成功";
+                    // 签发令牌：后续请求凭令牌认证，不再逐次查库
+                    User user = userService.getUserByUsername(username);
+                    return tokenService.issue(user, userService.getRoleIdsByUserId(user.getId()));
                 } else {
                     throw new RuntimeException("LOGIN_FAILED|用户名或密码错误");
                 }
             }
 
             case "system:user:delete":{
-                Map<String, Object> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Object>>() {});
-                Integer userid = (Integer) paramMap.get("userid");
+                Integer userid = request.paramsAs(UserIdParam.class).userid();
 
                 // 前置校验：用户不存在
-                if (!userService.checkUserExistsByUserId(userid)) {
+                if (!userInTenant(userid, tenantId)) {
                     throw new RuntimeException("USER_NOT_EXIST|用户ID【" + userid + "】不存在");
                 }
 
@@ -236,13 +315,13 @@ public class RealBusinessService implements ApiService {
 
             // ========== 2. 角色管理（原有逻辑保留，新增错误码） ==========
             case "system:role:list": {
-                return roleService.getAllRoles();
+                return roleService.getRolesByTenantId(tenantId);
             }
 
             case "system:role:create":{
-                Map<String, String> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, String>>() {});
-                String roleName = paramMap.get("roleName");
-                String description = paramMap.get("description");
+                RoleCreateParam param = request.paramsAs(RoleCreateParam.class);
+                String roleName = param.roleName();
+                String description = param.description();
 
                 // 前置校验：角色名重复 → 返回错误码 ROLE_NAME_DUPLICATE
                 if (roleService.checkRoleExistsByRoleName(roleName)) {
@@ -252,6 +331,7 @@ public class RealBusinessService implements ApiService {
                 Role role = new Role();
                 role.setName(roleName);
                 role.setDescription(description);
+                role.setTenantId(tenantId);
                 boolean isSuccess = roleService.addRole(role);
                 if (isSuccess) {
                     return "新增角色[" + roleName + "]成功";
@@ -261,28 +341,26 @@ public class RealBusinessService implements ApiService {
             }
 
             case "system:role:permission": {
-                Map<String, Object> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Object>>() {});
-                Integer roleId = (Integer) paramMap.get("roleId");
-                List<Integer> permIdList = null;
+                RolePermissionParam param = request.paramsAs(RolePermissionParam.class);
+                Integer roleId = param.roleId();
+                List<Integer> permIdList = param.permIdList();
 
                 // 前置校验：角色不存在
-                if (!roleService.checkRoleExistsByRoleId(roleId)) {
+                if (!roleInTenant(roleId, tenantId)) {
                     throw new RuntimeException("ROLE_NOT_EXIST|角色ID【" + roleId + "】不存在");
                 }
 
-                Object permIdObj = paramMap.get("permIdList");
-                if (permIdObj instanceof List) {
-                    permIdList = ((List<?>) permIdObj).stream()
-                            .map(obj -> obj != null ? Integer.parseInt(obj.toString()) : null)
-                            .collect(Collectors.toList());
-
-                    // 校验权限ID是否有效
-                    List<Integer> invalidPermIds = permIdList.stream()
-                            .filter(permId -> permId != null && !permissionService.checkPermissionExistsByPermissionId(permId))
-                            .collect(Collectors.toList());
-                    if (!invalidPermIds.isEmpty()) {
-                        throw new RuntimeException("PERMISSION_NOT_EXIST|权限ID【" + invalidPermIds + "】不存在");
-                    }
+                // 校验权限ID是否有效
+                List<Integer> invalidPermIds = permIdList.stream()
+                        .filter(permId -> !permissionInTenant(permId, tenantId))
+                        .collect(Collectors.toList());
+                if (!invalidPermIds.isEmpty()) {
+                    throw new RuntimeException("PERMISSION_NOT_EXIST|权限ID【" + invalidPermIds + "】不存在");
+                }
+                // 同一权限不能既允许又拒绝
+                List<Integer> conflictPermIds = roleService.findConflictingPermissionIds(roleId, permIdList, false);
+                if (!conflictPermIds.isEmpty()) {
+                    throw new RuntimeException("ROLE_PERM_CONFLICT|权限ID【" + conflictPermIds + "】已被角色[" + roleId + "]拒绝，请先取消拒绝");
                 }
 
                 boolean isSuccess = roleService.assignPermissionsToRole(roleId, permIdList);
@@ -293,23 +371,84 @@ public class RealBusinessService implements ApiService {
                 }
             }
 
+            case "system:role:deny": {
+                RoleDenyParam param = request.paramsAs(RoleDenyParam.class);
+                Integer roleId = param.roleId();
+                List<Integer> permIdList = param.permIdList().stream().distinct().collect(Collectors.toList());
+
+                // 前置校验：角色/权限不存在、与允许权限冲突
+                if (!roleInTenant(roleId, tenantId)) {
+                    throw new RuntimeException("ROLE_NOT_EXIST|角色ID【" + roleId + "】不存在");
+                }
+                List<Integer> invalidPermIds = permIdList.stream()
+                        .filter(permId -> !permissionInTenant(permId, tenantId))
+                        .collect(Collectors.toList());
+                if (!invalidPermIds.isEmpty()) {
+                    throw new RuntimeException("PERMISSION_NOT_EXIST|权限ID【" + invalidPermIds + "】不存在");
+                }
+                List<Integer> conflictPermIds = roleService.findConflictingPermissionIds(roleId, permIdList, true);
+                if (!conflictPermIds.isEmpty()) {
+                    throw new RuntimeException("ROLE_PERM_CONFLICT|权限ID【" + conflictPermIds + "】已分配给角色[" + roleId + "]，请先取消分配");
+                }
+
+                boolean isSuccess = roleService.denyPermissionsToRole(roleId, permIdList);
+                if (isSuccess) {
+                    return "角色[" + roleId + "]拒绝权限更新成功，拒绝权限：" + permIdList;
+                } else {
+                    throw new RuntimeException("ROLE_DENY_UPDATE_FAILED|角色[" + roleId + "]拒绝权限更新失败");
+                }
+            }
+
+            case "system:role:inherit": {
+                RoleInheritParam param = request.paramsAs(RoleInheritParam.class);
+                Integer roleId = param.roleId();
+                List<Integer> parentRoleIds = param.parentRoleIds();
+
+                // 前置校验：角色/父角色不存在、循环继承
+                if (!roleInTenant(roleId, tenantId)) {
+                    throw new RuntimeException("ROLE_NOT_EXIST|角色ID【" + roleId + "】不存在");
+                }
+                List<Integer> invalidRoleIds = parentRoleIds.stream()
+                        .filter(parentId -> !roleInTenant(parentId, tenantId))
+                        .collect(Collectors.toList());
+                if (!invalidRoleIds.isEmpty()) {
+                    throw new RuntimeException("ROLE_NOT_EXIST|父角色ID【" + invalidRoleIds + "】不存在");
+                }
+                if (roleService.createsInheritanceCycle(roleId, parentRoleIds)) {
+                    throw new RuntimeException("ROLE_INHERIT_CYCLE|角色[" + roleId + "]继承" + parentRoleIds + "会构成循环继承");
+                }
+
+                boolean isSuccess = roleService.updateRoleParents(roleId, parentRoleIds);
+                if (isSuccess) {
+                    return "角色[" + roleId + "]继承关系更新成功，父角色：" + parentRoleIds;
+                } else {
+                    throw new RuntimeException("ROLE_INHERIT_UPDATE_FAILED|角色[" + roleId + "]继承关系更新失败");
+                }
+            }
+
             // ========== 3. 权限管理（原有逻辑保留，新增错误码） ==========
             case "system:permission:list":{
-                return permissionService.getAllPermissions();
+                return permissionService.getPermissionsByTenantId(tenantId);
+            }
+
+            case "system:permission:holders": {
+                // 查询持有某权限的角色和用户（含通过父权限间接持有），用户按ID分页
+                PermissionHoldersParam param = request.paramsAs(PermissionHoldersParam.class);
+                return permissionHolderIndex.findHolders(tenantId, param.code(), param.pageOrDefault(), param.sizeOrDefault());
             }
 
             case "system:permission:create": {
-                Map<String, Object> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Object>>() {});
-                String permission_name= (String) paramMap.get("permission_name");
-                String code = (String) paramMap.get("code");
-                Integer parentId = (Integer) paramMap.get("parent_id");
+                PermissionCreateParam param = request.paramsAs(PermissionCreateParam.class);
+                String permission_name = param.permissionName();
+                String code = param.code();
+                Integer parentId = param.parentId();
 
                 // 前置校验：权限编码重复
-                if (permissionService.checkPermissionCodeExists(code)) {
+                if (permissionService.checkPermissionCodeExists(tenantId, code)) {
                     throw new RuntimeException("PERM_CODE_DUPLICATE|权限编码【" + code + "】已存在");
                 }
                 // 前置校验：父权限不存在
-                if (parentId != null && !permissionService.checkPermissionExistsByPermissionId(parentId)) {
+                if (parentId != null && !permissionInTenant(parentId, tenantId)) {
                     throw new RuntimeException("PERM_PARENT_NOT_EXIST|父权限ID【" + parentId + "】不存在");
                 }
 
@@ -317,6 +456,7 @@ public class RealBusinessService implements ApiService {
                 permission.setName(permission_name);
                 permission.setCode(code);
                 permission.setParentId(parentId);
+                permission.setTenantId(tenantId);
                 boolean isSuccess = permissionService.addPermission(permission);
                 if (isSuccess) {
                     return "新增权限[" + permission_name + "]成功";
@@ -325,21 +465,29 @@ public class RealBusinessService implements ApiService {
                 }
             }
 
-            case "syetem:permission:edit": {
-                Map<String, Object> paramMap = JsonUtil.parseJson(bizParams, new TypeReference<Map<String, Object>>() {});
-                Integer permission_id = (Integer) paramMap.get("permission_id");
-                String permission_name= (String) paramMap.get("permission_name");
-                String code = (String) paramMap.get("code");
-                Integer parentId = (Integer) paramMap.get("parent_id");
+            case "system:permission:edit": {
+                PermissionEditParam param = request.paramsAs(PermissionEditParam.class);
+                Integer permission_id = param.permissionId();
+                String permission_name = param.permissionName();
+                String code = param.code();
+                Integer parentId = param.parentId();
 
                 // 前置校验：权限不存在
-                if (!permissionService.checkPermissionExistsByPermissionId(permission_id)) {
+                if (!permissionInTenant(permission_id, tenantId)) {
                     throw new RuntimeException("PERMISSION_NOT_EXIST|权限ID【" + permission_id + "】不存在");
                 }
                 // 前置校验：权限编码重复
-                if (permissionService.checkPermissionCodeExists(code) && !permissionService.getPermissionById(permission_id).getCode().equals(code)) {
+                if (permissionService.checkPermissionCodeExists(tenantId, code) && !permissionService.getPermissionById(permission_id).getCode().equals(code)) {
                     throw new RuntimeException("PERM_CODE_DUPLICATE|权限编码【" + code + "】已存在");
                 }
+                // 前置校验：父权限不存在（与新增相同，其它租户的权限视为不存在）
+                if (parentId != null && parentId != 0 && !permissionInTenant(parentId, tenantId)) {
+                    throw new RuntimeException("PERM_PARENT_NOT_EXIST|父权限ID【" + parentId + "】不存在");
+                }
+                // 前置校验：新父权限不能是自身或其子孙（否则形成循环，整棵子树从授权中消失）
+                if (parentId != null && isSelfOrDescendant(parentId, permission_id)) {
+                    throw new RuntimeException("PERM_PARENT_INVALID|不能把权限【" + permission_id + "】移动到自身或其子权限下");
+                }
 
                 Permission permission = new Permission();
                 permission.setId(permission_id);
@@ -359,6 +507,38 @@ public class RealBusinessService implements ApiService {
         }
     }
 
+    // ========== 租户内存在性校验（其它租户的数据对当前租户不可见） ==========
+    private boolean userInTenant(Integer userid, Integer tenantId) {
+        User user = userid == null ? null : userService.getUserByUserId(userid);
+        return user != null && user.getTenantId().equals(tenantId);
+    }
+
+    private boolean roleInTenant(Integer roleId, Integer tenantId) {
+        Role role = roleId == null ? null : roleService.getRoleById(roleId);
+        return role != null && role.getTenantId().equals(tenantId);
+    }
+
+    private boolean permissionInTenant(Integer permId, Integer tenantId) {
+        Permission permission = permId == null ? null : permissionService.getPermissionById(permId);
+        return permission != null && permission.getTenantId().equals(tenantId);
+    }
+
+    /**
+     * candidateId是否为permId自身或其子孙：从candidateId沿父权限向上查找（与PermissionTreeBuilder.moveNode的校验一致）
+     * 按数据库中的父子关系判断，已存在的循环不会导致死循环
+     */
+    private boolean isSelfOrDescendant(Integer candidateId, Integer permId) {
+        Set<Integer> visited = new HashSet<>();
+        for (Integer id = candidateId; id != null && id != 0 && visited.add(id); ) {
+            if (id.equals(permId)) {
+                return true;
+            }
+            Permission ancestor = permissionService.getPermissionById(id);
+            id = ancestor == null ? null : ancestor.getParentId();
+        }
+        return false;
+    }
+
     // ========== 兼容你原有Service的校验方法（需确保Service层实现以下方法） ==========
     // 注：以下是占位提示，实际需在你的UserService/RoleService/PermissionService中实现这些校验方法
     // 1. UserService需实现：checkUsernameExist(String username)、checkUserExist(Integer userId)
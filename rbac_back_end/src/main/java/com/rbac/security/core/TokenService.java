@@ -0,0 +1,260 @@
+package com.rbac.security.core;
+
+import com.rbac.model.entity.User;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeListener;
+import com.rbac.service.event.RbacChangeType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 登录令牌服务：签发/校验HMAC-SHA256签名的无状态令牌
+ * 令牌格式：Base64Url(载荷).Base64Url(签名)，载荷 = 用户ID|租户ID|角色ID列表|数据版本(启动纪元:用户版本号:凭证版本号)|过期时间|用户名
+ * 校验只做签名比对（常量时间）和过期判断，不访问数据库；
+ * 用户角色变更/删除时递增该用户的版本号，令牌中的版本与当前不一致即视为过期数据，由调用方回库确认一次；
+ * 用户密码修改/重置时另外递增凭证版本号，此前签发的令牌作废（见isRevoked），须重新登录
+ */
+@Slf4j
+@Component
+public class TokenService implements RbacChangeListener {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    // 签名密钥（留空则启动时随机生成，重启后已签发的令牌全部失效）
+    @Value("${rbac.token.secret:}")
+    private String secret;
+    // 令牌有效期（分钟）
+    @Value("${rbac.token.ttl-minutes:120}")
+    private long ttlMinutes;
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+
+    // 启动纪元：内存中的用户版本号重启后从0开始，纪元不同的令牌一律视为过期数据
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Integer, AtomicLong> userVersions = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> credentialVersions = new ConcurrentHashMap<>();
+    private SecretKeySpec key;
+    private long ttlMillis;
+    // Mac实例非线程安全，每个线程一份
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public TokenService() {
+    }
+
+    /**
+     * 直接指定密钥和有效期（不依赖Spring，测试用）
+     */
+    public TokenService(String secret, long ttlMillis) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.ttlMillis = ttlMillis;
+    }
+
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes;
+        if (secret == null || secret.trim().isEmpty()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("未配置rbac.token.secret，已随机生成令牌签名密钥（重启后需重新登录，多实例部署须配置相同密钥）");
+        } else {
+            keyBytes = secret.trim().getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        rbacChangeBus.register(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rbacChangeBus.unregister(this);
+    }
+
+    @Override
+    public void onChange(RbacChangeEvent event) {
+        // 用户角色变更/删除/限时角色生效或到期/密码修改：该用户已签发令牌中的角色即不再可信
+        if (event.isUserScoped() && event.getUserId() != null) {
+            userVersions.computeIfAbsent(event.getUserId(), k -> new AtomicLong()).incrementAndGet();
+        }
+        // 密码修改/重置：此前签发的令牌不能再续签，一律作废
+        if (event.getChangeType() == RbacChangeType.USER_CREDENTIALS_CHANGED && event.getUserId() != null) {
+            credentialVersions.computeIfAbsent(event.getUserId(), k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * 签发令牌
+     * @param user 登录用户（需包含ID、用户名、租户ID）
+     * @param roleIds 用户当前的角色ID
+     * @return 令牌字符串
+     */
+    public String issue(User user, int[] roleIds) {
+        return issue(user, roleIds, System.currentTimeMillis());
+    }
+
+    String issue(User user, int[] roleIds, long nowMillis) {
+        String roles = roleIds == null ? "" : Arrays.stream(roleIds).mapToObj(String::valueOf).collect(Collectors.joining(","));
+        String payload = user.getId() + "|" + user.getTenantId() + "|" + roles + "|"
+                + epoch + ":" + userVersion(user.getId()) + ":" + version(credentialVersions, user.getId())
+                + "|" + (nowMillis + ttlMillis) + "|" + user.getUsername();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * 校验令牌：签名（常量时间比较）+ 格式 + 过期时间，不访问数据库
+     * @param token 令牌字符串
+     * @return 令牌声明（签名不符、格式错误或已过期返回null）
+     */
+    public Claims verify(String token) {
+        return verify(token, System.currentTimeMillis());
+    }
+
+    Claims verify(String token, long nowMillis) {
+        if (token == null) {
+            return null;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot != token.lastIndexOf('.')) {
+            return null;
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return null;
+            }
+            // 用户名放在最后，允许其中含分隔符
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 6);
+            if (parts.length != 6) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(parts[4]);
+            if (expiresAt <= nowMillis) {
+                return null;
+            }
+            int[] roleIds = parts[2].isEmpty() ? new int[0]
+                    : Arrays.stream(parts[2].split(",")).mapToInt(Integer::parseInt).toArray();
+            String[] version = parts[3].split(":", 3);
+            return new Claims(Integer.valueOf(parts[0]), Integer.valueOf(parts[1]), parts[5], roleIds,
+                    Long.parseLong(version[0]), Long.parseLong(version[1]), Long.parseLong(version[2]), expiresAt);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            // Base64或数字格式错误
+            return null;
+        }
+    }
+
+    /**
+     * 令牌中的数据版本是否仍是最新（同一次启动签发，且签发后该用户的角色未变更）
+     */
+    public boolean isCurrent(Claims claims) {
+        return claims.epoch == epoch && claims.userVersion == userVersion(claims.userId);
+    }
+
+    /**
+     * 令牌签发后用户是否修改过密码（作废的令牌不能续签，须重新登录）
+     * 凭证版本号只在内存中，服务重启前的修改无从判断，纪元不同的令牌仍按过期数据回库确认
+     */
+    public boolean isRevoked(Claims claims) {
+        return claims.epoch == epoch && claims.credentialVersion != version(credentialVersions, claims.userId);
+    }
+
+    private long userVersion(Integer userId) {
+        return version(userVersions, userId);
+    }
+
+    private static long version(Map<Integer, AtomicLong> versions, Integer userId) {
+        AtomicLong version = userId == null ? null : versions.get(userId);
+        return version == null ? 0L : version.get();
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化令牌签名算法失败", e);
+        }
+    }
+
+    /**
+     * 令牌声明（校验通过后的载荷）
+     */
+    public static final class Claims {
+        private final Integer userId;
+        private final Integer tenantId;
+        private final String username;
+        private final int[] roleIds;
+        private final long epoch;
+        private final long userVersion;
+        private final long credentialVersion;
+        private final long expiresAt;
+
+        Claims(Integer userId, Integer tenantId, String username, int[] roleIds,
+               long epoch, long userVersion, long credentialVersion, long expiresAt) {
+            this.userId = userId;
+            this.tenantId = tenantId;
+            this.username = username;
+            this.roleIds = roleIds;
+            this.epoch = epoch;
+            this.userVersion = userVersion;
+            this.credentialVersion = credentialVersion;
+            this.expiresAt = expiresAt;
+        }
+
+        public Integer getUserId() {
+            return userId;
+        }
+
+        public Integer getTenantId() {
+            return tenantId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public int[] getRoleIds() {
+            return roleIds.clone();
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+
+        /**
+         * 由令牌声明构造登录用户（不含密码，供后续代理和业务使用）
+         */
+        public User toUser() {
+            User user = new User();
+            user.setId(userId);
+            user.setUsername(username);
+            user.setTenantId(tenantId);
+            return user;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.rbac.security.model;
+
+import com.rbac.security.model.param.*;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 接口操作枚举：权限编码 → 操作类别、该操作需要经过的安全环节、业务参数类型
+ * 启动时按此为每个操作编译一条只含必要环节的责任链（见SecurityPipelines），按权限编码O(1)选取
+ * 按操作附加的策略（如限流、并发控制）也挂在这里
+ */
+public enum ApiOperation {
+    // ========== 用户管理 ==========
+    USER_LIST("system:user:list", Kind.READ, null, Stage.ADMISSION, Stage.LOG, Stage.AUTH, Stage.AUTHZ,
+            Stage.RESPONSE_CACHE, Stage.RATE_LIMIT),
+    USER_CREATE("system:user:create", Kind.WRITE, CredentialsParam.class, Stage.values()),
+    USER_PASSWORD_RESET("system:user:password", Kind.WRITE, UserIdParam.class, Stage.values()),
+    USER_ROLE_UPDATE("system:user:role", Kind.WRITE, UserRoleParam.class, Stage.values()),
+    USER_ROLE_TEMPORARY("system:user:role:temporary", Kind.WRITE, TemporaryRoleParam.class, Stage.values()),
+    USER_ROLE_GET("system:user:getrole", Kind.READ, UserIdParam.class, Stage.values()),
+    USER_OWN_PERMISSION("system:user:own:permission", Kind.READ, UserIdParam.class, Stage.values()),
+    // 只返回登录用户自己的授权结果：认证通过即可调用（否则前端无法计算菜单）
+    USER_OWN_PERMISSION_CHECK("system:user:own:permission:check", Kind.SELF_READ, PermissionCheckParam.class,
+            Stage.ADMISSION, Stage.LOG, Stage.AUTH, Stage.PARAM_CHECK, Stage.RATE_LIMIT),
+    USER_OWN_PASSWORD("system:user:own:password", Kind.WRITE, PasswordParam.class, Stage.values()),
+    // 登录：尚无登录用户，不做认证/授权，只解析校验用户名密码；按登录用户名限流（防暴力破解）
+    USER_LOGIN("system:user:own:login", Kind.LOGIN, CredentialsParam.class,
+            Stage.ADMISSION, Stage.LOG, Stage.PARAM_CHECK, Stage.RATE_LIMIT),
+    USER_DELETE("system:user:delete", Kind.WRITE, UserIdParam.class, Stage.values()),
+
+    // ========== 角色管理 ==========
+    ROLE_LIST("system:role:list", Kind.READ, null, Stage.ADMISSION, Stage.LOG, Stage.AUTH, Stage.AUTHZ,
+            Stage.RESPONSE_CACHE, Stage.RATE_LIMIT),
+    ROLE_CREATE("system:role:create", Kind.WRITE, RoleCreateParam.class, Stage.values()),
+    ROLE_PERMISSION("system:role:permission", Kind.WRITE, RolePermissionParam.class, Stage.values()),
+    ROLE_DENY("system:role:deny", Kind.WRITE, RoleDenyParam.class, Stage.values()),
+    ROLE_INHERIT("system:role:inherit", Kind.WRITE, RoleInheritParam.class, Stage.values()),
+
+    // ========== 权限管理 ==========
+    PERMISSION_LIST("system:permission:list", Kind.READ, null, Stage.ADMISSION, Stage.LOG, Stage.AUTH, Stage.AUTHZ,
+            Stage.RESPONSE_CACHE, Stage.RATE_LIMIT),
+    PERMISSION_HOLDERS("system:permission:holders", Kind.READ, PermissionHoldersParam.class, Stage.values()),
+    PERMISSION_CREATE("system:permission:create", Kind.WRITE, PermissionCreateParam.class, Stage.values()),
+    PERMISSION_EDIT("system:permission:edit", Kind.WRITE, PermissionEditParam.class, Stage.values()),
+
+    // ========== 批量请求 ==========
+    // 整批只做一次准入、认证和限流；各条目再分别经过自身操作的授权、参数校验等环节（见BatchService）
+    BATCH("system:batch", Kind.BATCH, null, Stage.ADMISSION, Stage.LOG, Stage.AUTH, Stage.RATE_LIMIT);
+
+    /**
+     * 安全环节（声明顺序即执行顺序）
+     */
+    public enum Stage {
+        ADMISSION,   // 准入控制（最前面：过载时在做任何工作之前拒绝）
+        LOG,         // 日志
+        AUTH,        // 认证
+        AUTHZ,       // 授权
+        PARAM_CHECK, // 参数解析与校验（bizParams只在此环节解析一次，结果挂在ApiRequest上）
+        RESPONSE_CACHE, // 响应缓存（授权和参数校验之后：命中时直接返回预序列化的结果，不再限流、不访问数据库）
+        RATE_LIMIT   // 限流（放在业务之前的最后一环：前面的环节都只访问内存，限流保护的是数据库；登录按已解析的用户名计数）
+    }
+
+    /**
+     * 操作类别（限流的默认策略、过载时的准入优先级按类别区分）
+     */
+    public enum Kind {
+        READ,       // 只读查询（结果只取决于租户和参数，与调用者无关：并发的相同请求可共享一次执行）
+        SELF_READ,  // 只读查询（结果与调用者有关）
+        WRITE,  // 写操作
+        LOGIN,  // 登录
+        BATCH   // 批量请求（耗时随条目数增长，不作为准入控制的耗时样本）
+    }
+
+    private static final Map<String, ApiOperation> BY_PERM_CODE = new HashMap<>();
+
+    static {
+        for (ApiOperation operation : values()) {
+            BY_PERM_CODE.put(operation.permCode, operation);
+        }
+    }
+
+    private final String permCode;
+    private final Kind kind;
+    private final Class<?> paramType;
+    private final Set<Stage> stages;
+
+    ApiOperation(String permCode, Kind kind, Class<?> paramType, Stage... stages) {
+        this.permCode = permCode;
+        this.kind = kind;
+        this.paramType = paramType;
+        EnumSet<Stage> set = EnumSet.noneOf(Stage.class);
+        Collections.addAll(set, stages);
+        // 响应缓存只用于结果与调用者无关的只读操作（写操作等即使声明了全部环节也不经过）
+        if (kind != Kind.READ) {
+            set.remove(Stage.RESPONSE_CACHE);
+        }
+        this.stages = Collections.unmodifiableSet(set);
+    }
+
+    public String getPermCode() {
+        return permCode;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 结果与调用者无关的只读操作（并发的相同请求可共享一次执行的结果）
+     */
+    public boolean isSharedRead() {
+        return kind == Kind.READ;
+    }
+
+    /**
+     * 业务参数记录类型（无参数的操作返回null）
+     */
+    public Class<?> getParamType() {
+        return paramType;
+    }
+
+    /**
+     * 该操作需要经过的安全环节（按执行顺序迭代）
+     */
+    public Set<Stage> getStages() {
+        return stages;
+    }
+
+    public boolean requires(Stage stage) {
+        return stages.contains(stage);
+    }
+
+    /**
+     * 按权限编码查找操作
+     * @param permCode 权限编码
+     * @return 操作（未知编码返回null）
+     */
+    public static ApiOperation fromPermCode(String permCode) {
+        return permCode == null ? null : BY_PERM_CODE.get(permCode);
+    }
+}
@@ -1,5 +1,6 @@
 package com.rbac.security.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.rbac.model.entity.User;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
@@ -11,7 +12,7 @@ import lombok.Data;
 @Schema(description = "RBAC权限系统API请求参数", title = "ApiRequest")
 public class ApiRequest {
     @Schema(
-            description = "用户身份Token（登录后获取）",
+            description = "用户身份Token（登录接口返回的签名令牌，认证只认令牌中的身份）",
             example = "eyJhbGciOiJIUzI1NiJ9.admin.123456789",
             required = true // 必填
     )
@@ -39,9 +40,24 @@ public class ApiRequest {
     private Long timestamp;        // 参数校验用
 
     @Schema(
-            description = "当前的用户对象",
+            description = "当前的用户对象（仅供兼容，认证通过后由服务端替换为令牌中的用户）",
             example = "{\"username\": \"admin\"}",
             required = true // 可选
     )
     private User user;
-}
\ No newline at end of file
+
+    @JsonIgnore
+    @Schema(hidden = true)
+    private Object params;         // 参数校验环节由bizParams解析出的参数记录（服务端填充，业务层直接使用）
+
+    /**
+     * 按类型取已解析的参数记录
+     * @throws RuntimeException 参数未经解析（操作未经过参数校验环节）或类型不符
+     */
+    public <T> T paramsAs(Class<T> type) {
+        if (!type.isInstance(params)) {
+            throw new RuntimeException("PARAM_NOT_PARSED|业务参数未解析，请检查接口的参数校验环节");
+        }
+        return type.cast(params);
+    }
+}
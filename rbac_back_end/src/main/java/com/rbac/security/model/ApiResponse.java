@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * 统一API响应结果模型（兼容原有调用逻辑 + 适配前端精细化错误处理）
@@ -90,6 +91,11 @@ public class ApiResponse {
         return res;
     }
 
+    // 生成全局唯一追踪ID（便于排查问题）
+    public static String newTraceId() {
+        return "REQ_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
     // ========== 链式设置（简化代码） ==========
     public ApiResponse traceId(String traceId) {
         this.traceId = traceId;
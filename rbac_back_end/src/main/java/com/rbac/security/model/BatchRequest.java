@@ -0,0 +1,40 @@
+package com.rbac.security.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量请求参数封装：一次HTTP调用执行多个ApiRequest（整批认证一次，各条目分别授权、校验参数后执行）
+ */
+@Data
+@Schema(description = "RBAC权限系统批量请求参数", title = "BatchRequest")
+public class BatchRequest {
+    @Schema(
+            description = "用户身份Token（整批只认证一次，条目中的token忽略）",
+            example = "eyJhbGciOiJIUzI1NiJ9.admin.123456789",
+            required = true // 必填
+    )
+    private String token;
+
+    @Schema(
+            description = "批量执行的请求条目（每项同单个接口的ApiRequest：permCode + bizParams）",
+            required = true // 必填
+    )
+    private List<ApiRequest> items;
+
+    @Schema(
+            description = "是否在一个事务中执行：任一条目失败则全部回滚，之后的条目不再执行（不能与parallel同时使用）",
+            example = "false",
+            required = false // 可选
+    )
+    private boolean transactional;
+
+    @Schema(
+            description = "是否并行执行（条目之间互不依赖时使用，结果仍按条目顺序返回）",
+            example = "false",
+            required = false // 可选
+    )
+    private boolean parallel;
+}
@@ -0,0 +1,44 @@
+package com.rbac.security.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+
+/**
+ * 已序列化好的JSON片段：作为ApiResponse.data返回时原样写入响应，不再逐个对象序列化
+ * 用于响应缓存命中：外层的traceId、耗时等逐请求字段照常序列化，结果部分直接拼接缓存的文本
+ */
+public final class RawJson implements JsonSerializable {
+    private final String json;
+
+    public RawJson(String json) {
+        if (json == null) {
+            throw new IllegalArgumentException("JSON文本不能为空！");
+        }
+        this.json = json;
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        // 未启用多态类型信息，按普通值写出
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
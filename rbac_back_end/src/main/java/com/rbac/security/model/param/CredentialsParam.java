@@ -0,0 +1,11 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.NotBlank;
+
+/**
+ * 用户名+密码参数（新增用户、登录）
+ */
+public record CredentialsParam(
+        @NotBlank(message = "用户名不能为空") String username,
+        @NotBlank(message = "密码不能为空") String password) {
+}
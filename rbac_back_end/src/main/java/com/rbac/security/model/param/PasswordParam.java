@@ -0,0 +1,9 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.NotBlank;
+
+/**
+ * 修改自身密码参数
+ */
+public record PasswordParam(@NotBlank(message = "新密码不能为空") String newPassword) {
+}
@@ -0,0 +1,16 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.NotBlank;
+import com.rbac.security.param.Size;
+
+import java.util.List;
+
+/**
+ * 批量校验自身权限参数：codes可选，不传则返回全部有效权限
+ */
+public record PermissionCheckParam(
+        @Size(max = PermissionCheckParam.MAX_BATCH_CODES, message = "单次最多校验" + PermissionCheckParam.MAX_BATCH_CODES + "个权限编码")
+        List<@NotBlank(message = "权限编码必须是非空字符串") String> codes) {
+    // 批量校验权限单次最多编码数
+    public static final int MAX_BATCH_CODES = 1000;
+}
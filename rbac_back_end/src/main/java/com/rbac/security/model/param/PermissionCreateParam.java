@@ -0,0 +1,14 @@
+package com.rbac.security.model.param;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rbac.security.param.Min;
+import com.rbac.security.param.NotBlank;
+
+/**
+ * 新增权限参数：parent_id可选（≥0）
+ */
+public record PermissionCreateParam(
+        @JsonProperty("permission_name") @NotBlank(message = "权限名称不能为空") String permissionName,
+        @NotBlank(message = "权限编码不能为空") String code,
+        @JsonProperty("parent_id") @Min(value = 0, message = "父权限ID必须是大于等于0的整数") Integer parentId) {
+}
@@ -0,0 +1,17 @@
+package com.rbac.security.model.param;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.rbac.security.param.Min;
+import com.rbac.security.param.NotBlank;
+import com.rbac.security.param.Required;
+
+/**
+ * 修改权限参数：permission_id必填，parent_id可选（≥0）
+ */
+public record PermissionEditParam(
+        @JsonProperty("permission_id") @Required(message = "权限ID必须是大于0的整数")
+        @Min(value = 1, message = "权限ID必须是大于0的整数") Integer permissionId,
+        @JsonProperty("permission_name") @NotBlank(message = "权限名称不能为空") String permissionName,
+        @NotBlank(message = "权限编码不能为空") String code,
+        @JsonProperty("parent_id") @Min(value = 0, message = "父权限ID必须是大于等于0的整数") Integer parentId) {
+}
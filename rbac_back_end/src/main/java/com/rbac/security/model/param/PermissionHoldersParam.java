@@ -0,0 +1,25 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.Max;
+import com.rbac.security.param.Min;
+import com.rbac.security.param.NotBlank;
+import com.rbac.util.PermissionHolderIndex;
+
+/**
+ * 查询权限持有者参数：page默认1，size默认50（最大PermissionHolderIndex.MAX_PAGE_SIZE）
+ */
+public record PermissionHoldersParam(
+        @NotBlank(message = "权限编码不能为空") String code,
+        @Min(value = 1, message = "页码必须是大于0的整数") Integer page,
+        @Min(value = 1, message = "每页条数必须是1~" + PermissionHolderIndex.MAX_PAGE_SIZE + "的整数")
+        @Max(value = PermissionHolderIndex.MAX_PAGE_SIZE, message = "每页条数必须是1~" + PermissionHolderIndex.MAX_PAGE_SIZE + "的整数")
+        Integer size) {
+
+    public int pageOrDefault() {
+        return page == null ? 1 : page;
+    }
+
+    public int sizeOrDefault() {
+        return size == null ? 50 : size;
+    }
+}
@@ -0,0 +1,9 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.NotBlank;
+
+/**
+ * 新增角色参数：description可选
+ */
+public record RoleCreateParam(@NotBlank(message = "角色名称不能为空") String roleName, String description) {
+}
@@ -0,0 +1,15 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.Min;
+import com.rbac.security.param.Required;
+
+import java.util.List;
+
+/**
+ * 设置角色拒绝权限参数：permIdList可为空数组（表示清空拒绝）
+ */
+public record RoleDenyParam(
+        @Required(message = "角色ID必须是大于0的整数") @Min(value = 1, message = "角色ID必须是大于0的整数") Integer roleId,
+        @Required(message = "permIdList必须是数组格式")
+        List<@Min(value = 1, message = "权限ID必须是大于0的整数") Integer> permIdList) {
+}
@@ -0,0 +1,15 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.Min;
+import com.rbac.security.param.Required;
+
+import java.util.List;
+
+/**
+ * 设置角色继承参数：parentRoleIds可为空数组（表示取消继承）
+ */
+public record RoleInheritParam(
+        @Required(message = "角色ID必须是大于0的整数") @Min(value = 1, message = "角色ID必须是大于0的整数") Integer roleId,
+        @Required(message = "parentRoleIds必须是数组格式")
+        List<@Min(value = 1, message = "父角色ID必须是大于0的整数") Integer> parentRoleIds) {
+}
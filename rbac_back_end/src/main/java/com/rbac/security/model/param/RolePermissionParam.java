@@ -0,0 +1,16 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.Min;
+import com.rbac.security.param.Required;
+import com.rbac.security.param.Size;
+
+import java.util.List;
+
+/**
+ * 给角色分配权限参数：permIdList不能为空
+ */
+public record RolePermissionParam(
+        @Required(message = "角色ID必须是大于0的整数") @Min(value = 1, message = "角色ID必须是大于0的整数") Integer roleId,
+        @Required(message = "permIdList必须是数组格式") @Size(min = 1, message = "权限ID列表不能为空")
+        List<@Min(value = 1, message = "权限ID必须是大于0的整数") Integer> permIdList) {
+}
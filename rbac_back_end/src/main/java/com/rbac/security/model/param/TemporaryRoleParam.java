@@ -0,0 +1,27 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.Min;
+import com.rbac.security.param.Required;
+import com.rbac.security.param.SelfValidating;
+
+/**
+ * 授予限时角色参数：validUntil必须晚于当前时间；validFrom可选（毫秒时间戳），须早于validUntil
+ */
+public record TemporaryRoleParam(
+        @Required(message = "用户ID必须是大于0的整数") @Min(value = 1, message = "用户ID必须是大于0的整数") Integer userid,
+        @Required(message = "角色ID必须是大于0的整数") @Min(value = 1, message = "角色ID必须是大于0的整数") Integer roleid,
+        Long validFrom,
+        @Required(message = "validUntil必须是晚于当前时间的毫秒时间戳") Long validUntil)
+        implements SelfValidating {
+
+    @Override
+    public String violation() {
+        if (validUntil <= System.currentTimeMillis()) {
+            return "validUntil必须是晚于当前时间的毫秒时间戳";
+        }
+        if (validFrom != null && validFrom >= validUntil) {
+            return "validFrom必须是早于validUntil的毫秒时间戳";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.Min;
+import com.rbac.security.param.Required;
+
+/**
+ * 单个用户ID参数（重置密码、查询用户角色/权限、删除用户）
+ */
+public record UserIdParam(
+        @Required(message = "用户ID必须是大于0的整数") @Min(value = 1, message = "用户ID必须是大于0的整数") Integer userid) {
+}
@@ -0,0 +1,32 @@
+package com.rbac.security.model.param;
+
+import com.rbac.security.param.Min;
+import com.rbac.security.param.Required;
+import com.rbac.security.param.SelfValidating;
+import com.rbac.security.param.Size;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 更改用户角色参数：roleid（单角色）或roleids（多角色）二选一，同时传时以roleids为准
+ */
+public record UserRoleParam(
+        @Required(message = "用户ID必须是大于0的整数") @Min(value = 1, message = "用户ID必须是大于0的整数") Integer userid,
+        @Min(value = 1, message = "角色ID必须是大于0的整数") Integer roleid,
+        @Size(min = 1, message = "roleids必须是非空数组") List<@Min(value = 1, message = "角色ID必须是大于0的整数") Integer> roleids)
+        implements SelfValidating {
+
+    @Override
+    public String violation() {
+        return roleids == null && roleid == null ? "角色ID必须是大于0的整数" : null;
+    }
+
+    /**
+     * 要分配的角色ID（去重）
+     */
+    public List<Integer> roleIds() {
+        return roleids != null ? roleids.stream().distinct().collect(Collectors.toList()) : Collections.singletonList(roleid);
+    }
+}
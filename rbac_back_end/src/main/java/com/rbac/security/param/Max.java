@@ -0,0 +1,17 @@
+package com.rbac.security.param;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 参数校验注解：整数不大于value（null的处理同@Min）
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.RECORD_COMPONENT, ElementType.TYPE_USE})
+public @interface Max {
+    long value();
+
+    String message();
+}
@@ -0,0 +1,18 @@
+package com.rbac.security.param;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 参数校验注解：整数不小于value
+ * 标注在字段上时未传值（null）不校验，需要必填时配合@Required；标注在列表元素类型上时null元素视为不合法
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.RECORD_COMPONENT, ElementType.TYPE_USE})
+public @interface Min {
+    long value();
+
+    String message();
+}
@@ -0,0 +1,15 @@
+package com.rbac.security.param;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 参数校验注解：字符串必须传值且去空白后非空（也可标注在列表元素类型上）
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.RECORD_COMPONENT, ElementType.TYPE_USE})
+public @interface NotBlank {
+    String message();
+}
@@ -0,0 +1,333 @@
+package com.rbac.security.param;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.AnnotatedParameterizedType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 业务参数绑定器：把bizParams一次性解析为某个操作的参数记录，解析过程中同时完成校验
+ * 参数记录即声明式的参数规则（字段类型 + @Required/@NotBlank/@Min/@Max/@Size，列表元素类型上的注解约束每个元素），
+ * 启动时编译为按字段名索引的规则表；请求时在流式解析器上逐个token校验，不构建中间的JSON树或Map：
+ * 超长的参数不进入解析，类型不符、数值越界、列表超长在读到对应token时立即拒绝，未声明的字段直接跳过
+ * 类型不做隐式转换（如字符串"5"、小数1.5传给整数字段判为格式错误）
+ */
+public final class ParamBinder<T> {
+    // bizParams最大长度（字符数），超过直接拒绝
+    public static final int MAX_PARAM_LENGTH = 64 * 1024;
+    // 最大嵌套深度（参数记录本身最多两层，未声明字段中的深层结构在跳过时也受此限制）
+    private static final int MAX_NESTING_DEPTH = 16;
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .streamReadConstraints(StreamReadConstraints.builder()
+                    .maxNestingDepth(MAX_NESTING_DEPTH)
+                    .maxStringLength(MAX_PARAM_LENGTH)
+                    .build())
+            .build();
+    private static final String FORMAT_ERROR = "参数格式错误（需JSON对象）";
+
+    private final Class<T> type;
+    private final Constructor<T> constructor;
+    // 字段规则（按记录字段顺序，缺失校验按此顺序报告）
+    private final Field[] fields;
+    private final Map<String, Field> fieldsByName;
+
+    private ParamBinder(Class<T> type, Constructor<T> constructor, Field[] fields) {
+        this.type = type;
+        this.constructor = constructor;
+        this.fields = fields;
+        Map<String, Field> byName = new HashMap<>();
+        for (Field field : fields) {
+            byName.put(field.name, field);
+        }
+        this.fieldsByName = byName;
+    }
+
+    /**
+     * 编译参数类型的绑定器（字段类型或注解用法不受支持时启动即失败）
+     * @param type 参数记录类型（必须是record）
+     */
+    public static <T> ParamBinder<T> compile(Class<T> type) {
+        if (!type.isRecord()) {
+            throw new IllegalArgumentException("参数类型" + type.getName() + "必须是record！");
+        }
+        RecordComponent[] components = type.getRecordComponents();
+        Field[] fields = new Field[components.length];
+        Class<?>[] componentTypes = new Class<?>[components.length];
+        for (int i = 0; i < components.length; i++) {
+            fields[i] = compileField(type, components[i], i);
+            componentTypes[i] = components[i].getType();
+        }
+        try {
+            return new ParamBinder<>(type, type.getDeclaredConstructor(componentTypes), fields);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("参数类型" + type.getName() + "缺少规范构造方法！", e);
+        }
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * 解析并校验业务参数
+     * @param json bizParams（为空视为空对象，由必填规则给出提示）
+     * @return 参数记录
+     * @throws IllegalArgumentException 超长、格式错误或校验不通过（消息为提示语）
+     */
+    public T bind(String json) {
+        if (json != null && json.length() > MAX_PARAM_LENGTH) {
+            throw new IllegalArgumentException("参数过大（最多" + MAX_PARAM_LENGTH + "个字符）");
+        }
+        Object[] values = new Object[fields.length];
+        boolean[] seen = new boolean[fields.length];
+        try (JsonParser parser = FACTORY.createParser(json == null || json.trim().isEmpty() ? "{}" : json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException(FORMAT_ERROR);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                Field field = fieldsByName.get(parser.currentName());
+                JsonToken token = parser.nextToken();
+                if (field == null) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (seen[field.index]) {
+                    throw new IllegalArgumentException("参数格式错误（字段" + field.name + "重复）");
+                }
+                seen[field.index] = true;
+                if (token != JsonToken.VALUE_NULL) {
+                    values[field.index] = field.read(parser, token);
+                }
+            }
+            // 循环只会停在对象结束处（截断的JSON由解析器抛异常），其后不允许再有内容
+            if (parser.nextToken() != null) {
+                throw new IllegalArgumentException(FORMAT_ERROR);
+            }
+        } catch (IOException e) {
+            // 语法错误、截断、超出嵌套深度等
+            throw new IllegalArgumentException(FORMAT_ERROR);
+        }
+        for (Field field : fields) {
+            if (values[field.index] == null && field.missingMessage != null) {
+                throw new IllegalArgumentException(field.missingMessage);
+            }
+        }
+        T param = newInstance(values);
+        if (param instanceof SelfValidating) {
+            String violation = ((SelfValidating) param).violation();
+            if (violation != null) {
+                throw new IllegalArgumentException(violation);
+            }
+        }
+        return param;
+    }
+
+    private T newInstance(Object[] values) {
+        try {
+            return constructor.newInstance(values);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("构造参数" + type.getName() + "失败", e);
+        }
+    }
+
+    // ========== 规则编译 ==========
+
+    /**
+     * 支持的字段值类型
+     */
+    private enum Kind {
+        INT, LONG, STRING
+    }
+
+    /**
+     * 单个值（字段值或列表元素）的校验规则
+     */
+    private interface ValueRule {
+        String violation(Object value);
+    }
+
+    /**
+     * 编译后的字段规则：字段名、值类型、缺失提示、值规则；列表字段另有元素类型、元素规则和长度限制
+     */
+    private static final class Field {
+        private final String name;
+        private final int index;
+        private final Kind kind;
+        private final boolean list;
+        // 未传值（或传null）时的提示，null表示可选
+        private final String missingMessage;
+        // 标量字段的值规则 / 列表字段的元素规则（可为null）
+        private final ValueRule rule;
+        private final Size size;
+
+        private Field(String name, int index, Kind kind, boolean list, String missingMessage, ValueRule rule, Size size) {
+            this.name = name;
+            this.index = index;
+            this.kind = kind;
+            this.list = list;
+            this.missingMessage = missingMessage;
+            this.rule = rule;
+            this.size = size;
+        }
+
+        private Object read(JsonParser parser, JsonToken token) throws IOException {
+            if (!list) {
+                Object value = readScalar(parser, token);
+                String violation = rule == null ? null : rule.violation(value);
+                if (violation != null) {
+                    throw new IllegalArgumentException(violation);
+                }
+                return value;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw typeError();
+            }
+            List<Object> elements = new ArrayList<>();
+            JsonToken elementToken;
+            while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+                Object element = elementToken == JsonToken.VALUE_NULL ? null : readScalar(parser, elementToken);
+                String violation = rule == null ? null : rule.violation(element);
+                if (violation != null) {
+                    throw new IllegalArgumentException(violation);
+                }
+                elements.add(element);
+                // 超长的列表读到第max+1个元素即拒绝，不再解析剩余部分
+                if (size != null && elements.size() > size.max()) {
+                    throw new IllegalArgumentException(size.message());
+                }
+            }
+            if (size != null && elements.size() < size.min()) {
+                throw new IllegalArgumentException(size.message());
+            }
+            return Collections.unmodifiableList(elements);
+        }
+
+        private Object readScalar(JsonParser parser, JsonToken token) throws IOException {
+            switch (kind) {
+                case INT:
+                    if (token == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+                        return parser.getIntValue();
+                    }
+                    break;
+                case LONG:
+                    if (token == JsonToken.VALUE_NUMBER_INT && (parser.getNumberType() == JsonParser.NumberType.INT
+                            || parser.getNumberType() == JsonParser.NumberType.LONG)) {
+                        return parser.getLongValue();
+                    }
+                    break;
+                default:
+                    if (token == JsonToken.VALUE_STRING) {
+                        return parser.getText();
+                    }
+                    break;
+            }
+            throw typeError();
+        }
+
+        private IllegalArgumentException typeError() {
+            return new IllegalArgumentException("参数格式错误（字段" + name + "类型不正确）");
+        }
+    }
+
+    private static Field compileField(Class<?> type, RecordComponent component, int index) {
+        String where = type.getSimpleName() + "." + component.getName();
+        boolean list = component.getType() == List.class;
+        Kind kind = kindOf(list ? elementClass(component, where) : component.getType(), where);
+        // 规则都挂在值上：标量字段取字段上的注解，列表字段取元素类型上的注解
+        AnnotatedElement valueType = list
+                ? ((AnnotatedParameterizedType) component.getAnnotatedType()).getAnnotatedActualTypeArguments()[0]
+                : component;
+        NotBlank notBlank = valueType.getAnnotation(NotBlank.class);
+        Min min = valueType.getAnnotation(Min.class);
+        Max max = valueType.getAnnotation(Max.class);
+        if ((notBlank != null && kind != Kind.STRING) || ((min != null || max != null) && kind == Kind.STRING)) {
+            throw new IllegalArgumentException("参数字段" + where + "的校验注解与字段类型不匹配！");
+        }
+        Size size = component.getAnnotation(Size.class);
+        if (size != null && !list) {
+            throw new IllegalArgumentException("参数字段" + where + "不是列表，不能使用@Size！");
+        }
+        Required required = component.getAnnotation(Required.class);
+        String missingMessage = required != null ? required.message()
+                : !list && notBlank != null ? notBlank.message() : null;
+        return new Field(jsonName(type, component), index, kind, list, missingMessage,
+                valueRule(notBlank, min, max, list), size);
+    }
+
+    /**
+     * 值规则：标量字段的null由缺失提示处理；列表元素为null时，带规则的元素视为不合法
+     */
+    private static ValueRule valueRule(NotBlank notBlank, Min min, Max max, boolean list) {
+        if (notBlank != null) {
+            return value -> value == null || ((String) value).trim().isEmpty() ? notBlank.message() : null;
+        }
+        if (min == null && max == null) {
+            return null;
+        }
+        return value -> {
+            if (value == null) {
+                return list ? (min != null ? min.message() : max.message()) : null;
+            }
+            long number = ((Number) value).longValue();
+            if (min != null && number < min.value()) {
+                return min.message();
+            }
+            if (max != null && number > max.value()) {
+                return max.message();
+            }
+            return null;
+        };
+    }
+
+    private static Kind kindOf(Class<?> valueClass, String where) {
+        if (valueClass == Integer.class) {
+            return Kind.INT;
+        }
+        if (valueClass == Long.class) {
+            return Kind.LONG;
+        }
+        if (valueClass == String.class) {
+            return Kind.STRING;
+        }
+        throw new IllegalArgumentException("参数字段" + where + "的类型" + valueClass.getName() + "不受支持！");
+    }
+
+    private static Class<?> elementClass(RecordComponent component, String where) {
+        Type generic = component.getGenericType();
+        if (generic instanceof ParameterizedType) {
+            Type element = ((ParameterizedType) generic).getActualTypeArguments()[0];
+            if (element instanceof Class) {
+                return (Class<?>) element;
+            }
+        }
+        throw new IllegalArgumentException("参数字段" + where + "必须声明列表元素类型！");
+    }
+
+    /**
+     * JSON字段名：字段上的@JsonProperty优先（如permission_name），否则为记录字段名
+     * （@JsonProperty不适用于记录组件本身，编译器把它传播到同名的私有字段上，因此从字段读取）
+     */
+    private static String jsonName(Class<?> type, RecordComponent component) {
+        try {
+            JsonProperty property = type.getDeclaredField(component.getName()).getAnnotation(JsonProperty.class);
+            return property != null && !property.value().isEmpty() ? property.value() : component.getName();
+        } catch (NoSuchFieldException e) {
+            return component.getName();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.rbac.security.param;
+
+/**
+ * 跨字段/依赖当前时间的校验规则（字段注解无法表达的部分），在字段注解全部通过后执行
+ */
+public interface SelfValidating {
+    /**
+     * @return 不合法时返回提示语，合法返回null
+     */
+    String violation();
+}
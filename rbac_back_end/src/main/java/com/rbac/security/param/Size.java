@@ -0,0 +1,19 @@
+package com.rbac.security.param;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 参数校验注解：列表元素个数在[min, max]之间（未传值不校验，需要必填时配合@Required）
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.RECORD_COMPONENT, ElementType.TYPE_USE})
+public @interface Size {
+    int min() default 0;
+
+    int max() default Integer.MAX_VALUE;
+
+    String message();
+}
@@ -2,52 +2,72 @@ package com.rbac.security.proxy;
 
 import com.rbac.security.model.ApiRequest;
 import com.rbac.security.model.ApiResponse;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
- * 标准责任链实现：索引推进 + 业务执行器（解决重复执行核心）
+ * 标准责任链实现：启动时把代理列表展开为不可变的链表节点（代理 + 下一节点），末端节点执行真实业务
+ * 每个节点只持有final字段、不保存执行位置：调用proceed时由当前代理把下一节点交给自己继续推进，
+ * 因此整条链可作为单例被所有请求并发复用，无需每次请求创建链或重置索引
  */
-@RequiredArgsConstructor
-public class SecurityChain {
-    // 代理列表（如LogProxy、AuthProxy）
-    @Getter
-    private final List<SecurityProxy> proxies;
-    // 真实业务执行器
-    @Getter
+public final class SecurityChain {
+    // 当前节点的代理（null=末端节点，直接执行业务）
+    private final SecurityProxy proxy;
+    // 下一节点（末端节点为null）
+    private final SecurityChain next;
+    // 真实业务执行器（各节点共享同一个）
     private final RealBusinessExecutor executor;
-    // 当前执行索引（核心：避免重复执行代理）
-    private int currentIndex = 0;
+
+    private SecurityChain(SecurityProxy proxy, SecurityChain next, RealBusinessExecutor executor) {
+        this.proxy = proxy;
+        this.next = next;
+        this.executor = executor;
+    }
 
     /**
-     * 核心推进方法：执行下一个代理，或执行业务
+     * 核心推进方法：执行当前节点的代理（代理内调用chain.proceed进入下一节点），或在末端执行业务
      */
     public ApiResponse proceed(ApiRequest request) {
-        // 1. 索引未到末尾 → 执行下一个代理
-        if (currentIndex < proxies.size()) {
-            SecurityProxy currentProxy = proxies.get(currentIndex);
-            currentIndex++; // 索引+1，推进到下一个代理（关键！）
-            return currentProxy.execute(request, this); // 让当前代理执行，并传入链
+        if (proxy == null) {
+            // 所有代理执行完 → 执行真实业务（仅1次）
+            return executor.execute(request);
         }
-
-        // 2. 所有代理执行完 → 执行真实业务（仅1次）
-        return executor.execute(request);
+        return proxy.execute(request, next);
     }
 
     /**
-     * 重置索引（复用链时调用，比如多请求场景）
+     * 从当前节点起的代理列表（按执行顺序）
      */
-    public void reset() {
-        currentIndex = 0;
+    public List<SecurityProxy> getProxies() {
+        List<SecurityProxy> proxies = new ArrayList<>();
+        for (SecurityChain node = this; node.proxy != null; node = node.next) {
+            proxies.add(node.proxy);
+        }
+        return Collections.unmodifiableList(proxies);
+    }
+
+    public RealBusinessExecutor getExecutor() {
+        return executor;
     }
 
     /**
-     * 静态构建器
+     * 静态构建器：从末端向前逐个包装代理，返回链首节点
      */
     public static SecurityChain build(List<SecurityProxy> proxies, RealBusinessExecutor executor) {
-        return new SecurityChain(proxies, executor);
+        if (executor == null) {
+            throw new IllegalArgumentException("业务执行器不能为空！");
+        }
+        SecurityChain chain = new SecurityChain(null, null, executor);
+        for (int i = proxies.size() - 1; i >= 0; i--) {
+            SecurityProxy proxy = proxies.get(i);
+            if (proxy == null) {
+                throw new IllegalArgumentException("代理不能为空！位置：" + i);
+            }
+            chain = new SecurityChain(proxy, chain, executor);
+        }
+        return chain;
     }
 
     /**
@@ -57,4 +77,4 @@ public class SecurityChain {
     public interface RealBusinessExecutor {
         ApiResponse execute(ApiRequest request);
     }
-}
\ No newline at end of file
+}
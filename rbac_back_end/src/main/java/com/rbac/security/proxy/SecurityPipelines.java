@@ -0,0 +1,109 @@
+package com.rbac.security.proxy;
+
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按操作编译的安全责任链集合：启动时为每个ApiOperation构建一条只含其所需环节的不可变链
+ * 请求到达时按权限编码O(1)选取对应的链；未知权限编码走包含全部环节的完整链（与改造前行为一致）
+ */
+public final class SecurityPipelines {
+    private final Map<ApiOperation, SecurityChain> byOperation;
+    private final Map<String, SecurityChain> byPermCode;
+    // 未知权限编码使用的完整链
+    private final SecurityChain fallback;
+    // 编译时使用的环节代理和业务执行器（按环节子集重新编译时使用）
+    private final Map<ApiOperation.Stage, SecurityProxy> stageProxies;
+    private final SecurityChain.RealBusinessExecutor executor;
+
+    private SecurityPipelines(Map<ApiOperation, SecurityChain> byOperation, Map<String, SecurityChain> byPermCode,
+                              SecurityChain fallback, Map<ApiOperation.Stage, SecurityProxy> stageProxies,
+                              SecurityChain.RealBusinessExecutor executor) {
+        this.byOperation = byOperation;
+        this.byPermCode = byPermCode;
+        this.fallback = fallback;
+        this.stageProxies = stageProxies;
+        this.executor = executor;
+    }
+
+    /**
+     * 编译全部操作的责任链
+     * @param stageProxies 每个安全环节对应的代理（必须覆盖全部环节）
+     * @param executor 真实业务执行器
+     */
+    public static SecurityPipelines compile(Map<ApiOperation.Stage, SecurityProxy> stageProxies,
+                                            SecurityChain.RealBusinessExecutor executor) {
+        for (ApiOperation.Stage stage : ApiOperation.Stage.values()) {
+            if (stageProxies.get(stage) == null) {
+                throw new IllegalArgumentException("安全环节" + stage + "缺少对应的代理！");
+            }
+        }
+        Map<ApiOperation.Stage, SecurityProxy> proxies = new EnumMap<>(ApiOperation.Stage.class);
+        proxies.putAll(stageProxies);
+        return compile(Collections.unmodifiableMap(proxies), executor, EnumSet.allOf(ApiOperation.Stage.class));
+    }
+
+    /**
+     * 只保留指定环节重新编译（如批量请求的条目：认证等环节已在整批上执行过一次）
+     * @param stages 保留的环节（各操作仍只经过自身声明的环节）
+     */
+    public SecurityPipelines withStages(Set<ApiOperation.Stage> stages) {
+        EnumSet<ApiOperation.Stage> kept = EnumSet.noneOf(ApiOperation.Stage.class);
+        kept.addAll(stages);
+        return compile(stageProxies, executor, kept);
+    }
+
+    private static SecurityPipelines compile(Map<ApiOperation.Stage, SecurityProxy> stageProxies,
+                                             SecurityChain.RealBusinessExecutor executor,
+                                             EnumSet<ApiOperation.Stage> kept) {
+        List<SecurityProxy> allProxies = new ArrayList<>();
+        for (ApiOperation.Stage stage : kept) {
+            allProxies.add(stageProxies.get(stage));
+        }
+        Map<ApiOperation, SecurityChain> byOperation = new EnumMap<>(ApiOperation.class);
+        Map<String, SecurityChain> byPermCode = new HashMap<>();
+        for (ApiOperation operation : ApiOperation.values()) {
+            List<SecurityProxy> proxies = new ArrayList<>();
+            for (ApiOperation.Stage stage : operation.getStages()) {
+                if (kept.contains(stage)) {
+                    proxies.add(stageProxies.get(stage));
+                }
+            }
+            SecurityChain chain = SecurityChain.build(proxies, executor);
+            byOperation.put(operation, chain);
+            byPermCode.put(operation.getPermCode(), chain);
+        }
+        SecurityChain fallback = SecurityChain.build(allProxies, executor);
+        return new SecurityPipelines(Collections.unmodifiableMap(byOperation),
+                Collections.unmodifiableMap(byPermCode), fallback, stageProxies, executor);
+    }
+
+    /**
+     * 按请求的权限编码选取责任链并执行
+     */
+    public ApiResponse proceed(ApiRequest request) {
+        return chainFor(request.getPermCode()).proceed(request);
+    }
+
+    /**
+     * 权限编码对应的责任链（未知编码返回完整链）
+     */
+    public SecurityChain chainFor(String permCode) {
+        SecurityChain chain = permCode == null ? null : byPermCode.get(permCode);
+        return chain == null ? fallback : chain;
+    }
+
+    public SecurityChain chainFor(ApiOperation operation) {
+        return byOperation.get(operation);
+    }
+}
@@ -0,0 +1,90 @@
+package com.rbac.security.proxy.impl;
+
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import com.rbac.security.proxy.SecurityChain;
+import com.rbac.security.proxy.SecurityProxy;
+import com.rbac.util.AdaptiveConcurrencyLimiter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 安全代理0：准入控制代理（位于每条责任链最前面，过载时快速拒绝，避免请求堆积在数据库连接上）
+ * 特点：按在途请求数和请求耗时自适应调整并发限制（见AdaptiveConcurrencyLimiter）；
+ * 写操作和批量请求只能使用限制的一部分，负载高时先拒绝写操作，查询和登录保留余量；被拒请求返回可重试的错误码
+ */
+@Slf4j
+@Component
+public class AdmissionProxy implements SecurityProxy {
+    // 被拒请求建议的重试间隔（毫秒）
+    private static final long RETRY_AFTER_MILLIS = 200;
+
+    @Value("${rbac.admission.enabled:true}")
+    private boolean enabled = true;
+    @Value("${rbac.admission.initial-limit:20}")
+    private int initialLimit = 20;
+    @Value("${rbac.admission.min-limit:4}")
+    private int minLimit = 4;
+    @Value("${rbac.admission.max-limit:200}")
+    private int maxLimit = 200;
+    // 写操作可使用的限制份额
+    @Value("${rbac.admission.write-share:0.75}")
+    private double writeShare = 0.75;
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @PostConstruct
+    public void init() {
+        if (!(writeShare > 0 && writeShare <= 1)) {
+            throw new IllegalArgumentException("rbac.admission.write-share须在(0, 1]之间：" + writeShare);
+        }
+        limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+        log.info("准入控制{}：初始并发限制{}（{}~{}），写操作份额{}", enabled ? "已启用" : "未启用",
+                initialLimit, minLimit, maxLimit, writeShare);
+    }
+
+    @Override
+    public ApiResponse execute(ApiRequest request, SecurityChain chain) {
+        if (!enabled) {
+            return chain.proceed(request);
+        }
+        ApiOperation operation = ApiOperation.fromPermCode(request.getPermCode());
+        ApiOperation.Kind kind = operation == null ? ApiOperation.Kind.WRITE : operation.getKind();
+        boolean write = kind == ApiOperation.Kind.WRITE || kind == ApiOperation.Kind.BATCH;
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire(write ? writeShare : 1.0);
+        if (permit == null) {
+            log.warn("准入控制：在途请求{}已达并发限制{}，拒绝{}", limiter.getInFlight(), limiter.getLimit(), request.getPermCode());
+            ApiResponse response = new ApiResponse(false, "SERVER_BUSY", "系统繁忙，请稍后重试", null);
+            response.getExt().put("retryable", true);
+            response.getExt().put("retryAfterMillis", RETRY_AFTER_MILLIS);
+            return response;
+        }
+        boolean completed = false;
+        try {
+            ApiResponse response = chain.proceed(request);
+            completed = true;
+            return response;
+        } finally {
+            // 批量请求的耗时取决于条目数而不是系统负载，不参与调整并发限制
+            if (completed && kind != ApiOperation.Kind.BATCH) {
+                permit.release();
+            } else {
+                permit.abandon();
+            }
+        }
+    }
+
+    /**
+     * 当前并发限制（监控用）
+     */
+    public int getLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+}
@@ -1,6 +1,7 @@
 package com.rbac.security.proxy.impl;
 
 import com.rbac.model.entity.User;
+import com.rbac.security.core.TokenService;
 import com.rbac.security.model.ApiRequest;
 import com.rbac.security.model.ApiResponse;
 import com.rbac.security.proxy.SecurityChain;
@@ -10,55 +11,66 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.Resource;
 
-import java.util.regex.Pattern;
-
+/**
+ * 安全代理2：认证代理（校验登录时签发的签名令牌，请求体中的user字段不再被信任）
+ * 令牌数据版本为最新时只做签名和过期校验，不访问数据库；版本过期（用户角色变更/删除、服务重启）时回库确认用户仍存在；
+ * 签发后用户修改过密码的令牌直接拒绝，不再续签
+ */
 @Slf4j
 @Component
 public class AuthProxy implements SecurityProxy {
     @Resource
     private UserService userService;
-
-    // 非法用户名正则（禁止特殊字符和空值）
-    private static final Pattern ILLEGAL_USERNAME = Pattern.compile("[^a-zA-Z0-9_]");
+    @Resource
+    private TokenService tokenService;
 
     @Override
     public ApiResponse execute(ApiRequest request, SecurityChain chain) {
         log.info("执行认证校验...");
-        log.info("请求参数：{}", request);
-        
-        // 特殊处理：登录请求绕过认证检查
-        String permCode = request.getPermCode();
-        if ("system:user:own:login".equals(permCode)) {
-            log.info("登录请求，绕过认证检查");
-            return chain.proceed(request);
-        }
-        
-        User reqUser = request.getUser();
 
-        // 1. 拦截空用户或空用户名
-        if (reqUser == null || reqUser.getUsername() == null || reqUser.getUsername().trim().isEmpty()) {
-            log.warn("认证失败：用户未登录或用户名为空");
+        // 登录请求的责任链不含认证环节（见ApiOperation.USER_LOGIN）
+        String token = request.getToken();
+
+        // 1. 拦截空令牌
+        if (token == null || token.trim().isEmpty()) {
+            log.warn("认证失败：用户未登录（令牌为空）");
             return new ApiResponse(false, "认证失败：请先登录", null);
         }
 
-        String username = reqUser.getUsername().trim();
+        // 2. 校验签名和有效期（常量时间比较，不访问数据库）
+        TokenService.Claims claims = tokenService.verify(token.trim());
+        if (claims == null) {
+            log.warn("认证失败：令牌签名不符或已过期");
+            return new ApiResponse(false, "认证失败：登录已失效，请重新登录", null);
+        }
 
-        // 2. 拦截含特殊字符的非法用户名（如???）
-        if (ILLEGAL_USERNAME.matcher(username).find()) {
-            log.warn("认证失败：用户名{}包含非法字符", username);
-            return new ApiResponse(false, "认证失败：用户名格式非法", null);
+        // 3. 令牌签发后用户修改/重置过密码：令牌作废，须用新密码重新登录
+        if (tokenService.isRevoked(claims)) {
+            log.warn("认证失败：用户{}已修改密码，令牌作废", claims.getUsername());
+            return new ApiResponse(false, "认证失败：密码已修改，请重新登录", null);
         }
 
-        // 3. 查库校验用户是否存在
-        User dbUser = userService.getUserByUsername(username);
-        if (dbUser == null) {
-            log.error("认证失败：用户{}不存在于数据库", username);
-            return new ApiResponse(false, "认证失败：用户不存在", null);
+        // 4. 令牌签发后用户角色有变更（或服务已重启）：回库确认用户仍存在
+        User loginUser;
+        boolean stale = !tokenService.isCurrent(claims);
+        if (!stale) {
+            loginUser = claims.toUser();
+        } else {
+            loginUser = userService.getUserByUserId(claims.getUserId());
+            if (loginUser == null || !loginUser.getUsername().equals(claims.getUsername())) {
+                log.error("认证失败：令牌中的用户{}已不存在", claims.getUsername());
+                return new ApiResponse(false, "认证失败：用户不存在", null);
+            }
         }
 
-        // 4. 认证通过，替换为数据库用户（防止伪造信息）
-        request.setUser(dbUser);
-        log.info("用户{}认证成功", username);
-        return chain.proceed(request);
+        // 5. 认证通过，以令牌中的身份替换请求体中的用户（防止伪造信息）
+        request.setUser(loginUser);
+        log.info("用户{}认证成功", loginUser.getUsername());
+        ApiResponse response = chain.proceed(request);
+        // 版本过期的令牌：随响应下发按当前数据重新签发的令牌（ext.token），后续请求不再回库
+        if (stale && response != null && response.getExt() != null) {
+            response.getExt().put("token", tokenService.issue(loginUser, userService.getRoleIdsByUserId(loginUser.getId())));
+        }
+        return response;
     }
-}
\ No newline at end of file
+}
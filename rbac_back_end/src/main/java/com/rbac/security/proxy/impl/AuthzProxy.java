@@ -8,7 +8,8 @@ import com.rbac.security.proxy.SecurityProxy;
 import com.rbac.service.PermissionTreeValidator;
 import com.rbac.service.RoleService;
 import com.rbac.service.UserService;
-import com.rbac.service.component.IPermissionComponent;
+import com.rbac.util.AuthzDecisionCache;
+import com.rbac.util.RoleGrantCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.Resource;
@@ -22,18 +23,15 @@ public class AuthzProxy implements SecurityProxy {
     private RoleService roleService;
     @Resource // 关键：注入Spring管理的实例
     private PermissionTreeValidator permissionTreeValidator;
+    // 授权决策缓存：(用户ID, 权限编码) → 是否允许
+    @Resource
+    private AuthzDecisionCache authzDecisionCache;
 
     @Override
     public ApiResponse execute(ApiRequest request, SecurityChain chain) {
         log.info("执行授权校验...");
         String permCode = request.getPermCode();
-        
-        // 特殊处理：登录请求绕过授权检查
-        if ("system:user:own:login".equals(permCode)) {
-            log.info("登录请求，绕过授权检查");
-            return chain.proceed(request);
-        }
-        
+        // 登录、批量校验自身权限的责任链不含授权环节（见ApiOperation）
         User user = request.getUser();
 
         // 1. 空值校验（依赖认证代理已过滤非法用户）
@@ -43,10 +41,20 @@ public class AuthzProxy implements SecurityProxy {
         }
 
         try {
-            // 使用注入的validator构建权限树
-            IPermissionComponent userPermTree = permissionTreeValidator.buildRealUserPermissionTree(user.getUsername());
-            log.info("用户查询权限{}",permCode.trim());
-            boolean hasPermission = userPermTree.verifyPermission(permCode.trim());
+            String targetCode = permCode.trim();
+            // 先读用户版本号再计算：计算期间用户被变更时，写入的决策不会被读到
+            long userVersion = authzDecisionCache.userVersion(user.getId());
+            Boolean cached = authzDecisionCache.get(user.getId(), targetCode);
+            boolean hasPermission;
+            if (cached != null) {
+                hasPermission = cached;
+            } else {
+                // 未命中：按用户角色的共享授权位图校验，并缓存决策
+                log.info("用户查询权限{}", targetCode);
+                RoleGrantCache.RoleGrants roleGrants = permissionTreeValidator.getUserRoleGrantsWithCache(user.getUsername());
+                hasPermission = permissionTreeValidator.verifyUserPermission(roleGrants.getGrants(), targetCode);
+                authzDecisionCache.put(user.getId(), userVersion, roleGrants, targetCode, hasPermission);
+            }
 
             if (hasPermission) {
                 return chain.proceed(request);
@@ -0,0 +1,146 @@
+package com.rbac.security.proxy.impl;
+
+import com.rbac.model.entity.User;
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import com.rbac.security.model.param.CredentialsParam;
+import com.rbac.security.proxy.SecurityChain;
+import com.rbac.security.proxy.SecurityProxy;
+import com.rbac.util.TokenBucketRateLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 安全代理6：限流代理（每个调用方 × 每个操作一个令牌桶）
+ * 特点：调用方为登录用户ID；登录请求尚无用户，按参数中的用户名计数（限制针对单个账号的密码尝试）
+ * 默认策略按操作类别区分，可按权限编码覆盖（rbac.rate-limit.overrides）；空闲的桶由后台线程定期清除
+ */
+@Slf4j
+@Component
+public class RateLimitProxy implements SecurityProxy {
+    // 各类别的默认策略（容量/每秒令牌数）
+    private static final TokenBucketRateLimiter.Policy READ_POLICY = new TokenBucketRateLimiter.Policy(50, 20);
+    private static final TokenBucketRateLimiter.Policy WRITE_POLICY = new TokenBucketRateLimiter.Policy(20, 5);
+    private static final TokenBucketRateLimiter.Policy LOGIN_POLICY = new TokenBucketRateLimiter.Policy(5, 0.1);
+    // 桶装满后再空闲多久清除
+    private static final long IDLE_EVICT_SECONDS = 60;
+
+    @Value("${rbac.rate-limit.enabled:true}")
+    private boolean enabled = true;
+    // 按权限编码覆盖默认策略，格式：权限编码=容量/每秒令牌数，多个用英文逗号分隔
+    @Value("${rbac.rate-limit.overrides:}")
+    private String overrides = "";
+
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter();
+    private final Map<ApiOperation, TokenBucketRateLimiter.Policy> policies = new EnumMap<>(ApiOperation.class);
+    private ScheduledExecutorService evictor;
+
+    @PostConstruct
+    public void init() {
+        configure(overrides);
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-evict");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleAtFixedRate(this::evictIdle, IDLE_EVICT_SECONDS, IDLE_EVICT_SECONDS, TimeUnit.SECONDS);
+        log.info("限流策略加载完成（{}）：{}", enabled ? "已启用" : "未启用", policies);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+
+    /**
+     * 按类别设置默认策略，再按权限编码覆盖（未知编码启动即失败，避免配置写错后静默不生效）
+     */
+    void configure(String overrideText) {
+        for (ApiOperation operation : ApiOperation.values()) {
+            policies.put(operation, defaultPolicy(operation.getKind()));
+        }
+        if (overrideText == null || overrideText.trim().isEmpty()) {
+            return;
+        }
+        for (String item : overrideText.split(",")) {
+            String[] pair = item.trim().split("=", 2);
+            ApiOperation operation = pair.length == 2 ? ApiOperation.fromPermCode(pair[0].trim()) : null;
+            if (operation == null) {
+                throw new IllegalArgumentException("限流配置rbac.rate-limit.overrides格式错误或权限编码未知：" + item);
+            }
+            policies.put(operation, TokenBucketRateLimiter.Policy.parse(pair[1]));
+        }
+    }
+
+    private static TokenBucketRateLimiter.Policy defaultPolicy(ApiOperation.Kind kind) {
+        switch (kind) {
+            case READ:
+            case SELF_READ:
+                return READ_POLICY;
+            case LOGIN:
+                return LOGIN_POLICY;
+            default:
+                return WRITE_POLICY;
+        }
+    }
+
+    @Override
+    public ApiResponse execute(ApiRequest request, SecurityChain chain) {
+        if (!enabled) {
+            return chain.proceed(request);
+        }
+        ApiOperation operation = ApiOperation.fromPermCode(request.getPermCode());
+        if (operation == null) {
+            // 未知权限编码由业务层拒绝，不为任意字符串建桶
+            return chain.proceed(request);
+        }
+        long waitNanos = limiter.tryAcquire(new BucketKey(subjectOf(request), operation), policies.get(operation), System.nanoTime());
+        if (waitNanos > 0) {
+            long retryAfterMillis = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            log.warn("限流：{}调用{}过于频繁，{}ms后可重试", subjectOf(request), operation.getPermCode(), retryAfterMillis);
+            ApiResponse response = new ApiResponse(false, "RATE_LIMITED", "请求过于频繁，请稍后再试", null);
+            response.getExt().put("retryAfterMillis", retryAfterMillis);
+            return response;
+        }
+        return chain.proceed(request);
+    }
+
+    /**
+     * 限流的调用方：登录用户按用户ID，登录请求按用户名
+     */
+    private static Object subjectOf(ApiRequest request) {
+        User user = request.getUser();
+        if (user != null && user.getId() != null) {
+            return user.getId();
+        }
+        if (request.getParams() instanceof CredentialsParam) {
+            return "login:" + ((CredentialsParam) request.getParams()).username().trim();
+        }
+        return "anonymous";
+    }
+
+    private void evictIdle() {
+        int evicted = limiter.evictIdle(System.nanoTime(), TimeUnit.SECONDS.toNanos(IDLE_EVICT_SECONDS));
+        if (evicted > 0) {
+            log.debug("清除空闲限流桶{}个，剩余{}个", evicted, limiter.size());
+        }
+    }
+
+    /**
+     * 令牌桶的键：调用方 + 操作
+     */
+    private record BucketKey(Object subject, ApiOperation operation) {
+    }
+}
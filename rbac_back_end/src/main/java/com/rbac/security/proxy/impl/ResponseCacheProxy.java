@@ -0,0 +1,107 @@
+package com.rbac.security.proxy.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rbac.model.entity.Tenant;
+import com.rbac.model.entity.User;
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import com.rbac.security.model.RawJson;
+import com.rbac.security.proxy.SecurityChain;
+import com.rbac.security.proxy.SecurityProxy;
+import com.rbac.util.DBHelper;
+import com.rbac.util.RbacDataVersion;
+import com.rbac.util.ResponseCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 安全代理5：响应缓存代理（只用于结果与调用者无关的只读操作，见ApiOperation.Kind.READ）
+ * 特点：键为 操作 + 租户 + 解析后的参数 + RBAC数据版本号，值为业务结果序列化后的JSON文本；
+ * 位于授权和参数校验之后，每个调用方仍分别鉴权；命中时不访问业务层，也不再逐个对象序列化（RawJson原样写出）
+ * 任何写操作完成后数据版本号递增，旧版本的条目不再命中；缓存总量按LRU淘汰
+ */
+@Slf4j
+@Component
+public class ResponseCacheProxy implements SecurityProxy {
+    // 与业务层成功响应的提示语一致
+    private static final String HIT_MSG = "业务执行成功";
+
+    @Value("${rbac.response-cache.enabled:true}")
+    private boolean enabled = true;
+    // 缓存总量上限（MB）
+    @Value("${rbac.response-cache.max-mb:32}")
+    private int maxMb = 32;
+
+    // 与Spring MVC序列化响应使用同一个ObjectMapper，命中与未命中时的输出完全一致
+    @Resource
+    private ObjectMapper objectMapper;
+    @Resource
+    private RbacDataVersion rbacDataVersion;
+
+    private ResponseCache<CacheKey> cache;
+    // 缓存中条目对应的最新版本号（版本变化时整体清空，旧条目不必等LRU淘汰）
+    private volatile long cachedVersion = -1;
+
+    @PostConstruct
+    public void init() {
+        cache = new ResponseCache<>(maxMb * 1024L * 1024L);
+        log.info("响应缓存{}：容量{}MB", enabled ? "已启用" : "未启用", maxMb);
+    }
+
+    @Override
+    public ApiResponse execute(ApiRequest request, SecurityChain chain) {
+        ApiOperation operation = ApiOperation.fromPermCode(request.getPermCode());
+        // 事务中（批量请求）读到的可能是本事务未提交的数据，既不能存入也不应读取共享的缓存
+        if (!enabled || operation == null || !operation.isSharedRead() || DBHelper.getInstance().inTransaction()) {
+            return chain.proceed(request);
+        }
+        // 须在执行业务之前读取版本号：执行期间有写入时，结果按旧版本存入，不会被之后的请求命中
+        long version = rbacDataVersion.current();
+        if (version > cachedVersion) {
+            synchronized (this) {
+                if (version > cachedVersion) {
+                    cache.clear();
+                    cachedVersion = version;
+                }
+            }
+        }
+        User user = request.getUser();
+        CacheKey key = new CacheKey(operation, Tenant.idOrDefault(user == null ? null : user.getTenantId()),
+                request.getParams(), version);
+        String json = cache.get(key);
+        if (json != null) {
+            return ApiResponse.success(HIT_MSG, new RawJson(json), ApiResponse.newTraceId());
+        }
+
+        ApiResponse response = chain.proceed(request);
+        if (response.isSuccess() && response.getData() != null && !(response.getData() instanceof RawJson)) {
+            try {
+                json = objectMapper.writeValueAsString(response.getData());
+                cache.put(key, json);
+                // 本次响应也直接输出已序列化的文本，避免再序列化一遍
+                response.setData(new RawJson(json));
+            } catch (JsonProcessingException e) {
+                log.warn("响应缓存：{}的结果无法序列化，不缓存", operation.getPermCode(), e);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * 命中率等统计（监控用）
+     */
+    public ResponseCache<?> getCache() {
+        return cache;
+    }
+
+    /**
+     * 缓存的键：参数记录按值比较；数据版本号不同即视为不同的键
+     */
+    private record CacheKey(ApiOperation operation, int tenantId, Object params, long version) {
+    }
+}
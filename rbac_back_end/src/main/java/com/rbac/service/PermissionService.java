@@ -42,6 +42,13 @@ public interface PermissionService {
      */
     List<Permission> getAllPermissions();
 
+    /**
+     * 查询指定租户的权限
+     * @param tenantId 租户ID
+     * @return 权限列表
+     */
+    List<Permission> getPermissionsByTenantId(Integer tenantId);
+
     /**
      * 根据父权限ID查询子权限（适配权限树结构）
      * @param parentId 父权限ID（null=查询一级权限）
@@ -50,11 +57,12 @@ public interface PermissionService {
     List<Permission> getPermissionsByParentId(Integer parentId);
 
     /**
-     * 校验权限编码是否已存在（核心业务规则）
+     * 校验权限编码在租户内是否已存在（核心业务规则，编码按租户唯一）
+     * @param tenantId 租户ID（null=默认租户）
      * @param permissionCode 权限编码
      * @return true=已存在，false=不存在
      */
-    boolean checkPermissionCodeExists(String permissionCode);
+    boolean checkPermissionCodeExists(Integer tenantId, String permissionCode);
 
     /**
      * 校验权限是否有子权限（删除时的业务规则）
@@ -1,11 +1,22 @@
 package com.rbac.service;
 
 import com.rbac.model.entity.Permission;
+import com.rbac.model.entity.Tenant;
+import com.rbac.model.entity.User;
 import com.rbac.service.component.IPermissionComponent;
 import com.rbac.service.component.CompositePermission;
+import com.rbac.service.component.LeafPermission;
+import com.rbac.service.component.PermissionGraphReport;
+import com.rbac.service.component.PermissionGrantSet;
+import com.rbac.service.component.PermissionIndex;
+import com.rbac.service.component.PermissionTreeWalker;
 import com.rbac.service.impl.UserServiceImpl;
 import com.rbac.util.PermissionTreeBuilder;
 import com.rbac.util.PermissionCache;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.util.RoleGrantCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component; // 注册为Spring组件
@@ -19,18 +30,38 @@ import java.util.*;
 @Slf4j
 @Component
 public class PermissionTreeValidator {
-    // 全局权限树（系统所有权限）
+    // 全局权限树（默认租户的全部权限）
     private IPermissionComponent globalRoot;
     // 防循环引用：记录已遍历节点ID（避免递归死循环）
     private Set<String> traversedNodeCodes;
 
-    // 缓存实例
-    private PermissionCache permCache = new PermissionCache();
+    // 缓存实例（有界并发缓存，后台异步刷新）
+    private final PermissionCache permCache = new PermissionCache(this);
     // 关键：改为Spring注入，避免手动实例化
     @Autowired
     private UserService userService;
     @Autowired
+    private RoleService roleService;
+    @Autowired
     private PermissionTreeBuilder permissionTreeBuilder;
+    // 角色级共享权限结构缓存（同角色用户共用一份）
+    @Autowired
+    private RoleGrantCache roleGrantCache;
+    // 角色允许/拒绝权限加载器（角色结构缓存未命中时调用）
+    private final RoleGrantCache.RoleCodesLoader roleCodesLoader = new RoleGrantCache.RoleCodesLoader() {
+        @Override
+        public Set<String> loadAssignedCodes(Integer roleId) {
+            return loadRoleAssignedCodes(roleId);
+        }
+
+        @Override
+        public Set<String> loadDeniedCodes(Integer roleId) {
+            return loadRoleDeniedCodes(roleId);
+        }
+    };
+    // RBAC变更事件总线（用户级缓存订阅后精确失效）
+    @Autowired
+    private RbacChangeBus rbacChangeBus;
 
     // 权限树构建器实例（只定义一次，避免重复）
     private PermissionTreeBuilder treeBuilder;
@@ -39,7 +70,7 @@ public class PermissionTreeValidator {
     @Autowired // 自动注入构造方法
     public PermissionTreeValidator(PermissionTreeBuilder treeBuilder) {
         this.treeBuilder = treeBuilder;
-        this.globalRoot = treeBuilder.getRoot();
+        this.globalRoot = treeBuilder.getRoot(Tenant.DEFAULT_ID);
         this.traversedNodeCodes = new HashSet<>();
     }
 
@@ -119,32 +150,53 @@ public class PermissionTreeValidator {
     }
 
     /**
-     * 递归检查循环引用（核心：记录已遍历的节点编码，重复则说明循环）
+     * 检查循环引用（核心：记录当前路径上的节点编码，重复则说明循环）
+     * 显式栈深度优先遍历：节点入栈时校验并加入路径，其子树处理完后出栈移出路径
      */
-    private void checkCircularReference(IPermissionComponent node) {
-        String nodeCode = node.getPermissionCode();
-        // 空编码校验
-        if (nodeCode == null || nodeCode.trim().isEmpty()) {
-            throw new IllegalStateException("权限节点编码不能为空！");
-        }
-        nodeCode = nodeCode.trim();
+    private void checkCircularReference(IPermissionComponent root) {
+        Deque<IPermissionComponent> nodeStack = new ArrayDeque<>();
+        // true=子树已处理完毕，需从路径中移除
+        Deque<Boolean> exitStack = new ArrayDeque<>();
+        nodeStack.push(root);
+        exitStack.push(false);
+        while (!nodeStack.isEmpty()) {
+            IPermissionComponent node = nodeStack.pop();
+            boolean exiting = exitStack.pop();
+            String nodeCode = node.getPermissionCode();
+            if (exiting) {
+                // 回溯：移除当前节点（不影响同层级其他节点校验）
+                traversedNodeCodes.remove(nodeCode.trim());
+                continue;
+            }
+            // 空编码校验
+            if (nodeCode == null || nodeCode.trim().isEmpty()) {
+                throw new IllegalStateException("权限节点编码不能为空！");
+            }
+            nodeCode = nodeCode.trim();
 
-        // 发现循环引用（同一节点编码被重复遍历）
-        if (traversedNodeCodes.contains(nodeCode)) {
-            throw new IllegalStateException("发现循环引用节点：" + nodeCode);
-        }
-        // 标记当前节点为已遍历
-        traversedNodeCodes.add(nodeCode);
-
-        // 递归检查子节点（仅复合节点有子节点）
-        List<IPermissionComponent> children = node.getChildren();
-        if (!children.isEmpty()) {
-            for (IPermissionComponent child : children) {
-                checkCircularReference(child);
+            // 发现循环引用（同一节点编码在当前路径上重复出现）
+            if (!traversedNodeCodes.add(nodeCode)) {
+                throw new IllegalStateException("发现循环引用节点：" + nodeCode);
+            }
+            nodeStack.push(node);
+            exitStack.push(true);
+
+            // 子节点逆序入栈（仅复合节点有子节点）
+            List<IPermissionComponent> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                nodeStack.push(children.get(i));
+                exitStack.push(false);
             }
         }
-        // 回溯：移除当前节点（不影响同层级其他节点校验）
-        traversedNodeCodes.remove(nodeCode);
+    }
+
+    /**
+     * 场景6：权限表parent_id关系校验（建树前的原始数据校验，如导入生成的权限目录前调用）
+     * @param permissions 待校验的全部权限数据
+     * @return 校验报告（循环引用/孤儿/多个顶级节点/重复ID/最大深度）
+     */
+    public PermissionGraphReport validatePermissionGraph(Collection<Permission> permissions) {
+        return PermissionGraphReport.analyze(permissions);
     }
 
     /**
@@ -156,9 +208,9 @@ public class PermissionTreeValidator {
         if (userRoot == null || assignedCodes == null) {
             return;
         }
-        // 从全局树中查找对应权限，挂载到用户树
+        // 从默认租户的全局树中查找对应权限，挂载到用户树
         for (String code : assignedCodes) {
-            IPermissionComponent targetNode = findNodeInGlobalTree(code);
+            IPermissionComponent targetNode = findNodeInGlobalTree(Tenant.DEFAULT_ID, code);
             if (targetNode != null) {
                 userRoot.addChild(targetNode);
             }
@@ -166,66 +218,99 @@ public class PermissionTreeValidator {
     }
 
     /**
-     * 核心方法：根据用户名，从数据库构建用户的真实权限树
+     * 核心方法：根据用户名，获取用户的真实权限树
+     * 同角色的用户共享同一棵权限树（按角色构建一次），调用方不得修改返回的树
      * @param username 用户名
      * @return 用户的权限树根节点
      */
-    // 核心修复：构建用户真实权限树（确保权限编码正确挂载）
     public IPermissionComponent buildRealUserPermissionTree(String username) {
-        // 1. 查询用户直接关联的所有权限编码（去重+去空格）
-        List<String> directPermCodes = userService.getUserPermissionsByUsername(username);
-        Set<String> validPermCodes = new HashSet<>();
-        for (String code : directPermCodes) {
-            if (code != null && !code.trim().isEmpty()) {
-                validPermCodes.add(code.trim()); // 去空格后存入Set，避免重复
-            }
-        }
-        log.info("用户{}的有效直接权限:{}",username,validPermCodes);
-
-        // 2. 获取全局权限树根节点
-        IPermissionComponent globalRoot = permissionTreeBuilder.getRoot();
+        return resolveUserRoleGrants(username).getOrBuildTree(this::buildPermissionTree);
+    }
 
-        // 3. 为用户构建专属权限树（只包含用户拥有的权限节点）
-        CompositePermission userRoot = new CompositePermission(new Permission());
-        userRoot.setPermissionCode(""); // 标记用户根节点
+    /**
+     * 根据角色的权限编码构建权限树（从角色所属租户的权限树复制对应节点，包括子树；被拒绝的节点及其子树不复制）
+     * @param roleGrants 角色（组合）共享的权限结构
+     * @return 权限树根节点
+     */
+    private IPermissionComponent buildPermissionTree(RoleGrantCache.RoleGrants roleGrants) {
+        PermissionGrantSet grants = roleGrants.getGrants();
+        // 1. 构建专属权限树（只包含拥有的权限节点）
+        CompositePermission treeRoot = new CompositePermission(new Permission());
+        treeRoot.setPermissionCode(""); // 标记根节点
 
-        // 4. 遍历用户权限，从全局树复制对应节点（包括子树）
-        for (String permCode : validPermCodes) {
-            IPermissionComponent targetNode = findNodeInGlobalTree(permCode);
+        // 2. 遍历权限编码，从全局树复制对应节点（包括子树）
+        for (String permCode : roleGrants.getAssignedCodes()) {
+            if (grants.isDenied(permCode)) {
+                log.info("权限{}被拒绝，不挂载", permCode);
+                continue;
+            }
+            IPermissionComponent targetNode = findNodeInGlobalTree(roleGrants.getTenantId(), permCode);
             if (targetNode != null) {
                 // 创建节点副本，避免修改全局树结构
-                IPermissionComponent userNode = copyPermissionNode(targetNode);
-                userRoot.addChild(userNode);
-                log.info("✅ 成功给用户「{}」挂载权限：{}", username, permCode);
+                treeRoot.addChild(copyPermissionNode(targetNode, grants));
+                log.info("✅ 成功挂载权限：{}", permCode);
             } else {
-                log.warn("❌ 用户「{}」的权限{}在全局树中不存在", username, permCode);
+                log.warn("❌ 权限{}在全局树中不存在", permCode);
             }
         }
 
-        return userRoot;
+        return treeRoot;
     }
     
     /**
-     * 复制权限节点及其子树（避免修改全局树结构）
+     * 复制权限节点及其子树（避免修改全局树结构；显式栈，不受树深度限制）
+     */
+    private IPermissionComponent copyPermissionNode(IPermissionComponent original, PermissionGrantSet grants) {
+        IPermissionComponent rootCopy = copySingleNode(original);
+        if (rootCopy == null) {
+            return null;
+        }
+        Deque<IPermissionComponent> originals = new ArrayDeque<>();
+        Deque<IPermissionComponent> copies = new ArrayDeque<>();
+        originals.push(original);
+        copies.push(rootCopy);
+        while (!originals.isEmpty()) {
+            IPermissionComponent source = originals.pop();
+            IPermissionComponent target = copies.pop();
+            if (!(target instanceof CompositePermission)) {
+                continue;
+            }
+            // 按原顺序复制子节点（跳过被拒绝的子树）
+            for (IPermissionComponent child : source.getChildren()) {
+                if (grants.isDenied(child.getPermissionCode())) {
+                    continue;
+                }
+                IPermissionComponent childCopy = copySingleNode(child);
+                if (childCopy != null) {
+                    target.addChild(childCopy);
+                    originals.push(child);
+                    copies.push(childCopy);
+                }
+            }
+        }
+        return rootCopy;
+    }
+
+    /**
+     * 复制单个节点（不含子节点）
      */
-    private IPermissionComponent copyPermissionNode(IPermissionComponent original) {
+    private IPermissionComponent copySingleNode(IPermissionComponent original) {
         if (original == null) {
             return null;
         }
-        
+
         // 创建新的Permission对象
         Permission originalPerm = null;
         if (original instanceof CompositePermission) {
             originalPerm = ((CompositePermission) original).getPermission();
-        } else if (original instanceof com.rbac.service.component.LeafPermission) {
-            // 注意：需要根据实际LeafPermission类的名称调整
-            originalPerm = ((com.rbac.service.component.LeafPermission) original).getPermission();
+        } else if (original instanceof LeafPermission) {
+            originalPerm = ((LeafPermission) original).getPermission();
         }
-        
+
         if (originalPerm == null) {
             return null;
         }
-        
+
         // 创建权限副本
         Permission permCopy = new Permission();
         permCopy.setId(originalPerm.getId());
@@ -234,78 +319,220 @@ public class PermissionTreeValidator {
         permCopy.setParentId(originalPerm.getParentId());
         permCopy.setEnabled(originalPerm.isEnabled());
         permCopy.setInheritParent(originalPerm.isInheritParent());
-        
+
         // 根据原节点类型创建新节点
-        IPermissionComponent newNode;
         if (original instanceof CompositePermission) {
-            newNode = new CompositePermission(permCopy);
-            // 递归复制子节点
-            for (IPermissionComponent child : original.getChildren()) {
-                IPermissionComponent childCopy = copyPermissionNode(child);
-                if (childCopy != null) {
-                    ((CompositePermission) newNode).addChild(childCopy);
-                }
-            }
-        } else {
-            newNode = new com.rbac.service.component.LeafPermission(permCopy);
+            return new CompositePermission(permCopy);
         }
-        
-        return newNode;
+        return new LeafPermission(permCopy);
     }
 
     /**
-     * 辅助方法：从全局树中查找指定编码的节点（增强版：支持模糊匹配+空值防护）
+     * 辅助方法：从租户权限树中查找指定编码的节点（增强版：支持模糊匹配+空值防护）
      */
-    private IPermissionComponent findNodeInGlobalTree(String targetCode) {
-        if (targetCode == null || targetCode.trim().isEmpty() || globalRoot == null) {
+    private IPermissionComponent findNodeInGlobalTree(Integer tenantId, String targetCode) {
+        // 取该租户权限树当前的根节点（权限增删改后树会重建）
+        IPermissionComponent currentRoot = treeBuilder.getRoot(tenantId);
+        if (targetCode == null || targetCode.trim().isEmpty() || currentRoot == null) {
             return null;
         }
         String trimCode = targetCode.trim();
-        IPermissionComponent found = findNodeRecursive(globalRoot, trimCode);
+        IPermissionComponent found = findNode(currentRoot, trimCode);
         if (found == null) {
-            System.out.println("⚠️ 全局树中未找到权限编码：" + trimCode + "（当前全局编码：system/content等）");
+            log.debug("租户{}的权限树中未找到权限编码：{}", tenantId, trimCode);
         }
         return found;
     }
 
     /**
-     * 递归查找节点的工具方法（增强版：修复递归逻辑+空值防护）
+     * 查找节点的工具方法（迭代先序遍历，忽略大小写+空格）
      */
-    private IPermissionComponent findNodeRecursive(IPermissionComponent node, String targetCode) {
-        // 空值防护
-        if (node == null || node.getPermissionCode() == null) {
-            return null;
-        }
+    private IPermissionComponent findNode(IPermissionComponent node, String targetCode) {
+        return PermissionTreeWalker.findFirst(node, current -> current.getPermissionCode() != null
+                && current.getPermissionCode().trim().equalsIgnoreCase(targetCode));
+    }
+
+    /**
+     * 获取租户权限树的稠密编号索引（租户未加载时按需加载）
+     * @param tenantId 租户ID
+     */
+    public PermissionIndex getPermissionIndex(Integer tenantId) {
+        return permissionTreeBuilder.getPermissionIndex(tenantId);
+    }
+
+    /**
+     * 把一组直接分配的权限编码编译为授权位图（基于租户当前的权限索引）
+     * @param tenantId 租户ID
+     * @param assignedCodes 直接分配的权限编码
+     * @return 授权位图
+     */
+    public PermissionGrantSet compileGrants(Integer tenantId, Collection<String> assignedCodes) {
+        return getPermissionIndex(tenantId).compileGrants(assignedCodes);
+    }
+
+    /**
+     * 获取角色的共享权限结构（每个角色只编译一次，角色授权变更或权限树重建后重新编译）
+     * @param tenantId 角色所属租户ID
+     * @param roleId 角色ID
+     * @return 角色共享的权限结构
+     */
+    public RoleGrantCache.RoleGrants getRoleGrants(Integer tenantId, Integer roleId) {
+        return roleGrantCache.getRoleGrants(tenantId, roleId, getPermissionIndex(tenantId), roleCodesLoader);
+    }
 
-        // 当前节点匹配（忽略大小写+空格）
-        String nodeCode = node.getPermissionCode().trim();
-        if (nodeCode.equalsIgnoreCase(targetCode)) {
-            return node;
+    /**
+     * 获取多个角色的组合结构（各角色位图按位或，按角色组合缓存）
+     * @param tenantId 角色所属租户ID
+     * @param roleIds 角色ID
+     * @return 组合结构（单个角色即角色结构，无角色为空结构）
+     */
+    public RoleGrantCache.RoleGrants getCombinedRoleGrants(Integer tenantId, int[] roleIds) {
+        return roleGrantCache.getCombinedGrants(tenantId, roleIds, getPermissionIndex(tenantId), roleCodesLoader);
+    }
+
+    /**
+     * 根据用户名解析其租户和全部角色，返回角色（组合）共享的权限结构（不再为每个用户单独构建）
+     * @param username 用户名
+     * @return 角色共享的权限结构（用户不存在或未分配角色时为空结构）
+     */
+    public RoleGrantCache.RoleGrants resolveUserRoleGrants(String username) {
+        User user = userService.getUserByUsername(username);
+        if (user == null) {
+            return roleGrantCache.getNoRoleGrants(Tenant.DEFAULT_ID, getPermissionIndex(Tenant.DEFAULT_ID));
         }
+        return getCombinedRoleGrants(user.getTenantId(), userService.getRoleIdsByUserId(user.getId()));
+    }
 
-        // 递归查找子节点（所有节点都要查，包括叶子节点的父节点链）
-        List<IPermissionComponent> children = node.getChildren();
-        if (!children.isEmpty()) {
-            for (IPermissionComponent child : children) {
-                IPermissionComponent found = findNodeRecursive(child, targetCode);
-                if (found != null) {
-                    return found;
+    /**
+     * 判断角色权限结构是否仍有效（供用户级缓存校验引用是否过期；租户已卸载视为过期）
+     */
+    public boolean isRoleGrantsCurrent(RoleGrantCache.RoleGrants roleGrants) {
+        return roleGrants != null
+                && roleGrantCache.isCurrent(roleGrants, permissionTreeBuilder.peekPermissionIndex(roleGrants.getTenantId()));
+    }
+
+    /**
+     * 根据用户名获取用户的授权位图（即其角色共享的位图）
+     * @param username 用户名
+     * @return 用户授权位图
+     */
+    public PermissionGrantSet buildUserGrants(String username) {
+        return resolveUserRoleGrants(username).getGrants();
+    }
+
+    /**
+     * 加载角色直接分配的权限编码（去重+去空格）
+     */
+    private Set<String> loadRoleAssignedCodes(Integer roleId) {
+        Set<String> assignedCodes = new HashSet<>();
+        List<Permission> permissions = roleService.getPermissionsByRoleId(roleId);
+        if (permissions != null) {
+            for (Permission permission : permissions) {
+                String code = permission.getCode();
+                if (code != null && !code.trim().isEmpty()) {
+                    assignedCodes.add(code.trim());
                 }
             }
         }
+        log.info("角色{}的有效直接权限:{}", roleId, assignedCodes);
+        return assignedCodes;
+    }
+
+    /**
+     * 加载角色直接拒绝的权限编码
+     */
+    private Set<String> loadRoleDeniedCodes(Integer roleId) {
+        Set<String> deniedCodes = new HashSet<>();
+        for (Permission permission : roleService.getDeniedPermissionsByRoleId(roleId)) {
+            String code = permission.getCode();
+            if (code != null && !code.trim().isEmpty()) {
+                deniedCodes.add(code.trim());
+            }
+        }
+        if (!deniedCodes.isEmpty()) {
+            log.info("角色{}的拒绝权限:{}", roleId, deniedCodes);
+        }
+        return deniedCodes;
+    }
+
+    /**
+     * 场景1（位图版）：索引查找 + 位测试校验权限
+     * @param grants 用户授权位图
+     * @param targetCode 目标权限编码
+     * @return true=拥有该权限
+     */
+    public boolean verifyUserPermission(PermissionGrantSet grants, String targetCode) {
+        if (grants == null || targetCode == null || targetCode.trim().isEmpty()) {
+            return false;
+        }
+        return grants.isGranted(targetCode);
+    }
 
-        // 未找到
-        return null;
+    /**
+     * 批量校验（位图版）：一次取出授权位图，逐个编码做索引查找+位测试
+     * @param grants 用户授权位图
+     * @param targetCodes 目标权限编码列表
+     * @return 结果位图，第i位对应targetCodes第i个编码
+     */
+    public BitSet verifyUserPermissions(PermissionGrantSet grants, List<String> targetCodes) {
+        if (grants == null) {
+            return new BitSet();
+        }
+        return grants.checkAll(targetCodes);
+    }
+
+    /**
+     * 批量校验用户权限（前端按页面一次性获取可见的菜单/按钮编码）
+     * @param username 用户名
+     * @param targetCodes 目标权限编码列表；为空则返回用户的全部有效权限（含父权限展开出的子权限）
+     * @return 拥有的权限编码（保持targetCodes中的顺序）
+     */
+    public List<String> filterGrantedCodes(String username, List<String> targetCodes) {
+        PermissionGrantSet grants = getUserRoleGrantsWithCache(username).getGrants();
+        if (targetCodes == null || targetCodes.isEmpty()) {
+            return grants.grantedCodes();
+        }
+        BitSet granted = verifyUserPermissions(grants, targetCodes);
+        List<String> result = new ArrayList<>(granted.cardinality());
+        for (int i = granted.nextSetBit(0); i >= 0; i = granted.nextSetBit(i + 1)) {
+            result.add(targetCodes.get(i).trim());
+        }
+        return result;
     }
 
     /**
      * 新增：带缓存的用户权限验证
      */
     public boolean verifyUserPermissionWithCache(String username, String targetCode) {
-        // 1. 从缓存获取用户权限树
-        IPermissionComponent userTree = permCache.getUserPermTree(username, this);
+        // 1. 从缓存获取用户授权位图
+        PermissionGrantSet userGrants = getUserRoleGrantsWithCache(username).getGrants();
         // 2. 验证权限
-        return verifyUserPermission(userTree, targetCode);
+        return verifyUserPermission(userGrants, targetCode);
+    }
+
+    /**
+     * 带缓存获取用户所属角色的共享结构
+     */
+    public RoleGrantCache.RoleGrants getUserRoleGrantsWithCache(String username) {
+        return permCache.getUserRoleGrants(username);
+    }
+
+    /**
+     * 用户权限缓存统计（命中率、加载耗时、淘汰数量）
+     */
+    public Map<String, Object> getPermissionCacheStats() {
+        return permCache.getStats();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        rbacChangeBus.register(permCache);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rbacChangeBus.unregister(permCache);
+        permCache.shutdown();
     }
 
     // 新增：获取全局根节点（供外部测试使用）
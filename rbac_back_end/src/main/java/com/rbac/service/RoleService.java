@@ -43,6 +43,13 @@ public interface RoleService {
      */
     List<Role> getAllRoles();
 
+    /**
+     * 查询指定租户的角色
+     * @param tenantId 租户ID
+     * @return 角色列表
+     */
+    List<Role> getRolesByTenantId(Integer tenantId);
+
     /**
      * 校验角色名是否已存在（新增/修改时的核心业务规则）
      * @param roleName 角色名
@@ -51,12 +58,19 @@ public interface RoleService {
     boolean checkRoleNameExists(String roleName);
 
     /**
-     * 查询角色的所有权限
+     * 查询角色的所有权限（允许）
      * @param roleId 角色ID
      * @return 权限列表
      */
     List<Permission> getPermissionsByRoleId(Integer roleId);
 
+    /**
+     * 查询角色显式拒绝的所有权限
+     * @param roleId 角色ID
+     * @return 权限列表（无拒绝时为空列表）
+     */
+    List<Permission> getDeniedPermissionsByRoleId(Integer roleId);
+
     /**
      * 为角色分配权限
      * @param roleId 角色ID
@@ -65,6 +79,23 @@ public interface RoleService {
      */
      boolean assignPermissionsToRole(Integer roleId, List<Integer> permIdList);
 
+    /**
+     * 设置角色的拒绝权限（替换原有拒绝权限；拒绝优先于允许，拒绝父权限即拒绝其整棵子树）
+     * @param roleId 角色ID
+     * @param permIdList 权限ID列表（空列表=清空拒绝）
+     * @return true=设置成功，false=角色/权限不存在
+     */
+    boolean denyPermissionsToRole(Integer roleId, List<Integer> permIdList);
+
+    /**
+     * 查询同时出现在角色允许权限和permIdList中的权限ID（同一权限不能既允许又拒绝）
+     * @param roleId 角色ID
+     * @param permIdList 待设置的权限ID列表
+     * @param deny true=permIdList为拒绝权限（与已有允许权限比较），false=为允许权限（与已有拒绝权限比较）
+     * @return 冲突的权限ID
+     */
+    List<Integer> findConflictingPermissionIds(Integer roleId, List<Integer> permIdList, boolean deny);
+
     /**
      * 验证角色是否有某权限
      * @param roleId 角色ID
@@ -85,4 +116,27 @@ public interface RoleService {
       * @return true=角色名存在
       */
      boolean checkRoleExistsByRoleName(String roleName);
+
+    /**
+     * 设置角色的父角色（替换原有继承关系，角色继承父角色的全部权限）
+     * @param roleId 角色ID
+     * @param parentRoleIds 父角色ID列表（空列表=取消继承）
+     * @return true=设置成功，false=角色/父角色不存在或构成循环继承
+     */
+    boolean updateRoleParents(Integer roleId, List<Integer> parentRoleIds);
+
+    /**
+     * 判断把角色的父角色设置为parentRoleIds后是否构成循环继承
+     * @param roleId 角色ID
+     * @param parentRoleIds 父角色ID列表
+     * @return true=构成循环
+     */
+    boolean createsInheritanceCycle(Integer roleId, List<Integer> parentRoleIds);
+
+    /**
+     * 查询角色的直接父角色
+     * @param roleId 角色ID
+     * @return 父角色ID列表
+     */
+    List<Integer> getParentRoleIds(Integer roleId);
 }
\ No newline at end of file
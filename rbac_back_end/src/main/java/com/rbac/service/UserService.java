@@ -3,6 +3,7 @@ package com.rbac.service;
 import com.rbac.model.entity.Role;
 import com.rbac.model.entity.User;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 public interface UserService {
@@ -21,19 +22,59 @@ public interface UserService {
     User getUserByUsername(String username);
 
      /**
-     * 根据用户名获取用户角色
+     * 根据用户名获取用户的主角色（角色ID最小的一个，兼容单角色接口）
      * @param username 用户名
      * @return 角色对象
      */
     public Role getRoleByUsername(String username);
     
     /**
-     * 根据用户ID获取用户角色
+     * 根据用户ID获取用户的主角色（角色ID最小的一个，兼容单角色接口）
      * @param userid 用户ID
      * @return 角色对象
      */
     public Role getRoleByUserId(Integer userid);
 
+    /**
+     * 根据用户名获取用户的全部角色ID
+     * @param username 用户名
+     * @return 角色ID（升序，用户不存在或未分配角色返回空数组）
+     */
+    int[] getRoleIdsByUsername(String username);
+
+    /**
+     * 根据用户ID获取用户的全部角色ID
+     * @param userid 用户ID
+     * @return 角色ID（升序，未分配角色返回空数组）
+     */
+    int[] getRoleIdsByUserId(Integer userid);
+
+    /**
+     * 根据用户ID获取用户的全部角色
+     * @param userid 用户ID
+     * @return 角色列表（按角色ID升序）
+     */
+    List<Role> getRolesByUserId(Integer userid);
+
+    /**
+     * 替换用户的全部角色
+     * @param userid 用户ID
+     * @param roleids 角色ID列表（空列表=取消全部角色）
+     * @return true=更新成功，false=用户或角色不存在
+     */
+    boolean updateUserRoles(Integer userid, List<Integer> roleids);
+
+    /**
+     * 为用户追加一个限时角色（同一角色已存在时替换其有效期，不影响用户的其它角色）
+     * 到达生效/失效时间时由时间轮失效该用户的权限缓存
+     * @param userid 用户ID
+     * @param roleid 角色ID
+     * @param validFrom 生效时间（null=立即生效）
+     * @param validUntil 失效时间（必须晚于当前时间和生效时间）
+     * @return true=分配成功，false=用户/角色不存在或有效期非法
+     */
+    boolean grantTemporaryRole(Integer userid, Integer roleid, Timestamp validFrom, Timestamp validUntil);
+
     /**
      * 根据用户id获取用户对象
      * @param userid 用户id
@@ -62,6 +103,13 @@ public interface UserService {
      */
     List<User> queryAllUsers();
 
+    /**
+     * 查询指定租户的用户
+     * @param tenantId 租户ID
+     * @return 用户对象列表
+     */
+    List<User> queryUsersByTenantId(Integer tenantId);
+
     /**
      * 修改指定用户密码
      * @param userid 用户id
@@ -3,7 +3,6 @@ package com.rbac.service.adapter;
 import com.rbac.model.entity.User;
 import com.rbac.service.IExternalAuthService;
 import com.rbac.service.UserService;
-import com.rbac.service.impl.UserServiceImpl;
 
 import java.util.List;
 
@@ -12,8 +11,12 @@ import java.util.List;
  * 外部服务失败时，切换到本地业务层的权限逻辑
  */
 public class LocalAuthAdapter implements IExternalAuthService {
-    // 依赖你已完成的业务层
-    private UserService userService = new UserServiceImpl();
+    // 依赖你已完成的业务层（须为Spring管理的实例：查询权限时要用到注入的角色继承关系）
+    private final UserService userService;
+
+    public LocalAuthAdapter(UserService userService) {
+        this.userService = userService;
+    }
 
     @Override
     public boolean verifyUser(String username, String password) {
@@ -4,69 +4,86 @@ import com.rbac.model.entity.Permission;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * 复合节点——权限组
+ * 校验热路径不分配对象、不逐节点打日志：编码在建树时去空格并驻留，子节点存放在数组中直接遍历
+ * 仅在开启DEBUG日志（logging.level.com.rbac.service.component=DEBUG）时输出一条决策日志
+ */
 @Slf4j
 public class CompositePermission implements IPermissionComponent {
+    private static final IPermissionComponent[] NO_CHILDREN = new IPermissionComponent[0];
+
     private Permission permission;
     private IPermissionComponent parent;
-    private List<IPermissionComponent> children = new ArrayList<>();
+    // 子节点数组（容量按需扩展，有效元素为[0, childCount)）
+    private IPermissionComponent[] children = NO_CHILDREN;
+    private int childCount;
+    // 已去空格并驻留的自身编码
+    private String selfCode;
 
     public CompositePermission(Permission permission) {
         this.permission = permission;
         if (this.permission == null) {
             this.permission = new Permission();
         }
+        this.selfCode = normalizeCode(this.permission.getCode());
+    }
+
+    static String normalizeCode(String code) {
+        return code == null ? "" : code.trim().intern();
     }
 
     @Override
     public boolean verifyPermission(String permissionCode) {
-        // 1. 空值+空格处理（解决编码空格问题）
-        if (permissionCode == null || permissionCode.trim().isEmpty()) {
+        // 空值+空格处理（仅在入口处理一次，子节点递归不再重复）
+        if (permissionCode == null) {
             return false;
         }
-        String targetCode = permissionCode.trim(); // 去空格
-        String selfCode = this.permission.getCode() == null ? "" : this.permission.getCode().trim();
-
-        log.info("当前节点的selfcode:{}",selfCode);
+        String targetCode = permissionCode.trim();
+        if (targetCode.isEmpty()) {
+            return false;
+        }
+        boolean granted = matchesTrimmed(targetCode);
+        if (log.isDebugEnabled()) {
+            log.debug("权限校验：节点[{}]，目标[{}]，结果={}", selfCode, targetCode, granted);
+        }
+        return granted;
+    }
 
-        // 2. 自身权限禁用 → 直接失败
+    @Override
+    public boolean matchesTrimmed(String targetCode) {
+        // 1. 自身权限禁用 → 直接失败
         if (!this.permission.isEnabled()) {
-            log.info("当前节点的权限被禁用:{}",selfCode);
             return false;
         }
-
-        // 3. 直接匹配自身编码（解决直接关联权限校验）
+        // 2. 直接匹配自身编码
         if (selfCode.equals(targetCode)) {
-            log.debug("直接匹配权限：{}", targetCode);
             return true;
         }
-
-        // 4. 父权限包含子权限逻辑（解决父子继承问题）
-        // 规则：如果目标权限是当前节点的子权限（如system:user:list是system:user的子），直接返回true
-        if (targetCode.startsWith(selfCode + ":")) {
-            log.debug("父权限{}包含子权限{}，校验通过", selfCode, targetCode);
+        // 3. 父权限包含子权限：目标编码以"自身编码:"开头（逐字符比较，不拼接字符串）
+        int selfLength = selfCode.length();
+        if (targetCode.length() > selfLength
+                && targetCode.charAt(selfLength) == ':'
+                && targetCode.startsWith(selfCode)) {
             return true;
         }
-
-        // 5. 递归检查子节点（子节点直接关联的权限也生效）
-        if (children != null && !children.isEmpty()) {
-            for (IPermissionComponent child : children) {
-                log.info("当前节点的子节点:{}",child);
-                if (child.verifyPermission(targetCode)) {
-                    return true;
-                }
+        // 4. 遍历子节点（子节点直接关联的权限也生效）
+        IPermissionComponent[] current = children;
+        int count = childCount;
+        for (int i = 0; i < count; i++) {
+            if (current[i].matchesTrimmed(targetCode)) {
+                return true;
             }
         }
-
         return false;
     }
 
-
-    // 其他方法（getter/setter/addChild/removeChild等）保持不变
     @Override
     public String getPermissionCode() {
-        return permission.getCode() == null ? "" : permission.getCode().trim();
+        return selfCode;
     }
 
     @Override
@@ -76,19 +93,50 @@ public class CompositePermission implements IPermissionComponent {
 
     @Override
     public void addChild(IPermissionComponent child) {
-        children.add(child);
+        if (childCount == children.length) {
+            children = Arrays.copyOf(children, Math.max(4, childCount * 2));
+        }
+        children[childCount++] = child;
         child.setParent(this);
     }
 
     @Override
     public void removeChild(IPermissionComponent child) {
-        children.remove(child);
-        child.setParent(null);
+        for (int i = 0; i < childCount; i++) {
+            if (children[i] == child) {
+                System.arraycopy(children, i + 1, children, i, childCount - i - 1);
+                children[--childCount] = null;
+                child.setParent(null);
+                return;
+            }
+        }
     }
 
     @Override
     public List<IPermissionComponent> getChildren() {
-        return new ArrayList<>(children); // 返回副本，避免外部修改
+        // 返回副本，避免外部修改（热路径请使用childCount/childAt）
+        List<IPermissionComponent> copy = new ArrayList<>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            copy.add(children[i]);
+        }
+        return copy;
+    }
+
+    /**
+     * 子节点数量（配合childAt按下标遍历，不复制列表）
+     */
+    public int childCount() {
+        return childCount;
+    }
+
+    /**
+     * 按下标获取子节点
+     */
+    public IPermissionComponent childAt(int index) {
+        if (index < 0 || index >= childCount) {
+            throw new IndexOutOfBoundsException("子节点下标越界：" + index);
+        }
+        return children[index];
     }
 
     @Override
@@ -104,9 +152,10 @@ public class CompositePermission implements IPermissionComponent {
     @Override
     public void setPermissionCode(String permissionCode) {
         this.permission.setCode(permissionCode);
+        this.selfCode = normalizeCode(permissionCode);
     }
 
     public Permission getPermission() {
         return permission;
     }
-}
\ No newline at end of file
+}
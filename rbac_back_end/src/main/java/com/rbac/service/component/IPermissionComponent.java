@@ -26,4 +26,9 @@ public interface IPermissionComponent {
     void setParent(IPermissionComponent parent); // 设置父节点
 
     void setPermissionCode(String permissionCode);
+
+    // 4. 校验已去空格的目标编码（内部递归用：不做空值处理、不打日志、不分配对象）
+    default boolean matchesTrimmed(String trimmedCode) {
+        return verifyPermission(trimmedCode);
+    }
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ public class LeafPermission implements IPermissionComponent {
     // 持有单个权限的实体对象（复用你已有的Permission实体）
     private Permission permission;
     private IPermissionComponent parent; // 父节点
+    private String selfCode; // 已去空格并驻留的自身编码（校验热路径直接使用）
 
     // 构造方法：传入数据库查出来的单个权限实体
     public LeafPermission(Permission permission) {
@@ -21,6 +22,7 @@ public class LeafPermission implements IPermissionComponent {
         if (this.permission == null) {
             this.permission = new Permission();
         }
+        this.selfCode = CompositePermission.normalizeCode(this.permission.getCode());
     }
 
     // 实现新增的接口方法
@@ -37,6 +39,7 @@ public class LeafPermission implements IPermissionComponent {
     @Override
     public void setPermissionCode(String permissionCode) {
         this.permission.setCode(permissionCode);
+        this.selfCode = CompositePermission.normalizeCode(permissionCode);
     }
 
     /**
@@ -45,28 +48,25 @@ public class LeafPermission implements IPermissionComponent {
      */
     @Override
     public boolean verifyPermission(String permissionCode) {
-        // 1. 空值校验（保持不变）
-        if (permissionCode == null || permissionCode.trim().isEmpty()) {
+        // 1. 空值校验
+        if (permissionCode == null) {
             return false;
         }
         String targetCode = permissionCode.trim();
-        String selfCode = permission.getCode();
-
-        if (selfCode == null || selfCode.trim().isEmpty()) {
-            return false;
-        }
+        return !targetCode.isEmpty() && matchesTrimmed(targetCode);
+    }
 
-        // 2. 自身权限禁用 → 直接返回false（保持不变）
-        if (!permission.isEnabled()) {
+    /**
+     * 热路径：目标编码已去空格，仅做禁用判断+精确匹配（不分配对象）
+     */
+    @Override
+    public boolean matchesTrimmed(String targetCode) {
+        // 2. 自身编码为空或权限禁用 → 直接返回false
+        if (selfCode.isEmpty() || !permission.isEnabled()) {
             return false;
         }
-
-        // 3. 自身编码匹配 → 验证通过（保持不变）
-        if (selfCode.equals(targetCode)) {
-            return true;
-        }
-
-        return false;
+        // 3. 自身编码匹配 → 验证通过
+        return selfCode.equals(targetCode);
     }
 
     /**
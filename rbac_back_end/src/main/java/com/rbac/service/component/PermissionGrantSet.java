@@ -0,0 +1,245 @@
+package com.rbac.service.component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 授权位图（不可变）：基于PermissionIndex的先序下标，第i位为1表示拥有下标i的权限
+ * 替代按用户复制的权限树副本，每个用户/角色只占几个long
+ * 拒绝授权与允许授权一起编译：有效授权位已扣除拒绝位，拒绝位另存一份用于前缀匹配（拒绝优先）
+ */
+public final class PermissionGrantSet {
+    // 位图对应的权限索引（索引重建后旧位图自动失效）
+    private final PermissionIndex index;
+    // 已展开子树、已扣除拒绝后的有效授权位
+    private final long[] bits;
+    // 已展开子树的拒绝位（没有拒绝授权时为null）
+    private final long[] denied;
+
+    PermissionGrantSet(PermissionIndex index, long[] bits) {
+        this(index, bits, null);
+    }
+
+    PermissionGrantSet(PermissionIndex index, long[] bits, long[] denied) {
+        this.index = index;
+        this.bits = bits;
+        this.denied = denied;
+    }
+
+    /**
+     * 空授权（不拥有任何权限）
+     */
+    public static PermissionGrantSet empty(PermissionIndex index) {
+        return new PermissionGrantSet(index, new long[index.wordCount()]);
+    }
+
+    /**
+     * 多个授权位图合并（多角色用户的有效授权 = 各角色允许的并集 - 各角色拒绝的并集，任一角色拒绝即拒绝）
+     * @param index 当前权限索引（各位图必须基于它编译）
+     * @param sets 各角色的授权位图
+     * @return 合并后的位图
+     */
+    public static PermissionGrantSet unionOf(PermissionIndex index, List<PermissionGrantSet> sets) {
+        long[] bits = new long[index.wordCount()];
+        long[] denied = null;
+        for (PermissionGrantSet set : sets) {
+            if (!set.isCompiledAgainst(index)) {
+                throw new IllegalArgumentException("授权位图与当前权限索引不一致，无法合并");
+            }
+            for (int w = 0; w < bits.length; w++) {
+                bits[w] |= set.bits[w];
+            }
+            if (set.denied != null) {
+                if (denied == null) {
+                    denied = new long[bits.length];
+                }
+                for (int w = 0; w < denied.length; w++) {
+                    denied[w] |= set.denied[w];
+                }
+            }
+        }
+        // 各角色的有效位已扣除自身的拒绝位，这里再扣除其它角色的拒绝位
+        if (denied != null) {
+            for (int w = 0; w < bits.length; w++) {
+                bits[w] &= ~denied[w];
+            }
+        }
+        return new PermissionGrantSet(index, bits, denied);
+    }
+
+    /**
+     * 校验是否拥有目标权限，语义与CompositePermission/LeafPermission的树形校验一致：
+     * 1. 目标编码本身在授权区间内 → 通过
+     * 2. 目标编码的某个前缀（按":"切分）是已授权的复合节点 → 父权限包含子权限，通过
+     * 拒绝优先：目标编码本身或其某个前缀被拒绝时，不论是否允许都不通过
+     * @param permissionCode 目标权限编码
+     * @return true=拥有该权限
+     */
+    public boolean isGranted(String permissionCode) {
+        if (permissionCode == null) {
+            return false;
+        }
+        // 按区间跳过首尾空白，代替trim()/substring()，全程不分配对象
+        int from = 0;
+        int to = permissionCode.length();
+        while (from < to && permissionCode.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && permissionCode.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (from == to) {
+            return false;
+        }
+        int target = index.indexOf(permissionCode, from, to);
+        if (target >= 0 && testBit(target)) {
+            // 有效位已扣除拒绝位
+            return true;
+        }
+        if (target >= 0 && testDenied(target)) {
+            return false;
+        }
+        // 逐级上溯编码前缀：system:user:list → system:user → system
+        boolean granted = false;
+        int colon = permissionCode.lastIndexOf(':', to - 1);
+        while (colon > from) {
+            int prefix = index.indexOf(permissionCode, from, colon);
+            if (prefix >= 0) {
+                // 拒绝按前缀生效（含叶子节点：拒绝system:user:delete同样拒绝system:user:delete:batch）
+                if (testDenied(prefix)) {
+                    return false;
+                }
+                if (index.isComposite(prefix) && testBit(prefix)) {
+                    if (denied == null) {
+                        return true;
+                    }
+                    // 有拒绝授权时需继续上溯，确认更上层的前缀没有被拒绝
+                    granted = true;
+                }
+            }
+            colon = permissionCode.lastIndexOf(':', colon - 1);
+        }
+        return granted;
+    }
+
+    /**
+     * 判断目标权限是否被显式拒绝（目标编码本身或其某个前缀在拒绝位中）
+     * 用于构建权限树时剔除被拒绝的节点
+     * @param permissionCode 目标权限编码
+     * @return true=被拒绝
+     */
+    public boolean isDenied(String permissionCode) {
+        if (denied == null || permissionCode == null) {
+            return false;
+        }
+        String code = permissionCode.trim();
+        if (testDenied(index.indexOf(code))) {
+            return true;
+        }
+        int colon = code.lastIndexOf(':');
+        while (colon > 0) {
+            int prefix = index.indexOf(code, 0, colon);
+            if (testDenied(prefix)) {
+                return true;
+            }
+            colon = code.lastIndexOf(':', colon - 1);
+        }
+        return false;
+    }
+
+    /**
+     * 批量校验：一次遍历目标编码列表，结果第i位对应targetCodes第i个编码是否拥有
+     * @param targetCodes 目标权限编码列表（如前端页面上的全部菜单/按钮编码）
+     * @return 结果位图
+     */
+    public BitSet checkAll(List<String> targetCodes) {
+        BitSet result = new BitSet(targetCodes == null ? 0 : targetCodes.size());
+        if (targetCodes == null) {
+            return result;
+        }
+        for (int i = 0; i < targetCodes.size(); i++) {
+            if (isGranted(targetCodes.get(i))) {
+                result.set(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 全部已授权的权限编码（先序顺序，已包含父权限展开出的子权限）
+     */
+    public List<String> grantedCodes() {
+        List<String> codes = new ArrayList<>(cardinality());
+        for (int i = nextGranted(0); i >= 0; i = nextGranted(i + 1)) {
+            codes.add(index.codeAt(i));
+        }
+        return codes;
+    }
+
+    /**
+     * 从指定下标开始的下一个已授权下标（用于遍历位图）
+     * @return 下一个已授权下标，不存在返回-1
+     */
+    public int nextGranted(int from) {
+        if (from < 0) {
+            from = 0;
+        }
+        int w = from >>> 6;
+        if (w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == bits.length) {
+                return -1;
+            }
+            word = bits[w];
+        }
+    }
+
+    /**
+     * 按先序下标测试授权位
+     */
+    public boolean testBit(int position) {
+        return position >= 0 && position < index.size()
+                && (bits[position >>> 6] & (1L << position)) != 0;
+    }
+
+    private boolean testDenied(int position) {
+        return denied != null && position >= 0 && position < index.size()
+                && (denied[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * 是否包含拒绝授权
+     */
+    public boolean hasDenials() {
+        return denied != null;
+    }
+
+    /**
+     * 已授权的权限数量
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * 位图是否基于指定索引编译（索引重建后需重新编译）
+     */
+    public boolean isCompiledAgainst(PermissionIndex current) {
+        return this.index == current;
+    }
+
+    public PermissionIndex getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,197 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.Permission;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 权限表parent_id关系图的校验报告（建树之前对原始数据做一次线性扫描）
+ * 每个权限最多一个父节点，沿父链上溯并给途经节点打标记，每个节点只处理一次：
+ * 1. 顶级节点：parent_id为0或null
+ * 2. 孤儿节点：parent_id指向不存在的权限
+ * 3. 循环引用：父链回到自身（如A→B→A）
+ * 4. 不可达节点：祖先中存在孤儿/循环，建树时无法挂到顶级节点下
+ * 5. 重复ID：同一ID出现多次
+ */
+public final class PermissionGraphReport {
+    private static final int ON_PATH = 1;
+    private static final int RESOLVED = 2;
+
+    private final int nodeCount;
+    private final int maxDepth;
+    private final List<Integer> rootIds;
+    private final List<Integer> orphanIds;
+    private final List<Integer> cycleIds;
+    private final List<Integer> unreachableIds;
+    private final List<Integer> duplicateIds;
+
+    private PermissionGraphReport(int nodeCount, int maxDepth, List<Integer> rootIds, List<Integer> orphanIds,
+                                  List<Integer> cycleIds, List<Integer> unreachableIds, List<Integer> duplicateIds) {
+        this.nodeCount = nodeCount;
+        this.maxDepth = maxDepth;
+        this.rootIds = Collections.unmodifiableList(rootIds);
+        this.orphanIds = Collections.unmodifiableList(orphanIds);
+        this.cycleIds = Collections.unmodifiableList(cycleIds);
+        this.unreachableIds = Collections.unmodifiableList(unreachableIds);
+        this.duplicateIds = Collections.unmodifiableList(duplicateIds);
+    }
+
+    /**
+     * 校验原始权限数据的parent_id关系（O(n)，不递归）
+     * @param permissions 权限表全部数据
+     * @return 校验报告
+     */
+    public static PermissionGraphReport analyze(Collection<Permission> permissions) {
+        Map<Integer, Permission> byId = new LinkedHashMap<>();
+        List<Integer> duplicateIds = new ArrayList<>();
+        if (permissions != null) {
+            for (Permission permission : permissions) {
+                if (permission == null || permission.getId() == null) {
+                    continue;
+                }
+                if (byId.putIfAbsent(permission.getId(), permission) != null) {
+                    duplicateIds.add(permission.getId());
+                }
+            }
+        }
+
+        List<Integer> rootIds = new ArrayList<>();
+        List<Integer> orphanIds = new ArrayList<>();
+        List<Integer> cycleIds = new ArrayList<>();
+        List<Integer> unreachableIds = new ArrayList<>();
+        Map<Integer, Integer> states = new HashMap<>(byId.size() * 2);
+        // 已处理节点的深度；-1表示不可达
+        Map<Integer, Integer> depths = new HashMap<>(byId.size() * 2);
+        int maxDepth = 0;
+        List<Integer> path = new ArrayList<>();
+
+        for (Integer startId : byId.keySet()) {
+            if (states.containsKey(startId)) {
+                continue;
+            }
+            // 1. 沿父链上溯，直到遇到顶级节点/孤儿/已处理节点/本轮路径上的节点（循环）
+            path.clear();
+            boolean reachable;
+            int baseDepth = -1;
+            Integer current = startId;
+            while (true) {
+                Integer state = states.get(current);
+                if (state != null && state == RESOLVED) {
+                    baseDepth = depths.get(current);
+                    reachable = baseDepth >= 0;
+                    break;
+                }
+                if (state != null && state == ON_PATH) {
+                    // 循环：路径上从current开始的节点构成环，环及其子孙均不可达
+                    int cycleStart = path.indexOf(current);
+                    List<Integer> cycle = path.subList(cycleStart, path.size());
+                    for (Integer id : cycle) {
+                        cycleIds.add(id);
+                        states.put(id, RESOLVED);
+                        depths.put(id, -1);
+                    }
+                    cycle.clear();
+                    reachable = false;
+                    break;
+                }
+                states.put(current, ON_PATH);
+                Integer parentId = byId.get(current).getParentId();
+                if (parentId == null || parentId == 0) {
+                    rootIds.add(current);
+                    path.add(current);
+                    reachable = true;
+                    break;
+                }
+                if (!byId.containsKey(parentId)) {
+                    // 孤儿：父节点不存在，其路径上的子孙都不可达
+                    orphanIds.add(current);
+                    states.put(current, RESOLVED);
+                    depths.put(current, -1);
+                    reachable = false;
+                    break;
+                }
+                path.add(current);
+                current = parentId;
+            }
+
+            // 2. 从路径末尾（最靠近顶级的节点）向下回填深度
+            int depth = baseDepth;
+            for (int i = path.size() - 1; i >= 0; i--) {
+                Integer id = path.get(i);
+                states.put(id, RESOLVED);
+                if (reachable) {
+                    depth++;
+                    depths.put(id, depth);
+                    maxDepth = Math.max(maxDepth, depth);
+                } else {
+                    depths.put(id, -1);
+                    unreachableIds.add(id);
+                }
+            }
+        }
+        return new PermissionGraphReport(byId.size(), maxDepth, rootIds, orphanIds, cycleIds, unreachableIds, duplicateIds);
+    }
+
+    /**
+     * 是否存在会导致权限树不完整的问题（无顶级/多个顶级/孤儿/循环/重复ID）
+     */
+    public boolean hasErrors() {
+        return rootIds.size() != 1 || !orphanIds.isEmpty() || !cycleIds.isEmpty() || !duplicateIds.isEmpty();
+    }
+
+    public boolean hasMultipleRoots() {
+        return rootIds.size() > 1;
+    }
+
+    /**
+     * 校验结果摘要（用于日志）
+     */
+    public String summary() {
+        return "权限节点数=" + nodeCount
+                + "，最大深度=" + maxDepth
+                + "，顶级节点=" + rootIds
+                + "，孤儿节点=" + orphanIds
+                + "，循环引用节点=" + cycleIds
+                + "，不可达节点数=" + unreachableIds.size()
+                + "，重复ID=" + duplicateIds;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public List<Integer> getRootIds() {
+        return rootIds;
+    }
+
+    public List<Integer> getOrphanIds() {
+        return orphanIds;
+    }
+
+    public List<Integer> getCycleIds() {
+        return cycleIds;
+    }
+
+    public List<Integer> getUnreachableIds() {
+        return unreachableIds;
+    }
+
+    public List<Integer> getDuplicateIds() {
+        return duplicateIds;
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionGraphReport{" + summary() + "}";
+    }
+}
@@ -0,0 +1,280 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.Permission;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 权限树的稠密编号索引（不可变）：建树时按先序遍历给每个权限分配连续下标
+ * 节点i的全部子孙恰好落在区间[i, subtreeEnd(i))内，“父权限包含子权限”即一次区间判断
+ */
+public final class PermissionIndex {
+    // 空索引（权限树尚未构建时使用）
+    public static final PermissionIndex EMPTY = new PermissionIndex(
+            new String[0], new int[0], new int[0], new int[0], new boolean[0], new boolean[0], 0L);
+
+    // 先序下标 → 权限编码（已去空格）
+    private final String[] codes;
+    // 先序下标 → 权限ID
+    private final int[] ids;
+    // 先序下标 → 父节点下标（根节点为-1）
+    private final int[] parents;
+    // 先序下标 → 子树区间的结束下标（不含）
+    private final int[] subtreeEnds;
+    // 是否复合节点（复合节点才具备“前缀包含子权限”语义）
+    private final boolean[] composites;
+    // 是否启用
+    private final boolean[] enabled;
+    // 编码查找表：开放寻址，槽位存放"先序下标+1"（0为空槽）
+    // 可按字符串区间直接查找（前缀逐级上溯时无需截取子串、无装箱）
+    private final int[] slots;
+    private final int slotMask;
+    // 索引版本号（每次重建权限树递增，用于识别过期的授权位图）
+    private final long version;
+
+    private PermissionIndex(String[] codes, int[] ids, int[] parents, int[] subtreeEnds,
+                            boolean[] composites, boolean[] enabled, long version) {
+        this.codes = codes;
+        this.ids = ids;
+        this.parents = parents;
+        this.subtreeEnds = subtreeEnds;
+        this.composites = composites;
+        this.enabled = enabled;
+        this.version = version;
+        // 容量取不小于2倍节点数的2的幂，保证装载因子≤0.5
+        int capacity = Integer.highestOneBit(Math.max(codes.length, 1) * 2) << 1;
+        this.slots = new int[capacity];
+        this.slotMask = capacity - 1;
+        for (int i = 0; i < codes.length; i++) {
+            String code = codes[i];
+            if (!code.isEmpty() && indexOf(code, 0, code.length()) < 0) {
+                int slot = hashRegion(code, 0, code.length()) & slotMask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & slotMask;
+                }
+                slots[slot] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * 从已构建好的权限树编译索引（显式栈先序遍历，不依赖递归深度）
+     * @param root 权限树根节点
+     * @param version 索引版本号
+     */
+    public static PermissionIndex compile(IPermissionComponent root, long version) {
+        if (root == null) {
+            return EMPTY;
+        }
+        List<IPermissionComponent> order = new ArrayList<>();
+        List<Integer> parentList = new ArrayList<>();
+        Deque<IPermissionComponent> nodeStack = new ArrayDeque<>();
+        Deque<Integer> parentStack = new ArrayDeque<>();
+        nodeStack.push(root);
+        parentStack.push(-1);
+        while (!nodeStack.isEmpty()) {
+            IPermissionComponent node = nodeStack.pop();
+            int parent = parentStack.pop();
+            int current = order.size();
+            order.add(node);
+            parentList.add(parent);
+            // 子节点逆序入栈，保证出栈顺序与原子节点顺序一致
+            List<IPermissionComponent> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                nodeStack.push(children.get(i));
+                parentStack.push(current);
+            }
+        }
+
+        int size = order.size();
+        String[] codes = new String[size];
+        int[] ids = new int[size];
+        int[] parents = new int[size];
+        int[] subtreeEnds = new int[size];
+        boolean[] composites = new boolean[size];
+        boolean[] enabled = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            IPermissionComponent node = order.get(i);
+            Permission permission = permissionOf(node);
+            String code = node.getPermissionCode();
+            codes[i] = code == null ? "" : code.trim().intern();
+            ids[i] = permission != null && permission.getId() != null ? permission.getId() : -1;
+            parents[i] = parentList.get(i);
+            subtreeEnds[i] = i + 1;
+            composites[i] = node instanceof CompositePermission;
+            enabled[i] = permission == null || permission.isEnabled();
+        }
+        // 子节点下标总大于父节点，逆序回填即可得到每棵子树的区间终点
+        for (int i = size - 1; i > 0; i--) {
+            int parent = parents[i];
+            if (subtreeEnds[i] > subtreeEnds[parent]) {
+                subtreeEnds[parent] = subtreeEnds[i];
+            }
+        }
+        return new PermissionIndex(codes, ids, parents, subtreeEnds, composites, enabled, version);
+    }
+
+    /**
+     * 由快照中的先序数组直接还原索引（不再遍历权限树）
+     */
+    static PermissionIndex fromArrays(String[] codes, int[] ids, int[] parents, int[] subtreeEnds,
+                                      boolean[] composites, boolean[] enabled, long version) {
+        return new PermissionIndex(codes, ids, parents, subtreeEnds, composites, enabled, version);
+    }
+
+    static Permission permissionOf(IPermissionComponent node) {
+        if (node instanceof CompositePermission) {
+            return ((CompositePermission) node).getPermission();
+        } else if (node instanceof LeafPermission) {
+            return ((LeafPermission) node).getPermission();
+        }
+        return null;
+    }
+
+    /**
+     * 把一组直接分配的权限编码编译为授权位图（每个授权展开为其整棵子树区间，跳过禁用子树）
+     * @param grantedCodes 直接分配的权限编码
+     * @return 授权位图
+     */
+    public PermissionGrantSet compileGrants(Collection<String> grantedCodes) {
+        return compileGrants(grantedCodes, null);
+    }
+
+    /**
+     * 把允许和拒绝的权限编码一起编译为授权位图：拒绝优先
+     * 两者都按子树区间展开，有效授权 = 允许 & ~拒绝（拒绝父权限时，其下单独允许的子权限同样无效）
+     * @param grantedCodes 允许的权限编码
+     * @param deniedCodes 拒绝的权限编码（可为空）
+     * @return 授权位图
+     */
+    public PermissionGrantSet compileGrants(Collection<String> grantedCodes, Collection<String> deniedCodes) {
+        long[] bits = new long[wordCount()];
+        if (grantedCodes != null) {
+            for (String code : grantedCodes) {
+                int granted = code == null ? -1 : indexOf(code.trim());
+                if (granted >= 0) {
+                    setSubtree(bits, granted, true);
+                }
+            }
+        }
+        long[] denied = null;
+        if (deniedCodes != null && !deniedCodes.isEmpty()) {
+            denied = new long[wordCount()];
+            for (String code : deniedCodes) {
+                int position = code == null ? -1 : indexOf(code.trim());
+                if (position >= 0) {
+                    setSubtree(denied, position, false);
+                }
+            }
+            for (int w = 0; w < bits.length; w++) {
+                bits[w] &= ~denied[w];
+            }
+        }
+        return new PermissionGrantSet(this, bits, denied);
+    }
+
+    private void setSubtree(long[] bits, int root, boolean skipDisabled) {
+        int end = subtreeEnds[root];
+        int i = root;
+        while (i < end) {
+            if (skipDisabled && !enabled[i]) {
+                // 禁用节点的整棵子树都不可达
+                i = subtreeEnds[i];
+                continue;
+            }
+            bits[i >>> 6] |= 1L << i;
+            i++;
+        }
+    }
+
+    /**
+     * 位图所需的long个数
+     */
+    public int wordCount() {
+        return (codes.length + 63) >>> 6;
+    }
+
+    /**
+     * 根据权限编码查找先序下标
+     * @return 下标，不存在返回-1
+     */
+    public int indexOf(String code) {
+        if (code == null) {
+            return -1;
+        }
+        return indexOf(code, 0, code.length());
+    }
+
+    /**
+     * 根据字符串区间[from, to)查找先序下标（不分配对象）
+     * @return 下标，不存在返回-1
+     */
+    public int indexOf(String text, int from, int to) {
+        int length = to - from;
+        if (length <= 0) {
+            return -1;
+        }
+        int slot = hashRegion(text, from, to) & slotMask;
+        int entry;
+        while ((entry = slots[slot]) != 0) {
+            String candidate = codes[entry - 1];
+            if (candidate.length() == length && candidate.regionMatches(0, text, from, length)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    private static int hashRegion(String text, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        // 高位扰动，避免线性探测时相近编码聚集
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 判断node是否位于ancestor的子树内（含自身）
+     */
+    public boolean isInSubtree(int ancestor, int node) {
+        return node >= ancestor && node < subtreeEnds[ancestor];
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    public String codeAt(int index) {
+        return codes[index];
+    }
+
+    public int idAt(int index) {
+        return ids[index];
+    }
+
+    public int parentOf(int index) {
+        return parents[index];
+    }
+
+    public int subtreeEnd(int index) {
+        return subtreeEnds[index];
+    }
+
+    public boolean isComposite(int index) {
+        return composites[index];
+    }
+
+    public boolean isEnabled(int index) {
+        return enabled[index];
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,255 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.Permission;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 权限树二进制快照：每次从数据库重建权限树后写出，启动时内存映射读取
+ * 快照记录的数据库版本号与permission_tree_version一致时直接还原权限树和索引，无需全表扫描
+ *
+ * 文件格式（大端序）：
+ * 1. 头部：魔数"RBPT" | 格式版本 | 数据库版本号(long) | 节点数 | 字符串数
+ * 2. 字符串表：每项为 字节长度 + UTF-8字节（编码和名称去重后存放）
+ * 3. 节点表（先序）：权限ID | parent_id | 父节点下标 | 子树区间终点 | 编码引用 | 名称引用 | 标志位
+ * 4. 尾部：前面全部内容的CRC32
+ */
+public final class PermissionTreeSnapshot {
+    private static final int MAGIC = 0x52425054; // "RBPT"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+    private static final int NODE_BYTES = 4 * 6 + 1;
+    private static final int FLAG_COMPOSITE = 1;
+    private static final int FLAG_ENABLED = 2;
+    // 引用值-1表示null
+    private static final int NULL_REF = -1;
+
+    private final long dataVersion;
+    private final IPermissionComponent root;
+    private final PermissionIndex index;
+    private final List<Permission> permissions;
+
+    private PermissionTreeSnapshot(long dataVersion, IPermissionComponent root, PermissionIndex index,
+                                   List<Permission> permissions) {
+        this.dataVersion = dataVersion;
+        this.root = root;
+        this.index = index;
+        this.permissions = permissions;
+    }
+
+    /**
+     * 写出快照（先写临时文件再原子替换，读取方不会看到写了一半的文件）
+     * @param file 快照文件路径
+     * @param root 权限树根节点
+     * @param index 该树编译出的索引（先序顺序与遍历顺序一致）
+     * @param dataVersion 构建该树前读取的数据库版本号
+     */
+    public static void write(Path file, IPermissionComponent root, PermissionIndex index, long dataVersion)
+            throws IOException {
+        List<Permission> nodes = new ArrayList<>(index.size());
+        PermissionTreeWalker.preOrder(root, (node, depth) -> nodes.add(PermissionIndex.permissionOf(node)));
+        if (nodes.size() != index.size()) {
+            throw new IOException("权限树与索引节点数不一致：" + nodes.size() + " != " + index.size());
+        }
+
+        // 字符串表：编码和名称去重
+        Map<String, Integer> stringRefs = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        int[] codeRefs = new int[nodes.size()];
+        int[] nameRefs = new int[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            Permission permission = nodes.get(i);
+            codeRefs[i] = permission == null ? NULL_REF : refOf(permission.getCode(), stringRefs, strings);
+            nameRefs[i] = permission == null ? NULL_REF : refOf(permission.getName(), stringRefs, strings);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_BYTES + nodes.size() * (NODE_BYTES + 32));
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(dataVersion);
+        out.writeInt(nodes.size());
+        out.writeInt(strings.size());
+        for (String value : strings) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            Permission permission = nodes.get(i);
+            out.writeInt(permission == null || permission.getId() == null ? -1 : permission.getId());
+            out.writeInt(permission == null || permission.getParentId() == null ? 0 : permission.getParentId());
+            out.writeInt(index.parentOf(i));
+            out.writeInt(index.subtreeEnd(i));
+            out.writeInt(codeRefs[i]);
+            out.writeInt(nameRefs[i]);
+            int flags = (index.isComposite(i) ? FLAG_COMPOSITE : 0) | (index.isEnabled(i) ? FLAG_ENABLED : 0);
+            out.writeByte(flags);
+        }
+        out.flush();
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int refOf(String value, Map<String, Integer> stringRefs, List<String> strings) {
+        if (value == null) {
+            return NULL_REF;
+        }
+        return stringRefs.computeIfAbsent(value, key -> {
+            strings.add(key);
+            return strings.size() - 1;
+        });
+    }
+
+    /**
+     * 内存映射读取快照
+     * @param file 快照文件路径
+     * @param expectedDataVersion 当前数据库版本号
+     * @param indexVersion 还原出的索引使用的版本号
+     * @return 快照；文件不存在或版本号不一致返回null
+     * @throws IOException 文件损坏（格式/CRC不符）
+     */
+    public static PermissionTreeSnapshot read(Path file, long expectedDataVersion, long indexVersion)
+            throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES + 8 || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("快照文件大小异常：" + fileSize);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("快照文件格式不匹配");
+            }
+            long dataVersion = buffer.getLong();
+            if (dataVersion != expectedDataVersion) {
+                return null;
+            }
+            verifyChecksum(buffer, (int) fileSize);
+
+            int nodeCount = buffer.getInt();
+            int stringCount = buffer.getInt();
+            if (nodeCount <= 0 || stringCount < 0 || (long) nodeCount * NODE_BYTES > fileSize) {
+                throw new IOException("快照节点数异常：" + nodeCount);
+            }
+            String[] strings = new String[stringCount];
+            for (int i = 0; i < stringCount; i++) {
+                byte[] utf8 = new byte[buffer.getInt()];
+                buffer.get(utf8);
+                strings[i] = new String(utf8, StandardCharsets.UTF_8);
+            }
+            return decodeNodes(buffer, nodeCount, strings, dataVersion, indexVersion);
+        }
+    }
+
+    private static void verifyChecksum(MappedByteBuffer buffer, int fileSize) throws IOException {
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(0).limit(fileSize - 8);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (crc.getValue() != buffer.getLong(fileSize - 8)) {
+            throw new IOException("快照文件校验和不匹配");
+        }
+    }
+
+    private static PermissionTreeSnapshot decodeNodes(ByteBuffer buffer, int nodeCount, String[] strings,
+                                                      long dataVersion, long indexVersion) throws IOException {
+        String[] codes = new String[nodeCount];
+        int[] ids = new int[nodeCount];
+        int[] parents = new int[nodeCount];
+        int[] subtreeEnds = new int[nodeCount];
+        boolean[] composites = new boolean[nodeCount];
+        boolean[] enabled = new boolean[nodeCount];
+        IPermissionComponent[] components = new IPermissionComponent[nodeCount];
+        List<Permission> permissions = new ArrayList<>(nodeCount);
+
+        for (int i = 0; i < nodeCount; i++) {
+            int id = buffer.getInt();
+            int parentId = buffer.getInt();
+            int parent = buffer.getInt();
+            int subtreeEnd = buffer.getInt();
+            String code = stringAt(strings, buffer.getInt());
+            String name = stringAt(strings, buffer.getInt());
+            int flags = buffer.get();
+            // 先序：父节点下标必小于自身
+            if ((i == 0) != (parent < 0) || parent >= i || subtreeEnd <= i || subtreeEnd > nodeCount) {
+                throw new IOException("快照节点结构异常，下标：" + i);
+            }
+
+            Permission permission = new Permission(id < 0 ? null : id, name, code, parentId);
+            permission.setEnabled((flags & FLAG_ENABLED) != 0);
+            permissions.add(permission);
+            composites[i] = (flags & FLAG_COMPOSITE) != 0;
+            components[i] = composites[i] ? new CompositePermission(permission) : new LeafPermission(permission);
+            codes[i] = components[i].getPermissionCode().trim().intern();
+            ids[i] = id;
+            parents[i] = parent;
+            subtreeEnds[i] = subtreeEnd;
+            enabled[i] = permission.isEnabled();
+            if (parent >= 0) {
+                if (!composites[parent]) {
+                    throw new IOException("快照中叶子节点存在子节点，下标：" + parent);
+                }
+                components[parent].addChild(components[i]);
+            }
+        }
+        PermissionIndex index = PermissionIndex.fromArrays(codes, ids, parents, subtreeEnds, composites, enabled, indexVersion);
+        return new PermissionTreeSnapshot(dataVersion, components[0], index, permissions);
+    }
+
+    private static String stringAt(String[] strings, int ref) throws IOException {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        if (ref < 0 || ref >= strings.length) {
+            throw new IOException("快照字符串引用越界：" + ref);
+        }
+        return strings[ref];
+    }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
+
+    public IPermissionComponent getRoot() {
+        return root;
+    }
+
+    public PermissionIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * 快照中的全部权限（先序）
+     */
+    public List<Permission> getPermissions() {
+        return permissions;
+    }
+}
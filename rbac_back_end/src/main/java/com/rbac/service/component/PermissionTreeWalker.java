@@ -0,0 +1,91 @@
+package com.rbac.service.component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 权限树遍历工具：显式栈实现的先序遍历，深度上千层的权限树也不会栈溢出
+ */
+public final class PermissionTreeWalker {
+
+    private PermissionTreeWalker() {
+    }
+
+    /**
+     * 先序遍历访问者
+     */
+    @FunctionalInterface
+    public interface NodeVisitor {
+        /**
+         * @param node 当前节点
+         * @param depth 节点深度（根节点为0）
+         */
+        void visit(IPermissionComponent node, int depth);
+    }
+
+    /**
+     * 先序遍历整棵树（子节点按原顺序访问）
+     */
+    public static void preOrder(IPermissionComponent root, NodeVisitor visitor) {
+        if (root == null) {
+            return;
+        }
+        Deque<IPermissionComponent> nodeStack = new ArrayDeque<>();
+        Deque<Integer> depthStack = new ArrayDeque<>();
+        nodeStack.push(root);
+        depthStack.push(0);
+        while (!nodeStack.isEmpty()) {
+            IPermissionComponent node = nodeStack.pop();
+            int depth = depthStack.pop();
+            visitor.visit(node, depth);
+            pushChildren(node, nodeStack);
+            for (int i = childCountOf(node); i > 0; i--) {
+                depthStack.push(depth + 1);
+            }
+        }
+    }
+
+    /**
+     * 先序查找第一个满足条件的节点
+     * @return 找到的节点，不存在返回null
+     */
+    public static IPermissionComponent findFirst(IPermissionComponent root, Predicate<IPermissionComponent> matcher) {
+        if (root == null) {
+            return null;
+        }
+        Deque<IPermissionComponent> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            IPermissionComponent node = stack.pop();
+            if (matcher.test(node)) {
+                return node;
+            }
+            pushChildren(node, stack);
+        }
+        return null;
+    }
+
+    // 子节点逆序入栈，保证出栈顺序与原子节点顺序一致
+    private static void pushChildren(IPermissionComponent node, Deque<IPermissionComponent> stack) {
+        if (node instanceof CompositePermission) {
+            CompositePermission composite = (CompositePermission) node;
+            for (int i = composite.childCount() - 1; i >= 0; i--) {
+                stack.push(composite.childAt(i));
+            }
+        } else {
+            List<IPermissionComponent> children = node.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+    }
+
+    private static int childCountOf(IPermissionComponent node) {
+        if (node instanceof CompositePermission) {
+            return ((CompositePermission) node).childCount();
+        }
+        return node.getChildren().size();
+    }
+}
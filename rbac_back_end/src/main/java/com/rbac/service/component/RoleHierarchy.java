@@ -0,0 +1,224 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.RoleInheritance;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 角色继承关系图（不可变快照，DAG）：子角色拥有全部父角色（及其祖先）的权限
+ * 修改时返回新快照；环检测、祖先/子孙查询均为O(角色数+继承关系数)，不递归
+ */
+public final class RoleHierarchy {
+    public static final RoleHierarchy EMPTY = new RoleHierarchy(new HashMap<>(), new HashMap<>(), new ArrayList<>());
+
+    // 角色ID → 直接父角色ID
+    private final Map<Integer, List<Integer>> parents;
+    // 角色ID → 直接子角色ID
+    private final Map<Integer, List<Integer>> children;
+    // 加载时因构成环而被忽略的继承关系
+    private final List<RoleInheritance> rejectedEdges;
+
+    private RoleHierarchy(Map<Integer, List<Integer>> parents, Map<Integer, List<Integer>> children,
+                          List<RoleInheritance> rejectedEdges) {
+        this.parents = parents;
+        this.children = children;
+        this.rejectedEdges = Collections.unmodifiableList(rejectedEdges);
+    }
+
+    /**
+     * 由数据库中的继承关系构建（迭代DFS找出回边并忽略，保证结果无环）
+     * @param edges 全部继承关系
+     * @return 继承关系图
+     */
+    public static RoleHierarchy of(Collection<RoleInheritance> edges) {
+        Map<Integer, List<Integer>> candidates = new HashMap<>();
+        if (edges != null) {
+            for (RoleInheritance edge : edges) {
+                if (edge == null || edge.getRoleId() == null || edge.getParentRoleId() == null) {
+                    continue;
+                }
+                List<Integer> list = candidates.computeIfAbsent(edge.getRoleId(), k -> new ArrayList<>());
+                if (!list.contains(edge.getParentRoleId())) {
+                    list.add(edge.getParentRoleId());
+                }
+            }
+        }
+
+        // 沿父边做DFS：指向当前路径上节点的边为回边（构成环），忽略
+        Map<Integer, List<Integer>> parents = new HashMap<>();
+        List<RoleInheritance> rejected = new ArrayList<>();
+        Map<Integer, Integer> states = new HashMap<>(); // 1=路径上，2=已完成
+        Deque<Integer> nodeStack = new ArrayDeque<>();
+        Deque<Integer> cursorStack = new ArrayDeque<>();
+        for (Integer start : candidates.keySet()) {
+            if (states.containsKey(start)) {
+                continue;
+            }
+            nodeStack.push(start);
+            cursorStack.push(0);
+            states.put(start, 1);
+            while (!nodeStack.isEmpty()) {
+                Integer node = nodeStack.peek();
+                int cursor = cursorStack.pop();
+                List<Integer> nodeParents = candidates.getOrDefault(node, Collections.emptyList());
+                if (cursor == nodeParents.size()) {
+                    nodeStack.pop();
+                    states.put(node, 2);
+                    continue;
+                }
+                cursorStack.push(cursor + 1);
+                Integer parent = nodeParents.get(cursor);
+                Integer state = states.get(parent);
+                if (state != null && state == 1) {
+                    rejected.add(new RoleInheritance(node, parent));
+                    continue;
+                }
+                parents.computeIfAbsent(node, k -> new ArrayList<>()).add(parent);
+                if (state == null) {
+                    states.put(parent, 1);
+                    nodeStack.push(parent);
+                    cursorStack.push(0);
+                }
+            }
+        }
+        return new RoleHierarchy(parents, invert(parents), rejected);
+    }
+
+    private static Map<Integer, List<Integer>> invert(Map<Integer, List<Integer>> parents) {
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        for (Map.Entry<Integer, List<Integer>> entry : parents.entrySet()) {
+            for (Integer parent : entry.getValue()) {
+                children.computeIfAbsent(parent, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+        return children;
+    }
+
+    /**
+     * 直接父角色
+     */
+    public List<Integer> parentsOf(Integer roleId) {
+        List<Integer> list = roleId == null ? null : parents.get(roleId);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * 全部祖先角色（不含自身）
+     */
+    public Set<Integer> ancestorsOf(Integer roleId) {
+        return reach(roleId, parents);
+    }
+
+    /**
+     * 全部子孙角色（不含自身）：角色授权或继承关系变更时，这些角色的有效权限随之变化
+     */
+    public Set<Integer> descendantsOf(Integer roleId) {
+        return reach(roleId, children);
+    }
+
+    private static Set<Integer> reach(Integer roleId, Map<Integer, List<Integer>> edges) {
+        Set<Integer> visited = new LinkedHashSet<>();
+        if (roleId == null) {
+            return visited;
+        }
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(roleId);
+        while (!queue.isEmpty()) {
+            List<Integer> next = edges.get(queue.poll());
+            if (next == null) {
+                continue;
+            }
+            for (Integer id : next) {
+                if (!id.equals(roleId) && visited.add(id)) {
+                    queue.add(id);
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * 判断把角色的父角色替换为newParents后是否构成环：
+     * 新父角色是角色自身或其子孙时成环（只需一次子孙遍历，线性时间）
+     */
+    public boolean wouldCreateCycle(Integer roleId, Collection<Integer> newParents) {
+        if (newParents == null || newParents.isEmpty()) {
+            return false;
+        }
+        if (newParents.contains(roleId)) {
+            return true;
+        }
+        Set<Integer> descendants = descendantsOf(roleId);
+        for (Integer parent : newParents) {
+            if (descendants.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 替换角色的父角色（调用方需先用wouldCreateCycle校验）
+     * @return 新快照
+     */
+    public RoleHierarchy withParents(Integer roleId, Collection<Integer> newParents) {
+        Map<Integer, List<Integer>> copy = copyWithout(roleId, false);
+        if (newParents != null && !newParents.isEmpty()) {
+            copy.put(roleId, new ArrayList<>(new LinkedHashSet<>(newParents)));
+        }
+        return new RoleHierarchy(copy, invert(copy), new ArrayList<>(rejectedEdges));
+    }
+
+    /**
+     * 移除角色及其全部继承关系（角色删除时使用）
+     * @return 新快照
+     */
+    public RoleHierarchy withoutRole(Integer roleId) {
+        Map<Integer, List<Integer>> copy = copyWithout(roleId, true);
+        return new RoleHierarchy(copy, invert(copy), new ArrayList<>(rejectedEdges));
+    }
+
+    private Map<Integer, List<Integer>> copyWithout(Integer roleId, boolean removeAsParent) {
+        Map<Integer, List<Integer>> copy = new HashMap<>(parents.size() * 2);
+        for (Map.Entry<Integer, List<Integer>> entry : parents.entrySet()) {
+            if (entry.getKey().equals(roleId)) {
+                continue;
+            }
+            List<Integer> list = new ArrayList<>(entry.getValue());
+            if (removeAsParent) {
+                list.remove(roleId);
+            }
+            if (!list.isEmpty()) {
+                copy.put(entry.getKey(), list);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * 加载时因构成环而被忽略的继承关系
+     */
+    public List<RoleInheritance> getRejectedEdges() {
+        return rejectedEdges;
+    }
+
+    /**
+     * 继承关系数
+     */
+    public int edgeCount() {
+        int count = 0;
+        for (List<Integer> list : parents.values()) {
+            count += list.size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,54 @@
+package com.rbac.service.event;
+
+import com.rbac.util.DBHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 进程内RBAC变更事件总线：服务层发布，缓存订阅
+ * 同步分发：服务方法返回时所有订阅者已完成失效，调用方随后的请求不会读到旧授权
+ * 在事务中发布时，事务结束（提交或回滚）后再分发一次：事务期间其它线程按未提交前的数据重新加载的缓存随之失效
+ */
+@Slf4j
+@Component
+public class RbacChangeBus {
+    private final List<RbacChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void register(RbacChangeListener listener) {
+        if (listener != null) {
+            listeners.add(listener);
+        }
+    }
+
+    public void unregister(RbacChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 发布变更事件，分发给所有关注该类型的监听者
+     */
+    public void publish(RbacChangeEvent event) {
+        if (event == null) {
+            return;
+        }
+        log.info("RBAC数据变更：{}", event);
+        dispatch(event);
+        DBHelper.getInstance().afterCompletion(() -> dispatch(event));
+    }
+
+    private void dispatch(RbacChangeEvent event) {
+        for (RbacChangeListener listener : listeners) {
+            if (listener.supports(event.getChangeType())) {
+                try {
+                    listener.onChange(event);
+                } catch (Exception e) {
+                    // 避免单个监听者异常影响其他监听者
+                    log.error("RBAC变更监听者处理异常：{}", listener.getClass().getSimpleName(), e);
+                }
+            }
+        }
+    }
+}
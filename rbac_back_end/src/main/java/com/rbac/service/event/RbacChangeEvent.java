@@ -0,0 +1,140 @@
+package com.rbac.service.event;
+
+import java.time.Instant;
+
+/**
+ * RBAC数据变更事件（不可变）：由服务层在数据库写入成功后发布
+ * 事件携带租户ID，各级缓存只失效该租户的分区，其他租户不受影响
+ */
+public class RbacChangeEvent {
+    private final RbacChangeType changeType;
+    private final Integer tenantId;
+    private final Integer userId;
+    private final String username;
+    private final Integer roleId;
+    private final Instant timestamp;
+
+    private RbacChangeEvent(RbacChangeType changeType, Integer tenantId, Integer userId, String username, Integer roleId) {
+        this.changeType = changeType;
+        this.tenantId = tenantId;
+        this.userId = userId;
+        this.username = username;
+        this.roleId = roleId;
+        this.timestamp = Instant.now();
+    }
+
+    public static RbacChangeEvent userRoleChanged(Integer tenantId, Integer userId, String username) {
+        return new RbacChangeEvent(RbacChangeType.USER_ROLE_CHANGED, tenantId, userId, username, null);
+    }
+
+    public static RbacChangeEvent userDeleted(Integer tenantId, Integer userId, String username) {
+        return new RbacChangeEvent(RbacChangeType.USER_DELETED, tenantId, userId, username, null);
+    }
+
+    /**
+     * 限时角色到达生效时间（roleId仅用于记录，失效范围仍是该用户）
+     */
+    public static RbacChangeEvent userRoleActivated(Integer tenantId, Integer userId, String username, Integer roleId) {
+        return new RbacChangeEvent(RbacChangeType.USER_ROLE_ACTIVATED, tenantId, userId, username, roleId);
+    }
+
+    /**
+     * 限时角色到期（roleId仅用于记录，失效范围仍是该用户）
+     */
+    public static RbacChangeEvent userRoleExpired(Integer tenantId, Integer userId, String username, Integer roleId) {
+        return new RbacChangeEvent(RbacChangeType.USER_ROLE_EXPIRED, tenantId, userId, username, roleId);
+    }
+
+    /**
+     * 用户密码修改/重置（该用户已签发的令牌随之作废）
+     */
+    public static RbacChangeEvent userCredentialsChanged(Integer tenantId, Integer userId, String username) {
+        return new RbacChangeEvent(RbacChangeType.USER_CREDENTIALS_CHANGED, tenantId, userId, username, null);
+    }
+
+    public static RbacChangeEvent roleGrantsChanged(Integer tenantId, Integer roleId) {
+        return new RbacChangeEvent(RbacChangeType.ROLE_GRANTS_CHANGED, tenantId, null, null, roleId);
+    }
+
+    public static RbacChangeEvent roleDeleted(Integer tenantId, Integer roleId) {
+        return new RbacChangeEvent(RbacChangeType.ROLE_DELETED, tenantId, null, null, roleId);
+    }
+
+    public static RbacChangeEvent permissionTreeChanged(Integer tenantId) {
+        return new RbacChangeEvent(RbacChangeType.PERMISSION_TREE_CHANGED, tenantId, null, null, null);
+    }
+
+    /**
+     * 租户空闲卸载（权限树已释放，各级缓存随之释放该租户的分区）
+     */
+    public static RbacChangeEvent tenantUnloaded(Integer tenantId) {
+        return new RbacChangeEvent(RbacChangeType.TENANT_UNLOADED, tenantId, null, null, null);
+    }
+
+    /**
+     * 是否为用户级变更
+     */
+    public boolean isUserScoped() {
+        return isUserScoped(changeType);
+    }
+
+    /**
+     * 变更类型是否为用户级
+     */
+    public static boolean isUserScoped(RbacChangeType type) {
+        return type == RbacChangeType.USER_ROLE_CHANGED || type == RbacChangeType.USER_DELETED
+                || type == RbacChangeType.USER_ROLE_ACTIVATED || type == RbacChangeType.USER_ROLE_EXPIRED
+                || type == RbacChangeType.USER_CREDENTIALS_CHANGED;
+    }
+
+    /**
+     * 是否为租户级变更（权限树变更/租户卸载，且指定了租户）：只失效该租户的分区
+     */
+    public boolean isTenantScoped() {
+        return tenantId != null
+                && (changeType == RbacChangeType.PERMISSION_TREE_CHANGED || changeType == RbacChangeType.TENANT_UNLOADED);
+    }
+
+    /**
+     * 是否为角色级变更
+     */
+    public boolean isRoleScoped() {
+        return changeType == RbacChangeType.ROLE_GRANTS_CHANGED || changeType == RbacChangeType.ROLE_DELETED;
+    }
+
+    public RbacChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Integer getTenantId() {
+        return tenantId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Integer getRoleId() {
+        return roleId;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "RbacChangeEvent{" +
+                "changeType=" + changeType +
+                ", tenantId=" + tenantId +
+                ", userId=" + userId +
+                ", username='" + username + '\'' +
+                ", roleId=" + roleId +
+                ", timestamp=" + timestamp +
+                '}';
+    }
+}
@@ -0,0 +1,18 @@
+package com.rbac.service.event;
+
+/**
+ * RBAC变更监听者：各级缓存实现该接口，按事件范围精确失效
+ */
+public interface RbacChangeListener {
+    /**
+     * 是否关注该变更类型，默认全量关注。
+     */
+    default boolean supports(RbacChangeType type) {
+        return true;
+    }
+
+    /**
+     * 处理变更事件（在发布线程中同步执行，返回前缓存即已失效）。
+     */
+    void onChange(RbacChangeEvent event);
+}
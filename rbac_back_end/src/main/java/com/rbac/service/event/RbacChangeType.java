@@ -0,0 +1,16 @@
+package com.rbac.service.event;
+
+/**
+ * RBAC数据变更类型，决定缓存的失效范围
+ */
+public enum RbacChangeType {
+    USER_ROLE_CHANGED,        // 用户角色变更：失效该用户
+    USER_DELETED,             // 用户删除：失效该用户
+    USER_ROLE_ACTIVATED,      // 限时角色到达生效时间：失效该用户
+    USER_ROLE_EXPIRED,        // 限时角色到期：失效该用户
+    USER_CREDENTIALS_CHANGED, // 用户密码修改/重置：失效该用户，已签发的令牌作废
+    ROLE_GRANTS_CHANGED,      // 角色授权变更：失效该角色的所有用户
+    ROLE_DELETED,             // 角色删除：失效该角色的所有用户
+    PERMISSION_TREE_CHANGED,  // 权限树变更：失效该租户（未指定租户时全部失效）
+    TENANT_UNLOADED           // 租户空闲卸载：释放该租户的全部缓存
+}
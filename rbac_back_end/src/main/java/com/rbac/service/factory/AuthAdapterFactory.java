@@ -1,6 +1,7 @@
 package com.rbac.service.factory;
 
 import com.rbac.service.IExternalAuthService;
+import com.rbac.service.UserService;
 import com.rbac.service.adapter.LdapAuthAdapter;
 import com.rbac.service.adapter.LocalAuthAdapter;
 
@@ -25,12 +26,13 @@ public class AuthAdapterFactory {
 
     /**
      * 获取适配器实例（业务层仅调用此方法，无需关心具体适配器类型）
+     * @param userService 本地适配器使用的业务层（传入Spring管理的实例，不能自行new）
      */
-    public static IExternalAuthService getAuthAdapter() {
+    public static IExternalAuthService getAuthAdapter(UserService userService) {
         if ("LDAP".equals(ADAPTER_TYPE)) {
             return new LdapAuthAdapter();
         } else if ("LOCAL".equals(ADAPTER_TYPE)) {
-            return new LocalAuthAdapter();
+            return new LocalAuthAdapter(userService);
         }
         throw new IllegalArgumentException("不支持的适配器类型：" + ADAPTER_TYPE);
     }
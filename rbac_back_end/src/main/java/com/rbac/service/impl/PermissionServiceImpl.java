@@ -4,6 +4,7 @@ import com.rbac.dao.DaoFactory;
 import com.rbac.dao.DaoFactoryManager;
 import com.rbac.dao.PermissionDAO;
 import com.rbac.model.entity.Permission;
+import com.rbac.model.entity.Tenant;
 import com.rbac.service.PermissionService;
 import com.rbac.util.PermissionTreeBuilder;
 import org.springframework.stereotype.Service;
@@ -29,13 +30,13 @@ public class PermissionServiceImpl implements PermissionService {
     @Override
     @Transactional // 事务注解：确保数据库操作和树更新原子性
     public boolean addPermission(Permission permission) {
-        if (checkPermissionCodeExists(permission.getCode())) {
+        if (checkPermissionCodeExists(permission.getTenantId(), permission.getCode())) {
             return false;
         }
         boolean success = permissionDAO.insertPermission(permission) > 0;
         // 新增：同步更新权限树
         if (success) {
-            permissionTreeBuilder.resetTree();
+            permissionTreeBuilder.resetTreeAfterWrite(permission.getTenantId());
             System.out.println("📌 新增权限后，权限树已同步更新");
         }
         return success;
@@ -47,10 +48,15 @@ public class PermissionServiceImpl implements PermissionService {
         if (checkHasChildPermissions(permissionId)) {
             return false;
         }
+        // 删除前记下所属租户，只重建该租户的权限树
+        Permission existing = permissionDAO.selectPermissionById(permissionId);
+        if (existing == null) {
+            return false;
+        }
         boolean success = permissionDAO.deletePermissionById(permissionId) > 0;
         // 新增：同步更新权限树
         if (success) {
-            permissionTreeBuilder.resetTree();
+            permissionTreeBuilder.resetTreeAfterWrite(existing.getTenantId());
             System.out.println("📌 删除权限后，权限树已同步更新");
         }
         return success;
@@ -59,13 +65,16 @@ public class PermissionServiceImpl implements PermissionService {
     @Override
     @Transactional
     public boolean updatePermission(Permission permission) {
-        if (permissionDAO.selectPermissionById(permission.getId()) == null) {
+        Permission existing = permissionDAO.selectPermissionById(permission.getId());
+        if (existing == null) {
             return false;
         }
+        // 权限不允许跨租户迁移，以库中归属为准
+        permission.setTenantId(existing.getTenantId());
         boolean success = permissionDAO.updatePermission(permission) > 0;
         // 新增：同步更新权限树
         if (success) {
-            permissionTreeBuilder.resetTree();
+            permissionTreeBuilder.resetTreeAfterWrite(existing.getTenantId());
             System.out.println("📌 更新权限后，权限树已同步更新");
         }
         return success;
@@ -81,14 +90,19 @@ public class PermissionServiceImpl implements PermissionService {
         return permissionDAO.selectAllPermissions();
     }
 
+    @Override
+    public List<Permission> getPermissionsByTenantId(Integer tenantId) {
+        return permissionDAO.selectPermissionsByTenantId(Tenant.idOrDefault(tenantId));
+    }
+
     @Override
     public List<Permission> getPermissionsByParentId(Integer parentId) {
         return permissionDAO.selectPermissionsByParentId(parentId);
     }
 
     @Override
-    public boolean checkPermissionCodeExists(String permissionCode) {
-        return permissionDAO.selectPermissionByCode(permissionCode) != null;
+    public boolean checkPermissionCodeExists(Integer tenantId, String permissionCode) {
+        return permissionDAO.selectPermissionByCode(Tenant.idOrDefault(tenantId), permissionCode) != null;
     }
 
     @Override
@@ -3,16 +3,25 @@ package com.rbac.service.impl;
 import com.rbac.dao.*;
 import com.rbac.model.entity.Permission;
 import com.rbac.model.entity.Role;
+import com.rbac.model.entity.RoleInheritance;
 import com.rbac.model.entity.RolePermission;
+import com.rbac.model.entity.Tenant;
 import com.rbac.service.RoleService;
 import com.rbac.service.component.CompositePermission;
 import com.rbac.service.component.IPermissionComponent;
 import com.rbac.service.component.LeafPermission;
+import com.rbac.service.component.PermissionTreeWalker;
+import com.rbac.service.component.RoleHierarchy;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
 import com.rbac.util.PermissionTreeBuilder;
+import com.rbac.util.RoleHierarchyCache;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -22,14 +31,23 @@ public class RoleServiceImpl implements RoleService {
     private RoleDAO roleDAO;
     private PermissionDAO permissionDAO;
     private RolePermissionDAO rolePermissionDAO;
+    private RoleInheritanceDAO roleInheritanceDAO;
+    // 角色继承关系快照（写库成功后替换）
+    @Resource
+    private RoleHierarchyCache roleHierarchyCache;
+    // 权限树由Spring统一构建（自行new出来的实例未初始化，根节点始终为null）
+    @Resource
     private PermissionTreeBuilder permissionTreeBuilder;
+    // RBAC变更事件总线（角色授权变更/角色删除后通知缓存失效）
+    @Resource
+    private RbacChangeBus rbacChangeBus;
     // 构造方法：从DaoFactoryManager获取工厂实例
     public RoleServiceImpl() {
         this.daoFactory = DaoFactoryManager.getDaoFactory();
         this.roleDAO = daoFactory.createRoleDAO();
         this.permissionDAO = daoFactory.createPermissionDAO();
         this.rolePermissionDAO = daoFactory.createRolePermissionDAO();
-        this.permissionTreeBuilder = new PermissionTreeBuilder();
+        this.roleInheritanceDAO = daoFactory.createRoleInheritanceDAO();
     }
 
     @Override
@@ -44,13 +62,26 @@ public class RoleServiceImpl implements RoleService {
     }
 
     @Override
-    public boolean deleteRoleById(Integer roleId) {
+    public synchronized boolean deleteRoleById(Integer roleId) {
         // 校验角色是否存在
-        if (roleDAO.selectRoleById(roleId) == null) {
+        Role role = roleDAO.selectRoleById(roleId);
+        if (role == null) {
             return false;
         }
         // 删除角色
         int result = roleDAO.deleteRoleById(roleId);
+        if (result > 0) {
+            // 子孙角色不再继承该角色的权限，先记下再移除继承关系
+            RoleHierarchy hierarchy = roleHierarchyCache.current();
+            Set<Integer> descendants = hierarchy.descendantsOf(roleId);
+            roleInheritanceDAO.deleteAllByRoleId(roleId);
+            roleHierarchyCache.update(hierarchy.withoutRole(roleId));
+            // 继承关系只在同一租户内建立，子孙角色与被删角色同租户
+            rbacChangeBus.publish(RbacChangeEvent.roleDeleted(role.getTenantId(), roleId));
+            for (Integer descendant : descendants) {
+                rbacChangeBus.publish(RbacChangeEvent.roleGrantsChanged(role.getTenantId(), descendant));
+            }
+        }
         return result > 0;
     }
 
@@ -75,6 +106,11 @@ public class RoleServiceImpl implements RoleService {
         return roleDAO.selectAllRoles();
     }
 
+    @Override
+    public List<Role> getRolesByTenantId(Integer tenantId) {
+        return roleDAO.selectRolesByTenantId(Tenant.idOrDefault(tenantId));
+    }
+
     @Override
     public boolean checkRoleNameExists(String roleName) {
         Role role = roleDAO.selectRoleByRoleName(roleName);
@@ -87,6 +123,19 @@ public class RoleServiceImpl implements RoleService {
         if(permissionIds == null || permissionIds.size() == 0) {
             return null;
         }
+        return loadPermissions(permissionIds);
+    }
+
+    @Override
+    public List<Permission> getDeniedPermissionsByRoleId(Integer roleId) {
+        List<Integer> permissionIds = rolePermissionDAO.selectDeniedPermissionIdsByRoleId(roleId);
+        if (permissionIds == null || permissionIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return loadPermissions(permissionIds);
+    }
+
+    private List<Permission> loadPermissions(List<Integer> permissionIds) {
         Set<Permission> permissions = new HashSet<Permission>();
         for (Integer permissionId : permissionIds) {
             Permission permission = permissionDAO.selectPermissionById(permissionId);
@@ -100,24 +149,125 @@ public class RoleServiceImpl implements RoleService {
     @Override
     public boolean assignPermissionsToRole(Integer roleId, List<Integer> permIdList) {
         // 校验角色是否存在
-        if (roleDAO.selectRoleById(roleId) == null) {
+        Role role = roleDAO.selectRoleById(roleId);
+        if (role == null) {
             return false;
         }
-        // 校验权限是否存在
+        // 校验权限是否存在（且与角色同租户）
         for (Integer permId : permIdList) {
-            if (permissionDAO.selectPermissionById(permId) == null) {
+            if (!isPermissionInRoleTenant(role, permId)) {
                 return false;
             }
         }
-        // 清空角色原有权限
-        rolePermissionDAO.deletePermissionsByRoleId(roleId);
+        // 清空角色原有允许权限（拒绝权限单独维护，不受影响）
+        rolePermissionDAO.deletePermissionsByRoleId(roleId, false);
         // 新增角色权限
         for (Integer permId : permIdList) {
             rolePermissionDAO.insertRolePermission(new RolePermission(roleId, permId));
         }
+        // 角色授权已变更，通知缓存失效该角色（及继承它的子孙角色）的共享结构及其所有用户
+        publishRoleGrantsChanged(role.getTenantId(), roleId);
         return true;
     }
 
+    @Override
+    public boolean denyPermissionsToRole(Integer roleId, List<Integer> permIdList) {
+        // 校验角色是否存在
+        Role role = roleDAO.selectRoleById(roleId);
+        if (role == null) {
+            return false;
+        }
+        List<Integer> permIds = permIdList == null ? new ArrayList<>() : new ArrayList<>(new LinkedHashSet<>(permIdList));
+        // 校验权限是否存在（且与角色同租户）
+        for (Integer permId : permIds) {
+            if (permId == null || !isPermissionInRoleTenant(role, permId)) {
+                return false;
+            }
+        }
+        // 清空角色原有拒绝权限后重新写入
+        rolePermissionDAO.deletePermissionsByRoleId(roleId, true);
+        for (Integer permId : permIds) {
+            rolePermissionDAO.insertRolePermission(new RolePermission(roleId, permId, true));
+        }
+        // 拒绝与允许编译进同一份角色结构，通知方式与分配权限相同
+        publishRoleGrantsChanged(role.getTenantId(), roleId);
+        return true;
+    }
+
+    @Override
+    public List<Integer> findConflictingPermissionIds(Integer roleId, List<Integer> permIdList, boolean deny) {
+        List<Integer> conflicts = new ArrayList<>();
+        if (roleId == null || permIdList == null || permIdList.isEmpty()) {
+            return conflicts;
+        }
+        List<Integer> existing = deny
+                ? rolePermissionDAO.selectPermissionIdsByRoleId(roleId)
+                : rolePermissionDAO.selectDeniedPermissionIdsByRoleId(roleId);
+        Set<Integer> existingIds = existing == null ? new HashSet<>() : new HashSet<>(existing);
+        for (Integer permId : new LinkedHashSet<>(permIdList)) {
+            if (existingIds.contains(permId)) {
+                conflicts.add(permId);
+            }
+        }
+        return conflicts;
+    }
+
+    @Override
+    public synchronized boolean updateRoleParents(Integer roleId, List<Integer> parentRoleIds) {
+        Role role = roleId == null ? null : roleDAO.selectRoleById(roleId);
+        if (role == null) {
+            return false;
+        }
+        List<Integer> parents = parentRoleIds == null ? new ArrayList<>() : new ArrayList<>(new LinkedHashSet<>(parentRoleIds));
+        // 父角色必须存在且与角色同租户（不允许跨租户继承）
+        for (Integer parentId : parents) {
+            Role parent = parentId == null ? null : roleDAO.selectRoleById(parentId);
+            if (parent == null || !parent.getTenantId().equals(role.getTenantId())) {
+                return false;
+            }
+        }
+        // 写库前做环检测（一次子孙遍历，线性时间）
+        RoleHierarchy hierarchy = roleHierarchyCache.current();
+        if (hierarchy.wouldCreateCycle(roleId, parents)) {
+            return false;
+        }
+        roleInheritanceDAO.deleteParentsByRoleId(roleId);
+        for (Integer parentId : parents) {
+            roleInheritanceDAO.insertRoleInheritance(new RoleInheritance(roleId, parentId));
+        }
+        roleHierarchyCache.update(hierarchy.withParents(roleId, parents));
+        publishRoleGrantsChanged(role.getTenantId(), roleId);
+        return true;
+    }
+
+    @Override
+    public boolean createsInheritanceCycle(Integer roleId, List<Integer> parentRoleIds) {
+        return roleHierarchyCache.current().wouldCreateCycle(roleId, parentRoleIds);
+    }
+
+    @Override
+    public List<Integer> getParentRoleIds(Integer roleId) {
+        return new ArrayList<>(roleHierarchyCache.current().parentsOf(roleId));
+    }
+
+    /**
+     * 角色有效权限变更：通知该角色及其全部子孙角色（子孙角色继承的权限随之变化）
+     */
+    private void publishRoleGrantsChanged(Integer tenantId, Integer roleId) {
+        rbacChangeBus.publish(RbacChangeEvent.roleGrantsChanged(tenantId, roleId));
+        for (Integer descendant : roleHierarchyCache.current().descendantsOf(roleId)) {
+            rbacChangeBus.publish(RbacChangeEvent.roleGrantsChanged(tenantId, descendant));
+        }
+    }
+
+    /**
+     * 权限存在且与角色属于同一租户
+     */
+    private boolean isPermissionInRoleTenant(Role role, Integer permId) {
+        Permission permission = permissionDAO.selectPermissionById(permId);
+        return permission != null && permission.getTenantId().equals(role.getTenantId());
+    }
+
     @Override
     public boolean hasPermission(Integer roleId, String permissionCode) {
         // 1. 校验入参合法性
@@ -138,7 +288,19 @@ public class RoleServiceImpl implements RoleService {
             return false;
         }
 
-        // 4. 直接验证权限编码是否匹配（支持通配符）
+        // 4. 拒绝优先：命中任一拒绝权限即无权限
+        if (matchesAny(rolePermissionDAO.selectDeniedPermissionIdsByRoleId(roleId), targetCode)) {
+            return false;
+        }
+
+        // 5. 直接验证权限编码是否匹配（支持通配符）
+        return matchesAny(permissionIds, targetCode);
+    }
+
+    private boolean matchesAny(List<Integer> permissionIds, String targetCode) {
+        if (permissionIds == null) {
+            return false;
+        }
         for (Integer permId : permissionIds) {
             Permission permission = permissionDAO.selectPermissionById(permId);
             if (permission == null) continue;
@@ -154,7 +316,6 @@ public class RoleServiceImpl implements RoleService {
                 return true;
             }
         }
-
         return false;
     }
     /**
@@ -162,33 +323,17 @@ public class RoleServiceImpl implements RoleService {
      */
     private IPermissionComponent findPermissionNodeInTree(String targetCode, Permission permission) {
         // 获取权限树根节点（通过Spring注入的PermissionTreeBuilder）
-        IPermissionComponent root = permissionTreeBuilder.getRoot();
+        IPermissionComponent root = permissionTreeBuilder.getRoot(permission.getTenantId());
         if (root == null) {
             return null;
         }
 
-        // 递归遍历权限树查找目标节点
-        return traverseTreeForNode(root, targetCode, permission.getId());
-    }
-    /**
-     * 递归遍历权限树，根据权限ID和编码查找节点
-     */
-    private IPermissionComponent traverseTreeForNode(IPermissionComponent currentNode, String targetCode, Integer permId) {
-        // 1. 检查当前节点是否匹配（ID或编码匹配）
-        Permission currentPerm = getPermissionFromComponent(currentNode);
-        if (currentPerm != null && currentPerm.getId().equals(permId)) {
-            return currentNode;
-        }
-
-        // 2. 递归遍历子节点
-        for (IPermissionComponent child : currentNode.getChildren()) {
-            IPermissionComponent foundNode = traverseTreeForNode(child, targetCode, permId);
-            if (foundNode != null) {
-                return foundNode;
-            }
-        }
-
-        return null;
+        // 迭代遍历权限树，根据权限ID查找节点
+        Integer permId = permission.getId();
+        return PermissionTreeWalker.findFirst(root, node -> {
+            Permission currentPerm = getPermissionFromComponent(node);
+            return currentPerm != null && currentPerm.getId() != null && currentPerm.getId().equals(permId);
+        });
     }
 
     /**
@@ -2,18 +2,27 @@ package com.rbac.service.impl;
 import com.rbac.dao.*;
 import com.rbac.model.entity.Permission;
 import com.rbac.model.entity.Role;
+import com.rbac.model.entity.Tenant;
 import com.rbac.model.entity.User;
 import com.rbac.model.entity.UserRole;
 import com.rbac.service.IExternalAuthService;
 import com.rbac.service.UserService;
 import com.rbac.service.adapter.LocalAuthAdapter;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
 import com.rbac.service.factory.AuthAdapterFactory;
+import com.rbac.util.RoleHierarchyCache;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger; // 必须引入
 import org.slf4j.LoggerFactory; // 必须引入
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -27,10 +36,28 @@ public class UserServiceImpl implements UserService {
     private PermissionDAO permissionDAO;
     private RolePermissionDAO rolePermissionDAO;
     private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
+    // RBAC变更事件总线（用户角色变更/用户删除后通知缓存失效该用户）
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+    // 角色继承关系（查询用户权限时合并祖先角色的权限）
+    @Resource
+    private RoleHierarchyCache roleHierarchyCache;
 
     // 构造方法：从DaoFactoryManager获取工厂实例
     public UserServiceImpl() {
-        this.daoFactory = DaoFactoryManager.getDaoFactory();
+        this(DaoFactoryManager.getDaoFactory());
+    }
+
+    /**
+     * 指定DAO工厂和角色继承关系（不依赖Spring和数据库，测试用）
+     */
+    UserServiceImpl(DaoFactory daoFactory, RoleHierarchyCache roleHierarchyCache) {
+        this(daoFactory);
+        this.roleHierarchyCache = roleHierarchyCache;
+    }
+
+    private UserServiceImpl(DaoFactory daoFactory) {
+        this.daoFactory = daoFactory;
         this.userDAO = daoFactory.createUserDAO();
         this.roleDAO = daoFactory.createRoleDAO();
         this.userRoleDAO = daoFactory.createUserRoleDAO();
@@ -79,32 +106,49 @@ public class UserServiceImpl implements UserService {
         if (user == null) {
             return null; // 用户不存在
         }
-        // 2. 查询用户的所有角色ID
-        Integer roleId = userRoleDAO.selectRoleIdsByUserId(user.getId());
-        if (roleId == null) {
-            return null; // 用户未分配角色
-        }
-        // 3. 根据角色ID查询角色信息
-        Role role = roleDAO.selectRoleById(roleId);
-        if (role == null) {
-            return null; // 角色不存在
-        }
-        return role;
+        // 2. 查询用户的主角色
+        return getRoleByUserId(user.getId());
     }
     
     @Override
     public Role getRoleByUserId(Integer userid) {
-        // 1. 直接查询用户的角色ID
-        Integer roleId = userRoleDAO.selectRoleIdsByUserId(userid);
-        if (roleId == null) {
+        // 1. 查询用户的所有角色ID（升序），取第一个作为主角色
+        int[] roleIds = userRoleDAO.selectRoleIdsByUserId(userid);
+        if (roleIds.length == 0) {
             return null; // 用户未分配角色
         }
         // 2. 根据角色ID查询角色信息
-        Role role = roleDAO.selectRoleById(roleId);
-        log.info("根据用户ID查询角色：userid={}, roleId={}", userid, roleId);
+        Role role = roleDAO.selectRoleById(roleIds[0]);
+        log.info("根据用户ID查询角色：userid={}, roleIds={}", userid, Arrays.toString(roleIds));
         return role;
     }
 
+    @Override
+    public int[] getRoleIdsByUsername(String username) {
+        User user = userDAO.selectUserByUsername(username);
+        if (user == null) {
+            return new int[0]; // 用户不存在
+        }
+        return userRoleDAO.selectRoleIdsByUserId(user.getId());
+    }
+
+    @Override
+    public int[] getRoleIdsByUserId(Integer userid) {
+        return userid == null ? new int[0] : userRoleDAO.selectRoleIdsByUserId(userid);
+    }
+
+    @Override
+    public List<Role> getRolesByUserId(Integer userid) {
+        List<Role> roles = new ArrayList<>();
+        for (int roleId : userRoleDAO.selectRoleIdsByUserId(userid)) {
+            Role role = roleDAO.selectRoleById(roleId);
+            if (role != null) { // 角色可能已被删除
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+
     @Override
     public User getUserByUserId(Integer userid) {
         return userDAO.selectUserById(userid);
@@ -112,17 +156,25 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public List<String> getUserPermissionsByUsername(String username) {
-        Role role = getRoleByUsername(username);
-        if (role == null) { // 补充判空，避免空指针
+        int[] userRoleIds = getRoleIdsByUsername(username);
+        if (userRoleIds.length == 0) { // 用户不存在或未分配角色
             return new ArrayList<>(); // 返回空列表而非null，更符合编程规范
         }
         // 用HashSet自动去重
         Set<String> permissionSet = new HashSet<>();
-        List<Integer> permissionIds = rolePermissionDAO.selectPermissionIdsByRoleId(role.getId());
-        for (Integer permissionId : permissionIds) {
-            Permission permission = permissionDAO.selectPermissionById(permissionId);
-            if (permission != null) { // 避免空指针（权限记录可能被删除）
-                permissionSet.add(permission.getCode());
+        // 用户的全部角色 + 各角色继承的祖先角色
+        Set<Integer> roleIds = new LinkedHashSet<>();
+        for (int userRoleId : userRoleIds) {
+            roleIds.add(userRoleId);
+            roleIds.addAll(roleHierarchyCache.current().ancestorsOf(userRoleId));
+        }
+        for (Integer roleId : roleIds) {
+            List<Integer> permissionIds = rolePermissionDAO.selectPermissionIdsByRoleId(roleId);
+            for (Integer permissionId : permissionIds) {
+                Permission permission = permissionDAO.selectPermissionById(permissionId);
+                if (permission != null) { // 避免空指针（权限记录可能被删除）
+                    permissionSet.add(permission.getCode());
+                }
             }
         }
         // 转回List返回
@@ -133,7 +185,7 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean login(String username, String password) {
         // 1. 从工厂获取适配器（配置驱动）
-        IExternalAuthService authAdapter = AuthAdapterFactory.getAuthAdapter();
+        IExternalAuthService authAdapter = AuthAdapterFactory.getAuthAdapter(this);
         try {
             // 2. 优先调用外部适配器验证
             boolean verifyResult = authAdapter.verifyUser(username, password);
@@ -146,7 +198,7 @@ public class UserServiceImpl implements UserService {
         } catch (Exception e) {
             // 3. 实验要求：降级策略——外部服务失败，自动切换到本地适配器
             System.out.println("外部权限服务调用失败，降级到本地验证：" + e.getMessage());
-            IExternalAuthService localAdapter = new LocalAuthAdapter();
+            IExternalAuthService localAdapter = new LocalAuthAdapter(this);
             return localAdapter.verifyUser(username, password);
         }
         return false;
@@ -157,6 +209,11 @@ public class UserServiceImpl implements UserService {
         return userDAO.selectAllUsers();
     }
 
+    @Override
+    public List<User> queryUsersByTenantId(Integer tenantId) {
+        return userDAO.selectUsersByTenantId(tenantId);
+    }
+
     @Override
     public boolean updateUserPassword(Integer userid, String newPassword) {
         // 1. 根据用户ID查询用户
@@ -167,31 +224,75 @@ public class UserServiceImpl implements UserService {
         // 2. 更新用户密码
         user.setPassword(newPassword);
         int result = userDAO.updateUser(user);
-        return result > 0; // 返回是否更新成功
+        if (result <= 0) {
+            return false;
+        }
+        // 3. 通知令牌服务作废该用户已签发的令牌（管理员重置和本人修改都经过这里）
+        rbacChangeBus.publish(RbacChangeEvent.userCredentialsChanged(user.getTenantId(), userid, user.getUsername()));
+        return true; // 返回是否更新成功
     }
 
     @Override
     public boolean updateUserRole(Integer userid, Integer roleid) {
+        // 单角色接口：用该角色替换用户的全部角色
+        return updateUserRoles(userid, Collections.singletonList(roleid));
+    }
+
+    @Override
+    public boolean updateUserRoles(Integer userid, List<Integer> roleids) {
         // 1. 根据用户ID查询用户
         User user = userDAO.selectUserById(userid);
         if (user == null) {
             return false; // 用户不存在
         }
-        // 2. 检查用户是否已分配角色,已分配则删除
+        // 2. 先校验全部角色存在且与用户同租户，避免删除旧角色后才发现新角色非法
+        Set<Integer> roleIdSet = new LinkedHashSet<>(roleids == null ? Collections.emptyList() : roleids);
+        for (Integer roleid : roleIdSet) {
+            if (!isRoleInUserTenant(user, roleid)) {
+                return false; // 角色不存在或属于其他租户
+            }
+        }
+        // 3. 删除旧角色，写入新角色
         if (userRoleDAO.existsUserRole(userid)) {
             userRoleDAO.deleteUserRole(userid);
             System.out.println("用户" + userid + "的角色已删除");
         }
-        // 3. 根据角色ID查询角色
-        Role role = roleDAO.selectRoleById(roleid);
-        if (role == null) {
-            return false; // 角色不存在
+        for (Integer roleid : roleIdSet) {
+            userRoleDAO.insertUserRole(new UserRole(userid, roleid));
         }
-        // 3. 更新用户角色
-        userRoleDAO.insertUserRole(new UserRole(userid, roleid));
+        rbacChangeBus.publish(RbacChangeEvent.userRoleChanged(user.getTenantId(), userid, user.getUsername()));
         return true; // 返回是否更新成功
     }
 
+    @Override
+    public boolean grantTemporaryRole(Integer userid, Integer roleid, Timestamp validFrom, Timestamp validUntil) {
+        // 1. 校验有效期：失效时间必填，且晚于当前时间和生效时间
+        long now = System.currentTimeMillis();
+        if (validUntil == null || validUntil.getTime() <= now
+                || (validFrom != null && !validFrom.before(validUntil))) {
+            return false;
+        }
+        // 2. 校验用户和角色存在且同租户
+        User user = userDAO.selectUserById(userid);
+        if (user == null || !isRoleInUserTenant(user, roleid)) {
+            return false;
+        }
+        // 3. 替换该角色的关联（其它角色不变），变更事件触发缓存失效和时间轮重新登记
+        userRoleDAO.deleteUserRole(userid, roleid);
+        userRoleDAO.insertUserRole(new UserRole(userid, roleid, validFrom, validUntil));
+        log.info("分配限时角色：userid={}, roleid={}, validFrom={}, validUntil={}", userid, roleid, validFrom, validUntil);
+        rbacChangeBus.publish(RbacChangeEvent.userRoleChanged(user.getTenantId(), userid, user.getUsername()));
+        return true;
+    }
+
+    /**
+     * 角色存在且与用户属于同一租户（角色不能跨租户分配）
+     */
+    private boolean isRoleInUserTenant(User user, Integer roleid) {
+        Role role = roleid == null ? null : roleDAO.selectRoleById(roleid);
+        return role != null && Tenant.idOrDefault(role.getTenantId()) == Tenant.idOrDefault(user.getTenantId());
+    }
+
     @Override
     public boolean checkUserExistsByUsername(String username) {
         return userDAO.selectUserByUsername(username) != null;
@@ -205,7 +306,8 @@ public class UserServiceImpl implements UserService {
     @Override
     public boolean deleteUser(Integer userid) {
         // 1. 检查用户是否存在
-        if (!checkUserExistsByUserId(userid)) {
+        User user = userDAO.selectUserById(userid);
+        if (user == null) {
             log.warn("删除用户失败：用户不存在，userid={}", userid);
             return false;
         }
@@ -218,6 +320,7 @@ public class UserServiceImpl implements UserService {
 
         // 3. 删除用户
         int result = userDAO.deleteUserById(userid);
+        rbacChangeBus.publish(RbacChangeEvent.userDeleted(user.getTenantId(), userid, user.getUsername()));
         log.info("删除用户结果：userid={}, result={}", userid, result);
         return result > 0;
     }
@@ -0,0 +1,126 @@
+package com.rbac.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 自适应并发限制器（梯度算法，参考Netflix concurrency-limits的Gradient2）
+ * 1. 准入：在途请求数 < 当前限制 × 请求类别的份额，才放行（一次CAS），否则立即拒绝，不排队
+ * 2. 调整：每个请求完成时用其耗时更新短期/长期平均耗时；梯度 = 容忍系数 × 长期耗时 / 短期耗时（限定在[0.5, 1]），
+ *    新限制 = 当前限制 × 梯度 + √当前限制（排队余量），再做平滑；耗时上涨（开始排队）时限制下降，恢复后缓慢回升
+ * 3. 在途请求不到限制一半时（未跑满）不提高限制，避免空闲时限制无限上涨
+ * 4. 调整时只尝试加锁，拿不到锁的样本直接丢弃，请求线程不会因统计而阻塞
+ */
+public final class AdaptiveConcurrencyLimiter {
+    // 耗时上涨到长期水平的多少倍以内不降限
+    private static final double RTT_TOLERANCE = 1.5;
+    // 限制的平滑系数
+    private static final double SMOOTHING = 0.2;
+    // 短期/长期耗时的指数平均系数（长期约为最近几百个请求）
+    private static final double SHORT_ALPHA = 0.5;
+    private static final double LONG_ALPHA = 0.005;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ReentrantLock sampleLock = new ReentrantLock();
+    private volatile double limit;
+    // 以下只在持有sampleLock时读写
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("并发限制配置不合法：须满足1 ≤ 最小值 ≤ 初始值 ≤ 最大值");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     * @param share 该类别可使用的限制份额（0~1]，份额小的请求在负载高时先被拒绝
+     * @return 名额（完成后必须调用release或abandon）；超出限制返回null
+     */
+    public Permit tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void onSample(long rttNanos, int inFlightAtStart) {
+        if (rttNanos <= 0 || !sampleLock.tryLock()) {
+            return;
+        }
+        try {
+            if (longRttNanos == 0) {
+                shortRttNanos = rttNanos;
+                longRttNanos = rttNanos;
+                return;
+            }
+            shortRttNanos += (rttNanos - shortRttNanos) * SHORT_ALPHA;
+            longRttNanos += (rttNanos - longRttNanos) * LONG_ALPHA;
+            // 长期耗时远高于短期（如过载刚恢复）：加快长期耗时回落，否则限制会长时间停在高位
+            if (longRttNanos > 2 * shortRttNanos) {
+                longRttNanos *= 0.95;
+            }
+            double current = limit;
+            double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+            double target = current * gradient + Math.sqrt(current);
+            if (inFlightAtStart < current / 2 && target > current) {
+                return;
+            }
+            double next = current * (1 - SMOOTHING) + target * SMOOTHING;
+            limit = Math.max(minLimit, Math.min(maxLimit, next));
+        } finally {
+            sampleLock.unlock();
+        }
+    }
+
+    /**
+     * 已占用的并发名额
+     */
+    public final class Permit {
+        private final int inFlightAtStart;
+        private final long startNanos = System.nanoTime();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * 请求正常完成：释放名额，并以本次耗时调整限制
+         */
+        public void release() {
+            release(System.nanoTime() - startNanos);
+        }
+
+        void release(long rttNanos) {
+            inFlight.decrementAndGet();
+            onSample(rttNanos, inFlightAtStart);
+        }
+
+        /**
+         * 请求异常结束：只释放名额，不作为耗时样本
+         */
+        public void abandon() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.rbac.util;
+
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 授权决策缓存：(用户ID, 权限编码) → 是否允许
+ * 每个用户的决策表绑定计算时引用的角色共享结构和用户版本号：
+ * 1. 角色授权变更/权限树重建 → 角色结构不再有效，决策表整体过期
+ * 2. 用户角色变更/用户删除 → 用户版本号递增，决策表整体过期
+ * 失效由RBAC变更事件总线精确驱动（单个用户/角色的所有用户/全部）
+ */
+@Component
+public class AuthzDecisionCache implements RbacChangeListener {
+    // 最多缓存的用户数（超出后优先淘汰过期决策表，仍超出则整体清空）
+    private static final int MAX_USERS = 10_000;
+    // 单个用户最多缓存的权限编码数
+    private static final int MAX_CODES_PER_USER = 512;
+
+    // 用户ID → 该用户的决策表
+    private final Map<Integer, UserDecisions> decisionsByUser = new ConcurrentHashMap<>();
+    // 用户ID → 用户版本号（用户级变更时递增）
+    private final Map<Integer, AtomicLong> userVersions = new ConcurrentHashMap<>();
+
+    @Resource
+    private RoleGrantCache roleGrantCache;
+    @Resource
+    private PermissionTreeBuilder permissionTreeBuilder;
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+
+    // 单个用户的决策表
+    private static final class UserDecisions {
+        final RoleGrantCache.RoleGrants roleGrants;
+        final long userVersion;
+        final Map<String, Boolean> decisions = new ConcurrentHashMap<>();
+
+        UserDecisions(RoleGrantCache.RoleGrants roleGrants, long userVersion) {
+            this.roleGrants = roleGrants;
+            this.userVersion = userVersion;
+        }
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        rbacChangeBus.register(this);
+    }
+
+    /**
+     * 当前用户版本号：计算决策前读取，写入时原样传回（计算期间用户被变更则该决策不写入）
+     */
+    public long userVersion(Integer userId) {
+        AtomicLong version = userId == null ? null : userVersions.get(userId);
+        return version == null ? 0L : version.get();
+    }
+
+    /**
+     * 查询缓存的授权决策
+     * @param userId 用户ID
+     * @param permCode 权限编码
+     * @return 缓存的决策；未命中或已过期返回null
+     */
+    public Boolean get(Integer userId, String permCode) {
+        if (userId == null || permCode == null) {
+            return null;
+        }
+        UserDecisions userDecisions = decisionsByUser.get(userId);
+        if (userDecisions == null || !isCurrent(userId, userDecisions)) {
+            return null;
+        }
+        return userDecisions.decisions.get(permCode);
+    }
+
+    /**
+     * 写入授权决策
+     * @param userVersion 计算决策前读取的用户版本号
+     * @param roleGrants 计算决策时引用的角色共享结构
+     */
+    public void put(Integer userId, long userVersion, RoleGrantCache.RoleGrants roleGrants,
+                    String permCode, boolean allowed) {
+        if (userId == null || permCode == null || roleGrants == null || userVersion(userId) != userVersion) {
+            return;
+        }
+        // 事务中（批量请求）的决策可能基于本事务未提交的数据，不写入缓存
+        if (DBHelper.getInstance().inTransaction()) {
+            return;
+        }
+        UserDecisions userDecisions = decisionsByUser.compute(userId, (id, existing) ->
+                existing != null && existing.roleGrants == roleGrants && existing.userVersion == userVersion
+                        ? existing : new UserDecisions(roleGrants, userVersion));
+        if (userDecisions.decisions.size() < MAX_CODES_PER_USER) {
+            userDecisions.decisions.put(permCode, allowed);
+        }
+        if (decisionsByUser.size() > MAX_USERS) {
+            evict();
+        }
+    }
+
+    @Override
+    public void onChange(RbacChangeEvent event) {
+        if (event.isUserScoped()) {
+            invalidateUser(event.getUserId());
+        } else if (event.isRoleScoped()) {
+            invalidateRole(event.getRoleId());
+        } else if (event.isTenantScoped()) {
+            invalidateTenant(event.getTenantId());
+        } else {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * 清空指定用户的决策（递增用户版本号，计算中的决策也不会写入）
+     */
+    public void invalidateUser(Integer userId) {
+        if (userId == null) {
+            return;
+        }
+        userVersions.computeIfAbsent(userId, k -> new AtomicLong()).incrementAndGet();
+        decisionsByUser.remove(userId);
+    }
+
+    /**
+     * 清空指定角色所有用户的决策
+     */
+    public void invalidateRole(Integer roleId) {
+        decisionsByUser.values().removeIf(userDecisions -> userDecisions.roleGrants.containsRole(roleId));
+    }
+
+    /**
+     * 清空指定租户所有用户的决策
+     */
+    public void invalidateTenant(Integer tenantId) {
+        decisionsByUser.values().removeIf(userDecisions -> tenantId.equals(userDecisions.roleGrants.getTenantId()));
+    }
+
+    /**
+     * 清空所有决策
+     */
+    public void invalidateAll() {
+        decisionsByUser.clear();
+    }
+
+    private boolean isCurrent(Integer userId, UserDecisions userDecisions) {
+        return userDecisions.userVersion == userVersion(userId)
+                && roleGrantCache.isCurrent(userDecisions.roleGrants,
+                        permissionTreeBuilder.peekPermissionIndex(userDecisions.roleGrants.getTenantId()));
+    }
+
+    private void evict() {
+        decisionsByUser.entrySet().removeIf(entry -> !isCurrent(entry.getKey(), entry.getValue()));
+        if (decisionsByUser.size() > MAX_USERS) {
+            decisionsByUser.clear();
+        }
+    }
+}
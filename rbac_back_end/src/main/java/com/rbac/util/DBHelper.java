@@ -1,23 +1,44 @@
 package com.rbac.util;
 
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
 
+/**
+ * 数据库连接工具：默认每次获取新连接（DAO用try-with-resources自行关闭）
+ * 可在当前线程绑定一个连接（withConnection：多次DAO调用复用同一连接；inTransaction：关闭自动提交，结束时统一提交或回滚），
+ * 绑定期间getConnection返回该连接的包装，DAO关闭它时不会真正关闭，DAO代码无需改动
+ */
+@Slf4j
 public class DBHelper {
     private static volatile DBHelper instance;
-    private static Properties props = new Properties();
+    // 当前线程绑定的连接（未绑定为null）
+    private static final ThreadLocal<BoundConnection> BOUND = new ThreadLocal<>();
 
-    // 静态代码块：加载配置文件（只执行一次）
-    static {
-        try {
-            // 读取resources下的db.properties
-            props.load(DBHelper.class.getClassLoader().getResourceAsStream("db.properties"));
-            // 加载驱动
-            Class.forName(props.getProperty("db.driver"));
-        } catch (Exception e) {
-            throw new RuntimeException("配置文件/驱动加载失败", e);
+    /**
+     * 数据库配置：首次获取连接时才加载配置文件和驱动（只判断事务状态的缓存等不需要数据库）
+     */
+    private static final class Config {
+        static final Properties props = new Properties();
+
+        // 静态代码块：加载配置文件（只执行一次）
+        static {
+            try {
+                // 读取resources下的db.properties
+                props.load(DBHelper.class.getClassLoader().getResourceAsStream("db.properties"));
+                // 加载驱动
+                Class.forName(props.getProperty("db.driver"));
+            } catch (Exception e) {
+                throw new RuntimeException("配置文件/驱动加载失败", e);
+            }
         }
     }
 
@@ -35,6 +56,15 @@ public class DBHelper {
     }
 
     public Connection getConnection() {
+        BoundConnection bound = BOUND.get();
+        if (bound != null) {
+            return bound.view;
+        }
+        return openConnection();
+    }
+
+    private Connection openConnection() {
+        Properties props = Config.props;
         try {
             return DriverManager.getConnection(
                     props.getProperty("db.url"),
@@ -45,6 +75,128 @@ public class DBHelper {
             throw new RuntimeException("获取连接失败", e);
         }
     }
+
+    /**
+     * 在当前线程绑定一个连接执行work（自动提交），期间的DAO调用复用该连接；已绑定时直接复用外层连接
+     */
+    public <T> T withConnection(Callable<T> work) throws Exception {
+        if (BOUND.get() != null) {
+            return work.call();
+        }
+        try (Connection conn = openConnection()) {
+            BOUND.set(new BoundConnection(conn, false));
+            return work.call();
+        } finally {
+            BOUND.remove();
+        }
+    }
+
+    /**
+     * 在一个事务中执行work：work正常返回且未标记回滚则提交，抛出异常或调用了setRollbackOnly则回滚
+     * 已在事务中时加入外层事务（由外层统一提交或回滚）；不能在withConnection绑定的非事务连接内开启事务
+     * 提交或回滚之后依次执行afterCompletion登记的回调
+     */
+    public <T> T inTransaction(Callable<T> work) throws Exception {
+        BoundConnection outer = BOUND.get();
+        if (outer != null) {
+            if (!outer.transactional) {
+                throw new IllegalStateException("当前线程已绑定非事务连接，不能在其中开启事务");
+            }
+            return work.call();
+        }
+        BoundConnection bound;
+        try (Connection conn = openConnection()) {
+            conn.setAutoCommit(false);
+            bound = new BoundConnection(conn, true);
+            BOUND.set(bound);
+            boolean committed = false;
+            try {
+                T result = work.call();
+                if (!bound.rollbackOnly) {
+                    conn.commit();
+                    committed = true;
+                }
+                return result;
+            } finally {
+                BOUND.remove();
+                try {
+                    if (!committed) {
+                        conn.rollback();
+                    }
+                } finally {
+                    conn.setAutoCommit(true);
+                    runCallbacks(bound.afterCompletion);
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前线程是否处于事务中
+     */
+    public boolean inTransaction() {
+        BoundConnection bound = BOUND.get();
+        return bound != null && bound.transactional;
+    }
+
+    /**
+     * 标记当前事务在结束时回滚（不在事务中时无效）
+     */
+    public void setRollbackOnly() {
+        BoundConnection bound = BOUND.get();
+        if (bound != null && bound.transactional) {
+            bound.rollbackOnly = true;
+        }
+    }
+
+    /**
+     * 登记事务结束（提交或回滚）后执行的回调，如让事务期间被其它线程按旧数据重新加载的缓存再失效一次
+     * @return 是否已登记（不在事务中返回false，由调用方决定是否立即执行）
+     */
+    public boolean afterCompletion(Runnable callback) {
+        BoundConnection bound = BOUND.get();
+        if (bound == null || !bound.transactional) {
+            return false;
+        }
+        bound.afterCompletion.add(callback);
+        return true;
+    }
+
+    private static void runCallbacks(List<Runnable> callbacks) {
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                // 回调互不影响，事务结果已确定；回调多为回滚后恢复缓存，失败须记下堆栈以便排查
+                log.error("事务结束回调执行失败：{}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 线程绑定的连接：view为屏蔽了close的包装（DAO的try-with-resources关闭它不影响绑定的连接）
+     */
+    private static final class BoundConnection {
+        final Connection view;
+        final boolean transactional;
+        final List<Runnable> afterCompletion = new ArrayList<>();
+        boolean rollbackOnly;
+
+        BoundConnection(Connection target, boolean transactional) {
+            this.transactional = transactional;
+            this.view = (Connection) Proxy.newProxyInstance(DBHelper.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                            return null;
+                        }
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
     // 测试连接的简易代码（可写在DBHelper类的main方法中）
     public static void main(String[] args) {
         try {
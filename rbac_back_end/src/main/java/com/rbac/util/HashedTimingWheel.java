@@ -0,0 +1,197 @@
+package com.rbac.util;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 哈希时间轮：把到期任务按到期刻度哈希到固定数量的槽位，每个槽位是一条双向链表
+ * 1. 插入/取消均为O(1)（计算槽位 + 链表挂接/摘除），与已登记的任务数无关
+ * 2. 每个刻度只处理当前槽位：剩余圈数为0的任务到期，其余圈数减一
+ * 3. 本类不自带线程，由调用方按刻度调用advanceTo推进（便于测试时手动拨动时钟）
+ * 4. 到期任务逐个执行，单个任务抛出异常只记录日志，不影响同一刻度的其它任务（已摘除的任务不会再执行）
+ */
+@Slf4j
+public final class HashedTimingWheel {
+    private final long tickMillis;
+    private final long startMillis;
+    private final int mask;
+    private final Timeout[] heads;
+    // 下一个待处理的刻度
+    private long currentTick;
+    private int pending;
+
+    /**
+     * @param tickMillis 每个刻度的毫秒数
+     * @param ticksPerWheel 槽位数（向上取整为2的幂）
+     * @param startMillis 时间轮的起始时间（刻度0）
+     */
+    public HashedTimingWheel(long tickMillis, int ticksPerWheel, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("刻度必须大于0：" + tickMillis);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("槽位数超出范围：" + ticksPerWheel);
+        }
+        int size = Integer.highestOneBit(ticksPerWheel);
+        if (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.mask = size - 1;
+        this.heads = new Timeout[size];
+    }
+
+    /**
+     * 登记到期任务（已过期的任务在下一次推进时执行）
+     * @param task 到期时执行的任务
+     * @param deadlineMillis 到期时间
+     * @return 可取消的句柄
+     */
+    public synchronized Timeout schedule(Runnable task, long deadlineMillis) {
+        if (task == null) {
+            throw new IllegalArgumentException("任务不能为空");
+        }
+        // 向上取整：任务只会在到期时间之后执行，不会提前
+        long offset = Math.max(0L, deadlineMillis - startMillis);
+        long deadlineTick = Math.max(currentTick, (offset + tickMillis - 1) / tickMillis);
+        Timeout timeout = new Timeout(task, deadlineMillis);
+        timeout.rounds = (deadlineTick - currentTick) / heads.length;
+        timeout.slot = (int) (deadlineTick & mask);
+        link(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * 推进到指定时间，执行期间到期的全部任务（任务在锁外执行，任务内可再登记/取消）
+     * @param nowMillis 当前时间
+     * @return 本次到期的任务数（含执行异常的任务）
+     */
+    public int advanceTo(long nowMillis) {
+        List<Timeout> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = (nowMillis - startMillis) / tickMillis;
+            while (currentTick <= targetTick) {
+                expireSlot((int) (currentTick & mask), expired);
+                currentTick++;
+            }
+        }
+        for (Timeout timeout : expired) {
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                log.error("时间轮到期任务执行异常（到期时间{}）", timeout.deadlineMillis, e);
+            }
+        }
+        return expired.size();
+    }
+
+    private void expireSlot(int slot, List<Timeout> expired) {
+        Timeout node = heads[slot];
+        while (node != null) {
+            Timeout next = node.next;
+            if (node.rounds <= 0) {
+                unlink(node);
+                node.state = Timeout.EXPIRED;
+                pending--;
+                expired.add(node);
+            } else {
+                node.rounds--;
+            }
+            node = next;
+        }
+    }
+
+    private void link(Timeout timeout) {
+        Timeout head = heads[timeout.slot];
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        heads[timeout.slot] = timeout;
+    }
+
+    private void unlink(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            heads[timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+    }
+
+    private synchronized boolean cancel(Timeout timeout) {
+        if (timeout.state != Timeout.PENDING) {
+            return false;
+        }
+        unlink(timeout);
+        timeout.state = Timeout.CANCELLED;
+        pending--;
+        return true;
+    }
+
+    /**
+     * 尚未到期且未取消的任务数
+     */
+    public synchronized int size() {
+        return pending;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    /**
+     * 到期任务句柄
+     */
+    public final class Timeout {
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Runnable task;
+        private final long deadlineMillis;
+        // 以下字段只在时间轮的锁内读写
+        private long rounds;
+        private int slot;
+        private Timeout prev;
+        private Timeout next;
+        private int state = PENDING;
+
+        private Timeout(Runnable task, long deadlineMillis) {
+            this.task = task;
+            this.deadlineMillis = deadlineMillis;
+        }
+
+        /**
+         * 取消任务（O(1)）
+         * @return true=取消成功，false=已到期或已取消
+         */
+        public boolean cancel() {
+            return HashedTimingWheel.this.cancel(this);
+        }
+
+        public boolean isExpired() {
+            synchronized (HashedTimingWheel.this) {
+                return state == EXPIRED;
+            }
+        }
+
+        public boolean isCancelled() {
+            synchronized (HashedTimingWheel.this) {
+                return state == CANCELLED;
+            }
+        }
+
+        public long getDeadlineMillis() {
+            return deadlineMillis;
+        }
+    }
+}
@@ -1,67 +1,164 @@
 package com.rbac.util;
 
-import com.rbac.service.component.IPermissionComponent;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rbac.service.component.PermissionGrantSet;
 import com.rbac.service.PermissionTreeValidator;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeListener;
+import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * 实验3.3.4：权限缓存优化（本地缓存，5分钟过期）
+ * 实验3.3.4：权限缓存优化（Caffeine本地缓存）
+ * 1. 容量上限 + W-TinyLFU按访问频率准入/淘汰，偶发访问的用户不会挤掉热点用户
+ * 2. 写入10分钟后的首次访问在后台线程异步刷新（期间仍返回旧值），请求线程不再同步重建
+ * 3. 同一用户并发未命中只加载一次
+ * 4. 订阅RBAC变更事件精确失效（单个用户/角色的所有用户/全部），因此可以使用较长的有效期
  */
-public class PermissionCache {
-    // 缓存结构：用户名 → 缓存实体（权限树+过期时间）
-    private Map<String, CacheEntry> userPermCache = new HashMap<>();
-    // 缓存有效期：5分钟（300000毫秒）
-    private static final long EXPIRE_MS = 5 * 60 * 1000;
+@Slf4j
+public class PermissionCache implements RbacChangeListener {
+    // 最大缓存用户数
+    private static final long MAX_USERS = 10_000;
+    // 写入后多久触发后台刷新（兜底：绕过服务层直接修改数据库的情况）
+    private static final Duration REFRESH_AFTER_WRITE = Duration.ofMinutes(10);
+    // 写入后最长存活时间（长期无访问的用户自然淘汰）
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofHours(2);
 
-    // 缓存实体内部类
-    private static class CacheEntry {
-        IPermissionComponent permTree; // 用户权限树
-        long expireTime; // 过期时间戳
+    // 后台刷新线程池（守护线程，不阻止JVM退出）
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "permission-cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 缓存结构：用户名 → 用户所属角色的共享结构（仅引用，不复制）
+    private final LoadingCache<String, RoleGrantCache.RoleGrants> userPermCache;
+    private final PermissionTreeValidator validator;
 
-        CacheEntry(IPermissionComponent permTree) {
-            this.permTree = permTree;
-            this.expireTime = System.currentTimeMillis() + EXPIRE_MS;
-        }
+    public PermissionCache(PermissionTreeValidator validator) {
+        this.validator = validator;
+        this.userPermCache = Caffeine.newBuilder()
+                .maximumSize(MAX_USERS)
+                .refreshAfterWrite(REFRESH_AFTER_WRITE)
+                .expireAfterWrite(EXPIRE_AFTER_WRITE)
+                .executor(refreshExecutor)
+                .recordStats()
+                .build(this::load);
+    }
 
-        // 判断缓存是否过期
-        boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
+    /**
+     * 加载用户的角色共享结构
+     */
+    private RoleGrantCache.RoleGrants load(String username) {
+        RoleGrantCache.RoleGrants roleGrants = validator.resolveUserRoleGrants(username);
+        log.debug("加载用户{}的授权位图，角色={}", username, Arrays.toString(roleGrants.getRoleIds()));
+        return roleGrants;
+    }
+
+    /**
+     * 获取用户所属角色的共享结构（优先从缓存取，角色结构已更新则重新加载）
+     */
+    public RoleGrantCache.RoleGrants getUserRoleGrants(String username) {
+        if (DBHelper.getInstance().inTransaction()) {
+            // 事务中（批量请求）加载的可能是本事务未提交的用户角色，只供本次使用，不写入缓存
+            RoleGrantCache.RoleGrants cached = userPermCache.getIfPresent(username);
+            return cached != null && validator.isRoleGrantsCurrent(cached) ? cached : load(username);
+        }
+        RoleGrantCache.RoleGrants roleGrants = userPermCache.get(username);
+        if (!validator.isRoleGrantsCurrent(roleGrants)) {
+            // 只移除当前这份过期引用，并发请求仍共享同一次重新加载
+            userPermCache.asMap().remove(username, roleGrants);
+            roleGrants = userPermCache.get(username);
         }
+        return roleGrants;
     }
 
     /**
-     * 获取用户权限树（优先从缓存取，过期则重建）
+     * 获取用户授权位图
      */
-    public IPermissionComponent getUserPermTree(String username, PermissionTreeValidator validator) {
-        // 1. 查缓存
-        CacheEntry entry = userPermCache.get(username);
-        // 2. 缓存有效 → 直接返回
-        if (entry != null && !entry.isExpired()) {
-            System.out.println("从缓存获取用户" + username + "的权限树");
-            return entry.permTree;
+    public PermissionGrantSet getUserGrants(String username) {
+        return getUserRoleGrants(username).getGrants();
+    }
+
+    @Override
+    public void onChange(RbacChangeEvent event) {
+        if (event.isUserScoped() && event.getUsername() != null) {
+            clearUserCache(event.getUsername());
+        } else if (event.isUserScoped()) {
+            // 缓存按用户名组织，事件缺少用户名时无法定位该用户，只能全部失效（不能留下已过期的授权）
+            clearAllCache();
+        } else if (event.isRoleScoped()) {
+            clearRoleCache(event.getRoleId());
+        } else if (event.isTenantScoped()) {
+            clearTenantCache(event.getTenantId());
+        } else {
+            clearAllCache();
         }
-        // 3. 缓存失效/不存在 → 重建并缓存
-        System.out.println("缓存失效，重建用户" + username + "的权限树");
-        IPermissionComponent newTree = validator.buildRealUserPermissionTree(username);
-        userPermCache.put(username, new CacheEntry(newTree));
-        return newTree;
     }
 
     /**
      * 权限变更时，主动清空指定用户的缓存
      */
     public void clearUserCache(String username) {
-        userPermCache.remove(username);
-        System.out.println("已清空用户" + username + "的权限缓存");
+        if (username == null) {
+            return;
+        }
+        userPermCache.invalidate(username);
+        log.debug("已清空用户{}的权限缓存", username);
+    }
+
+    /**
+     * 角色授权变更时，清空该角色所有用户的缓存
+     */
+    public void clearRoleCache(Integer roleId) {
+        userPermCache.asMap().values().removeIf(roleGrants -> roleGrants.containsRole(roleId));
+        log.debug("已清空角色{}下所有用户的权限缓存", roleId);
+    }
+
+    /**
+     * 租户权限树重建或卸载时，只清空该租户用户的缓存
+     */
+    public void clearTenantCache(Integer tenantId) {
+        userPermCache.asMap().values().removeIf(roleGrants -> tenantId.equals(roleGrants.getTenantId()));
+        log.debug("已清空租户{}下所有用户的权限缓存", tenantId);
     }
 
     /**
      * 清空所有缓存（系统刷新时用）
      */
     public void clearAllCache() {
-        userPermCache.clear();
-        System.out.println("已清空所有权限缓存");
+        userPermCache.invalidateAll();
+        log.debug("已清空所有权限缓存");
+    }
+
+    /**
+     * 缓存统计：命中率、加载耗时、淘汰数量等
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = userPermCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", userPermCache.estimatedSize());
+        result.put("requestCount", stats.requestCount());
+        result.put("hitCount", stats.hitCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loadSuccessCount", stats.loadSuccessCount());
+        result.put("loadFailureCount", stats.loadFailureCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+
+    /**
+     * 关闭后台刷新线程池
+     */
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,518 @@
+package com.rbac.util;
+
+import com.rbac.dao.DaoFactory;
+import com.rbac.dao.DaoFactoryManager;
+import com.rbac.dao.RoleDAO;
+import com.rbac.dao.UserDAO;
+import com.rbac.dao.UserRoleDAO;
+import com.rbac.model.entity.Role;
+import com.rbac.model.entity.Tenant;
+import com.rbac.model.entity.User;
+import com.rbac.model.entity.UserRole;
+import com.rbac.service.PermissionTreeValidator;
+import com.rbac.service.component.PermissionGrantSet;
+import com.rbac.service.component.PermissionIndex;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeListener;
+import com.rbac.service.event.RbacChangeType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 权限持有者反向索引：权限 → 角色 → 用户（按父权限包含子权限的语义）
+ * 1. 权限 → 角色：按权限索引的先序下标记录持有该位的角色（来自角色共享的授权位图，已展开子树）
+ * 2. 角色 → 用户：每个角色下的用户ID有序集合（一个用户可属于多个角色）
+ * 增量维护：事件线程只登记变更的角色/用户，查询前在写锁内逐个重算；权限索引重建时重算全部角色的倒排
+ * 按租户分区：每个租户首次查询时从数据库一次性加载该租户的角色和用户-角色关联，租户权限树卸载时释放
+ */
+@Slf4j
+@Component
+public class PermissionHolderIndex implements RbacChangeListener {
+    // 分页查询单页最大条数
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private RoleDAO roleDAO;
+    private UserDAO userDAO;
+    private UserRoleDAO userRoleDAO;
+
+    @Resource
+    private PermissionTreeValidator permissionTreeValidator;
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+
+    // 租户ID → 该租户的反向索引（首次查询该租户时创建，租户权限树卸载时一并释放）
+    private final Map<Integer, TenantHolders> tenants = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        DaoFactory daoFactory = DaoFactoryManager.getDaoFactory();
+        this.roleDAO = daoFactory.createRoleDAO();
+        this.userDAO = daoFactory.createUserDAO();
+        this.userRoleDAO = daoFactory.createUserRoleDAO();
+        rbacChangeBus.register(this);
+    }
+
+    @Override
+    public void onChange(RbacChangeEvent event) {
+        if (event.getChangeType() == RbacChangeType.TENANT_UNLOADED) {
+            if (event.getTenantId() != null) {
+                tenants.remove(event.getTenantId());
+            }
+            return;
+        }
+        // 事件未携带租户时登记到全部已加载的租户（角色/用户不在该租户时重算结果为空）
+        if (event.getTenantId() == null) {
+            for (TenantHolders holders : tenants.values()) {
+                holders.onChange(event);
+            }
+            return;
+        }
+        TenantHolders holders = tenants.get(event.getTenantId());
+        if (holders != null) {
+            holders.onChange(event);
+        }
+        // 权限树变更：查询时发现权限索引已替换，重算该租户全部角色的倒排
+    }
+
+    /**
+     * 查询租户内持有指定权限的角色（含通过父权限间接持有）
+     * @param tenantId 租户ID（null=默认租户）
+     * @param permissionCode 权限编码
+     * @return 角色ID（升序）
+     */
+    public List<Integer> findRoleIds(Integer tenantId, String permissionCode) {
+        TenantHolders holders = refreshedHolders(tenantId);
+        holders.lock.readLock().lock();
+        try {
+            return new ArrayList<>(holders.holdingRoles(permissionCode));
+        } finally {
+            holders.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 分页查询租户内持有指定权限的用户（按用户ID升序）
+     * @param tenantId 租户ID（null=默认租户）
+     * @param permissionCode 权限编码
+     * @param page 页码（从1开始）
+     * @param size 每页条数（1~MAX_PAGE_SIZE）
+     * @return 分页结果
+     */
+    public HolderPage findHolders(Integer tenantId, String permissionCode, int page, int size) {
+        int pageNo = Math.max(1, page);
+        int pageSize = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+        TenantHolders holders = refreshedHolders(tenantId);
+        holders.lock.readLock().lock();
+        try {
+            return holders.page(permissionCode, pageNo, pageSize);
+        } finally {
+            holders.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 取租户的反向索引并应用待处理的变更
+     * 事务中（批量请求）读到的可能是本事务未提交的数据：共享索引需要加载或重算时，改为加载一份只供本次查询的临时索引，
+     * 共享索引不写入未提交的数据，待处理的变更也留给事务之外的查询消费
+     */
+    private TenantHolders refreshedHolders(Integer tenantId) {
+        Integer id = Tenant.idOrDefault(tenantId);
+        if (DBHelper.getInstance().inTransaction()) {
+            TenantHolders shared = tenants.get(id);
+            if (shared == null || shared.needsRefresh()) {
+                TenantHolders snapshot = new TenantHolders(id);
+                snapshot.refreshIfNeeded();
+                return snapshot;
+            }
+            return shared;
+        }
+        TenantHolders holders = tenants.computeIfAbsent(id, TenantHolders::new);
+        holders.refreshIfNeeded();
+        return holders;
+    }
+
+    /**
+     * 单个租户的反向索引（各租户互不影响，各自加锁）
+     */
+    private final class TenantHolders {
+        private final Integer tenantId;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // 待重算的角色ID / 用户ID → 用户名（事件线程写入，查询前消费）
+        private final Set<Integer> pendingRoles = ConcurrentHashMap.newKeySet();
+        private final Map<Integer, String> pendingUsers = new ConcurrentHashMap<>();
+        private volatile boolean loaded;
+
+        // 以下结构只在写锁内修改
+        private volatile PermissionIndex index;
+        // 先序下标 → 持有该权限的角色ID
+        private List<TreeSet<Integer>> rolesByPosition = new ArrayList<>();
+        // 角色ID → 角色授权位图
+        private final Map<Integer, PermissionGrantSet> grantsByRole = new HashMap<>();
+        private final Map<Integer, String> roleNames = new HashMap<>();
+        // 角色ID → 用户ID（有序）
+        private final Map<Integer, TreeSet<Integer>> usersByRole = new HashMap<>();
+        // 用户ID → 角色ID（升序）/ 用户名
+        private final Map<Integer, int[]> rolesByUser = new HashMap<>();
+        private final Map<Integer, String> usernames = new HashMap<>();
+
+        TenantHolders(Integer tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        void onChange(RbacChangeEvent event) {
+            if (event.isUserScoped()) {
+                if (event.getUserId() != null) {
+                    pendingUsers.put(event.getUserId(), event.getUsername() == null ? "" : event.getUsername());
+                }
+            } else if (event.isRoleScoped()) {
+                if (event.getRoleId() != null) {
+                    pendingRoles.add(event.getRoleId());
+                }
+            }
+        }
+
+        HolderPage page(String permissionCode, int pageNo, int pageSize) {
+            TreeSet<Integer> roleIds = holdingRoles(permissionCode);
+            List<Map<String, Object>> roles = new ArrayList<>(roleIds.size());
+            int userRoleCount = 0;
+            for (Integer roleId : roleIds) {
+                TreeSet<Integer> users = usersByRole.get(roleId);
+                int userCount = users == null ? 0 : users.size();
+                userRoleCount += userCount;
+                Map<String, Object> role = new LinkedHashMap<>();
+                role.put("roleId", roleId);
+                role.put("roleName", roleNames.get(roleId));
+                role.put("userCount", userCount);
+                roles.add(role);
+            }
+
+            // 用户可属于多个角色：合并各角色的用户后排序去重，再截取当前页
+            // 拒绝优先：用户的任一角色拒绝该权限时，即使其它角色允许也不算持有
+            Set<Integer> denyingRoles = denyingRoles(permissionCode);
+            int[] userIds = new int[userRoleCount];
+            int n = 0;
+            for (Integer roleId : roleIds) {
+                TreeSet<Integer> users = usersByRole.get(roleId);
+                if (users != null) {
+                    for (Integer userId : users) {
+                        if (denyingRoles.isEmpty() || !hasAnyRole(userId, denyingRoles)) {
+                            userIds[n++] = userId;
+                        }
+                    }
+                }
+            }
+            Arrays.sort(userIds);
+            int total = 0;
+            for (int i = 0; i < n; i++) {
+                if (total == 0 || userIds[total - 1] != userIds[i]) {
+                    userIds[total++] = userIds[i];
+                }
+            }
+            int from = (int) Math.min((long) (pageNo - 1) * pageSize, total);
+            int to = Math.min(from + pageSize, total);
+            List<Map<String, Object>> users = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                Map<String, Object> user = new LinkedHashMap<>();
+                user.put("userId", userIds[i]);
+                user.put("username", usernames.get(userIds[i]));
+                int[] userRoleIds = rolesByUser.get(userIds[i]);
+                user.put("roleIds", userRoleIds == null ? new int[0] : userRoleIds.clone());
+                users.add(user);
+            }
+            return new HolderPage(permissionCode == null ? "" : permissionCode.trim(), pageNo, pageSize, total, roles, users);
+        }
+
+        /**
+         * 持有目标权限的角色：目标编码本身所在下标 + 已存在的复合前缀下标（与PermissionGrantSet.isGranted语义一致）
+         */
+        TreeSet<Integer> holdingRoles(String permissionCode) {
+            TreeSet<Integer> result = new TreeSet<>();
+            if (permissionCode == null || permissionCode.trim().isEmpty() || index == null) {
+                return result;
+            }
+            String code = permissionCode.trim();
+            addRolesAt(index.indexOf(code), result);
+            int colon = code.lastIndexOf(':');
+            while (colon > 0) {
+                int prefix = index.indexOf(code, 0, colon);
+                if (prefix >= 0 && index.isComposite(prefix)) {
+                    addRolesAt(prefix, result);
+                }
+                colon = code.lastIndexOf(':', colon - 1);
+            }
+            // 经由前缀登记的角色可能拒绝了目标权限（允许system:user、拒绝system:user:delete），按拒绝优先剔除
+            result.removeIf(roleId -> {
+                PermissionGrantSet grants = grantsByRole.get(roleId);
+                return grants != null && grants.hasDenials() && !grants.isGranted(code);
+            });
+            return result;
+        }
+
+        /**
+         * 显式拒绝目标权限的角色（角色数通常很少，逐个判断）
+         */
+        private Set<Integer> denyingRoles(String permissionCode) {
+            Set<Integer> result = new HashSet<>();
+            if (permissionCode == null || permissionCode.trim().isEmpty()) {
+                return result;
+            }
+            for (Map.Entry<Integer, PermissionGrantSet> entry : grantsByRole.entrySet()) {
+                if (entry.getValue().isDenied(permissionCode)) {
+                    result.add(entry.getKey());
+                }
+            }
+            return result;
+        }
+
+        private boolean hasAnyRole(Integer userId, Set<Integer> roleIds) {
+            int[] userRoleIds = rolesByUser.get(userId);
+            if (userRoleIds != null) {
+                for (int roleId : userRoleIds) {
+                    if (roleIds.contains(roleId)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void addRolesAt(int position, TreeSet<Integer> result) {
+            if (position >= 0 && position < rolesByPosition.size()) {
+                result.addAll(rolesByPosition.get(position));
+            }
+        }
+
+        /**
+         * 应用待处理的变更（无变更时不加写锁）
+         */
+        boolean needsRefresh() {
+            return !loaded || !pendingRoles.isEmpty() || !pendingUsers.isEmpty()
+                    || index != permissionTreeValidator.getPermissionIndex(tenantId);
+        }
+
+        void refreshIfNeeded() {
+            if (!needsRefresh()) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    loadAll();
+                    loaded = true;
+                }
+                PermissionIndex current = permissionTreeValidator.getPermissionIndex(tenantId);
+                if (current != index) {
+                    rebuildPostings(current);
+                }
+                // 先移出再处理：处理期间到达的新事件会在下次查询时重算
+                for (Iterator<Integer> it = pendingRoles.iterator(); it.hasNext(); ) {
+                    Integer roleId = it.next();
+                    it.remove();
+                    refreshRole(roleId);
+                }
+                for (Iterator<Map.Entry<Integer, String>> it = pendingUsers.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<Integer, String> entry = it.next();
+                    it.remove();
+                    refreshUser(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * 首次加载：租户内的角色、用户名、用户-角色关联各查询一次
+         */
+        private void loadAll() {
+            long start = System.currentTimeMillis();
+            for (Role role : roleDAO.selectRolesByTenantId(tenantId)) {
+                roleNames.put(role.getId(), role.getName());
+            }
+            for (User user : userDAO.selectUsersByTenantId(tenantId)) {
+                usernames.put(user.getId(), user.getUsername());
+            }
+            Map<Integer, TreeSet<Integer>> grouped = new HashMap<>();
+            int relationCount = 0;
+            for (UserRole userRole : userRoleDAO.selectUserRolesByTenantId(tenantId)) {
+                grouped.computeIfAbsent(userRole.getUserId(), k -> new TreeSet<>()).add(userRole.getRoleId());
+                roleNames.putIfAbsent(userRole.getRoleId(), null);
+                relationCount++;
+            }
+            for (Map.Entry<Integer, TreeSet<Integer>> entry : grouped.entrySet()) {
+                assignUser(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            index = null;
+            log.info("租户{}的权限持有者反向索引加载完成：角色{}个，用户-角色关联{}条，耗时{}ms",
+                    tenantId, roleNames.size(), relationCount, System.currentTimeMillis() - start);
+        }
+
+        /**
+         * 权限索引重建后重算全部角色的倒排
+         */
+        private void rebuildPostings(PermissionIndex current) {
+            index = current;
+            rolesByPosition = new ArrayList<>(current.size());
+            for (int i = 0; i < current.size(); i++) {
+                rolesByPosition.add(new TreeSet<>());
+            }
+            grantsByRole.clear();
+            for (Integer roleId : roleNames.keySet()) {
+                addPostings(roleId, permissionTreeValidator.getRoleGrants(tenantId, roleId).getGrants());
+            }
+        }
+
+        /**
+         * 角色授权变更/角色删除：移除旧倒排，角色仍存在（且属于本租户）则按新授权重新登记
+         */
+        private void refreshRole(Integer roleId) {
+            removePostings(roleId);
+            Role role = roleDAO.selectRoleById(roleId);
+            if (role == null || !tenantId.equals(role.getTenantId())) {
+                roleNames.remove(roleId);
+                TreeSet<Integer> users = usersByRole.remove(roleId);
+                if (users != null) {
+                    for (Integer userId : users) {
+                        int[] remaining = rolesByUser.get(userId);
+                        if (remaining != null) {
+                            rolesByUser.put(userId, Arrays.stream(remaining).filter(id -> id != roleId).toArray());
+                        }
+                    }
+                }
+                return;
+            }
+            roleNames.put(roleId, role.getName());
+            addPostings(roleId, permissionTreeValidator.getRoleGrants(tenantId, roleId).getGrants());
+        }
+
+        /**
+         * 用户角色变更/用户删除：按数据库中当前的用户-角色关联重新归属
+         */
+        private void refreshUser(Integer userId, String username) {
+            unassignUser(userId);
+            int[] roleIds = userRoleDAO.selectRoleIdsByUserId(userId);
+            if (roleIds.length == 0) {
+                usernames.remove(userId);
+                return;
+            }
+            if (!username.isEmpty()) {
+                usernames.put(userId, username);
+            }
+            assignUser(userId, roleIds);
+            for (int roleId : roleIds) {
+                if (!grantsByRole.containsKey(roleId)) {
+                    // 新出现的角色（加载后才创建）
+                    refreshRole(roleId);
+                }
+            }
+        }
+
+        private void addPostings(Integer roleId, PermissionGrantSet grants) {
+            grantsByRole.put(roleId, grants);
+            for (int i = grants.nextGranted(0); i >= 0 && i < rolesByPosition.size(); i = grants.nextGranted(i + 1)) {
+                rolesByPosition.get(i).add(roleId);
+            }
+        }
+
+        private void removePostings(Integer roleId) {
+            PermissionGrantSet grants = grantsByRole.remove(roleId);
+            if (grants == null || !grants.isCompiledAgainst(index)) {
+                return;
+            }
+            for (int i = grants.nextGranted(0); i >= 0 && i < rolesByPosition.size(); i = grants.nextGranted(i + 1)) {
+                rolesByPosition.get(i).remove(roleId);
+            }
+        }
+
+        private void assignUser(Integer userId, int[] roleIds) {
+            rolesByUser.put(userId, roleIds);
+            for (int roleId : roleIds) {
+                usersByRole.computeIfAbsent(roleId, k -> new TreeSet<>()).add(userId);
+            }
+        }
+
+        private void unassignUser(Integer userId) {
+            int[] oldRoleIds = rolesByUser.remove(userId);
+            if (oldRoleIds == null) {
+                return;
+            }
+            for (int oldRoleId : oldRoleIds) {
+                TreeSet<Integer> users = usersByRole.get(oldRoleId);
+                if (users != null) {
+                    users.remove(userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 持有者分页结果
+     */
+    public static final class HolderPage {
+        private final String permissionCode;
+        private final int page;
+        private final int size;
+        private final int total;
+        private final List<Map<String, Object>> roles;
+        private final List<Map<String, Object>> users;
+
+        HolderPage(String permissionCode, int page, int size, int total,
+                   List<Map<String, Object>> roles, List<Map<String, Object>> users) {
+            this.permissionCode = permissionCode;
+            this.page = page;
+            this.size = size;
+            this.total = total;
+            this.roles = Collections.unmodifiableList(roles);
+            this.users = Collections.unmodifiableList(users);
+        }
+
+        public String getPermissionCode() {
+            return permissionCode;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * 持有该权限的用户总数（属于多个持有角色的用户只计一次）
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * 持有该权限的全部角色（角色ID、名称、用户数）
+         */
+        public List<Map<String, Object>> getRoles() {
+            return roles;
+        }
+
+        /**
+         * 当前页的用户（用户ID、用户名、全部角色ID）
+         */
+        public List<Map<String, Object>> getUsers() {
+            return users;
+        }
+    }
+}
@@ -4,267 +4,566 @@ import com.rbac.dao.DaoFactory;
 import com.rbac.dao.PermissionDAO;
 import com.rbac.dao.DaoFactoryManager;
 import com.rbac.model.entity.Permission;
+import com.rbac.model.entity.Tenant;
 import com.rbac.service.component.CompositePermission;
 import com.rbac.service.component.IPermissionComponent;
 import com.rbac.service.component.LeafPermission;
+import com.rbac.service.component.PermissionGraphReport;
+import com.rbac.service.component.PermissionIndex;
+import com.rbac.service.component.PermissionTreeSnapshot;
+import com.rbac.service.component.PermissionTreeWalker;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 权限树构建工具类：Spring单例 + 启动自动加载 + 操作后同步更新
+ * 多租户：每个租户一棵独立的权限树（含稠密编号索引），某租户的权限变更只重建该租户的树
+ * 默认租户启动时加载（支持快照）；其他租户首次访问时按需加载，空闲超时后卸载，内存随活跃租户数增长
  */
 @Component // 注册为Spring Bean
 public class PermissionTreeBuilder {
     // 依赖你已有的PermissionDAO
     private PermissionDAO permissionDAO;
-    // 缓存所有权限数据（按parent_id分组）
-    private Map<Integer, List<Permission>> permissionGroupByParentId = new HashMap<>();
-    // 缓存所有权限（按id映射）
-    private Map<Integer, Permission> permissionMap = new HashMap<>();
-    // 权限树根节点
-    private IPermissionComponent root;
+    // 租户ID → 该租户的权限树
+    private final Map<Integer, TenantTree> trees = new ConcurrentHashMap<>();
+    // 索引版本号生成器（全部租户共用，保证不同租户的索引版本号不重复）
+    private final AtomicLong indexVersion = new AtomicLong();
+    // 本线程事务中已登记事务结束后重建的租户（同一事务多次写入只重建一次）
+    private final ThreadLocal<Set<Integer>> pendingResets = ThreadLocal.withInitial(HashSet::new);
+    // RBAC变更事件总线（权限树变化后通知该租户的各级缓存失效）
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+    // 默认租户的权限树二进制快照文件（为空则不使用快照）
+    @Value("${rbac.permission.snapshot-path:data/permission-tree.snapshot}")
+    private String snapshotPath;
+    // 租户空闲多少分钟后卸载其权限树（<=0则不卸载；默认租户常驻）
+    @Value("${rbac.tenant.idle-unload-minutes:30}")
+    private long idleUnloadMinutes;
+    private ScheduledExecutorService unloadExecutor;
+
+    public PermissionTreeBuilder() {
+    }
+
+    /**
+     * 直接指定DAO和事件总线（不依赖Spring和数据库，不加载默认租户，测试用）
+     */
+    PermissionTreeBuilder(PermissionDAO permissionDAO, RbacChangeBus rbacChangeBus) {
+        this.permissionDAO = permissionDAO;
+        this.rbacChangeBus = rbacChangeBus;
+    }
+
+    /**
+     * 单个租户的权限树状态（修改在该对象的锁内进行，读取方只读volatile字段）
+     */
+    private static final class TenantTree {
+        final int tenantId;
+        // 缓存所有权限数据（按parent_id分组）
+        final Map<Integer, List<Permission>> permissionGroupByParentId = new HashMap<>();
+        // 缓存所有权限（按id映射）
+        final Map<Integer, Permission> permissionMap = new HashMap<>();
+        // 权限树根节点（租户没有权限数据时为null）
+        volatile IPermissionComponent root;
+        // 最近一次加载的parent_id关系校验报告
+        volatile PermissionGraphReport graphReport;
+        // 权限树的稠密编号索引（每次建树/改树后重新编译）
+        volatile PermissionIndex permissionIndex = PermissionIndex.EMPTY;
+        // 最近一次访问时间（空闲卸载依据）
+        volatile long lastAccessMillis = System.currentTimeMillis();
+
+        TenantTree(int tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        boolean isDefault() {
+            return tenantId == Tenant.DEFAULT_ID;
+        }
+    }
 
     // Spring初始化后自动执行（替代原有构造方法）
     @PostConstruct
     public void init() {
         DaoFactory daoFactory = DaoFactoryManager.getDaoFactory();
         this.permissionDAO = daoFactory.createPermissionDAO();
-        // 加载所有权限数据并分组
-        loadAllPermissions();
-        // 构建完整权限树
-        buildTree();
-        System.out.println("✅ 权限树初始化完成，根节点：" + (root != null ? root.getPermissionName() : "无"));
+        TenantTree tree = new TenantTree(Tenant.DEFAULT_ID);
+        trees.put(Tenant.DEFAULT_ID, tree);
+        // 先读数据库中的权限树版本号：与快照一致则直接加载快照，无需全表扫描
+        long treeVersion = permissionDAO.selectTreeVersion(Tenant.DEFAULT_ID);
+        if (loadSnapshot(tree, treeVersion)) {
+            System.out.println("✅ 权限树已从快照加载，版本：" + treeVersion + "，节点数：" + tree.permissionIndex.size());
+        } else {
+            // 加载所有权限数据并分组
+            loadAllPermissions(tree);
+            // 构建完整权限树
+            buildTree(tree, true);
+            writeSnapshot(tree, treeVersion);
+            System.out.println("✅ 权限树初始化完成，根节点：" + (tree.root != null ? tree.root.getPermissionName() : "无")
+                    + "，节点数：" + tree.permissionIndex.size());
+        }
+        if (idleUnloadMinutes > 0) {
+            unloadExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "tenant-tree-unload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            unloadExecutor.scheduleWithFixedDelay(() -> unloadIdleTenants(TimeUnit.MINUTES.toMillis(idleUnloadMinutes)),
+                    1, 1, TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (unloadExecutor != null) {
+            unloadExecutor.shutdownNow();
+        }
     }
 
     /**
-     * 第一步：加载所有权限数据，按parent_id分组+按id映射
+     * 取租户的权限树（未加载则从数据库加载，同一租户并发访问只加载一次）
      */
-    private void loadAllPermissions() {
-        // 1. 从数据库查询所有权限
-        List<Permission> allPermissions = permissionDAO.selectAllPermissions();
+    private TenantTree tree(Integer tenantId) {
+        int id = Tenant.idOrDefault(tenantId);
+        TenantTree tree = trees.get(id);
+        if (tree == null) {
+            tree = trees.computeIfAbsent(id, this::loadTenant);
+        }
+        tree.lastAccessMillis = System.currentTimeMillis();
+        return tree;
+    }
 
-        // 打印所有权限的id、code、parent_id
-        System.out.println("===== 读取到的权限数据 =====");
-        for (Permission perm : allPermissions) {
-            System.out.println("id=" + perm.getId()
-                    + ", code=" + perm.getCode()
-                    + ", parent_id=" + perm.getParentId());
+    /**
+     * 按需加载租户的权限树（新加载的租户尚无缓存，不发布变更事件）
+     */
+    private TenantTree loadTenant(Integer tenantId) {
+        TenantTree tree = new TenantTree(tenantId);
+        loadAllPermissions(tree);
+        buildTree(tree, false);
+        System.out.println("✅ 租户" + tenantId + "的权限树已加载，节点数：" + tree.permissionIndex.size());
+        return tree;
+    }
+
+    /**
+     * 卸载空闲超时的租户（默认租户常驻），并通知各级缓存释放该租户的分区
+     * @param idleMillis 空闲时长阈值
+     * @return 本次卸载的租户数
+     */
+    public int unloadIdleTenants(long idleMillis) {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        int unloaded = 0;
+        for (Integer tenantId : new ArrayList<>(trees.keySet())) {
+            if (tenantId == Tenant.DEFAULT_ID) {
+                continue;
+            }
+            // 判断与移除在同一原子操作内，期间被访问的租户不会被卸载
+            boolean[] removed = new boolean[1];
+            trees.computeIfPresent(tenantId, (id, tree) -> {
+                if (tree.lastAccessMillis < cutoff) {
+                    removed[0] = true;
+                    return null;
+                }
+                return tree;
+            });
+            if (removed[0]) {
+                unloaded++;
+                System.out.println("♻️ 租户" + tenantId + "空闲超时，权限树已卸载");
+                if (rbacChangeBus != null) {
+                    rbacChangeBus.publish(RbacChangeEvent.tenantUnloaded(tenantId));
+                }
+            }
+        }
+        return unloaded;
+    }
+
+    /**
+     * 从快照加载权限树（快照不存在/版本不一致/文件损坏时返回false，回退到数据库构建）
+     */
+    private boolean loadSnapshot(TenantTree tree, long treeVersion) {
+        Path file = snapshotFile();
+        if (file == null || treeVersion < 0) {
+            return false;
         }
+        try {
+            PermissionTreeSnapshot snapshot = PermissionTreeSnapshot.read(file, treeVersion, indexVersion.incrementAndGet());
+            if (snapshot == null) {
+                return false;
+            }
+            groupPermissions(tree, snapshot.getPermissions());
+            tree.graphReport = PermissionGraphReport.analyze(snapshot.getPermissions());
+            tree.root = snapshot.getRoot();
+            installIndex(tree, snapshot.getIndex(), true);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ 权限树快照不可用，改为从数据库构建：" + e.getMessage());
+            return false;
+        }
+    }
 
-        if (allPermissions.isEmpty()) {
+    /**
+     * 从数据库重建后写出快照（仅默认租户；失败只影响下次启动速度，不影响本次构建）
+     * @param treeVersion 扫描权限表之前读取的版本号（扫描期间有写入则快照版本偏旧，下次启动会重新构建）
+     */
+    private void writeSnapshot(TenantTree tree, long treeVersion) {
+        Path file = snapshotFile();
+        if (file == null || !tree.isDefault() || treeVersion < 0 || tree.root == null) {
+            return;
+        }
+        try {
+            PermissionTreeSnapshot.write(file, tree.root, tree.permissionIndex, treeVersion);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("⚠️ 权限树快照写出失败：" + e.getMessage());
+        }
+    }
+
+    private Path snapshotFile() {
+        return snapshotPath == null || snapshotPath.trim().isEmpty() ? null : Paths.get(snapshotPath.trim());
+    }
+
+    /**
+     * 第一步：加载租户的所有权限数据，按parent_id分组+按id映射
+     */
+    private void loadAllPermissions(TenantTree tree) {
+        // 1. 从数据库查询该租户的所有权限
+        List<Permission> allPermissions = permissionDAO.selectPermissionsByTenantId(tree.tenantId);
+        System.out.println("===== 读取到租户" + tree.tenantId + "权限数据" + allPermissions.size() + "条 =====");
+
+        // 默认租户必须有权限数据；新租户可以暂时没有（树为空，所有校验均不通过）
+        if (allPermissions.isEmpty() && tree.isDefault()) {
             throw new RuntimeException("权限表无数据，无法构建权限树！");
         }
 
-        // 2. 清空原有分组和映射
-        permissionGroupByParentId.clear();
-        permissionMap.clear();
+        // 建树前校验parent_id关系（线性扫描：循环引用/孤儿/多个顶级节点/重复ID）
+        PermissionGraphReport report = PermissionGraphReport.analyze(allPermissions);
+        tree.graphReport = report;
+        if (report.hasErrors()) {
+            System.out.println("⚠️ 权限数据parent_id关系异常，异常节点不会挂到权限树上：" + report.summary());
+        }
 
-        // 3. 按parent_id分组 + 按id映射权限
-        for (Permission perm : allPermissions) {
-            permissionMap.put(perm.getId(), perm);
+        groupPermissions(tree, allPermissions);
+    }
 
-            // 适配parent_id=0 作为顶级节点（映射为key=-1）
-            Integer parentId = perm.getParentId() == 0 ? -1 : perm.getParentId();
-            if (parentId == null) {
-                parentId = -1;
-            }
+    /**
+     * 按parent_id分组+按id映射（数据库加载和快照加载共用）
+     */
+    private void groupPermissions(TenantTree tree, List<Permission> allPermissions) {
+        // 1. 清空原有分组和映射
+        tree.permissionGroupByParentId.clear();
+        tree.permissionMap.clear();
+
+        // 2. 按parent_id分组 + 按id映射权限
+        for (Permission perm : allPermissions) {
+            tree.permissionMap.put(perm.getId(), perm);
 
-            permissionGroupByParentId.computeIfAbsent(parentId, k -> new ArrayList<>()).add(perm);
+            // 适配parent_id=0/null 作为顶级节点（映射为key=-1）
+            Integer parentId = perm.getParentId() == null || perm.getParentId() == 0 ? -1 : perm.getParentId();
+            tree.permissionGroupByParentId.computeIfAbsent(parentId, k -> new ArrayList<>()).add(perm);
         }
     }
 
     /**
-     * 第二步：递归构建权限树
+     * 第二步：构建权限树（显式栈，不受树深度限制）
+     * @param publish 是否通知各级缓存失效（按需首次加载时无需通知）
      */
-    private void buildTree() {
+    private void buildTree(TenantTree tree, boolean publish) {
         // 根节点：parent_id=0 → key=-1
-        List<Permission> rootPermissions = permissionGroupByParentId.get(-1);
+        List<Permission> rootPermissions = tree.permissionGroupByParentId.get(-1);
         if (rootPermissions == null || rootPermissions.isEmpty()) {
-            throw new RuntimeException("权限树无顶级节点（parent_id=0），无法构建！");
+            if (tree.isDefault()) {
+                throw new RuntimeException("权限树无顶级节点（parent_id=0），无法构建！");
+            }
+            tree.root = null;
+            installIndex(tree, PermissionIndex.EMPTY, publish);
+            return;
         }
 
         // 构建根复合节点
         Permission rootPerm = rootPermissions.get(0);
-        this.root = new CompositePermission(rootPerm);
-        // 递归构建根节点的所有子节点
-        buildChildren((CompositePermission) root, rootPerm.getId());
+        CompositePermission rootNode = new CompositePermission(rootPerm);
+        // 构建根节点的所有子节点
+        buildChildren(tree, rootNode, rootPerm.getId());
+        tree.root = rootNode;
+        refreshIndex(tree, publish);
     }
 
     /**
-     * 递归构建子节点
+     * 重新编译稠密编号索引（树结构发生变化后调用）
      */
-    private void buildChildren(CompositePermission parentNode, Integer parentId) {
-        List<Permission> childPermissions = permissionGroupByParentId.get(parentId);
-        if (childPermissions == null || childPermissions.isEmpty()) {
-            return;
-        }
-
-        for (Permission childPerm : childPermissions) {
-            // 新增日志：记录父子关系
-            System.out.println("构建父子关系：父节点[" + parentNode.getPermissionCode() +
-                    "] → 子节点[" + childPerm.getCode() + "]");
+    private void refreshIndex(TenantTree tree, boolean publish) {
+        installIndex(tree, PermissionIndex.compile(tree.root, indexVersion.incrementAndGet()), publish);
+    }
 
-            IPermissionComponent childNode;
-            boolean hasGrandChildren = permissionGroupByParentId.containsKey(childPerm.getId())
-                    && !permissionGroupByParentId.get(childPerm.getId()).isEmpty();
+    /**
+     * 发布新索引并通知该租户的各级缓存失效
+     */
+    private void installIndex(TenantTree tree, PermissionIndex index, boolean publish) {
+        tree.permissionIndex = index;
+        if (publish && rbacChangeBus != null) {
+            rbacChangeBus.publish(RbacChangeEvent.permissionTreeChanged(tree.tenantId));
+        }
+    }
 
-            if (hasGrandChildren) {
-                childNode = new CompositePermission(childPerm);
-                buildChildren((CompositePermission) childNode, childPerm.getId());
-            } else {
-                childNode = new LeafPermission(childPerm);
+    /**
+     * 迭代构建子节点：每个权限ID只展开一次（防御重复ID造成的循环）
+     */
+    private void buildChildren(TenantTree tree, CompositePermission rootNode, Integer rootId) {
+        Map<Integer, List<Permission>> permissionGroupByParentId = tree.permissionGroupByParentId;
+        Set<Integer> expandedIds = new HashSet<>();
+        Deque<CompositePermission> nodeStack = new ArrayDeque<>();
+        Deque<Integer> idStack = new ArrayDeque<>();
+        nodeStack.push(rootNode);
+        idStack.push(rootId);
+        while (!nodeStack.isEmpty()) {
+            CompositePermission parentNode = nodeStack.pop();
+            Integer parentId = idStack.pop();
+            List<Permission> childPermissions = permissionGroupByParentId.get(parentId);
+            if (childPermissions == null || childPermissions.isEmpty() || !expandedIds.add(parentId)) {
+                continue;
+            }
+            for (Permission childPerm : childPermissions) {
+                IPermissionComponent childNode;
+                boolean hasGrandChildren = permissionGroupByParentId.containsKey(childPerm.getId())
+                        && !permissionGroupByParentId.get(childPerm.getId()).isEmpty();
+
+                if (hasGrandChildren) {
+                    childNode = new CompositePermission(childPerm);
+                    nodeStack.push((CompositePermission) childNode);
+                    idStack.push(childPerm.getId());
+                } else {
+                    childNode = new LeafPermission(childPerm);
+                }
+                // 子节点按原顺序挂到父节点（展开顺序不影响子节点顺序）
+                parentNode.addChild(childNode);
             }
-            childNode.setParent(parentNode);
-            parentNode.addChild(childNode);
         }
     }
 
     /**
-     * 对外提供：获取权限树的根节点
+     * 对外提供：获取租户权限树的根节点（租户没有权限数据时为null）
      */
-    public IPermissionComponent getRoot() {
-        return this.root;
+    public IPermissionComponent getRoot(Integer tenantId) {
+        return tree(tenantId).root;
     }
 
     /**
-     * 对外提供：遍历权限树（测试用）
+     * 对外提供：租户最近一次加载权限数据时的parent_id关系校验报告
      */
-    public void traverseTree(IPermissionComponent node, int level) {
-        StringBuilder indent = new StringBuilder();
-        for (int i = 0; i < level; i++) {
-            indent.append("  ");
-        }
+    public PermissionGraphReport getGraphReport(Integer tenantId) {
+        return tree(tenantId).graphReport;
+    }
 
-        String nodeType = node instanceof LeafPermission ? "[叶子节点]" : "[复合节点]";
-        System.out.println(indent + nodeType + " " + node.getPermissionName() + "(" + node.getPermissionCode() + ")");
+    /**
+     * 对外提供：获取租户当前权限树的稠密编号索引
+     */
+    public PermissionIndex getPermissionIndex(Integer tenantId) {
+        return tree(tenantId).permissionIndex;
+    }
 
-        List<IPermissionComponent> children = node.getChildren();
-        if (!children.isEmpty()) {
-            for (IPermissionComponent child : children) {
-                traverseTree(child, level + 1);
-            }
-        }
+    /**
+     * 对外提供：租户已加载时返回其当前索引，未加载返回null（不触发加载，不刷新访问时间；供缓存校验引用是否过期）
+     */
+    public PermissionIndex peekPermissionIndex(Integer tenantId) {
+        TenantTree tree = trees.get(Tenant.idOrDefault(tenantId));
+        return tree == null ? null : tree.permissionIndex;
     }
 
-    // 递归查找节点
-    private IPermissionComponent findNodeRecursive(IPermissionComponent node, String targetCode) {
-        if (node.getPermissionCode().equals(targetCode)) {
-            return node;
-        }
-        for (IPermissionComponent child : node.getChildren()) {
-            IPermissionComponent found = findNodeRecursive(child, targetCode);
-            if (found != null) {
-                return found;
+    /**
+     * 对外提供：当前已加载权限树的租户ID（升序）
+     */
+    public Set<Integer> getLoadedTenantIds() {
+        return new TreeSet<>(trees.keySet());
+    }
+
+    /**
+     * 对外提供：遍历权限树（测试用）
+     */
+    public void traverseTree(IPermissionComponent node, int level) {
+        PermissionTreeWalker.preOrder(node, (current, depth) -> {
+            StringBuilder indent = new StringBuilder();
+            for (int i = 0; i < level + depth; i++) {
+                indent.append("  ");
             }
-        }
-        return null;
+            String nodeType = current instanceof LeafPermission ? "[叶子节点]" : "[复合节点]";
+            System.out.println(indent + nodeType + " " + current.getPermissionName() + "(" + current.getPermissionCode() + ")");
+        });
     }
 
-    // 动态添加节点
-    public IPermissionComponent addNode(String parentCode, Permission newPerm) {
-        if (permissionMap.values().stream().anyMatch(p -> p.getCode().equals(newPerm.getCode()))) {
-            System.out.println("⚠️ 权限编码「" + newPerm.getCode() + "」已存在，跳过插入");
-            Permission existPerm = permissionMap.values().stream()
-                    .filter(p -> p.getCode().equals(newPerm.getCode()))
-                    .findFirst().get();
-            return findNodeRecursive(root, existPerm.getCode());
-        }
+    // 查找节点（迭代先序遍历）
+    private IPermissionComponent findNode(IPermissionComponent node, String targetCode) {
+        return node == null ? null
+                : PermissionTreeWalker.findFirst(node, current -> current.getPermissionCode().equals(targetCode));
+    }
 
-        IPermissionComponent parentNode = findNodeRecursive(root, parentCode);
-        if (parentNode == null || !(parentNode instanceof CompositePermission)) {
-            throw new IllegalArgumentException("父节点不存在或不是复合节点！");
-        }
+    // 动态添加节点（新权限归属该租户）
+    public IPermissionComponent addNode(Integer tenantId, String parentCode, Permission newPerm) {
+        TenantTree tree = tree(tenantId);
+        synchronized (tree) {
+            Map<Integer, Permission> permissionMap = tree.permissionMap;
+            if (permissionMap.values().stream().anyMatch(p -> p.getCode().equals(newPerm.getCode()))) {
+                System.out.println("⚠️ 权限编码「" + newPerm.getCode() + "」已存在，跳过插入");
+                Permission existPerm = permissionMap.values().stream()
+                        .filter(p -> p.getCode().equals(newPerm.getCode()))
+                        .findFirst().get();
+                return findNode(tree.root, existPerm.getCode());
+            }
 
-        IPermissionComponent newNode;
-        boolean hasChildren = permissionGroupByParentId.containsKey(newPerm.getId())
-                && !permissionGroupByParentId.get(newPerm.getId()).isEmpty();
-        if (hasChildren) {
-            newNode = new CompositePermission(newPerm);
-        } else {
-            newNode = new LeafPermission(newPerm);
-        }
+            IPermissionComponent parentNode = findNode(tree.root, parentCode);
+            if (parentNode == null || !(parentNode instanceof CompositePermission)) {
+                throw new IllegalArgumentException("父节点不存在或不是复合节点！");
+            }
 
-        newNode.setParent(parentNode);
-        ((CompositePermission) parentNode).addChild(newNode);
-        permissionDAO.insertPermission(newPerm);
-        permissionMap.put(newPerm.getId(), newPerm);
+            IPermissionComponent newNode;
+            boolean hasChildren = tree.permissionGroupByParentId.containsKey(newPerm.getId())
+                    && !tree.permissionGroupByParentId.get(newPerm.getId()).isEmpty();
+            if (hasChildren) {
+                newNode = new CompositePermission(newPerm);
+            } else {
+                newNode = new LeafPermission(newPerm);
+            }
 
-        Integer parentId = newPerm.getParentId() == 0 ? -1 : newPerm.getParentId();
-        if (parentId == null) {
-            parentId = -1;
-        }
-        permissionGroupByParentId.computeIfAbsent(parentId, k -> new ArrayList<>()).add(newPerm);
+            newPerm.setTenantId(tree.tenantId);
+            newNode.setParent(parentNode);
+            ((CompositePermission) parentNode).addChild(newNode);
+            permissionDAO.insertPermission(newPerm);
+            permissionMap.put(newPerm.getId(), newPerm);
 
-        return newNode;
+            Integer parentId = newPerm.getParentId() == 0 ? -1 : newPerm.getParentId();
+            if (parentId == null) {
+                parentId = -1;
+            }
+            tree.permissionGroupByParentId.computeIfAbsent(parentId, k -> new ArrayList<>()).add(newPerm);
+            refreshIndex(tree, true);
+
+            return newNode;
+        }
     }
 
     // 动态删除节点
-    public void deleteNode(String nodeCode) {
-        IPermissionComponent node = findNodeRecursive(root, nodeCode);
-        if (node == null) {
-            throw new IllegalArgumentException("节点不存在！");
-        }
+    public void deleteNode(Integer tenantId, String nodeCode) {
+        TenantTree tree = tree(tenantId);
+        synchronized (tree) {
+            IPermissionComponent node = findNode(tree.root, nodeCode);
+            if (node == null) {
+                throw new IllegalArgumentException("节点不存在！");
+            }
 
-        IPermissionComponent parent = node.getParent();
-        if (parent != null && parent instanceof CompositePermission) {
-            ((CompositePermission) parent).removeChild(node);
-        }
+            IPermissionComponent parent = node.getParent();
+            if (parent != null && parent instanceof CompositePermission) {
+                ((CompositePermission) parent).removeChild(node);
+            }
 
-        Permission perm = (node instanceof LeafPermission)
-                ? ((LeafPermission) node).getPermission()
-                : ((CompositePermission) node).getPermission();
-        permissionDAO.deletePermissionById(perm.getId());
-        permissionMap.remove(perm.getId());
+            Permission perm = (node instanceof LeafPermission)
+                    ? ((LeafPermission) node).getPermission()
+                    : ((CompositePermission) node).getPermission();
+            permissionDAO.deletePermissionById(perm.getId());
+            tree.permissionMap.remove(perm.getId());
 
-        Integer parentId = perm.getParentId() == 0 ? -1 : perm.getParentId();
-        if (parentId == null) {
-            parentId = -1;
+            Integer parentId = perm.getParentId() == 0 ? -1 : perm.getParentId();
+            if (parentId == null) {
+                parentId = -1;
+            }
+            tree.permissionGroupByParentId.get(parentId).remove(perm);
+            refreshIndex(tree, true);
         }
-        permissionGroupByParentId.get(parentId).remove(perm);
     }
 
     // 动态移动节点
-    public void moveNode(String nodeCode, String newParentCode) {
-        IPermissionComponent node = findNodeRecursive(root, nodeCode);
-        IPermissionComponent newParent = findNodeRecursive(root, newParentCode);
-        if (node == null || newParent == null || !(newParent instanceof CompositePermission)) {
-            throw new IllegalArgumentException("节点/新父节点不存在！");
-        }
+    public void moveNode(Integer tenantId, String nodeCode, String newParentCode) {
+        TenantTree tree = tree(tenantId);
+        synchronized (tree) {
+            IPermissionComponent node = findNode(tree.root, nodeCode);
+            IPermissionComponent newParent = findNode(tree.root, newParentCode);
+            if (node == null || newParent == null || !(newParent instanceof CompositePermission)) {
+                throw new IllegalArgumentException("节点/新父节点不存在！");
+            }
+            // 新父节点不能是节点自身或其子孙（否则形成循环引用）
+            for (IPermissionComponent ancestor = newParent; ancestor != null; ancestor = ancestor.getParent()) {
+                if (ancestor == node) {
+                    throw new IllegalArgumentException("不能把节点移动到自身或其子节点下！");
+                }
+            }
 
-        IPermissionComponent oldParent = node.getParent();
-        if (oldParent != null && oldParent instanceof CompositePermission) {
-            ((CompositePermission) oldParent).removeChild(node);
-        }
+            IPermissionComponent oldParent = node.getParent();
+            if (oldParent != null && oldParent instanceof CompositePermission) {
+                ((CompositePermission) oldParent).removeChild(node);
+            }
 
-        node.setParent(newParent);
-        ((CompositePermission) newParent).addChild(node);
+            node.setParent(newParent);
+            ((CompositePermission) newParent).addChild(node);
 
-        Permission perm = (node instanceof LeafPermission)
-                ? ((LeafPermission) node).getPermission()
-                : ((CompositePermission) node).getPermission();
-        perm.setParentId(((CompositePermission) newParent).getPermission().getId());
-        permissionDAO.updatePermission(perm);
+            Permission perm = (node instanceof LeafPermission)
+                    ? ((LeafPermission) node).getPermission()
+                    : ((CompositePermission) node).getPermission();
+            perm.setParentId(((CompositePermission) newParent).getPermission().getId());
+            permissionDAO.updatePermission(perm);
 
-        Integer oldParentId = perm.getParentId() == 0 ? -1 : perm.getParentId();
-        if (oldParentId == null) {
-            oldParentId = -1;
+            Integer oldParentId = perm.getParentId() == 0 ? -1 : perm.getParentId();
+            if (oldParentId == null) {
+                oldParentId = -1;
+            }
+            tree.permissionGroupByParentId.get(oldParentId).remove(perm);
+
+            Integer newParentId = ((CompositePermission) newParent).getPermission().getId();
+            tree.permissionGroupByParentId.computeIfAbsent(newParentId, k -> new ArrayList<>()).add(perm);
+            refreshIndex(tree, true);
         }
-        permissionGroupByParentId.get(oldParentId).remove(perm);
+    }
 
-        Integer newParentId = ((CompositePermission) newParent).getPermission().getId();
-        permissionGroupByParentId.computeIfAbsent(newParentId, k -> new ArrayList<>()).add(perm);
+    /**
+     * 权限写库后重建租户的权限树：在事务中时推迟到事务结束（提交或回滚）后按数据库现状重建，
+     * 其它线程看不到未提交的权限，回滚后也不会残留已撤销的节点
+     */
+    public void resetTreeAfterWrite(Integer tenantId) {
+        Integer id = Tenant.idOrDefault(tenantId);
+        Set<Integer> pending = pendingResets.get();
+        if (pending.contains(id)) {
+            return;
+        }
+        boolean deferred = DBHelper.getInstance().afterCompletion(() -> {
+            pendingResets.get().remove(id);
+            resetTree(id);
+        });
+        if (deferred) {
+            pending.add(id);
+        } else {
+            resetTree(id);
+        }
     }
 
     /**
-     * 核心：重置权限树（增删改后同步更新）
+     * 核心：重置租户的权限树（该租户权限增删改后同步更新，其他租户不受影响）
+     * 租户当前未加载时无需重建，下次访问时按需加载的就是最新数据
      */
-    public synchronized void resetTree() {
-        loadAllPermissions();
-        buildTree();
-        System.out.println("✅ 权限树已重置更新");
+    public void resetTree(Integer tenantId) {
+        TenantTree tree = trees.get(Tenant.idOrDefault(tenantId));
+        if (tree == null) {
+            return;
+        }
+        synchronized (tree) {
+            long treeVersion = permissionDAO.selectTreeVersion(tree.tenantId);
+            loadAllPermissions(tree);
+            buildTree(tree, true);
+            writeSnapshot(tree, treeVersion);
+        }
+        System.out.println("✅ 租户" + tree.tenantId + "的权限树已重置更新");
     }
-}
\ No newline at end of file
+}
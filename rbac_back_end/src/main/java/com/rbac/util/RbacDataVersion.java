@@ -0,0 +1,47 @@
+package com.rbac.util;
+
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeListener;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RBAC数据版本号：任何写操作完成后递增，用于判断按版本缓存的查询结果是否仍然有效
+ * 递增来源：1. 业务层每个写操作执行结束（无论成败，失败也可能已部分写入）
+ * 2. RBAC变更事件（限时角色生效/到期等不经过业务层的变更）
+ * 3. 事务结束（提交或回滚）
+ * 读取方须在查询数据库之前读取版本号：查询期间有写入时版本号已变，按旧版本存入的结果不会再被命中
+ */
+@Component
+public class RbacDataVersion implements RbacChangeListener {
+    private final AtomicLong version = new AtomicLong();
+
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+
+    @PostConstruct
+    public void subscribe() {
+        rbacChangeBus.register(this);
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 数据已变更（须在写入之后调用；在事务中时事务结束后再递增一次，事务期间按旧数据缓存的结果随之失效）
+     */
+    public void bump() {
+        version.incrementAndGet();
+        DBHelper.getInstance().afterCompletion(version::incrementAndGet);
+    }
+
+    @Override
+    public void onChange(RbacChangeEvent event) {
+        bump();
+    }
+}
@@ -0,0 +1,91 @@
+package com.rbac.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 预序列化响应的LRU缓存：键 → JSON文本，按占用内存（估算）限制总量，超出时淘汰最久未访问的条目
+ * 单个条目超过总量的1/8时不缓存，避免一个大结果把其余条目全部挤出
+ * 读写都在同一把锁内完成（访问顺序的LinkedHashMap在get时也会调整链表），临界区只有几次指针操作
+ * @param <K> 键类型（需实现equals/hashCode）
+ */
+public final class ResponseCache<K> {
+    // 每个条目的固定开销估算（键、链表节点、String对象头）
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<K, String> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long usedBytes;
+    private long hits;
+    private long misses;
+
+    public ResponseCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("响应缓存容量须大于0：" + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 查询缓存
+     * @return 缓存的JSON文本；未命中返回null
+     */
+    public synchronized String get(K key) {
+        String json = entries.get(key);
+        if (json == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return json;
+    }
+
+    /**
+     * 存入缓存（已存在则替换），超出容量时按LRU淘汰
+     * @return 是否存入（条目过大时不存）
+     */
+    public synchronized boolean put(K key, String json) {
+        long size = sizeOf(json);
+        if (size > maxBytes / 8) {
+            return false;
+        }
+        String previous = entries.put(key, json);
+        if (previous != null) {
+            usedBytes -= sizeOf(previous);
+        }
+        usedBytes += size;
+        Iterator<Map.Entry<K, String>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= sizeOf(eldest.next().getValue());
+            eldest.remove();
+        }
+        return true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized long hitCount() {
+        return hits;
+    }
+
+    public synchronized long missCount() {
+        return misses;
+    }
+
+    // 按每字符2字节估算（含中文的结果以UTF-16存储）
+    private static long sizeOf(String json) {
+        return ENTRY_OVERHEAD_BYTES + 2L * json.length();
+    }
+}
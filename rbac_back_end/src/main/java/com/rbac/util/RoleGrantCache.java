@@ -0,0 +1,397 @@
+package com.rbac.util;
+
+import com.rbac.model.entity.Tenant;
+import com.rbac.service.component.IPermissionComponent;
+import com.rbac.service.component.PermissionGrantSet;
+import com.rbac.service.component.PermissionIndex;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeListener;
+import com.rbac.service.event.RbacChangeType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 角色级权限结构缓存：每个角色只编译一次授权位图，同角色的所有用户共享同一份不可变结构
+ * 角色继承：角色的有效权限 = 直接分配的权限 ∪ 各父角色的有效权限（父角色结构同样缓存，继承闭包只算一次）
+ * 拒绝授权：与允许授权一起编译进同一份位图，拒绝优先；父角色的拒绝同样被子角色继承
+ * 多角色用户：各角色位图按位或得到组合结构，按角色组合缓存，拥有相同角色组合的用户共享；任一角色拒绝即拒绝
+ * 版本规则：角色授权变更 → 角色版本号递增；权限树重建 → 权限索引变化，两者任一变化即视为过期
+ * 角色授权变更/角色删除/权限树变更由RBAC变更事件总线通知（父角色变更时RoleService会逐个通知其子孙角色）
+ * 多租户：按租户分区（角色只属于一个租户，基于该租户的权限索引编译），租户权限树变更只清空该租户分区，租户卸载时释放分区
+ */
+@Component
+public class RoleGrantCache implements RbacChangeListener {
+    // 租户ID → 该租户的角色结构分区
+    private final Map<Integer, Partition> partitions = new ConcurrentHashMap<>();
+    // 角色ID → 角色授权版本号（角色ID全局唯一，不分区）
+    private final Map<Integer, AtomicLong> roleVersions = new ConcurrentHashMap<>();
+    // 单个租户最多缓存的角色组合数（实际组合数通常远小于用户数，超出则整体清空）
+    private static final int MAX_COMBINATIONS = 4096;
+
+    /**
+     * 单个租户的角色结构分区
+     */
+    private static final class Partition {
+        // 角色ID → 共享的角色权限结构
+        final Map<Integer, RoleGrants> roleGrantsMap = new ConcurrentHashMap<>();
+        // 角色组合 → 组合结构（多角色用户共享）
+        final Map<RoleSet, RoleGrants> combinationMap = new ConcurrentHashMap<>();
+        // 未分配角色的用户共享的空结构（随权限索引更新）
+        volatile RoleGrants noRoleGrants;
+    }
+
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+    @Resource
+    private RoleHierarchyCache roleHierarchyCache;
+
+    public RoleGrantCache() {
+    }
+
+    /**
+     * 直接指定角色继承关系（不依赖Spring，测试用）
+     */
+    RoleGrantCache(RoleHierarchyCache roleHierarchyCache) {
+        this.roleHierarchyCache = roleHierarchyCache;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        rbacChangeBus.register(this);
+    }
+
+    @Override
+    public boolean supports(RbacChangeType type) {
+        // 用户级变更不影响角色结构
+        return !RbacChangeEvent.isUserScoped(type);
+    }
+
+    @Override
+    public void onChange(RbacChangeEvent event) {
+        if (event.isTenantScoped()) {
+            if (event.getChangeType() == RbacChangeType.TENANT_UNLOADED) {
+                partitions.remove(event.getTenantId());
+            } else {
+                invalidateTenant(event.getTenantId());
+            }
+        } else if (event.isRoleScoped()) {
+            invalidateRole(event.getRoleId());
+        } else {
+            invalidateAll();
+        }
+    }
+
+    private Partition partition(Integer tenantId) {
+        return partitions.computeIfAbsent(Tenant.idOrDefault(tenantId), k -> new Partition());
+    }
+
+    /**
+     * 角色权限加载器：根据角色ID加载其直接分配的权限编码
+     */
+    @FunctionalInterface
+    public interface RoleCodesLoader {
+        Set<String> loadAssignedCodes(Integer roleId);
+
+        /**
+         * 加载角色直接拒绝的权限编码（默认没有拒绝授权）
+         */
+        default Set<String> loadDeniedCodes(Integer roleId) {
+            return Collections.emptySet();
+        }
+    }
+
+    /**
+     * 获取角色的共享权限结构（缓存未命中或过期时编译一次）
+     * @param tenantId 角色所属租户ID
+     * @param roleId 角色ID
+     * @param index 该租户当前的权限索引
+     * @param loader 角色权限加载器
+     */
+    public RoleGrants getRoleGrants(Integer tenantId, Integer roleId, PermissionIndex index, RoleCodesLoader loader) {
+        if (roleId == null) {
+            return getNoRoleGrants(tenantId, index);
+        }
+        Partition partition = partition(tenantId);
+        RoleGrants cached = partition.roleGrantsMap.get(roleId);
+        if (cached != null && isCurrent(cached, index)) {
+            return cached;
+        }
+        // 先记录版本号再加载，加载期间若角色授权（或任一祖先角色）被修改，则本次结果不写入缓存
+        long version = versionOf(roleId);
+        Set<String> assignedCodes = new HashSet<>(loader.loadAssignedCodes(roleId));
+        Set<String> deniedCodes = new HashSet<>(loader.loadDeniedCodes(roleId));
+        // 合并父角色的有效权限及拒绝（继承关系无环，递归深度即继承层数）
+        for (Integer parentId : roleHierarchyCache.current().parentsOf(roleId)) {
+            RoleGrants parent = getRoleGrants(tenantId, parentId, index, loader);
+            assignedCodes.addAll(parent.getAssignedCodes());
+            deniedCodes.addAll(parent.getDeniedCodes());
+        }
+        RoleGrants fresh = new RoleGrants(Tenant.idOrDefault(tenantId), new int[]{roleId}, new long[]{version},
+                assignedCodes, deniedCodes, index.compileGrants(assignedCodes, deniedCodes));
+        // 事务中（批量请求）加载的可能是本事务未提交的授权和继承关系，只供本次使用，不写入其它用户共享的缓存
+        if (versionOf(roleId) == version && !DBHelper.getInstance().inTransaction()) {
+            partition.roleGrantsMap.put(roleId, fresh);
+        }
+        return fresh;
+    }
+
+    /**
+     * 获取多个角色的组合结构：各角色位图按位或，按角色组合缓存
+     * 0个角色返回空结构，1个角色直接返回角色结构，因此单角色用户没有额外开销
+     * @param tenantId 用户所属租户ID
+     * @param roleIds 用户的全部角色ID
+     * @param index 该租户当前的权限索引
+     * @param loader 角色权限加载器
+     */
+    public RoleGrants getCombinedGrants(Integer tenantId, int[] roleIds, PermissionIndex index, RoleCodesLoader loader) {
+        int[] sorted = roleIds == null ? new int[0] : Arrays.stream(roleIds).distinct().sorted().toArray();
+        if (sorted.length == 0) {
+            return getNoRoleGrants(tenantId, index);
+        }
+        if (sorted.length == 1) {
+            return getRoleGrants(tenantId, sorted[0], index, loader);
+        }
+        Partition partition = partition(tenantId);
+        RoleSet key = new RoleSet(sorted);
+        RoleGrants cached = partition.combinationMap.get(key);
+        if (cached != null && isCurrent(cached, index)) {
+            return cached;
+        }
+        // 组合结构的版本号取自各角色结构：任一角色在此期间变更，组合结构即不是最新，不写入缓存
+        long[] versions = new long[sorted.length];
+        Set<String> assignedCodes = new HashSet<>();
+        Set<String> deniedCodes = new HashSet<>();
+        List<PermissionGrantSet> parts = new ArrayList<>(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            RoleGrants part = getRoleGrants(tenantId, sorted[i], index, loader);
+            versions[i] = part.versions[0];
+            assignedCodes.addAll(part.assignedCodes);
+            deniedCodes.addAll(part.deniedCodes);
+            parts.add(part.grants);
+        }
+        RoleGrants combined = new RoleGrants(Tenant.idOrDefault(tenantId), sorted, versions, assignedCodes, deniedCodes,
+                PermissionGrantSet.unionOf(index, parts));
+        if (isCurrent(combined, index) && !DBHelper.getInstance().inTransaction()) {
+            if (partition.combinationMap.size() >= MAX_COMBINATIONS) {
+                partition.combinationMap.clear();
+            }
+            partition.combinationMap.put(key, combined);
+        }
+        return combined;
+    }
+
+    /**
+     * 未分配角色用户的空结构
+     */
+    public RoleGrants getNoRoleGrants(Integer tenantId, PermissionIndex index) {
+        Partition partition = partition(tenantId);
+        RoleGrants current = partition.noRoleGrants;
+        if (current == null || !current.grants.isCompiledAgainst(index)) {
+            current = new RoleGrants(Tenant.idOrDefault(tenantId), new int[0], new long[0],
+                    Collections.emptySet(), Collections.emptySet(), PermissionGrantSet.empty(index));
+            partition.noRoleGrants = current;
+        }
+        return current;
+    }
+
+    /**
+     * 判断结构是否仍有效（所含角色的版本均未变 + 基于当前权限索引编译）
+     */
+    public boolean isCurrent(RoleGrants roleGrants, PermissionIndex index) {
+        if (roleGrants == null || !roleGrants.grants.isCompiledAgainst(index)) {
+            return false;
+        }
+        for (int i = 0; i < roleGrants.roleIds.length; i++) {
+            if (roleGrants.versions[i] != versionOf(roleGrants.roleIds[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 角色授权变更时调用：递增版本号并移除缓存
+     */
+    public void invalidateRole(Integer roleId) {
+        if (roleId == null) {
+            return;
+        }
+        roleVersions.computeIfAbsent(roleId, k -> new AtomicLong()).incrementAndGet();
+        for (Partition partition : partitions.values()) {
+            partition.roleGrantsMap.remove(roleId);
+            partition.combinationMap.values().removeIf(combined -> combined.containsRole(roleId));
+        }
+    }
+
+    /**
+     * 清空指定租户的角色结构（该租户权限树重建时用，其他租户不受影响）
+     */
+    public void invalidateTenant(Integer tenantId) {
+        Partition partition = partitions.get(Tenant.idOrDefault(tenantId));
+        if (partition == null) {
+            return;
+        }
+        for (Integer roleId : partition.roleGrantsMap.keySet()) {
+            roleVersions.computeIfAbsent(roleId, k -> new AtomicLong()).incrementAndGet();
+            partition.roleGrantsMap.remove(roleId);
+        }
+        partition.combinationMap.clear();
+    }
+
+    /**
+     * 清空所有角色结构（系统刷新时用）
+     */
+    public void invalidateAll() {
+        for (Integer tenantId : partitions.keySet()) {
+            invalidateTenant(tenantId);
+        }
+    }
+
+    /**
+     * 当前缓存的角色结构数量（全部租户）
+     */
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions.values()) {
+            size += partition.roleGrantsMap.size();
+        }
+        return size;
+    }
+
+    /**
+     * 当前持有分区的租户数
+     */
+    public int tenantCount() {
+        return partitions.size();
+    }
+
+    private long versionOf(Integer roleId) {
+        AtomicLong version = roleVersions.get(roleId);
+        return version == null ? 0L : version.get();
+    }
+
+    /**
+     * 角色组合键（角色ID升序）
+     */
+    private static final class RoleSet {
+        private final int[] roleIds;
+        private final int hash;
+
+        RoleSet(int[] roleIds) {
+            this.roleIds = roleIds;
+            this.hash = Arrays.hashCode(roleIds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RoleSet && Arrays.equals(roleIds, ((RoleSet) o).roleIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 角色（或角色组合）的共享权限结构（不可变；权限树形式按需构建一次后同样共享）
+     */
+    public static final class RoleGrants {
+        // 所属租户ID（结构基于该租户的权限索引编译）
+        private final int tenantId;
+        // 所含角色ID（升序，未分配角色时为空）及编译时各角色的版本号
+        private final int[] roleIds;
+        private final long[] versions;
+        private final Set<String> assignedCodes;
+        private final Set<String> deniedCodes;
+        private final PermissionGrantSet grants;
+        private volatile IPermissionComponent sharedTree;
+
+        RoleGrants(int tenantId, int[] roleIds, long[] versions, Set<String> assignedCodes, Set<String> deniedCodes,
+                   PermissionGrantSet grants) {
+            this.tenantId = tenantId;
+            this.roleIds = roleIds;
+            this.versions = versions;
+            this.assignedCodes = Collections.unmodifiableSet(assignedCodes);
+            this.deniedCodes = Collections.unmodifiableSet(deniedCodes);
+            this.grants = grants;
+        }
+
+        /**
+         * 获取该角色共享的权限树（首次调用时构建，之后所有用户复用，调用方不得修改）
+         */
+        public IPermissionComponent getOrBuildTree(Function<RoleGrants, IPermissionComponent> treeBuilder) {
+            IPermissionComponent tree = sharedTree;
+            if (tree == null) {
+                synchronized (this) {
+                    tree = sharedTree;
+                    if (tree == null) {
+                        tree = treeBuilder.apply(this);
+                        sharedTree = tree;
+                    }
+                }
+            }
+            return tree;
+        }
+
+        /**
+         * 所属租户ID
+         */
+        public int getTenantId() {
+            return tenantId;
+        }
+
+        /**
+         * 所含角色ID（升序副本）
+         */
+        public int[] getRoleIds() {
+            return roleIds.clone();
+        }
+
+        /**
+         * 是否包含指定角色（该角色变更时本结构随之过期）
+         */
+        public boolean containsRole(Integer roleId) {
+            if (roleId == null) {
+                return false;
+            }
+            for (int id : roleIds) {
+                if (id == roleId) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 角色的有效权限编码（直接分配 + 继承自祖先角色）
+         */
+        public Set<String> getAssignedCodes() {
+            return assignedCodes;
+        }
+
+        /**
+         * 角色拒绝的权限编码（直接拒绝 + 继承自祖先角色）
+         */
+        public Set<String> getDeniedCodes() {
+            return deniedCodes;
+        }
+
+        public PermissionGrantSet getGrants() {
+            return grants;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.rbac.util;
+
+import com.rbac.dao.DaoFactoryManager;
+import com.rbac.dao.RoleInheritanceDAO;
+import com.rbac.service.component.RoleHierarchy;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 角色继承关系缓存：启动时加载role_inheritance全表，之后由RoleService在写库成功后替换快照
+ * 读取方（角色权限编译、变更通知）只读取当前不可变快照，无需加锁
+ * 在事务中写入时（批量请求）新快照只对本线程可见，事务结束（提交或回滚）后按数据库现状重新加载，
+ * 其它线程看不到未提交的继承关系，回滚后也不会残留已撤销的关系
+ */
+@Slf4j
+@Component
+public class RoleHierarchyCache {
+    private volatile RoleHierarchy hierarchy = RoleHierarchy.EMPTY;
+    // 本线程事务中写入、尚未提交的快照
+    private final ThreadLocal<RoleHierarchy> pending = new ThreadLocal<>();
+    private final Supplier<RoleHierarchy> loader;
+
+    public RoleHierarchyCache() {
+        this.loader = () -> {
+            RoleInheritanceDAO roleInheritanceDAO = DaoFactoryManager.getDaoFactory().createRoleInheritanceDAO();
+            return RoleHierarchy.of(roleInheritanceDAO.selectAllRoleInheritances());
+        };
+    }
+
+    /**
+     * 指定加载方式（不依赖数据库，测试用）
+     */
+    RoleHierarchyCache(Supplier<RoleHierarchy> loader) {
+        this.loader = loader;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    /**
+     * 从数据库重新加载继承关系（数据库中存在环时忽略构成环的关系并告警）
+     */
+    public synchronized void reload() {
+        RoleHierarchy loaded = loader.get();
+        if (!loaded.getRejectedEdges().isEmpty()) {
+            log.warn("角色继承关系存在环，已忽略{}条关系", loaded.getRejectedEdges().size());
+        }
+        this.hierarchy = loaded;
+        log.info("角色继承关系加载完成：{}条", loaded.edgeCount());
+    }
+
+    /**
+     * 当前继承关系快照（本线程事务中有未提交的写入时返回写入后的快照）
+     */
+    public RoleHierarchy current() {
+        RoleHierarchy uncommitted = pending.get();
+        return uncommitted != null ? uncommitted : hierarchy;
+    }
+
+    /**
+     * 替换快照（写库成功后调用）
+     */
+    public void update(RoleHierarchy updated) {
+        update(updated, DBHelper.getInstance()::afterCompletion);
+    }
+
+    /**
+     * @param afterCompletion 登记事务结束后的回调，不在事务中时返回false
+     */
+    void update(RoleHierarchy updated, Predicate<Runnable> afterCompletion) {
+        if (pending.get() != null) {
+            // 本事务已登记过结束后的重新加载
+            pending.set(updated);
+            return;
+        }
+        if (afterCompletion.test(this::completeTransaction)) {
+            pending.set(updated);
+        } else {
+            this.hierarchy = updated;
+        }
+    }
+
+    private void completeTransaction() {
+        pending.remove();
+        reload();
+    }
+}
@@ -0,0 +1,62 @@
+package com.rbac.util;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 请求合并（single-flight）：同一个键同时只执行一次，执行期间到达的相同请求等待并共享这次的结果或异常
+ * 执行结束即移除，不缓存结果：之后到达的请求重新执行，读到的总是执行开始之后的数据
+ * @param <K> 键类型（需实现equals/hashCode）
+ */
+public final class SingleFlight<K> {
+    private final Map<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // 共享了他人执行结果的请求数（监控用）
+    private final LongAdder shared = new LongAdder();
+
+    /**
+     * 执行或加入正在进行的执行
+     * @param key 键
+     * @param loader 实际执行逻辑
+     * @return 执行结果（多个调用方拿到的是同一个对象，调用方不应修改）
+     * @throws Exception 执行逻辑抛出的异常（所有等待者收到同一个异常）
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(K key, Callable<V> loader) throws Exception {
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            shared.increment();
+            try {
+                return (V) existing.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+        try {
+            V value = loader.call();
+            mine.complete(value);
+            return value;
+        } catch (Throwable e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public long getSharedCount() {
+        return shared.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
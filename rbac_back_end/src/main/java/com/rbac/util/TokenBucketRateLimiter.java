@@ -0,0 +1,140 @@
+package com.rbac.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶限流器（GCRA实现：每个桶只有一个AtomicLong，表示"理论上桶重新装满的时刻"，取令牌 = 一次CAS）
+ * 1. 桶按键（调用方+操作）分散到多个分段，每段一个ConcurrentHashMap，取桶是无锁读
+ * 2. 桶已装满（理论时刻早于当前）即与新建的桶等价，可随时清除；清除由调用方定期触发，不占用请求线程
+ * 3. 时间由调用方传入（System.nanoTime()），便于测试
+ */
+public final class TokenBucketRateLimiter {
+    private static final int STRIPES = 16;
+
+    private final Map<Object, Bucket>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public TokenBucketRateLimiter() {
+        stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * 尝试取一个令牌
+     * @param key 桶的键（需实现equals/hashCode）
+     * @param policy 该键的限流策略（同一个键应始终使用同一策略）
+     * @param nowNanos 当前时间（System.nanoTime()）
+     * @return 0表示放行；大于0表示被限流，值为距下一个令牌可用的纳秒数
+     */
+    public long tryAcquire(Object key, Policy policy, long nowNanos) {
+        Map<Object, Bucket> stripe = stripeOf(key);
+        Bucket bucket = stripe.get(key);
+        if (bucket == null) {
+            bucket = stripe.computeIfAbsent(key, k -> new Bucket(nowNanos));
+        }
+        AtomicLong fullAt = bucket.fullAt;
+        while (true) {
+            long current = fullAt.get();
+            // 取一个令牌 = 装满时刻后移一个发放间隔；后移后超出"当前+容量×间隔"说明桶已空
+            long base = current - nowNanos < 0 ? nowNanos : current;
+            long next = base + policy.intervalNanos;
+            long overflow = next - nowNanos - policy.burstNanos;
+            if (overflow > 0) {
+                return overflow;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0L;
+            }
+        }
+    }
+
+    /**
+     * 清除已装满的桶（与新建的桶等价）
+     * 与取令牌并发时，被清除的桶上可能多记一次取用，之后新建的桶是满的，最多多放行一次，可以接受
+     * @param idleNanos 装满后至少再空闲这么久才清除（避免刚装满就被清除又被重建）
+     * @return 清除的桶数
+     */
+    public int evictIdle(long nowNanos, long idleNanos) {
+        int evicted = 0;
+        for (Map<Object, Bucket> stripe : stripes) {
+            int before = stripe.size();
+            stripe.values().removeIf(bucket -> nowNanos - bucket.fullAt.get() > idleNanos);
+            evicted += before - stripe.size();
+        }
+        return evicted;
+    }
+
+    /**
+     * 当前桶数
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Object, Bucket> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Map<Object, Bucket> stripeOf(Object key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static final class Bucket {
+        // 桶理论上重新装满的时刻（纳秒）；早于当前时间表示桶是满的
+        private final AtomicLong fullAt;
+
+        private Bucket(long nowNanos) {
+            this.fullAt = new AtomicLong(nowNanos);
+        }
+    }
+
+    /**
+     * 限流策略：桶容量（允许的突发请求数）+ 每秒补充的令牌数
+     */
+    public static final class Policy {
+        private final int capacity;
+        private final double permitsPerSecond;
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        public Policy(int capacity, double permitsPerSecond) {
+            if (capacity < 1 || !(permitsPerSecond > 0)) {
+                throw new IllegalArgumentException("限流策略不合法：容量须≥1，速率须>0");
+            }
+            this.capacity = capacity;
+            this.permitsPerSecond = permitsPerSecond;
+            this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+            this.burstNanos = intervalNanos * capacity;
+        }
+
+        /**
+         * 解析"容量/每秒令牌数"格式（如"5/0.2"）
+         */
+        public static Policy parse(String text) {
+            String[] parts = text.trim().split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("限流策略格式错误（需\"容量/每秒令牌数\"）：" + text);
+            }
+            return new Policy(Integer.parseInt(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        @Override
+        public String toString() {
+            return capacity + "/" + permitsPerSecond;
+        }
+    }
+}
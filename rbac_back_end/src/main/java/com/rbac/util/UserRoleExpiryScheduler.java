@@ -0,0 +1,180 @@
+package com.rbac.util;
+
+import com.rbac.dao.DaoFactory;
+import com.rbac.dao.DaoFactoryManager;
+import com.rbac.dao.UserDAO;
+import com.rbac.dao.UserRoleDAO;
+import com.rbac.model.entity.User;
+import com.rbac.model.entity.UserRole;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeListener;
+import com.rbac.service.event.RbacChangeType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限时角色调度：把user_roles中待生效/待到期的时间点登记到哈希时间轮，到点发布用户级变更事件
+ * 1. 启动时按valid_from/valid_until索引范围加载一次，之后只随用户角色变更事件增量重登记，不做周期性全表扫描
+ * 2. 到点时发布USER_ROLE_ACTIVATED/USER_ROLE_EXPIRED事件（事件总线记录日志），各级缓存失效该用户
+ * 3. 鉴权时DAO只读取当前有效的关联，时间轮只负责让缓存按时失效
+ */
+@Slf4j
+@Component
+public class UserRoleExpiryScheduler implements RbacChangeListener {
+    // 时间轮刻度1秒，4096个槽位（一圈约68分钟，更远的时间点按圈数登记）
+    private static final long TICK_MILLIS = 1000L;
+    private static final int TICKS_PER_WHEEL = 4096;
+
+    private UserRoleDAO userRoleDAO;
+    private UserDAO userDAO;
+
+    @Resource
+    private RbacChangeBus rbacChangeBus;
+
+    private final HashedTimingWheel wheel = new HashedTimingWheel(TICK_MILLIS, TICKS_PER_WHEEL, System.currentTimeMillis());
+    // 用户ID → 已登记的时间点（用户角色变更时整体取消后重新登记）
+    private final Map<Integer, List<HashedTimingWheel.Timeout>> timeoutsByUser = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    public void init() {
+        DaoFactory daoFactory = DaoFactoryManager.getDaoFactory();
+        this.userRoleDAO = daoFactory.createUserRoleDAO();
+        this.userDAO = daoFactory.createUserDAO();
+        rbacChangeBus.register(this);
+        loadPending();
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-role-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rbacChangeBus.unregister(this);
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean supports(RbacChangeType type) {
+        // 只关注用户角色变更/用户删除；自身发布的生效/到期事件不需要重新登记
+        return type == RbacChangeType.USER_ROLE_CHANGED || type == RbacChangeType.USER_DELETED;
+    }
+
+    @Override
+    public void onChange(RbacChangeEvent event) {
+        if (event.getUserId() != null) {
+            reschedule(event.getUserId());
+        }
+    }
+
+    /**
+     * 启动时登记全部待生效/待到期的时间点
+     */
+    private void loadPending() {
+        long now = System.currentTimeMillis();
+        List<UserRole> pending = userRoleDAO.selectPendingUserRoles(new Timestamp(now));
+        for (UserRole userRole : pending) {
+            schedule(userRole, now);
+        }
+        log.info("限时角色加载完成：{}条关联，登记{}个时间点", pending.size(), wheel.size());
+    }
+
+    /**
+     * 用户角色变更后取消该用户原有的时间点，按数据库中的当前关联重新登记
+     */
+    private void reschedule(Integer userId) {
+        List<HashedTimingWheel.Timeout> old = timeoutsByUser.remove(userId);
+        if (old != null) {
+            synchronized (old) {
+                for (HashedTimingWheel.Timeout timeout : old) {
+                    timeout.cancel();
+                }
+            }
+        }
+        long now = System.currentTimeMillis();
+        for (UserRole userRole : userRoleDAO.selectPendingUserRolesByUserId(userId, new Timestamp(now))) {
+            schedule(userRole, now);
+        }
+    }
+
+    private void schedule(UserRole userRole, long now) {
+        Timestamp validFrom = userRole.getValidFrom();
+        Timestamp validUntil = userRole.getValidUntil();
+        if (validFrom != null && validFrom.getTime() > now) {
+            register(userRole.getUserId(), userRole.getRoleId(), validFrom.getTime(), false);
+        }
+        if (validUntil != null && validUntil.getTime() > now) {
+            register(userRole.getUserId(), userRole.getRoleId(), validUntil.getTime(), true);
+        }
+    }
+
+    private void register(Integer userId, Integer roleId, long deadlineMillis, boolean expiry) {
+        HashedTimingWheel.Timeout[] holder = new HashedTimingWheel.Timeout[1];
+        holder[0] = wheel.schedule(() -> fire(userId, roleId, expiry, holder[0]), deadlineMillis);
+        List<HashedTimingWheel.Timeout> timeouts = timeoutsByUser.computeIfAbsent(userId, k -> new ArrayList<>(2));
+        synchronized (timeouts) {
+            timeouts.add(holder[0]);
+        }
+    }
+
+    /**
+     * 时间点到达：发布用户级变更事件，失效该用户的授权缓存
+     */
+    private void fire(Integer userId, Integer roleId, boolean expiry, HashedTimingWheel.Timeout timeout) {
+        List<HashedTimingWheel.Timeout> timeouts = timeoutsByUser.get(userId);
+        if (timeouts != null) {
+            synchronized (timeouts) {
+                timeouts.remove(timeout);
+                if (timeouts.isEmpty()) {
+                    timeoutsByUser.remove(userId, timeouts);
+                }
+            }
+        }
+        // 查不到用户（如数据库暂不可用）也必须发布事件：按用户ID失效的缓存照常失效，缺少用户名的由监听者扩大失效范围
+        User user = null;
+        try {
+            user = userDAO.selectUserById(userId);
+        } catch (RuntimeException e) {
+            log.error("限时角色{}：查询用户{}失败，按用户ID发布事件", expiry ? "到期" : "生效", userId, e);
+        }
+        String username = user == null ? null : user.getUsername();
+        Integer tenantId = user == null ? null : user.getTenantId();
+        rbacChangeBus.publish(expiry
+                ? RbacChangeEvent.userRoleExpired(tenantId, userId, username, roleId)
+                : RbacChangeEvent.userRoleActivated(tenantId, userId, username, roleId));
+    }
+
+    private void tick() {
+        try {
+            wheel.advanceTo(System.currentTimeMillis());
+        } catch (Exception e) {
+            // 单个任务异常不能终止定时线程
+            log.error("限时角色到期处理异常", e);
+        }
+    }
+
+    /**
+     * 当前登记的时间点数（监控用）
+     */
+    public int pendingCount() {
+        return wheel.size();
+    }
+}
@@ -0,0 +1,57 @@
+-- 权限树版本号：permissions表每次增删改后由PermissionDAO递增
+-- 启动时与本地权限树快照文件中的版本号比对，一致则直接加载快照，不再全表扫描permissions
+CREATE TABLE IF NOT EXISTS permission_tree_version (
+    id      TINYINT NOT NULL PRIMARY KEY,
+    version BIGINT  NOT NULL DEFAULT 0
+);
+INSERT IGNORE INTO permission_tree_version (id, version) VALUES (1, 0);
+
+-- 角色继承关系（DAG）：role_id继承parent_role_id的全部权限，可多继承
+-- 写入前在内存中做线性时间的环检测，角色有效权限按继承闭包预先编译
+CREATE TABLE IF NOT EXISTS role_inheritance (
+    role_id        INT NOT NULL,
+    parent_role_id INT NOT NULL,
+    PRIMARY KEY (role_id, parent_role_id),
+    KEY idx_parent_role_id (parent_role_id)
+);
+
+-- 角色授权的效果：0=允许，1=拒绝（拒绝优先，拒绝父权限即拒绝其整棵子树）
+-- 例如“system:user 除 system:user:delete 外全部允许”只需一条允许+一条拒绝，不必逐个展开子权限
+-- 已有库执行一次即可
+ALTER TABLE role_permissions
+    ADD COLUMN effect TINYINT NOT NULL DEFAULT 0 COMMENT '0=允许，1=拒绝';
+
+-- 限时角色（值班、审计等临时授权）：valid_from为空表示立即生效，valid_until为空表示永久有效
+-- 鉴权只读取当前有效的关联；待生效/待到期的关联启动时按索引范围加载到进程内时间轮，到点失效用户缓存，不做周期性全表扫描
+-- 已有库执行一次即可
+ALTER TABLE user_roles
+    ADD COLUMN valid_from  DATETIME NULL COMMENT '生效时间（空=立即生效）',
+    ADD COLUMN valid_until DATETIME NULL COMMENT '失效时间（空=永久有效）',
+    ADD KEY idx_valid_from (valid_from),
+    ADD KEY idx_valid_until (valid_until);
+
+-- 多租户：users/roles/permissions按tenant_id归属租户，存量数据归属默认租户（id=1）
+-- 每个租户的权限树、角色权限结构、授权决策缓存相互独立，按需加载、空闲后卸载
+-- 已有库执行一次即可
+CREATE TABLE IF NOT EXISTS tenants (
+    id         INT          NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+INSERT IGNORE INTO tenants (id, name) VALUES (1, '默认租户');
+
+ALTER TABLE users
+    ADD COLUMN tenant_id INT NOT NULL DEFAULT 1 COMMENT '所属租户',
+    ADD KEY idx_tenant_id (tenant_id);
+ALTER TABLE roles
+    ADD COLUMN tenant_id INT NOT NULL DEFAULT 1 COMMENT '所属租户',
+    ADD KEY idx_tenant_id (tenant_id);
+-- 权限编码改为租户内唯一（不同租户可以有同名编码）
+ALTER TABLE permissions
+    ADD COLUMN tenant_id INT NOT NULL DEFAULT 1 COMMENT '所属租户',
+    DROP INDEX code,
+    ADD UNIQUE KEY uk_tenant_code (tenant_id, code);
+
+-- 权限树版本号按租户记录：id即租户ID（原id=1的记录即默认租户），租户首次修改权限时自动插入
+ALTER TABLE permission_tree_version
+    MODIFY id INT NOT NULL COMMENT '租户ID';
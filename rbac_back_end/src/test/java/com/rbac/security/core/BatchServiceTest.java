@@ -0,0 +1,64 @@
+package com.rbac.security.core;
+
+import com.rbac.model.entity.User;
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import com.rbac.security.proxy.SecurityPipelines;
+import com.rbac.security.proxy.SecurityProxy;
+import com.rbac.security.proxy.impl.RateLimitProxy;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量请求条目责任链的单元测试（无需数据库：业务末端直接返回成功）
+ */
+public class BatchServiceTest {
+
+    // 测试方法：条目按自身操作的令牌桶限流，超过写操作突发容量（20）的条目被限流
+    @Test
+    public void testItemsAreRateLimitedPerOperation() {
+        RateLimitProxy rateLimitProxy = new RateLimitProxy();
+        rateLimitProxy.init();
+        try {
+            Map<ApiOperation.Stage, SecurityProxy> stageProxies = new EnumMap<>(ApiOperation.Stage.class);
+            for (ApiOperation.Stage stage : ApiOperation.Stage.values()) {
+                stageProxies.put(stage, (request, chain) -> chain.proceed(request));
+            }
+            stageProxies.put(ApiOperation.Stage.RATE_LIMIT, rateLimitProxy);
+            SecurityPipelines items = SecurityPipelines.compile(stageProxies,
+                    request -> new ApiResponse(true, "ok", null)).withStages(BatchService.ITEM_STAGES);
+
+            User user = new User();
+            user.setId(7);
+            int succeeded = 0;
+            int limited = 0;
+            for (int i = 0; i < 30; i++) {
+                ApiRequest item = new ApiRequest();
+                item.setPermCode(ApiOperation.USER_CREATE.getPermCode());
+                item.setUser(user);
+                ApiResponse response = items.proceed(item);
+                if (response.isSuccess()) {
+                    succeeded++;
+                } else if ("RATE_LIMITED".equals(response.getErrorCode())) {
+                    limited++;
+                }
+            }
+            // 突发容量20，执行期间最多补充个别令牌
+            assertTrue(succeeded >= 20 && succeeded <= 22, "成功条目数：" + succeeded);
+            assertEquals(30 - succeeded, limited);
+
+            // 其它操作的令牌桶不受影响
+            ApiRequest other = new ApiRequest();
+            other.setPermCode(ApiOperation.ROLE_CREATE.getPermCode());
+            other.setUser(user);
+            assertTrue(items.proceed(other).isSuccess());
+        } finally {
+            rateLimitProxy.shutdown();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.rbac.security.core;
+
+import com.rbac.model.entity.Permission;
+import com.rbac.model.entity.Role;
+import com.rbac.model.entity.User;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import com.rbac.security.model.param.PermissionEditParam;
+import com.rbac.security.model.param.RolePermissionParam;
+import com.rbac.security.model.param.UserIdParam;
+import com.rbac.service.PermissionService;
+import com.rbac.service.RoleService;
+import com.rbac.service.UserService;
+import com.rbac.util.RbacDataVersion;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 业务层租户隔离的单元测试（无需数据库：Service由内存桩代替）
+ * 租户1的管理员操作租户2的用户/角色/权限时，一律按不存在处理，不调用写方法
+ */
+public class RealBusinessServiceTest {
+    private static final int TENANT_A = 1;
+    private static final int TENANT_B = 2;
+
+    // 调用过的写方法
+    private final List<String> writes = new ArrayList<>();
+
+    private RealBusinessService service() {
+        Map<Integer, User> users = Map.of(7, user(7, TENANT_A), 8, user(8, TENANT_B));
+        Map<Integer, Role> roles = Map.of(2, role(2, TENANT_A), 3, role(3, TENANT_B));
+        // 租户1：1 → 4 → 5；租户2：9
+        Map<Integer, Permission> permissions = Map.of(
+                1, permission(1, "system", 0, TENANT_A),
+                4, permission(4, "system:user", 1, TENANT_A),
+                5, permission(5, "system:user:list", 4, TENANT_A),
+                9, permission(9, "crm", 0, TENANT_B));
+        UserService userService = stub(UserService.class, Map.of(
+                "getUserByUserId", args -> users.get((Integer) args[0]),
+                "updateUserPassword", args -> write("updateUserPassword")));
+        RoleService roleService = stub(RoleService.class, Map.of(
+                "getRoleById", args -> roles.get((Integer) args[0]),
+                "findConflictingPermissionIds", args -> List.of(),
+                "assignPermissionsToRole", args -> write("assignPermissionsToRole")));
+        PermissionService permissionService = stub(PermissionService.class, Map.of(
+                "getPermissionById", args -> permissions.get((Integer) args[0]),
+                "checkPermissionCodeExists", args -> false,
+                "updatePermission", args -> write("updatePermission")));
+        return new RealBusinessService(userService, roleService, permissionService, null, null, null, new RbacDataVersion());
+    }
+
+    private boolean write(String method) {
+        writes.add(method);
+        return true;
+    }
+
+    private static ApiResponse call(RealBusinessService service, String permCode, Object params) {
+        ApiRequest request = new ApiRequest();
+        request.setPermCode(permCode);
+        request.setParams(params);
+        request.setUser(user(1, TENANT_A));
+        return service.execute(request);
+    }
+
+    // 测试方法：其它租户的用户ID按不存在处理
+    @Test
+    public void testRejectsUserOfOtherTenant() {
+        RealBusinessService service = service();
+        ApiResponse response = call(service, "system:user:password", new UserIdParam(8));
+        assertFalse(response.isSuccess());
+        assertEquals("USER_NOT_EXIST", response.getErrorCode());
+        assertTrue(writes.isEmpty());
+
+        assertTrue(call(service, "system:user:password", new UserIdParam(7)).isSuccess());
+        assertEquals(List.of("updateUserPassword"), writes);
+    }
+
+    // 测试方法：其它租户的角色、权限ID按不存在处理
+    @Test
+    public void testRejectsRoleAndPermissionOfOtherTenant() {
+        RealBusinessService service = service();
+        assertEquals("ROLE_NOT_EXIST",
+                call(service, "system:role:permission", new RolePermissionParam(3, List.of(4))).getErrorCode());
+        assertEquals("PERMISSION_NOT_EXIST",
+                call(service, "system:role:permission", new RolePermissionParam(2, List.of(4, 9))).getErrorCode());
+        assertTrue(writes.isEmpty());
+
+        assertTrue(call(service, "system:role:permission", new RolePermissionParam(2, List.of(4, 5))).isSuccess());
+        assertEquals(List.of("assignPermissionsToRole"), writes);
+    }
+
+    // 测试方法：修改权限时父权限须在本租户，且不能是自身或其子孙
+    @Test
+    public void testEditPermissionValidatesParent() {
+        RealBusinessService service = service();
+        assertEquals("PERMISSION_NOT_EXIST", call(service, "system:permission:edit",
+                new PermissionEditParam(9, "crm", "crm", 0)).getErrorCode());
+        assertEquals("PERM_PARENT_NOT_EXIST", call(service, "system:permission:edit",
+                new PermissionEditParam(4, "用户管理", "system:user", 9)).getErrorCode());
+        assertEquals("PERM_PARENT_INVALID", call(service, "system:permission:edit",
+                new PermissionEditParam(4, "用户管理", "system:user", 4)).getErrorCode());
+        assertEquals("PERM_PARENT_INVALID", call(service, "system:permission:edit",
+                new PermissionEditParam(4, "用户管理", "system:user", 5)).getErrorCode());
+        assertTrue(writes.isEmpty());
+
+        assertTrue(call(service, "system:permission:edit", new PermissionEditParam(5, "用户列表", "system:user:list", 1)).isSuccess());
+        assertEquals(List.of("updatePermission"), writes);
+    }
+
+    private static User user(int id, int tenantId) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setTenantId(tenantId);
+        return user;
+    }
+
+    private static Role role(int id, int tenantId) {
+        Role role = new Role(id, "role" + id, null);
+        role.setTenantId(tenantId);
+        return role;
+    }
+
+    private static Permission permission(int id, String code, int parentId, int tenantId) {
+        Permission permission = new Permission(id, code, code, parentId);
+        permission.setTenantId(tenantId);
+        return permission;
+    }
+
+    /**
+     * 按方法名返回结果的接口桩（未提供的方法调用即失败）
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> handler = methods.get(method.getName());
+            if (handler == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return handler.apply(args);
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.rbac.security.core;
+
+import com.rbac.model.entity.User;
+import com.rbac.service.event.RbacChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TokenService的单元测试类：签发/校验往返、篡改与过期、用户变更后版本过期
+ */
+public class TokenServiceTest {
+    private static final long TTL = 60_000L;
+
+    private static User user(int id, String username, int tenantId) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername(username);
+        user.setTenantId(tenantId);
+        return user;
+    }
+
+    // 测试方法：签发的令牌可校验通过，声明与签发时一致
+    @Test
+    public void testIssueAndVerify() {
+        TokenService tokenService = new TokenService("test-secret", TTL);
+        String token = tokenService.issue(user(7, "alice|admin", 3), new int[]{2, 5}, 1_000L);
+
+        TokenService.Claims claims = tokenService.verify(token, 2_000L);
+        assertNotNull(claims);
+        assertEquals(Integer.valueOf(7), claims.getUserId());
+        assertEquals(Integer.valueOf(3), claims.getTenantId());
+        assertEquals("alice|admin", claims.getUsername());
+        assertArrayEquals(new int[]{2, 5}, claims.getRoleIds());
+        assertEquals(1_000L + TTL, claims.getExpiresAt());
+        assertTrue(tokenService.isCurrent(claims));
+        assertEquals("alice|admin", claims.toUser().getUsername());
+    }
+
+    // 测试方法：篡改载荷/签名、其它密钥签发、格式错误、过期的令牌一律拒绝
+    @Test
+    public void testRejectsTamperedAndExpired() {
+        TokenService tokenService = new TokenService("test-secret", TTL);
+        String token = tokenService.issue(user(7, "alice", 1), new int[]{2}, 1_000L);
+        int dot = token.indexOf('.');
+        String forgedPayload = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("1|1|1|0:0|99999999999999|admin".getBytes());
+
+        assertNull(tokenService.verify(forgedPayload + token.substring(dot), 2_000L));
+        assertNull(tokenService.verify(token.substring(0, dot + 1) + "AAAA", 2_000L));
+        assertNull(new TokenService("other-secret", TTL).verify(token, 2_000L));
+        assertNull(tokenService.verify("not-a-token", 2_000L));
+        assertNull(tokenService.verify(null, 2_000L));
+        assertNull(tokenService.verify(token, 1_000L + TTL));
+    }
+
+    // 测试方法：用户角色变更后已签发的令牌版本过期，重新签发的令牌为最新；其它用户不受影响
+    @Test
+    public void testUserChangeMakesTokenStale() {
+        TokenService tokenService = new TokenService("test-secret", TTL);
+        long now = System.currentTimeMillis();
+        TokenService.Claims alice = tokenService.verify(tokenService.issue(user(7, "alice", 1), new int[]{2}, now), now);
+        TokenService.Claims bob = tokenService.verify(tokenService.issue(user(8, "bob", 1), new int[]{2}, now), now);
+
+        tokenService.onChange(RbacChangeEvent.userRoleChanged(1, 7, "alice"));
+        assertFalse(tokenService.isCurrent(alice));
+        assertTrue(tokenService.isCurrent(bob));
+        // 角色级事件不影响用户令牌的版本
+        tokenService.onChange(RbacChangeEvent.roleGrantsChanged(1, 2));
+        assertTrue(tokenService.isCurrent(bob));
+
+        TokenService.Claims reissued = tokenService.verify(tokenService.issue(user(7, "alice", 1), new int[]{3}, now), now);
+        assertTrue(tokenService.isCurrent(reissued));
+    }
+
+    // 测试方法：修改密码后此前签发的令牌作废（不能续签），新签发的令牌有效；角色变更只让令牌过期不作废
+    @Test
+    public void testCredentialsChangeRevokesToken() {
+        TokenService tokenService = new TokenService("test-secret", TTL);
+        long now = System.currentTimeMillis();
+        TokenService.Claims before = tokenService.verify(tokenService.issue(user(7, "alice", 1), new int[]{2}, now), now);
+
+        tokenService.onChange(RbacChangeEvent.userRoleChanged(1, 7, "alice"));
+        assertFalse(tokenService.isRevoked(before));
+
+        tokenService.onChange(RbacChangeEvent.userCredentialsChanged(1, 7, "alice"));
+        assertTrue(tokenService.isRevoked(before));
+        assertFalse(tokenService.isCurrent(before));
+
+        TokenService.Claims after = tokenService.verify(tokenService.issue(user(7, "alice", 1), new int[]{2}, now), now);
+        assertFalse(tokenService.isRevoked(after));
+        assertTrue(tokenService.isCurrent(after));
+    }
+}
@@ -0,0 +1,91 @@
+package com.rbac.security.param;
+
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.param.PermissionCheckParam;
+import com.rbac.security.model.param.PermissionEditParam;
+import com.rbac.security.model.param.RolePermissionParam;
+import com.rbac.security.model.param.UserRoleParam;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * ParamBinder的单元测试类：类型化绑定、字段/列表元素/跨字段校验、格式错误与超限拒绝
+ */
+public class ParamBinderTest {
+
+    private static String violation(ParamBinder<?> binder, String json) {
+        return assertThrows(IllegalArgumentException.class, () -> binder.bind(json)).getMessage();
+    }
+
+    // 测试方法：合法参数一次绑定为记录，JSON字段名与记录字段名可不同
+    @Test
+    public void testBind() {
+        PermissionEditParam edit = ParamBinder.compile(PermissionEditParam.class)
+                .bind("{\"permission_id\":3,\"permission_name\":\"编辑\",\"code\":\"system:x\",\"extra\":true}");
+        assertEquals(Integer.valueOf(3), edit.permissionId());
+        assertEquals("编辑", edit.permissionName());
+        assertNull(edit.parentId());
+
+        UserRoleParam userRole = ParamBinder.compile(UserRoleParam.class).bind("{\"userid\":1,\"roleids\":[2,2,5]}");
+        assertEquals(List.of(2, 5), userRole.roleIds());
+        // 可选参数不传时为空记录
+        assertNull(ParamBinder.compile(PermissionCheckParam.class).bind("").codes());
+    }
+
+    // 测试方法：必填、范围、列表大小和列表元素规则
+    @Test
+    public void testViolations() {
+        ParamBinder<RolePermissionParam> binder = ParamBinder.compile(RolePermissionParam.class);
+        assertEquals("角色ID必须是大于0的整数", violation(binder, "{\"permIdList\":[1]}"));
+        assertEquals("角色ID必须是大于0的整数", violation(binder, "{\"roleId\":0,\"permIdList\":[1]}"));
+        assertEquals("permIdList必须是数组格式", violation(binder, "{\"roleId\":1}"));
+        assertEquals("权限ID列表不能为空", violation(binder, "{\"roleId\":1,\"permIdList\":[]}"));
+        assertEquals("权限ID必须是大于0的整数", violation(binder, "{\"roleId\":1,\"permIdList\":[1,null]}"));
+        assertEquals("权限编码必须是非空字符串",
+                violation(ParamBinder.compile(PermissionCheckParam.class), "{\"codes\":[\"a\",\" \"]}"));
+        // 跨字段规则：roleid和roleids至少传一个
+        assertEquals("角色ID必须是大于0的整数", violation(ParamBinder.compile(UserRoleParam.class), "{\"userid\":1}"));
+    }
+
+    // 测试方法：类型不符不做隐式转换，非JSON对象判为格式错误；每个有参数的操作都能编译出绑定器
+    @Test
+    public void testMalformed() {
+        ParamBinder<RolePermissionParam> binder = ParamBinder.compile(RolePermissionParam.class);
+        assertEquals("参数格式错误（字段roleId类型不正确）", violation(binder, "{\"roleId\":\"1\",\"permIdList\":[1]}"));
+        assertEquals("参数格式错误（字段roleId类型不正确）", violation(binder, "{\"roleId\":1.5,\"permIdList\":[1]}"));
+        assertEquals("参数格式错误（需JSON对象）", violation(binder, "{\"roleId\":"));
+        assertEquals("参数格式错误（需JSON对象）", violation(binder, "null"));
+        assertEquals("参数格式错误（需JSON对象）", violation(binder, "{\"roleId\":1,\"permIdList\":[1]} {}"));
+        assertEquals("参数格式错误（字段roleId重复）", violation(binder, "{\"roleId\":1,\"roleId\":2,\"permIdList\":[1]}"));
+        assertEquals("参数格式错误（字段roleId类型不正确）", violation(binder, "{\"roleId\":3000000000,\"permIdList\":[1]}"));
+        for (ApiOperation operation : ApiOperation.values()) {
+            if (operation.getParamType() != null) {
+                assertEquals(operation.getParamType(), ParamBinder.compile(operation.getParamType()).getType());
+            }
+        }
+    }
+
+    // 测试方法：超长参数不解析；列表超长、未声明字段嵌套过深在流式解析中拒绝；权限编辑操作使用正确的编码
+    @Test
+    public void testLimits() {
+        ParamBinder<PermissionCheckParam> binder = ParamBinder.compile(PermissionCheckParam.class);
+        StringBuilder codes = new StringBuilder("{\"codes\":[");
+        for (int i = 0; i <= PermissionCheckParam.MAX_BATCH_CODES; i++) {
+            codes.append(i == 0 ? "" : ",").append("\"c").append(i).append('"');
+        }
+        // 截断的数组：第MAX+1个元素即被拒绝，不会读到结尾的语法错误
+        assertEquals("单次最多校验" + PermissionCheckParam.MAX_BATCH_CODES + "个权限编码", violation(binder, codes.toString()));
+        assertEquals("参数过大（最多" + ParamBinder.MAX_PARAM_LENGTH + "个字符）",
+                violation(binder, "{\"codes\":[\"" + "x".repeat(ParamBinder.MAX_PARAM_LENGTH) + "\"]}"));
+        assertEquals("参数格式错误（需JSON对象）", violation(binder, "{\"extra\":" + "[".repeat(100) + "]".repeat(100) + "}"));
+        assertEquals(List.of("a"), binder.bind("{\"extra\":{\"x\":[1,{}]},\"codes\":[\"a\"]}").codes());
+
+        assertEquals(ApiOperation.PERMISSION_EDIT, ApiOperation.fromPermCode("system:permission:edit"));
+        assertThrows(IllegalArgumentException.class, () -> ParamBinder.compile(String.class));
+    }
+}
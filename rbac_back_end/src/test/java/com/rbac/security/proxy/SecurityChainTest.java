@@ -0,0 +1,113 @@
+package com.rbac.security.proxy;
+
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SecurityChain的单元测试类：验证代理顺序、短路、同一条链被重复及并发复用
+ */
+public class SecurityChainTest {
+
+    // 记录经过的代理名称后继续推进
+    private static SecurityProxy recording(String name, List<String> trace) {
+        return (request, chain) -> {
+            synchronized (trace) {
+                trace.add(name);
+            }
+            return chain.proceed(request);
+        };
+    }
+
+    // 测试方法：按声明顺序执行全部代理后执行业务，同一条链可重复调用
+    @Test
+    public void testOrderAndReuse() {
+        List<String> trace = new ArrayList<>();
+        SecurityChain chain = SecurityChain.build(
+                Arrays.asList(recording("log", trace), recording("auth", trace), recording("param", trace)),
+                request -> {
+                    trace.add("biz");
+                    return new ApiResponse(true, "ok", request.getPermCode());
+                });
+
+        for (int i = 0; i < 3; i++) {
+            trace.clear();
+            ApiRequest request = new ApiRequest();
+            request.setPermCode("system:user:list");
+            ApiResponse response = chain.proceed(request);
+            assertTrue(response.isSuccess());
+            assertEquals("system:user:list", response.getData());
+            assertEquals(List.of("log", "auth", "param", "biz"), trace);
+        }
+        assertEquals(3, chain.getProxies().size());
+    }
+
+    // 测试方法：代理不调用proceed时短路，后续代理和业务都不执行
+    @Test
+    public void testShortCircuit() {
+        List<String> trace = new ArrayList<>();
+        SecurityProxy deny = (request, chain) -> new ApiResponse(false, "AUTH_FAILED", "拒绝", null);
+        SecurityChain chain = SecurityChain.build(
+                Arrays.asList(recording("log", trace), deny, recording("param", trace)),
+                request -> {
+                    trace.add("biz");
+                    return new ApiResponse(true, "ok", null);
+                });
+
+        assertFalse(chain.proceed(new ApiRequest()).isSuccess());
+        assertEquals(List.of("log"), trace);
+    }
+
+    // 测试方法：多个线程同时使用同一条链，互不影响各自的推进位置
+    @Test
+    public void testConcurrentInvocations() throws Exception {
+        int threads = 8;
+        CountDownLatch inBusiness = new CountDownLatch(threads);
+        List<String> trace = new ArrayList<>();
+        SecurityChain chain = SecurityChain.build(
+                Arrays.asList(recording("a", trace), recording("b", trace)),
+                request -> {
+                    // 所有线程都走到业务层后才返回：若链上保存执行位置，交错调用会跳过代理
+                    inBusiness.countDown();
+                    try {
+                        inBusiness.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new ApiResponse(true, "ok", request.getPermCode());
+                });
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ApiResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                String code = "code" + i;
+                futures.add(pool.submit(() -> {
+                    ApiRequest request = new ApiRequest();
+                    request.setPermCode(code);
+                    return chain.proceed(request);
+                }));
+            }
+            for (int i = 0; i < threads; i++) {
+                assertEquals("code" + i, futures.get(i).get(10, TimeUnit.SECONDS).getData());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(threads * 2, trace.size());
+        assertEquals(threads, trace.stream().filter("a"::equals).count());
+    }
+}
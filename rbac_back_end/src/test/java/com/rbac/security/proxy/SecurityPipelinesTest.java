@@ -0,0 +1,94 @@
+package com.rbac.security.proxy;
+
+import com.rbac.security.model.ApiOperation;
+import com.rbac.security.model.ApiRequest;
+import com.rbac.security.model.ApiResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SecurityPipelines的单元测试类：验证每个操作只经过其所需环节，未知编码走完整链
+ */
+public class SecurityPipelinesTest {
+    private final List<String> trace = new ArrayList<>();
+
+    private SecurityPipelines compile() {
+        Map<ApiOperation.Stage, SecurityProxy> stageProxies = new EnumMap<>(ApiOperation.Stage.class);
+        for (ApiOperation.Stage stage : ApiOperation.Stage.values()) {
+            stageProxies.put(stage, (request, chain) -> {
+                trace.add(stage.name());
+                return chain.proceed(request);
+            });
+        }
+        return SecurityPipelines.compile(stageProxies, request -> {
+            trace.add("BIZ");
+            return new ApiResponse(true, "ok", null);
+        });
+    }
+
+    private List<String> run(SecurityPipelines pipelines, String permCode) {
+        trace.clear();
+        ApiRequest request = new ApiRequest();
+        request.setPermCode(permCode);
+        pipelines.proceed(request);
+        return new ArrayList<>(trace);
+    }
+
+    // 测试方法：登录不做认证/授权，列表不做参数校验，自身权限校验不做授权，响应缓存只用于与调用者无关的查询
+    @Test
+    public void testStagesPerOperation() {
+        SecurityPipelines pipelines = compile();
+        assertEquals(List.of("ADMISSION", "LOG", "PARAM_CHECK", "RATE_LIMIT", "BIZ"), run(pipelines, "system:user:own:login"));
+        assertEquals(List.of("ADMISSION", "LOG", "AUTH", "AUTHZ", "RESPONSE_CACHE", "RATE_LIMIT", "BIZ"), run(pipelines, "system:role:list"));
+        assertEquals(List.of("ADMISSION", "LOG", "AUTH", "PARAM_CHECK", "RATE_LIMIT", "BIZ"), run(pipelines, "system:user:own:permission:check"));
+        assertEquals(List.of("ADMISSION", "LOG", "AUTH", "AUTHZ", "PARAM_CHECK", "RATE_LIMIT", "BIZ"), run(pipelines, "system:role:deny"));
+        assertEquals(List.of("ADMISSION", "LOG", "AUTH", "AUTHZ", "PARAM_CHECK", "RESPONSE_CACHE", "RATE_LIMIT", "BIZ"), run(pipelines, "system:permission:holders"));
+    }
+
+    // 测试方法：未知或空权限编码走完整链（与改造前每个请求经过全部代理的行为一致）
+    @Test
+    public void testUnknownPermCodeUsesFullChain() {
+        SecurityPipelines pipelines = compile();
+        assertEquals(List.of("ADMISSION", "LOG", "AUTH", "AUTHZ", "PARAM_CHECK", "RESPONSE_CACHE", "RATE_LIMIT", "BIZ"), run(pipelines, "system:unknown"));
+        assertEquals(List.of("ADMISSION", "LOG", "AUTH", "AUTHZ", "PARAM_CHECK", "RESPONSE_CACHE", "RATE_LIMIT", "BIZ"), run(pipelines, null));
+        assertNull(ApiOperation.fromPermCode("system:unknown"));
+    }
+
+    // 测试方法：按编码和按操作选取的是同一条预编译链；缺少环节代理时编译失败
+    @Test
+    public void testLookupAndValidation() {
+        SecurityPipelines pipelines = compile();
+        for (ApiOperation operation : ApiOperation.values()) {
+            assertSame(operation, ApiOperation.fromPermCode(operation.getPermCode()));
+            assertSame(pipelines.chainFor(operation), pipelines.chainFor(operation.getPermCode()));
+        }
+        Map<ApiOperation.Stage, SecurityProxy> missing = new EnumMap<>(ApiOperation.Stage.class);
+        missing.put(ApiOperation.Stage.LOG, (request, chain) -> chain.proceed(request));
+        assertThrows(IllegalArgumentException.class,
+                () -> SecurityPipelines.compile(missing, request -> new ApiResponse(true, "ok", null)));
+    }
+
+    // 测试方法：批量请求整批只经过准入/日志/认证/限流；条目按环节子集重新编译后只经过授权、参数校验、响应缓存
+    @Test
+    public void testBatchStages() {
+        SecurityPipelines pipelines = compile();
+        assertEquals(List.of("ADMISSION", "LOG", "AUTH", "RATE_LIMIT", "BIZ"), run(pipelines, "system:batch"));
+
+        SecurityPipelines items = pipelines.withStages(EnumSet.of(ApiOperation.Stage.AUTHZ,
+                ApiOperation.Stage.PARAM_CHECK, ApiOperation.Stage.RESPONSE_CACHE, ApiOperation.Stage.RATE_LIMIT));
+        assertEquals(List.of("AUTHZ", "PARAM_CHECK", "RATE_LIMIT", "BIZ"), run(items, "system:user:create"));
+        assertEquals(List.of("AUTHZ", "RESPONSE_CACHE", "RATE_LIMIT", "BIZ"), run(items, "system:role:list"));
+        assertEquals(List.of("PARAM_CHECK", "RATE_LIMIT", "BIZ"), run(items, "system:user:own:permission:check"));
+        assertEquals(List.of("AUTHZ", "PARAM_CHECK", "RESPONSE_CACHE", "RATE_LIMIT", "BIZ"), run(items, "system:unknown"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.Permission;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * parent_id关系校验与迭代遍历的单元测试（无需数据库）
+ */
+public class PermissionGraphReportTest {
+
+    /**
+     * 测试1：循环引用、孤儿、多个顶级节点、重复ID
+     */
+    @Test
+    void testDetectsBrokenParentLinks() {
+        List<Permission> permissions = new ArrayList<>();
+        permissions.add(new Permission(1, "系统管理", "system", 0));
+        permissions.add(new Permission(2, "用户管理", "system:user", 1));
+        // 3 ↔ 4 构成循环，5挂在循环下
+        permissions.add(new Permission(3, "A", "loop:a", 4));
+        permissions.add(new Permission(4, "B", "loop:b", 3));
+        permissions.add(new Permission(5, "C", "loop:c", 3));
+        // 6的父节点不存在，7挂在孤儿下
+        permissions.add(new Permission(6, "孤儿", "orphan", 99));
+        permissions.add(new Permission(7, "孤儿子节点", "orphan:child", 6));
+        // 第二个顶级节点 + 重复ID
+        permissions.add(new Permission(8, "内容管理", "content", 0));
+        permissions.add(new Permission(2, "重复", "dup", 1));
+
+        PermissionGraphReport report = PermissionGraphReport.analyze(permissions);
+        assertTrue(report.hasErrors());
+        assertTrue(report.hasMultipleRoots());
+        assertEquals(List.of(1, 8), report.getRootIds());
+        assertEquals(List.of(6), report.getOrphanIds());
+        assertTrue(report.getCycleIds().containsAll(List.of(3, 4)));
+        assertEquals(2, report.getCycleIds().size());
+        assertTrue(report.getUnreachableIds().containsAll(List.of(5, 7)));
+        assertEquals(List.of(2), report.getDuplicateIds());
+        assertEquals(1, report.getMaxDepth());
+    }
+
+    /**
+     * 测试2：深度上千层的链状权限不栈溢出（校验 + 遍历 + 复制查找）
+     */
+    @Test
+    void testDeepChainIsIterative() {
+        int depth = 5000;
+        List<Permission> permissions = new ArrayList<>();
+        for (int i = 1; i <= depth; i++) {
+            permissions.add(new Permission(i, "p" + i, "p" + i, i - 1));
+        }
+        PermissionGraphReport report = PermissionGraphReport.analyze(permissions);
+        assertFalse(report.hasErrors());
+        assertEquals(depth - 1, report.getMaxDepth());
+
+        CompositePermission root = new CompositePermission(permissions.get(0));
+        CompositePermission parent = root;
+        for (int i = 1; i < depth - 1; i++) {
+            CompositePermission child = new CompositePermission(permissions.get(i));
+            parent.addChild(child);
+            parent = child;
+        }
+        parent.addChild(new LeafPermission(permissions.get(depth - 1)));
+
+        int[] maxSeen = {0};
+        PermissionTreeWalker.preOrder(root, (node, level) -> maxSeen[0] = Math.max(maxSeen[0], level));
+        assertEquals(depth - 1, maxSeen[0]);
+        IPermissionComponent last = PermissionTreeWalker.findFirst(root, node -> ("p" + depth).equals(node.getPermissionCode()));
+        assertNotNull(last);
+        assertEquals(depth, PermissionIndex.compile(root, 1L).size());
+    }
+}
@@ -0,0 +1,198 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.Permission;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 稠密编号索引+授权位图的单元测试：验证位图校验与原树形校验语义一致（无需数据库）
+ */
+public class PermissionIndexTest {
+    private CompositePermission root;
+    private PermissionIndex index;
+
+    // 构造一棵测试权限树：system → (system:user → list/delete, system:role → list)
+    @BeforeEach
+    void init() {
+        root = new CompositePermission(new Permission(1, "系统管理", "system", 0));
+        CompositePermission user = new CompositePermission(new Permission(2, "用户管理", "system:user", 1));
+        CompositePermission role = new CompositePermission(new Permission(3, "角色管理", "system:role", 1));
+        user.addChild(new LeafPermission(new Permission(4, "用户列表", "system:user:list", 2)));
+        user.addChild(new LeafPermission(new Permission(5, "删除用户", "system:user:delete", 2)));
+        role.addChild(new LeafPermission(new Permission(6, "角色列表", "system:role:list", 3)));
+        root.addChild(user);
+        root.addChild(role);
+        index = PermissionIndex.compile(root, 1L);
+    }
+
+    /**
+     * 测试1：先序编号与子树区间
+     */
+    @Test
+    void testPreOrderRanges() {
+        assertEquals(6, index.size());
+        assertEquals(0, index.indexOf("system"));
+        int user = index.indexOf("system:user");
+        int role = index.indexOf("system:role");
+        assertEquals(6, index.subtreeEnd(0), "根节点区间应覆盖整棵树");
+        assertTrue(index.isInSubtree(user, index.indexOf("system:user:delete")));
+        assertFalse(index.isInSubtree(user, index.indexOf("system:role:list")));
+        assertEquals(user, index.parentOf(index.indexOf("system:user:list")));
+        assertEquals(0, index.parentOf(role));
+    }
+
+    /**
+     * 测试2：父权限包含子权限（区间展开）
+     */
+    @Test
+    void testParentGrantsChildren() {
+        PermissionGrantSet grants = index.compileGrants(List.of("system:user"));
+        assertTrue(grants.isGranted("system:user"));
+        assertTrue(grants.isGranted("system:user:list"));
+        assertTrue(grants.isGranted(" system:user:delete "), "编码前后空格应被忽略");
+        assertFalse(grants.isGranted("system:role:list"));
+        assertFalse(grants.isGranted("system"));
+        assertEquals(3, grants.cardinality());
+    }
+
+    /**
+     * 测试3：复合节点的前缀语义（树中不存在的子编码）与叶子节点的精确匹配
+     */
+    @Test
+    void testPrefixSemanticsMatchTree() {
+        PermissionGrantSet grants = index.compileGrants(List.of("system:user", "system:role:list"));
+        CompositePermission userTree = new CompositePermission(new Permission());
+        userTree.setPermissionCode("");
+        userTree.addChild(root.getChildren().get(0));
+        userTree.addChild(root.getChildren().get(1).getChildren().get(0));
+
+        for (String code : List.of("system:user:export", "system:role:list:detail", "system:role:create", "system")) {
+            assertEquals(userTree.verifyPermission(code), grants.isGranted(code), "位图与树形校验结果不一致：" + code);
+        }
+        assertTrue(grants.isGranted("system:user:export"));
+        assertFalse(grants.isGranted("system:role:list:detail"));
+    }
+
+    /**
+     * 测试4：禁用节点的整棵子树不可达
+     */
+    @Test
+    void testDisabledSubtreeSkipped() {
+        ((CompositePermission) root.getChildren().get(0)).getPermission().setEnabled(false);
+        index = PermissionIndex.compile(root, 2L);
+        PermissionGrantSet grants = index.compileGrants(List.of("system:user", "system:role"));
+        assertTrue(grants.isGranted("system:role:list"));
+        assertFalse(grants.isGranted("system:user"));
+        assertFalse(grants.isGranted("system:user:list"));
+        assertFalse(grants.isGranted(null));
+    }
+
+    /**
+     * 测试5：按字符串区间查找与树形热路径（前缀区间、首尾空白、数组子节点的增删）
+     */
+    @Test
+    void testRegionLookupAndTreeHotPath() {
+        String request = "  system:user:list  ";
+        assertEquals(index.indexOf("system:user:list"), index.indexOf(request, 2, request.length() - 2));
+        assertEquals(index.indexOf("system:user"), index.indexOf(request, 2, 13));
+        assertEquals(0, index.indexOf(request, 2, 8));
+        assertEquals(-1, index.indexOf(request, 2, 10), "不完整编码不应命中");
+
+        PermissionGrantSet grants = index.compileGrants(List.of("system:role"));
+        assertTrue(grants.isGranted("\tsystem:role:create "));
+        assertFalse(grants.isGranted("   "));
+
+        CompositePermission role = (CompositePermission) root.getChildren().get(1);
+        LeafPermission create = new LeafPermission(new Permission(7, "新增角色", " system:role:create ", 3));
+        role.addChild(create);
+        assertEquals(2, role.childCount());
+        assertTrue(role.getChildren().get(1).verifyPermission("system:role:create"));
+        role.removeChild(create);
+        assertEquals(1, role.childCount());
+        assertSame(role, role.childAt(0).getParent());
+        assertTrue(root.verifyPermission(" system:role:list "));
+        assertTrue(root.verifyPermission("system:anything"), "根复合节点的前缀语义");
+        assertFalse(role.verifyPermission("system:rolex"));
+    }
+
+    /**
+     * 测试6：批量校验结果与逐个校验一致，且可列出全部有效权限
+     */
+    @Test
+    void testBatchCheck() {
+        PermissionGrantSet grants = index.compileGrants(List.of("system:user", "system:role:list"));
+        List<String> codes = List.of("system:user:list", "system:role", "system:user:export", " system:role:list ", "system:rolex");
+        BitSet result = grants.checkAll(codes);
+        for (int i = 0; i < codes.size(); i++) {
+            assertEquals(grants.isGranted(codes.get(i)), result.get(i), codes.get(i));
+        }
+        assertEquals(3, result.cardinality());
+        assertEquals(List.of("system:user", "system:user:list", "system:user:delete", "system:role:list"), grants.grantedCodes());
+        assertTrue(PermissionGrantSet.empty(index).grantedCodes().isEmpty());
+        assertEquals(0, grants.checkAll(null).cardinality());
+
+        // 逐位遍历（反向索引按位登记角色时使用）
+        int visited = 0;
+        for (int i = grants.nextGranted(0); i >= 0; i = grants.nextGranted(i + 1)) {
+            assertTrue(grants.testBit(i));
+            visited++;
+        }
+        assertEquals(grants.cardinality(), visited);
+        assertEquals(-1, grants.nextGranted(index.size()));
+    }
+
+    /**
+     * 测试7：多角色授权取并集，与合并后的授权编码一次编译结果一致
+     */
+    @Test
+    void testUnionOfRoleGrants() {
+        PermissionGrantSet userAdmin = index.compileGrants(List.of("system:user"));
+        PermissionGrantSet roleViewer = index.compileGrants(List.of("system:role:list"));
+        PermissionGrantSet union = PermissionGrantSet.unionOf(index, List.of(userAdmin, roleViewer));
+        PermissionGrantSet merged = index.compileGrants(List.of("system:user", "system:role:list"));
+        assertEquals(merged.grantedCodes(), union.grantedCodes());
+        assertTrue(union.isGranted("system:user:delete"));
+        assertTrue(union.isGranted("system:role:list"));
+        assertFalse(union.isGranted("system:role"));
+        assertFalse(userAdmin.isGranted("system:role:list"), "并集不应修改原角色位图");
+        assertEquals(0, PermissionGrantSet.unionOf(index, List.of()).cardinality());
+
+        PermissionIndex other = PermissionIndex.compile(root, 2L);
+        assertThrows(IllegalArgumentException.class,
+                () -> PermissionGrantSet.unionOf(other, List.of(userAdmin)));
+    }
+
+    /**
+     * 测试8：拒绝优先——允许父权限、拒绝其中一个子权限，一次编译后仍是单次查表
+     */
+    @Test
+    void testDenyOverridesAllow() {
+        PermissionGrantSet grants = index.compileGrants(List.of("system:user"), List.of("system:user:delete"));
+        assertTrue(grants.hasDenials());
+        assertTrue(grants.isGranted("system:user:list"));
+        assertFalse(grants.isGranted("system:user:delete"));
+        assertFalse(grants.isGranted("system:user:delete:batch"), "被拒绝节点之下的编码同样拒绝");
+        assertTrue(grants.isGranted("system:user:export"), "未拒绝的前缀匹配不受影响");
+        assertEquals(List.of("system:user", "system:user:list"), grants.grantedCodes());
+        assertTrue(grants.isDenied("system:user:delete"));
+        assertFalse(grants.isDenied("system:user:list"));
+
+        // 拒绝父权限：其下单独允许的子权限也无效
+        PermissionGrantSet parentDenied = index.compileGrants(List.of("system:user:list", "system:role"), List.of("system:user"));
+        assertFalse(parentDenied.isGranted("system:user:list"));
+        assertFalse(parentDenied.isGranted("system:user:export"));
+        assertTrue(parentDenied.isGranted("system:role:list"));
+
+        // 多角色：任一角色拒绝即拒绝
+        PermissionGrantSet other = index.compileGrants(List.of("system:user:delete"));
+        PermissionGrantSet union = PermissionGrantSet.unionOf(index, List.of(grants, other));
+        assertFalse(union.isGranted("system:user:delete"));
+        assertTrue(union.isGranted("system:user:list"));
+        assertFalse(index.compileGrants(List.of("system:user")).hasDenials());
+    }
+}
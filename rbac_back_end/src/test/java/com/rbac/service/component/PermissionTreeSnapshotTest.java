@@ -0,0 +1,75 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.Permission;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权限树二进制快照的单元测试（无需数据库）
+ */
+public class PermissionTreeSnapshotTest {
+
+    private static IPermissionComponent buildTree() {
+        CompositePermission system = new CompositePermission(new Permission(1, "系统管理", "system", 0));
+        CompositePermission user = new CompositePermission(new Permission(2, "用户管理", "system:user", 1));
+        user.addChild(new LeafPermission(new Permission(3, "查看用户", "system:user:view", 2)));
+        Permission disabled = new Permission(4, "删除用户", "system:user:delete", 2);
+        disabled.setEnabled(false);
+        user.addChild(new LeafPermission(disabled));
+        system.addChild(user);
+        system.addChild(new LeafPermission(new Permission(5, "日志", "system:log", 1)));
+        return system;
+    }
+
+    /**
+     * 测试1：写出后读取，树结构、索引和校验结果与原树一致
+     */
+    @Test
+    void testRoundTrip(@TempDir Path dir) throws IOException {
+        IPermissionComponent root = buildTree();
+        PermissionIndex original = PermissionIndex.compile(root, 1L);
+        Path file = dir.resolve("tree.snapshot");
+        PermissionTreeSnapshot.write(file, root, original, 42L);
+
+        PermissionTreeSnapshot snapshot = PermissionTreeSnapshot.read(file, 42L, 7L);
+        assertNotNull(snapshot);
+        assertEquals(42L, snapshot.getDataVersion());
+        assertEquals(5, snapshot.getPermissions().size());
+        PermissionIndex index = snapshot.getIndex();
+        assertEquals(7L, index.getVersion());
+        assertEquals(original.size(), index.size());
+        for (int i = 0; i < original.size(); i++) {
+            assertEquals(original.codeAt(i), index.codeAt(i));
+            assertEquals(original.parentOf(i), index.parentOf(i));
+            assertEquals(original.subtreeEnd(i), index.subtreeEnd(i));
+            assertEquals(original.isEnabled(i), index.isEnabled(i));
+        }
+        assertTrue(snapshot.getRoot().verifyPermission("system:user:view"));
+        assertEquals(2, snapshot.getRoot().getChildren().size());
+        assertFalse(snapshot.getPermissions().get(3).isEnabled());
+    }
+
+    /**
+     * 测试2：版本号不一致返回null，文件损坏抛出异常
+     */
+    @Test
+    void testStaleOrCorruptSnapshot(@TempDir Path dir) throws IOException {
+        IPermissionComponent root = buildTree();
+        Path file = dir.resolve("tree.snapshot");
+        assertNull(PermissionTreeSnapshot.read(file, 1L, 1L));
+
+        PermissionTreeSnapshot.write(file, root, PermissionIndex.compile(root, 1L), 1L);
+        assertNull(PermissionTreeSnapshot.read(file, 2L, 1L));
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> PermissionTreeSnapshot.read(file, 1L, 1L));
+    }
+}
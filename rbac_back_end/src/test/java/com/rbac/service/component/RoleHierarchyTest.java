@@ -0,0 +1,70 @@
+package com.rbac.service.component;
+
+import com.rbac.model.entity.RoleInheritance;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 角色继承关系图的单元测试（无需数据库）
+ */
+public class RoleHierarchyTest {
+
+    /**
+     * 测试1：多继承的祖先/子孙闭包与写入前环检测
+     */
+    @Test
+    void testClosureAndCycleCheck() {
+        // 4 → 2 → 1，4 → 3 → 1（菱形继承）
+        RoleHierarchy hierarchy = RoleHierarchy.of(List.of(
+                new RoleInheritance(2, 1),
+                new RoleInheritance(3, 1),
+                new RoleInheritance(4, 2),
+                new RoleInheritance(4, 3)));
+        assertEquals(Set.of(1, 2, 3), hierarchy.ancestorsOf(4));
+        assertEquals(Set.of(2, 3, 4), hierarchy.descendantsOf(1));
+        assertEquals(List.of(2, 3), hierarchy.parentsOf(4));
+        assertTrue(hierarchy.parentsOf(1).isEmpty());
+
+        assertTrue(hierarchy.wouldCreateCycle(1, List.of(4)), "祖先继承子孙会成环");
+        assertTrue(hierarchy.wouldCreateCycle(2, List.of(2)), "不能继承自身");
+        assertFalse(hierarchy.wouldCreateCycle(3, List.of(2)), "兄弟角色之间可以继承");
+
+        RoleHierarchy updated = hierarchy.withParents(3, List.of(2));
+        assertEquals(Set.of(1, 2), updated.ancestorsOf(3));
+        assertEquals(Set.of(1, 2, 3), hierarchy.ancestorsOf(4), "原快照不变");
+        RoleHierarchy removed = updated.withoutRole(2);
+        assertTrue(removed.ancestorsOf(3).isEmpty());
+        assertEquals(List.of(3), removed.parentsOf(4));
+    }
+
+    /**
+     * 测试2：数据库中已存在的环被忽略，深层继承链不栈溢出
+     */
+    @Test
+    void testRejectsCyclesAndDeepChains() {
+        RoleHierarchy cyclic = RoleHierarchy.of(List.of(
+                new RoleInheritance(1, 2),
+                new RoleInheritance(2, 3),
+                new RoleInheritance(3, 1)));
+        assertEquals(1, cyclic.getRejectedEdges().size());
+        assertEquals(2, cyclic.edgeCount());
+        for (int roleId = 1; roleId <= 3; roleId++) {
+            assertFalse(cyclic.ancestorsOf(roleId).contains(roleId));
+        }
+
+        int depth = 10_000;
+        List<RoleInheritance> chain = new ArrayList<>();
+        for (int i = 2; i <= depth; i++) {
+            chain.add(new RoleInheritance(i, i - 1));
+        }
+        RoleHierarchy deep = RoleHierarchy.of(chain);
+        assertTrue(deep.getRejectedEdges().isEmpty());
+        assertEquals(depth - 1, deep.ancestorsOf(depth).size());
+        assertTrue(deep.wouldCreateCycle(1, List.of(depth)));
+    }
+}
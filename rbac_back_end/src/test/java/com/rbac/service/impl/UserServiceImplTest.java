@@ -0,0 +1,71 @@
+package com.rbac.service.impl;
+
+import com.rbac.dao.DaoFactory;
+import com.rbac.dao.PermissionDAO;
+import com.rbac.dao.RoleDAO;
+import com.rbac.dao.RoleInheritanceDAO;
+import com.rbac.dao.RolePermissionDAO;
+import com.rbac.dao.UserDAO;
+import com.rbac.dao.UserRoleDAO;
+import com.rbac.model.entity.Permission;
+import com.rbac.model.entity.User;
+import com.rbac.util.RoleHierarchyCache;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 用户业务层的单元测试（无需数据库：DAO由内存桩代替）
+ */
+public class UserServiceImplTest {
+
+    // 测试方法：有角色的用户登录时，本地适配器查询权限不抛异常，也不走降级再查一次库
+    @Test
+    public void testLoginUserWithRole() {
+        User alice = new User(7, "alice", "secret", null);
+        AtomicInteger userQueries = new AtomicInteger();
+        UserDAO userDAO = stub(UserDAO.class, Map.of("selectUserByUsername", args -> {
+            userQueries.incrementAndGet();
+            return "alice".equals(args[0]) ? alice : null;
+        }));
+        UserRoleDAO userRoleDAO = stub(UserRoleDAO.class, Map.of("selectRoleIdsByUserId",
+                args -> Integer.valueOf(7).equals(args[0]) ? new int[]{2} : new int[0]));
+        RolePermissionDAO rolePermissionDAO = stub(RolePermissionDAO.class, Map.of("selectPermissionIdsByRoleId",
+                args -> Integer.valueOf(2).equals(args[0]) ? List.of(10) : List.of()));
+        PermissionDAO permissionDAO = stub(PermissionDAO.class, Map.of("selectPermissionById",
+                args -> Integer.valueOf(10).equals(args[0]) ? new Permission(10, "用户列表", "system:user:list", 0) : null));
+        DaoFactory daoFactory = stub(DaoFactory.class, Map.of(
+                "createUserDAO", args -> userDAO,
+                "createRoleDAO", args -> stub(RoleDAO.class, Map.of()),
+                "createPermissionDAO", args -> permissionDAO,
+                "createUserRoleDAO", args -> userRoleDAO,
+                "createRolePermissionDAO", args -> rolePermissionDAO,
+                "createRoleInheritanceDAO", args -> stub(RoleInheritanceDAO.class, Map.of())));
+        UserServiceImpl userService = new UserServiceImpl(daoFactory, new RoleHierarchyCache());
+
+        assertTrue(userService.login("alice", "secret"));
+        assertEquals(2, userQueries.get(), "验证身份和查询权限各查一次用户，没有降级后的重复验证");
+        assertEquals(List.of("system:user:list"), userService.getUserPermissionsByUsername("alice"));
+        assertFalse(userService.login("alice", "wrong"));
+    }
+
+    /**
+     * 按方法名返回结果的接口桩（未提供的方法调用即失败）
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> handler = methods.get(method.getName());
+            if (handler == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return handler.apply(args);
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package com.rbac.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AdaptiveConcurrencyLimiter的单元测试类：准入份额、满负载且耗时平稳时升限、耗时上涨时降限
+ */
+public class AdaptiveConcurrencyLimiterTest {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    // 测试方法：达到限制后立即拒绝；份额小的类别先被拒绝；释放后名额可再用
+    @Test
+    public void testAdmissionShare() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 1, 10);
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            permits.add(limiter.tryAcquire(0.75));
+        }
+        // 写操作（份额0.75）最多占3个，查询还能再占1个
+        assertNull(limiter.tryAcquire(0.75));
+        AdaptiveConcurrencyLimiter.Permit read = limiter.tryAcquire(1.0);
+        assertNotNull(read);
+        assertNull(limiter.tryAcquire(1.0));
+        assertEquals(4, limiter.getInFlight());
+
+        read.abandon();
+        permits.get(0).abandon();
+        assertEquals(2, limiter.getInFlight());
+        assertNotNull(limiter.tryAcquire(0.75));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(20, 4, 10));
+    }
+
+    // 测试方法：满负载时耗时平稳则限制上升；耗时上涨到数倍后限制下降，但不低于最小值
+    @Test
+    public void testLimitFollowsLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100);
+        for (int i = 0; i < 50; i++) {
+            runFull(limiter, 10 * MS);
+        }
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, "耗时平稳时限制应上升：" + grown);
+
+        // 持续的高耗时会逐渐成为新的长期基线，这里只看上涨初期
+        for (int i = 0; i < 2; i++) {
+            runFull(limiter, 100 * MS);
+        }
+        int shrunk = limiter.getLimit();
+        assertTrue(shrunk < grown, "耗时上涨后限制应下降：" + shrunk);
+        assertTrue(shrunk >= 2);
+    }
+
+    // 测试方法：在途请求不到限制一半时，耗时再好也不提高限制
+    @Test
+    public void testIdleDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100);
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire(1.0).release(10 * MS);
+        }
+        assertEquals(10, limiter.getLimit());
+    }
+
+    /**
+     * 占满当前限制，再以指定耗时全部完成
+     */
+    private static void runFull(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.tryAcquire(1.0)) != null) {
+            permits.add(permit);
+        }
+        for (AdaptiveConcurrencyLimiter.Permit held : permits) {
+            held.release(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.rbac.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HashedTimingWheel的单元测试类：手动推进时钟，验证到期时机、多圈登记和取消
+ */
+public class HashedTimingWheelTest {
+
+    // 测试方法：任务不会提前执行，跨越多圈后按时执行
+    @Test
+    public void testFiresOnDeadlineAcrossRounds() {
+        // 刻度100ms、8个槽位：一圈800ms
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(() -> fired.add("near"), 250);
+        wheel.schedule(() -> fired.add("far"), 2050);
+        assertEquals(2, wheel.size());
+
+        assertEquals(0, wheel.advanceTo(250));
+        assertEquals(1, wheel.advanceTo(300));
+        assertEquals(List.of("near"), fired);
+
+        // 2050落在刻度21（与刻度5同槽），前两圈经过时不能执行
+        assertEquals(0, wheel.advanceTo(2000));
+        assertEquals(1, wheel.advanceTo(2100));
+        assertEquals(List.of("near", "far"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    // 测试方法：取消后的任务不执行，已到期的任务不能再取消
+    @Test
+    public void testCancel() {
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, 0);
+        List<String> fired = new ArrayList<>();
+        HashedTimingWheel.Timeout cancelled = wheel.schedule(() -> fired.add("cancelled"), 500);
+        HashedTimingWheel.Timeout kept = wheel.schedule(() -> fired.add("kept"), 500);
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertEquals(1, wheel.size());
+
+        wheel.advanceTo(1000);
+        assertEquals(List.of("kept"), fired);
+        assertTrue(kept.isExpired());
+        assertTrue(cancelled.isCancelled());
+        assertFalse(kept.cancel());
+    }
+
+    // 测试方法：一次推进跨越多个刻度时，期间到期的任务全部执行；已过期的任务在下一次推进时执行
+    @Test
+    public void testAdvanceAcrossManyTicks() {
+        HashedTimingWheel wheel = new HashedTimingWheel(10, 16, 0);
+        int[] count = new int[1];
+        for (int i = 1; i <= 100; i++) {
+            wheel.schedule(() -> count[0]++, i * 7L);
+        }
+        assertEquals(100, wheel.advanceTo(700));
+        assertEquals(100, count[0]);
+
+        wheel.schedule(() -> count[0]++, 100);
+        assertEquals(1, wheel.advanceTo(710));
+        assertEquals(0, wheel.size());
+    }
+
+    // 测试方法：同一刻度中某个任务抛出异常，其余到期任务照常执行，之后的推进不受影响
+    @Test
+    public void testFailingTaskDoesNotDropOthers() {
+        HashedTimingWheel wheel = new HashedTimingWheel(100, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule(() -> fired.add("before"), 300);
+        wheel.schedule(() -> {
+            throw new RuntimeException("获取连接失败");
+        }, 300);
+        wheel.schedule(() -> fired.add("after"), 300);
+        wheel.schedule(() -> fired.add("later"), 600);
+
+        assertEquals(3, wheel.advanceTo(300));
+        assertEquals(2, fired.size());
+        assertTrue(fired.containsAll(List.of("before", "after")));
+        assertEquals(1, wheel.size());
+
+        assertEquals(1, wheel.advanceTo(600));
+        assertTrue(fired.contains("later"));
+        assertEquals(0, wheel.size());
+    }
+}
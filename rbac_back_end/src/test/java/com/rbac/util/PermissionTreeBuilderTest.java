@@ -0,0 +1,105 @@
+package com.rbac.util;
+
+import com.rbac.dao.PermissionDAO;
+import com.rbac.model.entity.Permission;
+import com.rbac.model.entity.Tenant;
+import com.rbac.service.component.PermissionIndex;
+import com.rbac.service.event.RbacChangeBus;
+import com.rbac.service.event.RbacChangeEvent;
+import com.rbac.service.event.RbacChangeType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 权限树构建器按租户分区的单元测试（无需数据库：权限数据来自内存）
+ */
+public class PermissionTreeBuilderTest {
+    private static final int OTHER_TENANT = 2;
+
+    // 租户ID → 该租户的权限数据
+    private final Map<Integer, List<Permission>> permissionsByTenant = new ConcurrentHashMap<>();
+    private final List<RbacChangeEvent> events = new ArrayList<>();
+
+    private PermissionTreeBuilder builder() {
+        permissionsByTenant.put(Tenant.DEFAULT_ID, List.of(
+                permission(1, "system", 0, Tenant.DEFAULT_ID),
+                permission(2, "system:user", 1, Tenant.DEFAULT_ID)));
+        permissionsByTenant.put(OTHER_TENANT, new ArrayList<>(List.of(
+                permission(11, "crm", 0, OTHER_TENANT),
+                permission(12, "crm:customer", 11, OTHER_TENANT))));
+        PermissionDAO permissionDAO = (PermissionDAO) Proxy.newProxyInstance(PermissionDAO.class.getClassLoader(),
+                new Class<?>[]{PermissionDAO.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "selectPermissionsByTenantId" -> new ArrayList<>(permissionsByTenant.get((Integer) args[0]));
+                    case "selectTreeVersion" -> -1L;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        RbacChangeBus bus = new RbacChangeBus();
+        bus.register(events::add);
+        return new PermissionTreeBuilder(permissionDAO, bus);
+    }
+
+    private static Permission permission(int id, String code, int parentId, int tenantId) {
+        Permission permission = new Permission(id, code, code, parentId);
+        permission.setTenantId(tenantId);
+        return permission;
+    }
+
+    // 测试方法：每个租户按需加载独立的权限树，只含本租户的权限
+    @Test
+    public void testTenantsLoadSeparately() {
+        PermissionTreeBuilder builder = builder();
+        PermissionIndex defaultIndex = builder.getPermissionIndex(Tenant.DEFAULT_ID);
+        PermissionIndex otherIndex = builder.getPermissionIndex(OTHER_TENANT);
+
+        assertTrue(defaultIndex.indexOf("system:user") >= 0);
+        assertEquals(-1, defaultIndex.indexOf("crm:customer"));
+        assertTrue(otherIndex.indexOf("crm:customer") >= 0);
+        assertEquals(-1, otherIndex.indexOf("system"));
+        assertEquals(Set.of(Tenant.DEFAULT_ID, OTHER_TENANT), builder.getLoadedTenantIds());
+        assertTrue(events.isEmpty(), "按需首次加载不发布变更事件");
+    }
+
+    // 测试方法：重建一个租户的权限树不影响其它租户，事件只针对该租户
+    @Test
+    public void testResetOnlyAffectsOneTenant() {
+        PermissionTreeBuilder builder = builder();
+        PermissionIndex defaultIndex = builder.getPermissionIndex(Tenant.DEFAULT_ID);
+        PermissionIndex otherIndex = builder.getPermissionIndex(OTHER_TENANT);
+
+        permissionsByTenant.get(OTHER_TENANT).add(permission(13, "crm:order", 11, OTHER_TENANT));
+        builder.resetTree(OTHER_TENANT);
+
+        assertSame(defaultIndex, builder.getPermissionIndex(Tenant.DEFAULT_ID), "其它租户的索引保持不变");
+        assertNotSame(otherIndex, builder.getPermissionIndex(OTHER_TENANT));
+        assertTrue(builder.getPermissionIndex(OTHER_TENANT).indexOf("crm:order") >= 0);
+        assertEquals(1, events.size());
+        assertEquals(RbacChangeType.PERMISSION_TREE_CHANGED, events.get(0).getChangeType());
+        assertEquals(Integer.valueOf(OTHER_TENANT), events.get(0).getTenantId());
+    }
+
+    // 测试方法：空闲租户被卸载并通知各级缓存，默认租户常驻；卸载后再次访问重新加载
+    @Test
+    public void testUnloadIdleTenants() throws InterruptedException {
+        PermissionTreeBuilder builder = builder();
+        builder.getPermissionIndex(Tenant.DEFAULT_ID);
+        builder.getPermissionIndex(OTHER_TENANT);
+        Thread.sleep(5);
+
+        assertEquals(1, builder.unloadIdleTenants(1));
+        assertEquals(Set.of(Tenant.DEFAULT_ID), builder.getLoadedTenantIds());
+        assertEquals(1, events.size());
+        assertEquals(RbacChangeType.TENANT_UNLOADED, events.get(0).getChangeType());
+        assertEquals(Integer.valueOf(OTHER_TENANT), events.get(0).getTenantId());
+
+        assertTrue(builder.getPermissionIndex(OTHER_TENANT).indexOf("crm:customer") >= 0);
+        assertEquals(0, builder.unloadIdleTenants(60_000), "刚访问过的租户不卸载");
+    }
+}
@@ -0,0 +1,54 @@
+package com.rbac.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ResponseCache的单元测试类：按占用内存的LRU淘汰、替换与清空、过大条目不缓存
+ */
+public class ResponseCacheTest {
+    // 测试方法：超出容量时淘汰最久未访问的条目（get会刷新访问顺序）
+    @Test
+    public void testLruEviction() {
+        // 每个条目：128字节开销 + 100字符×2 = 328字节；容量8000字节恰好容纳24个
+        String json = "x".repeat(100);
+        ResponseCache<String> cache = new ResponseCache<>(8000);
+        for (int i = 0; i < 24; i++) {
+            assertTrue(cache.put("k" + i, json));
+        }
+        assertEquals(24, cache.size());
+        // 访问k0后再放入新条目：淘汰的是k1而不是k0
+        assertEquals(json, cache.get("k0"));
+        assertTrue(cache.put("k24", json));
+        assertEquals(json, cache.get("k0"));
+        assertNull(cache.get("k1"));
+        assertTrue(cache.usedBytes() <= 8000);
+        assertEquals(2, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        // 单个条目超过容量的1/8：不缓存
+        assertFalse(new ResponseCache<String>(1000).put("a", json));
+    }
+
+    // 测试方法：替换同一个键时按新值重新计算占用；清空后占用归零
+    @Test
+    public void testReplaceAndClear() {
+        ResponseCache<Integer> cache = new ResponseCache<>(1 << 20);
+        cache.put(1, "[1,2,3]");
+        cache.put(1, "[]");
+        assertEquals(1, cache.size());
+        assertEquals(128 + 4, cache.usedBytes());
+        assertEquals("[]", cache.get(1));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.usedBytes());
+        assertNull(cache.get(1));
+        assertThrows(IllegalArgumentException.class, () -> new ResponseCache<Integer>(0));
+    }
+}
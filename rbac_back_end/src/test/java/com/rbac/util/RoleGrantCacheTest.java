@@ -0,0 +1,76 @@
+package com.rbac.util;
+
+import com.rbac.model.entity.Permission;
+import com.rbac.service.component.CompositePermission;
+import com.rbac.service.component.LeafPermission;
+import com.rbac.service.component.PermissionIndex;
+import com.rbac.service.event.RbacChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 角色结构缓存按租户分区的单元测试（无需数据库：角色权限来自内存）
+ */
+public class RoleGrantCacheTest {
+    private static final int TENANT_A = 1;
+    private static final int TENANT_B = 2;
+    private static final int ROLE_A = 10;
+    private static final int ROLE_B = 20;
+
+    // 角色ID → 直接分配的权限编码
+    private static final Map<Integer, Set<String>> ASSIGNED = Map.of(
+            ROLE_A, Set.of("system:user"),
+            ROLE_B, Set.of("crm:customer"));
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final RoleGrantCache.RoleCodesLoader loader = roleId -> {
+        loads.incrementAndGet();
+        return ASSIGNED.getOrDefault(roleId, Set.of());
+    };
+
+    private static PermissionIndex index(String rootCode, String childCode, long version) {
+        CompositePermission root = new CompositePermission(new Permission(1, rootCode, rootCode, 0));
+        root.addChild(new LeafPermission(new Permission(2, childCode, childCode, 1)));
+        return PermissionIndex.compile(root, version);
+    }
+
+    // 测试方法：一个租户的权限树变更只清空该租户的分区，其它租户的角色结构仍然命中
+    @Test
+    public void testTenantInvalidationIsPartitioned() {
+        RoleGrantCache cache = new RoleGrantCache(new RoleHierarchyCache());
+        PermissionIndex indexA = index("system", "system:user", 1L);
+        PermissionIndex indexB = index("crm", "crm:customer", 2L);
+        RoleGrantCache.RoleGrants grantsA = cache.getRoleGrants(TENANT_A, ROLE_A, indexA, loader);
+        RoleGrantCache.RoleGrants grantsB = cache.getRoleGrants(TENANT_B, ROLE_B, indexB, loader);
+        assertTrue(grantsA.getGrants().isGranted("system:user"));
+        assertTrue(grantsB.getGrants().isGranted("crm:customer"));
+        assertEquals(2, loads.get());
+
+        cache.onChange(RbacChangeEvent.permissionTreeChanged(TENANT_B));
+        assertSame(grantsA, cache.getRoleGrants(TENANT_A, ROLE_A, indexA, loader), "租户A不受影响");
+        assertTrue(cache.isCurrent(grantsA, indexA));
+        assertFalse(cache.isCurrent(grantsB, indexB), "租户B的角色结构已过期");
+        assertNotSame(grantsB, cache.getRoleGrants(TENANT_B, ROLE_B, indexB, loader));
+        assertEquals(3, loads.get(), "只重新加载租户B的角色");
+    }
+
+    // 测试方法：租户卸载只释放该租户的分区
+    @Test
+    public void testTenantUnloadReleasesOnlyThatPartition() {
+        RoleGrantCache cache = new RoleGrantCache(new RoleHierarchyCache());
+        PermissionIndex indexA = index("system", "system:user", 1L);
+        PermissionIndex indexB = index("crm", "crm:customer", 2L);
+        RoleGrantCache.RoleGrants grantsA = cache.getRoleGrants(TENANT_A, ROLE_A, indexA, loader);
+        cache.getRoleGrants(TENANT_B, ROLE_B, indexB, loader);
+        assertEquals(2, cache.size());
+
+        cache.onChange(RbacChangeEvent.tenantUnloaded(TENANT_B));
+        assertEquals(1, cache.size());
+        assertSame(grantsA, cache.getRoleGrants(TENANT_A, ROLE_A, indexA, loader));
+    }
+}
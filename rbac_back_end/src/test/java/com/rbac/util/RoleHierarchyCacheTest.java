@@ -0,0 +1,53 @@
+package com.rbac.util;
+
+import com.rbac.model.entity.RoleInheritance;
+import com.rbac.service.component.RoleHierarchy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 角色继承关系缓存的单元测试（无需数据库，用列表模拟事务结束回调）
+ */
+public class RoleHierarchyCacheTest {
+
+    // 测试方法：事务中设置的继承关系只对本线程可见，回滚后按数据库现状重新加载，不残留被撤销的继承
+    @Test
+    public void testRolledBackInheritanceIsDiscarded() throws Exception {
+        // 数据库中：2 → 1
+        RoleHierarchy committed = RoleHierarchy.of(List.of(new RoleInheritance(2, 1)));
+        RoleHierarchyCache cache = new RoleHierarchyCache(() -> committed);
+        cache.init();
+
+        // 批量事务中的system:role:inherit：让3继承2（未提交）
+        List<Runnable> afterCompletion = new ArrayList<>();
+        cache.update(cache.current().withParents(3, List.of(2)), afterCompletion::add);
+        assertEquals(Set.of(1, 2), cache.current().ancestorsOf(3), "本事务后续条目可见");
+        assertTrue(CompletableFuture.supplyAsync(() -> cache.current().ancestorsOf(3)).get().isEmpty(),
+                "其它线程看不到未提交的继承关系");
+
+        // 同一事务再次写入只登记一次重新加载
+        cache.update(cache.current().withParents(4, List.of(3)), afterCompletion::add);
+        assertEquals(1, afterCompletion.size());
+
+        // 回滚：事务结束后重新加载，数据库中没有新的继承关系
+        afterCompletion.forEach(Runnable::run);
+        assertTrue(cache.current().ancestorsOf(3).isEmpty());
+        assertTrue(cache.current().ancestorsOf(4).isEmpty());
+        assertEquals(Set.of(1), cache.current().ancestorsOf(2));
+    }
+
+    // 测试方法：不在事务中时直接替换快照，所有线程立即可见
+    @Test
+    public void testUpdateOutsideTransaction() throws Exception {
+        RoleHierarchyCache cache = new RoleHierarchyCache(() -> RoleHierarchy.EMPTY);
+        cache.init();
+        cache.update(cache.current().withParents(3, List.of(2)), callback -> false);
+        assertEquals(Set.of(2), CompletableFuture.supplyAsync(() -> cache.current().ancestorsOf(3)).get());
+    }
+}
@@ -0,0 +1,90 @@
+package com.rbac.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SingleFlight的单元测试类：并发相同请求只执行一次、异常传给所有等待者、执行结束后不缓存
+ */
+public class SingleFlightTest {
+    private static final int CALLERS = 8;
+
+    // 测试方法：执行期间到达的相同请求共享同一次执行的结果；不同的键各自执行
+    @Test
+    public void testConcurrentCallersShareExecution() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(pool.submit(() -> flight.execute("list", () -> {
+                    calls.incrementAndGet();
+                    release.await();
+                    return new Object();
+                })));
+            }
+            // 等其余请求都加入后再放行
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flight.getSharedCount() < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            Object first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<Object> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, flight.inFlightCount());
+
+            assertEquals("a", flight.execute("other", () -> "a"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // 测试方法：执行失败时所有等待者收到同一个异常；失败后再次调用会重新执行
+    @Test
+    public void testFailurePropagatesAndIsNotCached() throws Exception {
+        SingleFlight<Integer> flight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        RuntimeException failure = new RuntimeException("USER_NOT_EXIST|用户不存在");
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = pool.submit(() -> flight.execute(1, () -> {
+                release.await();
+                throw failure;
+            }));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (flight.inFlightCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            Future<Object> follower = pool.submit(() -> flight.execute(1, () -> "不应执行"));
+            while (flight.getSharedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<Object> result : List.of(leader, follower)) {
+                ExecutionException thrown = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+                assertSame(failure, thrown.getCause());
+            }
+            assertEquals("重新执行", flight.execute(1, () -> "重新执行"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.rbac.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TokenBucketRateLimiter的单元测试类：手动推进时钟，验证突发容量、匀速补充、键隔离、空闲清除和并发取用
+ */
+public class TokenBucketRateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // 测试方法：满桶允许容量次突发，之后按速率补充，被拒时返回需等待的时间
+    @Test
+    public void testBurstAndRefill() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter();
+        TokenBucketRateLimiter.Policy policy = new TokenBucketRateLimiter.Policy(3, 2);
+        long now = 10 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire("alice", policy, now));
+        }
+        assertEquals(SECOND / 2, limiter.tryAcquire("alice", policy, now));
+        // 其它键不受影响
+        assertEquals(0L, limiter.tryAcquire("bob", policy, now));
+
+        // 半秒补充一个令牌
+        assertEquals(0L, limiter.tryAcquire("alice", policy, now + SECOND / 2));
+        assertTrue(limiter.tryAcquire("alice", policy, now + SECOND / 2) > 0);
+        // 空闲足够久后恢复满桶，但不会超过容量
+        now += 100 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, limiter.tryAcquire("alice", policy, now));
+        }
+        assertTrue(limiter.tryAcquire("alice", policy, now) > 0);
+    }
+
+    // 测试方法：装满并空闲超过阈值的桶被清除，仍在使用的桶保留
+    @Test
+    public void testEvictIdle() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter();
+        TokenBucketRateLimiter.Policy policy = new TokenBucketRateLimiter.Policy(1, 1);
+        limiter.tryAcquire("idle", policy, 0);
+        limiter.tryAcquire("busy", policy, 60 * SECOND);
+        assertEquals(2, limiter.size());
+
+        assertEquals(1, limiter.evictIdle(61 * SECOND, 30 * SECOND));
+        assertEquals(1, limiter.size());
+        assertEquals(0L, limiter.tryAcquire("busy", policy, 61 * SECOND));
+        assertThrows(IllegalArgumentException.class, () -> TokenBucketRateLimiter.Policy.parse("5"));
+        assertEquals(5, TokenBucketRateLimiter.Policy.parse(" 5 / 0.2 ").getCapacity());
+    }
+
+    // 测试方法：多线程同时取同一个桶，放行次数恰好等于容量（无锁CAS不丢失、不超发）
+    @Test
+    public void testConcurrentAcquire() throws InterruptedException {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter();
+        // 速率极低：测试期间不会补充令牌
+        TokenBucketRateLimiter.Policy policy = new TokenBucketRateLimiter.Policy(1000, 0.001);
+        long now = System.nanoTime();
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (limiter.tryAcquire("shared", policy, now) == 0L) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+        assertEquals(1000, allowed.get());
+    }
+}
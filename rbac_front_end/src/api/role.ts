@@ -52,3 +52,22 @@ export const assignPermissionsToRole = async (
   return request.post('/role/permission/assign', reqData);
 };
 
+
+/**
+ * 设置角色拒绝权限（需要system:role:deny权限，拒绝优先于允许，空数组表示清空拒绝）
+ * @param token 登录令牌
+ * @param roleId 角色ID
+ * @param permIdList 拒绝的权限ID列表
+ */
+export const denyPermissionsToRole = async (
+  token: string,
+  roleId: number,
+  permIdList: number[]
+): Promise<ApiResponse<string>> => {
+  const reqData: ApiRequest = {
+    token,
+    permCode: 'system:role:deny',
+    bizParams: JSON.stringify({ roleId, permIdList })
+  };
+  return request.post('/role/permission/deny', reqData);
+};
@@ -90,6 +90,29 @@ export const updateUserRole = async (
   return request.post('/user/role/update', reqData);  // 对应后端修改角色接口
 };
 
+/**
+ * 授予限时角色（对应后端 system:user:role:temporary 权限），到期后自动失效
+ * @param token 登录令牌
+ * @param userId 用户ID（userid）
+ * @param roleId 角色ID（roleid）
+ * @param validUntil 失效时间（毫秒时间戳）
+ * @param validFrom 生效时间（毫秒时间戳，不传则立即生效）
+ */
+export const grantTemporaryRole = async (
+  token: string,
+  userId: number,
+  roleId: number,
+  validUntil: number,
+  validFrom?: number
+): Promise<ApiResponse<string>> => {
+  const reqData: ApiRequest = {
+    token,
+    permCode: 'system:user:role:temporary',
+    bizParams: JSON.stringify({ userid: userId, roleid: roleId, validFrom, validUntil })  // validFrom为undefined时不序列化
+  };
+  return request.post('/user/role/temporary', reqData);  // 对应后端限时角色接口
+};
+
 /**
  * 查询用户角色（对应后端 system:user:own:role 权限）
  * @param token 登录令牌
@@ -125,6 +148,25 @@ export const getUserPermissions = async (
   return request.post('/user/permission/get', reqData);  // 对应后端查询用户权限接口
 };
 
+/**
+ * 批量校验自身权限（对应后端 system:user:own:permission:check，仅需登录）
+ * 一次请求返回codes中当前用户拥有的编码（按父权限包含子权限判断），不传codes则返回全部有效权限
+ * @param token 登录令牌
+ * @param codes 待校验的权限编码（如页面上全部菜单/按钮编码）
+ */
+export const checkOwnPermissions = async (
+  token: string,
+  codes?: string[]
+): Promise<ApiResponse<string[]>> => {
+  const reqData: ApiRequest = {
+    token,
+    permCode: 'system:user:own:permission:check',
+    bizParams: JSON.stringify(codes && codes.length > 0 ? { codes } : {}),
+    user: getCurrentUser() || undefined
+  };
+  return request.post('/user/permission/check', reqData);  // 对应后端批量校验自身权限接口
+};
+
 /**
  * 修改自身密码（对应后端 system:user:own:password 权限）
  * @param token 登录令牌
@@ -24,9 +24,9 @@ export const useUserStore = defineStore('user', {
     async login(username: string, password: string) {
       try {
         const response = await login(username, password);
-        // 登录成功后，使用用户名作为token（后端当前不返回token）
+        // 登录成功后，后端返回签名令牌
         if (response.success) {
-          const token = username;
+          const token = response.data;
           this.token = token;
           this.isLoggedIn = true;
           // 模拟用户信息（后端当前不返回用户详情）
@@ -2,6 +2,7 @@ import axios, { type InternalAxiosRequestConfig, type AxiosResponse } from 'axio
 import { type AxiosRequestHeaders } from 'axios';
 import { getCurrentUser } from '@/utils/auth';
 import type { ApiRequest, User } from '@/types/api';
+import { useUserStore } from '@/stores/user';
 
 // 创建实例，基础路径对应后端接口前缀
 const request = axios.create({
@@ -40,10 +41,15 @@ request.interceptors.request.use(
       
       // 非登录请求添加user对象
       if (requestData.permCode !== 'system:user:own:login') {
-        // 直接从请求体的token字段获取username，因为login时token就是username
-        const username = requestData.token || '';
+        // 后端以签名令牌认证，user仅作展示/日志用途
+        const username = localStorage.getItem('username') || '';
         // 强制设置user对象，只包含username字段
         requestData.user = { username } as User;
+        // 后端从请求体的token认证：统一使用最新令牌（调用方可能持有续签前的旧令牌）
+        const latestToken = localStorage.getItem('token');
+        if (latestToken) {
+          requestData.token = latestToken;
+        }
         
         // 更新请求体
         if (isStringData) {
@@ -55,8 +61,7 @@ request.interceptors.request.use(
     } else {
       // 如果没有请求体，创建一个新的ApiRequest对象
       const token = localStorage.getItem('token') || '';
-      // 直接从token获取username
-      const username = token;
+      const username = localStorage.getItem('username') || '';
       
       config.data = {
         token: token,
@@ -75,6 +80,18 @@ request.interceptors.request.use(
 request.interceptors.response.use(
   (response: AxiosResponse) => {
     const res = response.data;
+    // 后端对版本过期的令牌会在ext.token中下发重新签发的令牌（同时更新store：页面和接口调用从store取令牌）
+    if (res && res.ext && typeof res.ext.token === 'string') {
+      localStorage.setItem('token', res.ext.token);
+      useUserStore().token = res.ext.token;
+    }
+    // 服务端过载时返回可重试的错误（ext.retryable），按建议间隔重试一次
+    const config = response.config as InternalAxiosRequestConfig & { _retried?: boolean };
+    if (res && !res.success && res.ext && res.ext.retryable && !config._retried) {
+      config._retried = true;
+      const delay = Number(res.ext.retryAfterMillis) || 200;
+      return new Promise((resolve) => setTimeout(resolve, delay)).then(() => request(config));
+    }
     // 后端返回success=false时，直接抛出错误（便于页面捕获）
     if (!res.success) {
       return Promise.reject(new Error(res.msg || '后端请求失败'));